@@ -8,10 +8,16 @@ package commands;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import model.Point;
 import model.Pose;
 import model.Robot;
+import util.Events;
+import util.Events.CommandEvent;
+import util.Metrics;
+import util.Metrics.Stage;
+import util.RunLengthList;
 import util.Util;
 import util.Util.ROBOT_KEY;
 
@@ -19,9 +25,14 @@ public abstract class Command implements Runnable {
 	//Attributes
 	private boolean isRunning; //whether the command is running or not
 	private boolean isTimedOut; //whether the command times out or not
-	private ArrayList<HashMap<ROBOT_KEY, Object>> data; //robot data
-	private ArrayList<Pose> poses; //list of robot poses
+	private RunLengthList<HashMap<ROBOT_KEY, Object>> data; //robot data
+	private RunLengthList<Pose> poses; //list of robot poses
+	private double timeout; //seconds the command can run for, 0 for the default
 	private int maxIterations; //maximum number of iterations command can have
+	private int iterations; //number of updates run since the command started
+	private boolean recording = true; //whether poses and data are saved each update
+	private TelemetrySink sink; //receives the poses and data instead of the lists, null to keep them in memory
+	private CommandEvent event; //flight recorder event for the current run, null if not recorded
 	
 	protected ArrayList<int[][]> curves; //list of curves
 	protected Robot robot; //robot being commanded
@@ -60,20 +71,72 @@ public abstract class Command implements Runnable {
 	 */
 	protected void test() {}
 	
+	/**
+	 * Get the number of upcoming updates that can be skipped in one go (meant to be overwritten)
+	 * @return Updates before anything the command checks changes, 0 if every update must be run
+	 */
+	protected int getSkippableUpdates() {
+		return 0;
+	} //end getSkippableUpdates
+	
+	/**
+	 * Skip updates all at once, leaving the command as if they had each been executed (meant to be overwritten)
+	 * @param updates Number of updates to skip, at most getSkippableUpdates()
+	 */
+	protected void skipUpdates(int updates) {}
+	
+	/**
+	 * Save the values the command changes as it runs (meant to be overwritten by commands with counters)
+	 * @return Values needed to continue the command, null if it has none
+	 */
+	protected double[] saveState() {
+		return null;
+	} //end saveState
+	
+	/**
+	 * Restore the values saved by saveState after the command has been initialized (meant to be overwritten)
+	 * @param state Values returned by saveState
+	 */
+	protected void restoreState(double[] state) {}
+	
+	/**
+	 * Receives the pose and data of the robot as they are recorded, so long runs need not hold them in memory
+	 */
+	public interface TelemetrySink {
+		/**
+		 * Record the pose and data of the robot
+		 * @param pose Pose of the robot
+		 * @param data Data of the robot
+		 * @param updates Number of updates the pose and data hold for
+		 */
+		void record(Pose pose, HashMap<ROBOT_KEY, Object> data, int updates);
+	} //end TelemetrySink
+	
+	/**
+	 * Progress of a started command, used to continue it from the same update in a copy of the routine
+	 */
+	public static class Progress {
+		private int iterations; //updates run
+		private RunLengthList<Pose> poses; //poses recorded so far (only added to afterwards)
+		private int numPoses; //number of poses at the time of saving
+		private RunLengthList<HashMap<ROBOT_KEY, Object>> data; //data recorded so far
+		private int numData; //number of data points at the time of saving
+		private double[] state; //values from saveState
+	} //end Progress
+	
 	/**
 	 * Initialize all behind-the-scenes values for the Command
 	 */
 	private void initCommand() {
-		data = new ArrayList<HashMap<ROBOT_KEY, Object>>(); //list of data points
-		poses = new ArrayList<Pose>(); //robot poses
+		data = new RunLengthList<HashMap<ROBOT_KEY, Object>>(); //list of data points
+		poses = new RunLengthList<Pose>(); //robot poses
 		curves = new ArrayList<int[][]>(); //bezier curves
 		passed = Util.INITIALIZED; //default not passed value
 		printCounter = 0;
 		
-		//set the max iterations if it has not been set
-		if (maxIterations == 0) { //zero is default int value
-			this.maxIterations = (int) (10 * (1.0 / Util.UPDATE_PERIOD)); //10 seconds
-		} //if
+		//count the timeout in updates of the robot, which may cover more than Util.UPDATE_PERIOD each
+		double seconds = timeout == 0 ? 10 : timeout; //10 seconds if it has not been set
+		this.maxIterations = (int) (seconds * (1.0 / robot.getPeriod()));
 		
 		//set the name
 		this.name = this.getClass().getSimpleName();
@@ -84,38 +147,158 @@ public abstract class Command implements Runnable {
 	 * Runs a command until finished
 	 */
 	public void run() {
+		start();
+		while (advance(Integer.MAX_VALUE) > 0);
+		finish();
+	} //end run
+	
+	/**
+	 * Start the command so it can be stepped one update at a time
+	 */
+	public void start() {
 		//initialize the command
 		this.initCommand();
 		isRunning = true;
 		isTimedOut = false;
 		this.initialize();
-		int iterations = 0;
+		iterations = 0;
+		event = Events.beginCommand();
+	} //end start
+	
+	/**
+	 * Run a single update of the command
+	 * @return True if the command executed an update, false if it is finished or timed out
+	 */
+	public boolean step() {
+		//nothing to do once the command is finished or timed out
+		if (this.isFinished() || this.isTimedOut) {
+			return false;
+		} //if
 		
-		//execute the command until it is finished or timed out
-		while (!this.isFinished() && !this.isTimedOut) {
-			this.execute(); //run the command
-			
-			//add the robot information to the respective collections
-			poses.add(robot.getPose());
-			data.add(robot.getData());
+		long alloc = Metrics.startAllocation();
+		long start = Metrics.start();
+		this.execute(); //run the command
+		Metrics.stop(Stage.COMMAND_EXECUTE, start);
+		
+		//add the robot information to the respective collections
+		if (recording) {
+			long t = Metrics.start();
+			if (sink != null) {
+				sink.record(robot.getPose(), robot.getData(), 1);
+			} else {
+				poses.add(robot.getPose());
+				data.add(robot.getData());
+			} //if
+			Metrics.stop(Stage.TELEMETRY, t);
+		} //if
 
-			//loop the number of iterations
-			iterations++;
-			
-			//the command is timed out if there are too many iterations
-			isTimedOut = iterations >= maxIterations;
-		} //loop
+		//loop the number of iterations
+		iterations++;
+		Metrics.recordTick(name, start, alloc);
+		
+		//the command is timed out if there are too many iterations
+		isTimedOut = iterations >= maxIterations;
+		return true;
+	} //end step
+	
+	/**
+	 * Run updates of the command, jumping straight to the next change when the command can skip
+	 * @param maxUpdates Most updates to run
+	 * @return Number of updates run, 0 if the command is finished or timed out
+	 */
+	public int advance(int maxUpdates) {
+		//nothing to do once the command is finished or timed out
+		if (maxUpdates <= 0 || this.isFinished() || this.isTimedOut) {
+			return 0;
+		} //if
+		
+		//skip no further than the timeout
+		int updates = Math.min(Math.min(getSkippableUpdates(), maxUpdates), maxIterations - iterations);
+		if (updates <= 1) {
+			return step() ? 1 : 0;
+		} //if
+		
+		this.skipUpdates(updates);
 		
+		//the skipped updates share one pose and data point
+		if (recording) {
+			long t = Metrics.start();
+			if (sink != null) {
+				sink.record(robot.getPose(), robot.getData(), updates);
+			} else {
+				poses.addRun(robot.getPose(), updates);
+				data.addRun(robot.getData(), updates);
+			} //if
+			Metrics.stop(Stage.TELEMETRY, t);
+		} //if
+		
+		iterations += updates;
+		Metrics.countSkippedTicks(updates);
+		isTimedOut = iterations >= maxIterations;
+		return updates;
+	} //end advance
+	
+	/**
+	 * Save the progress of a started command
+	 * @return Progress that can be given to resume
+	 */
+	public Progress saveProgress() {
+		Progress p = new Progress();
+		p.iterations = iterations;
+		p.poses = poses;
+		p.numPoses = poses.size();
+		p.data = data;
+		p.numData = data.size();
+		p.state = saveState();
+		
+		return p;
+	} //end saveProgress
+	
+	/**
+	 * Start the command and continue it from saved progress, sharing the poses and data recorded so far
+	 * The robot and loop are restored separately, after this has initialized the command
+	 * @param p Progress from the same kind of command
+	 */
+	public void resume(Progress p) {
+		start();
+		iterations = p.iterations;
+		poses = new RunLengthList<Pose>(p.poses, p.numPoses);
+		data = new RunLengthList<HashMap<ROBOT_KEY, Object>>(p.data, p.numData);
+		restoreState(p.state);
+	} //end resume
+	
+	/**
+	 * End a started command
+	 */
+	public void finish() {
 		//end the command
 		this.end();	
 		isRunning = false;
 		isTimedOut = false;
 		
+		//record the run for the flight recorder
+		if (event != null) {
+			event.end();
+			if (event.shouldCommit()) {
+				event.set(name, iterations);
+				event.commit();
+			} //if
+			event = null;
+		} //if
+		
 		//run the test function at the end
 		if (testing) {
 			this.test();
 		} //if
-	} //end run
+	} //end finish
+	
+	/**
+	 * Check if the command has nothing left to run
+	 * @return True if the command is finished or timed out
+	 */
+	public boolean isDone() {
+		return this.isFinished() || isTimedOut;
+	} //end isDone
 	
 	/**
 	 * Check if the command is running
@@ -129,7 +312,7 @@ public abstract class Command implements Runnable {
 	 * Get the list of poses 
 	 * @return list of poses from robot
 	 */
-	public ArrayList<Pose> getPoses() {
+	public List<Pose> getPoses() {
 		return poses;
 	} //end getPoses
 	
@@ -145,7 +328,7 @@ public abstract class Command implements Runnable {
 	 * Get the data points of the robot at each pose
 	 * @return list of HashMaps of data points
 	 */
-	public ArrayList<HashMap<ROBOT_KEY, Object>> getData() {
+	public List<HashMap<ROBOT_KEY, Object>> getData() {
 		return data;
 	} //end data
 	
@@ -162,9 +345,49 @@ public abstract class Command implements Runnable {
 	 * @param timeout Command timeout in seconds
 	 */
 	public void setTimeout(double timeout) {
-		maxIterations = (int) (timeout * (1.0 / Util.UPDATE_PERIOD));
+		this.timeout = timeout;
 	} //end setTimeout
 	
+	/**
+	 * Get the number of updates the command has run
+	 * @return Number of iterations since the command started
+	 */
+	public int getIterations() {
+		return iterations;
+	} //end getIterations
+	
+	/**
+	 * Get the robot being commanded
+	 * @return Robot the command updates
+	 */
+	public Robot getRobot() {
+		return robot;
+	} //end getRobot
+	
+	/**
+	 * Set whether the poses and data of the robot are saved every update
+	 * @param recording False to skip saving (for headless runs that only need the final state)
+	 */
+	public void setRecording(boolean recording) {
+		this.recording = recording;
+	} //end setRecording
+	
+	/**
+	 * Send the poses and data of the robot to a sink instead of keeping them in the command's lists
+	 * @param sink Sink to record to, null to keep them in memory
+	 */
+	public void setSink(TelemetrySink sink) {
+		this.sink = sink;
+	} //end setSink
+	
+	/**
+	 * Check if the poses and data of the robot are saved every update
+	 * @return True if the command is recording
+	 */
+	public boolean isRecording() {
+		return recording;
+	} //end isRecording
+	
 	/**
 	 * Enable the test function
 	 */
@@ -8,8 +8,11 @@ package commands;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import model.Pose;
+import util.Log;
+import util.RunLengthList;
 import util.Util.ROBOT_KEY;
 import util.Util;
 
@@ -17,9 +20,13 @@ public abstract class CommandGroup {
 	//Attributes
 	private ArrayList<Command> commands; //all commands to be run
 	private boolean isRunning = false; //whether the command is running
-	private ArrayList<Pose> poses; //poses of the robot
+	private RunLengthList<Pose> poses; //poses of the robot
 	private ArrayList<int[][]> curves; //curves the robot follows
-	private ArrayList<HashMap<ROBOT_KEY, Object>> data; //data points of the robot
+	private RunLengthList<HashMap<ROBOT_KEY, Object>> data; //data points of the robot
+	private int index; //index of the command being stepped
+	private boolean started; //whether the command at index has been started
+	private boolean recording = true; //whether the commands save robot data every update
+	private Command.TelemetrySink sink; //receives the robot data of every command instead of the lists, null to keep it
 	
 	protected boolean testing; //whether the CommandGroup is for testing
 	private int passed; //number of tests passed
@@ -36,9 +43,9 @@ public abstract class CommandGroup {
 	 */
 	private void initialize() {
 		commands = new ArrayList<Command>();
-		poses = new ArrayList<Pose>();
+		poses = new RunLengthList<Pose>();
 		curves = new ArrayList<int[][]>();
-		data = new ArrayList<HashMap<ROBOT_KEY, Object>>();
+		data = new RunLengthList<HashMap<ROBOT_KEY, Object>>();
 		
 		testing = this.getClass().getSimpleName().contains("Test"); //if test is in group name
 		passed = 0;
@@ -56,47 +63,205 @@ public abstract class CommandGroup {
 	 * Runs the entire command group
 	 */
 	public void run() {
-		poses.clear();
+		start();
+		while (advance(Integer.MAX_VALUE) > 0);
+	} //end run
+	
+	/**
+	 * Start the command group so it can be stepped one update at a time
+	 */
+	public void start() {
+		//new lists as copies of the routine may still be reading the old ones
+		poses = new RunLengthList<Pose>();
+		data = new RunLengthList<HashMap<ROBOT_KEY, Object>>();
+		isRunning = true;
+		index = 0;
+		started = false;
+	} //end start
+	
+	/**
+	 * Progress through a routine, used to continue it from the same update in a copy of the routine
+	 */
+	public static class Progress {
+		private int index; //index of the command being stepped
+		private boolean started; //whether that command had been started
+		private int passed; //number of tests passed
+		private RunLengthList<Pose> poses; //poses of the finished commands (only added to afterwards)
+		private int numPoses; //number of those poses at the time of saving
+		private RunLengthList<HashMap<ROBOT_KEY, Object>> data; //data of the finished commands
+		private int numData; //number of those data points at the time of saving
+		private Command.Progress command; //progress of the command being stepped
+		
+		/**
+		 * Get the index of the command being run when the progress was saved
+		 * @return Index of the command in the routine
+		 */
+		public int getIndex() {
+			return index;
+		} //end getIndex
+	} //end Progress
+	
+	/**
+	 * Save the progress through a started routine
+	 * @return Progress that can be given to resume on a copy of this routine
+	 */
+	public Progress saveProgress() {
+		Progress p = new Progress();
+		p.index = index;
+		p.started = started;
+		p.passed = passed;
+		p.poses = poses;
+		p.numPoses = poses.size();
+		p.data = data;
+		p.numData = data.size();
+		p.command = started ? commands.get(index).saveProgress() : null;
+		
+		return p;
+	} //end saveProgress
+	
+	/**
+	 * Start the routine and continue it from saved progress, sharing the poses and data recorded so far
+	 * The commands before the saved index are not run, so the robot and loop must be restored separately
+	 * @param p Progress from a routine with the same commands up to the saved index
+	 */
+	public void resume(Progress p) {
 		isRunning = true;
+		index = p.index;
+		started = p.started;
+		passed = p.passed;
+		poses = new RunLengthList<Pose>(p.poses, p.numPoses);
+		data = new RunLengthList<HashMap<ROBOT_KEY, Object>>(p.data, p.numData);
 		
-		//run each command and add its poses to the total list
-		for (int i = 0; i < commands.size(); i++) {			
-			commands.get(i).run(); //run the command
+		//continue the command that was part way through
+		if (started) {
+			Command c = commands.get(index);
+			c.setRecording(recording);
+			c.setSink(sink);
+			c.resume(p.command);
+		} //if
+	} //end resume
+	
+	/**
+	 * Run a single update of the current command, moving on to the next command when it ends
+	 * @return True if an update was run, false once every command has ended
+	 */
+	public boolean step() {
+		return advance(1) > 0;
+	} //end step
+	
+	/**
+	 * Run updates of the current command, letting it skip ahead over updates where nothing changes
+	 * @param maxUpdates Most updates to run
+	 * @return Number of updates run, 0 once every command has ended
+	 */
+	public int advance(int maxUpdates) {
+		//commands that end without updating are skipped within the same call
+		while (index < commands.size()) {
+			Command c = commands.get(index);
 			
-			//add curves if list exists and is not empty
-			if (curves != null && !curves.isEmpty())
-				curves.addAll(commands.get(i).getCurves());
+			//start the command the first time it is stepped
+			if (!started) {
+				c.setRecording(recording);
+				c.setSink(sink);
+				c.start();
+				started = true;
+			} //if
+			
+			int updates = c.advance(maxUpdates);
+			if (updates > 0)
+				return updates;
 			
-			//sum the tests passed and failed
+			//the command is done, collect its results and move to the next one
+			c.finish();
+			collectResults(index);
+			index++;
+			started = false;
+		} //loop
+		
+		//output test information once all the commands have run
+		if (isRunning) {
 			if (testing) {
-				if (commands.get(i).testing) {
-					//increment the pass counter
-					passed += commands.get(i).getPassed();
+				outputTestInformation();
+			} //if
+			
+			isRunning = false;
+		} //if
+		
+		return 0;
+	} //end advance
+	
+	/**
+	 * Add the poses, curves and data of a finished command to the group's lists
+	 * @param i Index of the finished command
+	 */
+	private void collectResults(int i) {
+		//add curves if list exists and is not empty
+		if (curves != null && !curves.isEmpty())
+			curves.addAll(commands.get(i).getCurves());
+		
+		//sum the tests passed and failed
+		if (testing) {
+			if (commands.get(i).testing) {
+				//increment the pass counter
+				passed += commands.get(i).getPassed();
+				
+				//add the data if the command failed
+				if (commands.get(i).getPassed() == Util.FAILED) {
+					poses.addAll(commands.get(i).getPoses());
+					data.addAll(commands.get(i).getData());
 					
-					//add the data if the command failed
-					if (commands.get(i).getPassed() == Util.FAILED) {
-						poses.addAll(commands.get(i).getPoses());
-						data.addAll(commands.get(i).getData());
-						
-						//output the command that ran
-						Util.println("Simulated command " + (i+1) + ": " + commands.get(i).getName());
-					}
+					//output the command that ran
+					Log.info(() -> "Simulated command " + (i+1) + ": " + commands.get(i).getName());
 				}
-				
-			} else { //not testing
-				poses.addAll(commands.get(i).getPoses());
-				data.addAll(commands.get(i).getData());
-				Util.println("Simulated command " + i + ": " + commands.get(i).getName());
 			}
+			
+		} else if (recording) { //not testing, headless runs have nothing to collect
+			poses.addAll(commands.get(i).getPoses());
+			data.addAll(commands.get(i).getData());
+			Log.info(() -> "Simulated command " + i + ": " + commands.get(i).getName());
 		}
-		
-		//output test information
-		if (testing) {
-			outputTestInformation();
-		} //if
-		
-		isRunning = false;
-	} //end start
+	} //end collectResults
+	
+	/**
+	 * Set whether the commands save the poses and data of the robot every update
+	 * @param recording False to skip saving (for headless runs that only need the final state)
+	 */
+	public void setRecording(boolean recording) {
+		this.recording = recording;
+	} //end setRecording
+	
+	/**
+	 * Send the poses and data of every command to a sink instead of collecting them in the group's lists
+	 * Memory then stays the same however long the routine runs
+	 * @param sink Sink to record to, null to keep them in memory
+	 */
+	public void setSink(Command.TelemetrySink sink) {
+		this.sink = sink;
+	} //end setSink
+	
+	/**
+	 * Get the command currently being run
+	 * @return Command being stepped, null if the group has finished
+	 */
+	public Command getCurrentCommand() {
+		return index < commands.size() ? commands.get(index) : null;
+	} //end getCurrentCommand
+	
+	/**
+	 * Get the index of the command currently being run
+	 * @return Index of the command in the routine, the number of commands once the routine has finished
+	 */
+	public int getCommandIndex() {
+		return index;
+	} //end getCommandIndex
+	
+	/**
+	 * Check if the command currently being run has run its last update
+	 * @return True if the command has started and is finished or timed out
+	 */
+	public boolean isCommandDone() {
+		return started && index < commands.size() && commands.get(index).isDone();
+	} //end isCommandDone
 	
 	/**
 	 * Return whether the command is running or not
@@ -110,7 +275,7 @@ public abstract class CommandGroup {
 	 * Get the poses from the command group 
 	 * @return poses All poses from each command
 	 */
-	public ArrayList<Pose> getPoses() {
+	public List<Pose> getPoses() {
 		return poses;
 	} //end getPoses
 	
@@ -134,7 +299,7 @@ public abstract class CommandGroup {
 	 * Get the data points from the robot
 	 * @return list of data points from the robot
 	 */
-	public ArrayList<HashMap<ROBOT_KEY, Object>> getData() {
+	public List<HashMap<ROBOT_KEY, Object>> getData() {
 		return data;
 	} //end getData
 	
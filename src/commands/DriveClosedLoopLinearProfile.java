@@ -57,7 +57,7 @@ public class DriveClosedLoopLinearProfile extends Command {
 	 * Send the trajectory points to the loop and update it
 	 */
 	protected void execute() {
-		double time = index * Util.UPDATE_PERIOD; //would be getting actual time on real robot
+		double time = index * robot.getPeriod(); //would be getting actual time on real robot
 		
 		loop.updateClosedLoopLinearProfileState(traj.getLeftTrajPoint(time), traj.getRightTrajPoint(time));
 		loop.onLoop();
@@ -72,7 +72,7 @@ public class DriveClosedLoopLinearProfile extends Command {
 		//better is finished
 		return (loop.isDrivePIDAtTarget() ||
 				loop.isRobotSlowerThanPercent(0.1)) &&
-				(index * Util.UPDATE_PERIOD) > traj.getTotalTime();
+				(index * robot.getPeriod()) > traj.getTotalTime();
 	} //end isFinished
 	
 	protected void end() {
@@ -80,5 +80,20 @@ public class DriveClosedLoopLinearProfile extends Command {
 	}
 	
 	protected void timedOut() {}
-
+	
+	/**
+	 * Save the index in the trajectory
+	 * @return Index of the next trajectory point
+	 */
+	protected double[] saveState() {
+		return new double[] {index};
+	} //end saveState
+	
+	/**
+	 * Restore the index in the trajectory
+	 * @param state Index of the next trajectory point
+	 */
+	protected void restoreState(double[] state) {
+		index = (int) state[0];
+	} //end restoreState
 } //end class
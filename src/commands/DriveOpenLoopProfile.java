@@ -53,7 +53,7 @@ public class DriveOpenLoopProfile extends Command {
 	 * Send the trajectory points to the loop and update it
 	 */
 	protected void execute() {
-		double time = index * Util.UPDATE_PERIOD; //would be getting actual time on real robot
+		double time = index * robot.getPeriod(); //would be getting actual time on real robot
 		loop.updateOpenLoopProfileState(traj.getLeftTrajPoint(time), traj.getRightTrajPoint(time));
 		loop.onLoop();
 		index += 1;
@@ -63,7 +63,7 @@ public class DriveOpenLoopProfile extends Command {
 	 * End the command when the trajectory time has passed
 	 */
 	protected boolean isFinished() {
-		return (index * Util.UPDATE_PERIOD) > traj.getTotalTime();
+		return (index * robot.getPeriod()) > traj.getTotalTime();
 	} //end isFinished
 	
 	protected void end() {
@@ -71,4 +71,20 @@ public class DriveOpenLoopProfile extends Command {
 	}
 	
 	protected void timedOut() {}
+	
+	/**
+	 * Save the index in the trajectory
+	 * @return Index of the next trajectory point
+	 */
+	protected double[] saveState() {
+		return new double[] {index};
+	} //end saveState
+	
+	/**
+	 * Restore the index in the trajectory
+	 * @param state Index of the next trajectory point
+	 */
+	protected void restoreState(double[] state) {
+		index = (int) state[0];
+	} //end restoreState
 } //end class
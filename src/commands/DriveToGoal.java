@@ -9,6 +9,7 @@ package commands;
 import model.DriveLoop;
 import model.FieldPositioning;
 import model.Point;
+import util.Log;
 import util.Util;
 
 public class DriveToGoal extends Command {
@@ -109,11 +110,29 @@ public class DriveToGoal extends Command {
 	 * Run when the command is timed out
 	 */
 	protected void timedOut() {
-		Util.println(String.format("Timed out | errorX: %f, errorY: %f, errorH: %f", 
+		Log.warn(() -> String.format("Timed out | errorX: %f, errorY: %f, errorH: %f", 
 					goalPoint.getX() - loop.getRobot().getX(), goalPoint.getY() - loop.getRobot().getY(),
 					goalAngle - loop.getRobot().getHeading()));
 	} //end timedOut
 	
+	/**
+	 * Save the setpoints calculated in the last update
+	 * @return Setpoint, goal angle and speed scale
+	 */
+	protected double[] saveState() {
+		return new double[] {setpoint, goalAngle, scale};
+	} //end saveState
+	
+	/**
+	 * Restore the setpoints calculated in the last update
+	 * @param state Setpoint, goal angle and speed scale
+	 */
+	protected void restoreState(double[] state) {
+		setpoint = state[0];
+		goalAngle = state[1];
+		scale = state[2];
+	} //end restoreState
+	
 	/**
 	 * Test function for Command
 	 */
@@ -7,12 +7,14 @@
 
 package commands;
 
+import java.awt.GraphicsEnvironment;
+
 import graphics.Environment;
 import model.DriveLoop;
 import model.Point;
 import model.DriveLoop.STATE;
 import model.motion.PurePursuitController;
-import util.Util;
+import util.Log;
 
 public class PurePursuit extends Command {
 	//Attributes
@@ -43,8 +45,9 @@ public class PurePursuit extends Command {
 		ppc.setWaypoints(goals);
 		ppc.reset();
 		
-		//graphics
-		Environment.getInstance().setWaypoints(goals);
+		//graphics, only for runs that are shown (headless batches run on pool threads, away from Swing)
+		if (isRecording() && !GraphicsEnvironment.isHeadless())
+			Environment.getInstance().setWaypoints(goals);
 		this.robot.setLookahead(ppc.getLookahead());
 		this.robot.setGoalPoint(ppc.getGoal());
 	} //end initialize
@@ -69,9 +72,25 @@ public class PurePursuit extends Command {
 	} //end isFinished
 
 	protected void end() {
-		Util.println("Finished after %d loops".formatted(numLoops));
+		Log.info(() -> "Finished after %d loops".formatted(numLoops));
 		
 	}
 
 	protected void timedOut() {}
+	
+	/**
+	 * Save the loop counter
+	 * @return Number of loops run
+	 */
+	protected double[] saveState() {
+		return new double[] {numLoops};
+	} //end saveState
+	
+	/**
+	 * Restore the loop counter
+	 * @param state Number of loops run
+	 */
+	protected void restoreState(double[] state) {
+		numLoops = (int) state[0];
+	} //end restoreState
 } //end class
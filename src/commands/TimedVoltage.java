@@ -21,9 +21,11 @@ public class TimedVoltage extends Command {
 	private double leftVoltage; //voltage applied to left gearbox
 	private double rightVoltage; //voltage applied to right gearbox
 	private double time; //seconds to apply voltages for
+	private double rampRate; //volts per second added to both sides
 	
 	//Utility
 	private double counter; //tracking time for isFinished
+	private double voltage; //average voltage applied in the last update
 	
 	/**
 	 * Set a voltage to the left and right sides of the robot
@@ -33,10 +35,23 @@ public class TimedVoltage extends Command {
 	 * @param time - seconds to apply voltage
 	 */
 	public TimedVoltage(DriveLoop loop, double leftVoltage, double rightVoltage, double time) {
+		this(loop, leftVoltage, rightVoltage, 0, time);
+	} //end constructor
+	
+	/**
+	 * Set a voltage to the left and right sides of the robot that ramps up over time
+	 * @param loop - drivetrain loop to update
+	 * @param leftVoltage - starting voltage to apply to left gearbox
+	 * @param rightVoltage - starting voltage to apply to right gearbox
+	 * @param rampRate - volts per second to add to both sides (negative ramps down)
+	 * @param time - seconds to apply voltage
+	 */
+	public TimedVoltage(DriveLoop loop, double leftVoltage, double rightVoltage, double rampRate, double time) {
 		//set attributes
 		this.loop = loop;
 		this.leftVoltage = leftVoltage;
 		this.rightVoltage = rightVoltage;
+		this.rampRate = rampRate;
 		this.time = time;
 		counter = 0.0;
 		
@@ -60,9 +75,20 @@ public class TimedVoltage extends Command {
 	 * Execute the command by applying voltage to the robot andd increasing the counter
 	 */
 	protected void execute() {
-		loop.getRobot().update(leftVoltage, rightVoltage);
-		counter += Util.UPDATE_PERIOD;
+		double ramp = rampRate * counter;
+		loop.getRobot().update(leftVoltage + ramp, rightVoltage + ramp);
+		voltage = (Util.clampNum(leftVoltage + ramp, -Util.MAX_VOLTAGE, Util.MAX_VOLTAGE) + 
+					Util.clampNum(rightVoltage + ramp, -Util.MAX_VOLTAGE, Util.MAX_VOLTAGE)) / 2;
+		counter += loop.getRobot().getPeriod();
 	} //end execute
+	
+	/**
+	 * Get the average voltage applied in the last update
+	 * @return - average of the left and right voltages in volts (after clamping)
+	 */
+	public double getVoltage() {
+		return voltage;
+	} //end getVoltage
 
 	/**
 	 * Return whether or not the time has passed
@@ -75,6 +101,54 @@ public class TimedVoltage extends Command {
 		return false;
 	} //end isFinished
 
+	/**
+	 * Get the number of updates left once the robot has reached a steady speed at a constant voltage
+	 * Only used when not recording, as every skipped update would be drawn at the same pose
+	 * @return - updates until the time has passed, 0 if the robot is still speeding up or the voltage ramps
+	 */
+	protected int getSkippableUpdates() {
+		//the robot must have been updated at this command's voltage first
+		if (isRecording() || rampRate != 0 || counter == 0 || !loop.getRobot().isSteady())
+			return 0;
+		
+		//count the same way the counter does so the command ends on the same update
+		int n = 0;
+		for (double c = counter; c < time; c += loop.getRobot().getPeriod()) {
+			n++;
+		} //loop
+		
+		return n;
+	} //end getSkippableUpdates
+	
+	/**
+	 * Move the robot along its steady path and advance the counter
+	 * @param n - number of updates to skip
+	 */
+	protected void skipUpdates(int n) {
+		loop.getRobot().advance(n);
+		
+		for (int i = 0; i < n; i++) {
+			counter += loop.getRobot().getPeriod();
+		} //loop
+	} //end skipUpdates
+	
+	/**
+	 * Save the counter and the last voltage
+	 * @return - counter and voltage
+	 */
+	protected double[] saveState() {
+		return new double[] {counter, voltage};
+	} //end saveState
+	
+	/**
+	 * Restore the counter and the last voltage
+	 * @param state - counter and voltage
+	 */
+	protected void restoreState(double[] state) {
+		counter = state[0];
+		voltage = state[1];
+	} //end restoreState
+
 	/**
 	 * Print useful information
 	 */
@@ -8,7 +8,7 @@ package commands;
 
 import model.DriveLoop;
 import model.DriveLoop.STATE;
-import util.Util;
+import util.Log;
 
 public class Wait extends Command {
 	//Attributes
@@ -38,7 +38,7 @@ public class Wait extends Command {
 	 * Initialize the command by setting the state and the number of updates
 	 */
 	protected void initialize() {
-		updates = (int) (waitTime / Util.UPDATE_PERIOD);
+		updates = (int) (waitTime / robot.getPeriod()); //updates of the robot, which may be longer than normal
 		loop.setState(STATE.WAITING);
 		robot.setToWait();
 	} //end initialize
@@ -57,6 +57,38 @@ public class Wait extends Command {
 	protected boolean isFinished() {
 		return counter > updates;
 	} //end isFinished
+	
+	/**
+	 * Get the number of updates left, as the robot does not move while waiting
+	 * @return - updates until the wait is over
+	 */
+	protected int getSkippableUpdates() {
+		return updates + 1 - counter;
+	} //end getSkippableUpdates
+	
+	/**
+	 * Skip updates of the wait by moving the counter forward
+	 * @param n - number of updates to skip
+	 */
+	protected void skipUpdates(int n) {
+		counter += n;
+	} //end skipUpdates
+	
+	/**
+	 * Save the counter
+	 * @return - counter value
+	 */
+	protected double[] saveState() {
+		return new double[] {counter};
+	} //end saveState
+	
+	/**
+	 * Restore the counter
+	 * @param state - counter value
+	 */
+	protected void restoreState(double[] state) {
+		counter = (int) state[0];
+	} //end restoreState
 
 	/**
 	 * Run at the end of the command
@@ -67,6 +99,6 @@ public class Wait extends Command {
 	 * Run if the command times out
 	 */
 	protected void timedOut() {
-		Util.println("timed out");
+		Log.warn("timed out");
 	} 
 } //end class
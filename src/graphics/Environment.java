@@ -9,6 +9,7 @@ package graphics;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
@@ -17,6 +18,7 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
@@ -42,11 +44,12 @@ public class Environment extends JComponent {
 	
 	//Elements
 	private Image field; //field image
+	private Font labelFont; //font for the labels, loaded once instead of every frame
 	private UIBar bar; //user interface bar to update
 	
 	//Updated
-	private ArrayList<Pose> poses; //list of robot poses to draw
-	private ArrayList<HashMap<ROBOT_KEY, Object>> data; //data from the robot
+	private List<Pose> poses; //list of robot poses to draw
+	private List<HashMap<ROBOT_KEY, Object>> data; //data from the robot
 	private static int poseIndex; //index in pose list of pose to draw
 	private boolean debug; //whether to display the field or not
 	private boolean simulating; //true when the animation is running
@@ -57,6 +60,8 @@ public class Environment extends JComponent {
 	private Circle[] controlPoints; //control points for path
 	private Point[] waypoints; //waypoints the robot is following
 	private boolean drawCurves; //whether the widget wants to draw the curve or not
+	private TrajectoryPreviewer previewer; //builds the trajectory of the curve being edited in the background
+	private TrajectoryPreviewer.Preview preview; //latest trajectory of the curve being edited
 	
 	/**
 	 * The environment the robot is simulated in
@@ -103,6 +108,9 @@ public class Environment extends JComponent {
 			JOptionPane.showMessageDialog(null, e.getMessage());
 		} 
 		
+		//load the label font
+		labelFont = Painter.createFont(Painter.SF_UI_FONT, AutoSim.PPI * 8);
+		
 		//set focus traversable
 		this.setFocusable(true);
 	} 
@@ -131,7 +139,7 @@ public class Environment extends JComponent {
 	 * Add poses to be later drawn
 	 * @param poses List of poses to be drawn
 	 */
-	public void setPoses(ArrayList<Pose> poses) {
+	public void setPoses(List<Pose> poses) {
 		this.poses = poses;
 	} 
 	
@@ -143,6 +151,15 @@ public class Environment extends JComponent {
 		return poses != null ? poses.size() : null;
 	} 
 	
+	/**
+	 * Get the pose at an index
+	 * @param index list index to get pose at
+	 * @return pose at index
+	 */
+	public Pose getPose(int index) {
+		return poses.get(index);
+	} 
+	
 	/**
 	 * Increment the pose index by one and repaint the component
 	 */
@@ -204,6 +221,20 @@ public class Environment extends JComponent {
 		curves.add(path.getRightPolyline());
 		this.controlPoints = path.getCircles();
 		update();
+		
+		//the trajectory takes too long to build on every drag, so it is shown once it is ready
+		if (previewer == null)
+			previewer = new TrajectoryPreviewer(this::setPreview);
+		previewer.request(path.getCircles());
+	} 
+	
+	/**
+	 * Set the trajectory of the curve being edited to be drawn
+	 * @param preview Latest trajectory, colored by velocity
+	 */
+	public void setPreview(TrajectoryPreviewer.Preview preview) {
+		this.preview = preview;
+		update();
 	} 
 	
 	/**
@@ -229,7 +260,7 @@ public class Environment extends JComponent {
 	 * Set the data for the simulation
 	 * @param data list of robot data points at each timestamp
 	 */
-	public void setData(ArrayList<HashMap<ROBOT_KEY, Object>> data) {
+	public void setData(List<HashMap<ROBOT_KEY, Object>> data) {
 		this.data = data;
 	} 
 	
@@ -242,6 +273,14 @@ public class Environment extends JComponent {
 		return data.get(index);
 	} 
 	
+	/**
+	 * Get the number of data points in the environment
+	 * @return Number of data points, 0 if there is no data
+	 */
+	public int getNumDataPoints() {
+		return data != null ? data.size() : 0;
+	} 
+	
 	//Graphics
 	
 	/**
@@ -359,7 +398,7 @@ public class Environment extends JComponent {
 		} //if
 		
 		//draw the x and y indicators
-		g2.setFont(Painter.createFont(Painter.SF_UI_FONT, AutoSim.PPI * 8));
+		g2.setFont(labelFont);
 		g2.drawString("y", (int) (width * 0.975),(int) (height * 0.03));
 		g2.drawString("x", (int) (width * 0.015),(int) (height * 0.985));
 	}
@@ -382,6 +421,9 @@ public class Environment extends JComponent {
 			
 			g2.setColor(Color.BLUE);
 			g2.drawPolyline(curves.get(2)[0], curves.get(2)[1], curves.get(1)[0].length);
+			
+			//drivable trajectory, colored by velocity
+			drawPreview(g2);
 						
 			//draw the control points
 			if (curves.size() == 3) {					
@@ -399,6 +441,26 @@ public class Environment extends JComponent {
 		}
 	}
 
+	/**
+	 * Draw the latest trajectory of the curve being edited and the time to drive it
+	 * @param g2 Object for drawing
+	 */
+	private void drawPreview(Graphics2D g2) {
+		if (preview == null)
+			return;
+		
+		int[][] poly = preview.getPolyline();
+		Color[] colors = preview.getColors();
+		for (int i = 1; i < colors.length; i++) {
+			g2.setColor(colors[i]);
+			g2.drawLine(poly[0][i-1], poly[1][i-1], poly[0][i], poly[1][i]);
+		} //loop
+		
+		g2.setColor(Color.WHITE);
+		g2.setFont(labelFont);
+		g2.drawString(String.format("%.2fs", preview.getTotalTime()), (int) (width * 0.93), (int) (height * 0.985));
+	} 
+	
 	/**
 	 * Draw the current pose in the simulation
 	 * @param g2 Object for drawing
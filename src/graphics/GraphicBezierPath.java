@@ -21,12 +21,10 @@ import util.FieldPoints;
 public class GraphicBezierPath extends BezierPath {
 	//Attributes
 	private Circle[] circles; //control points
-	private int[][] poly;
-	private int[][] leftPoly;
-	private int[][] rightPoly;
-	private double[] headings;
-	private int numSegments;
-	private double trackWidth;
+	private PolylineBuilder polylines; //center and side polylines, rebuilt in place when the control points move
+	private int numSegments; //number of points on each polyline
+	private double trackWidth; //half the width of the robot in pixels
+	private int circleEdits; //times the circles were replaced or moved
 	
 	/**
 	 * Create a bezier path with circles
@@ -120,9 +118,18 @@ public class GraphicBezierPath extends BezierPath {
 	public void setCircles(Circle[] circles) {
 		this.circles = circles;
 		this.setControlPoints(circles);
+		circleEdits++;
 		updatePolylines();
 	} //end setCircles
 	
+	/**
+	 * Get the number of times the circles were replaced or moved
+	 * @return Count that changes whenever a circle may be somewhere new
+	 */
+	public int getCircleEdits() {
+		return circleEdits;
+	} //end getCircleEdits
+	
 	/**
 	 * Set a circle in the array to be hovered over
 	 * @param i Index of the circle
@@ -179,6 +186,7 @@ public class GraphicBezierPath extends BezierPath {
 	public void moveCircle(int i, double dx, double dy) {
 		circles[i].setX(circles[i].getX() + dx);
 		circles[i].setY(circles[i].getY() + dy);
+		circleEdits++;
 	} //end moveCircle
 
 	/**
@@ -220,107 +228,21 @@ public class GraphicBezierPath extends BezierPath {
 	
 	//Polyline
 	
-	private void updatePolylines() {
-		updateCenterPolyline();		
-		updateHeadings();
-		updateSidePolylines();
-	}
-	
-	private void updateCenterPolyline() {
-		int[] x = new int[numSegments];
-		int[] y = new int[numSegments];
-		
-		double t = 0;
-		
-		for (int i = 0; i < numSegments; i++) {
-			Point p = this.calcPoint(t);
-			
-			//flip x and y because of field config
-			x[i] = (int) (p.getY() * (double) AutoSim.PPI); 
-			y[i] = (int) (p.getX() * (double) AutoSim.PPI);				
-			
-			t += 1.0 / numSegments;
-		} //loop
-		
-		poly = new int[][]{x, y};
-	} //end updateCenterPolyline
-	
-	/**
-	 * Update the heading values for path offsetting
-	 */
-	private void updateHeadings() {
-		headings = new double[numSegments];
-		
-		for (int i = 0; i < numSegments; i++) {
-			headings[i] = calcHeading(i);
-		} //loop
-	} //end updateHeadings
-	
 	/**
-	 * Calculate a heading at i knowing all the (x,y) values at regular t intervals
-	 * @param i Index in array
-	 * @return Heading at i in degrees
+	 * Rebuild the center and side polylines if the control points moved
 	 */
-	private double calcHeading(int i) {
-		int[] x = poly[1];
-		int[] y = poly[0];
-		
-		if (i == 0) {
-			Point p1 = new Point(x[1], y[1]);
-			Point p2 = new Point(x[0], y[0]);
-			return FieldPositioning.goalYaw(p1, p2);
-		} //if
-		
-		Point p1 = new Point(x[i-1], y[i-1]);
-		Point p2 = new Point(x[i], y[i]);
-		return FieldPositioning.goalYaw(p1, p2);
-	} //end calcHeading
-	
-	/**
-	 * Calculate the polylines for the left and right sides of the drive
-	 */
-	private void updateSidePolylines() {
-		int[] x = poly[0];
-		int[] y = poly[1];
-		
-		int[] xL = new int[numSegments];
-		int[] yL = new int[numSegments];
-		int[] xR = new int[numSegments];
-		int[] yR = new int[numSegments];
-		
-		double r = this.trackWidth;
-		
-		for (int i = 0; i < numSegments; i++) {
-			//calc left and right sides
-			double thetaL, thetaR; //angle offsets for left and right
-			thetaL = Math.toRadians(headings[i] + 90);
-			thetaR = Math.toRadians(headings[i] - 90);
-			
-			if (i == 0) { //swap values for first point
-				double buffer = thetaL;
-				thetaL = thetaR;
-				thetaR = buffer;
-			} //if
-			
-			//left side
-			xL[i] = (int) (x[i] + r * Math.cos(thetaL)); 
-			yL[i] = (int) (y[i] + r * Math.sin(thetaL)); 
-
-			//right side
-			xR[i] = (int) (x[i] + r * Math.cos(thetaR)); 
-			yR[i] = (int) (y[i] + r * Math.sin(thetaR)); 
-		} //loop
-		
-		leftPoly = new int[][] {xL, yL};
-		rightPoly = new int[][] {xR, yR};
-	} //end updateSidePolylines
+	private void updatePolylines() {
+		if (polylines == null)
+			polylines = new PolylineBuilder(numSegments, trackWidth, AutoSim.PPI);
+		polylines.update(getControlPoints());
+	} //end updatePolylines
 	
 	/**
 	 * Get the polyline for animation purposes
 	 * @return X points and Y points of the curve
 	 */
 	public int[][] getPolyline() {
-		return poly;
+		return polylines.getCenter();
 	} //end getPolyline
 	
 	/**
@@ -328,7 +250,7 @@ public class GraphicBezierPath extends BezierPath {
 	 * @return (x,y) points for the left side curve
 	 */
 	public int[][] getLeftPolyline() {
-		return leftPoly;
+		return polylines.getLeft();
 	} //end getLeftPolyline
 	
 	/**
@@ -336,6 +258,6 @@ public class GraphicBezierPath extends BezierPath {
 	 * @return (x,y) points for the right side curve
 	 */
 	public int[][] getRightPolyline() {
-		return rightPoly;
+		return polylines.getRight();
 	} //end getRightPolyline
 } //end class
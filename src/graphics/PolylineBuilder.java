@@ -0,0 +1,152 @@
+/**
+ * PolylineBuilder
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Build the screen polylines of a quintic Bezier curve and its sides into buffers that are reused every edit
+ */
+
+package graphics;
+
+import model.Point;
+import model.motion.BezierPath;
+
+public class PolylineBuilder {
+	//Attributes
+	//Configured
+	private int segments; //number of points on each polyline
+	private double halfWidth; //distance from the center to each side in pixels
+	private double scale; //pixels per inch
+
+	//Calculated
+	private double[][] basis; //weight of each control point at each sample
+	private double[][] slope; //weight of each control point in the tangent at each sample
+	private double[] last; //x and y of each control point at the last build
+	private int builds; //times the polylines were rebuilt
+
+	//Buffers, filled in place on every build
+	private int[][] center, left, right; //screen x and y of each sample
+
+	/**
+	 * Create a builder with its buffers
+	 * @param segments Number of points on each polyline
+	 * @param halfWidth Distance from the center to each side in pixels
+	 * @param scale Pixels per inch
+	 */
+	public PolylineBuilder(int segments, double halfWidth, double scale) {
+		//set attributes
+		this.segments = Math.max(2, segments);
+		this.halfWidth = halfWidth;
+		this.scale = scale;
+		this.last = new double[12];
+		this.builds = 0;
+
+		//shared by every build
+		double[][][] weights = BezierPath.calcBasis(this.segments);
+		basis = weights[0];
+		slope = weights[1];
+
+		center = new int[2][this.segments];
+		left = new int[2][this.segments];
+		right = new int[2][this.segments];
+	} //end constructor
+
+	/**
+	 * Rebuild the polylines if the control points moved, allocating nothing
+	 * @param controlPts Six control points of the curve in inches
+	 * @return True if the polylines were rebuilt, false if the points had not moved
+	 */
+	public boolean update(Point[] controlPts) {
+		if (builds > 0 && !moved(controlPts))
+			return false;
+
+		for (int i = 0; i <= 5; i++) {
+			last[2 * i] = controlPts[i].getX();
+			last[2 * i + 1] = controlPts[i].getY();
+		} //loop
+
+		for (int k = 0; k < segments; k++) {
+			//position and tangent from the control points
+			double x = 0, y = 0, dx = 0, dy = 0;
+			for (int i = 0; i <= 5; i++) {
+				x += basis[i][k] * last[2 * i];
+				y += basis[i][k] * last[2 * i + 1];
+				dx += slope[i][k] * last[2 * i];
+				dy += slope[i][k] * last[2 * i + 1];
+			} //loop
+
+			//unit tangent, zero where the curve stops (ie. coincident control points)
+			double len = Math.hypot(dx, dy);
+			double ux = len == 0 ? 0 : dx / len;
+			double uy = len == 0 ? 0 : dy / len;
+
+			//flip x and y because of field config, offsetting each side along the normal to the tangent
+			//rounding to pixels is the last step so no error builds up along the curve
+			double px = y * scale;
+			double py = x * scale;
+			set(center, k, px, py);
+			set(left, k, px - halfWidth * ux, py + halfWidth * uy);
+			set(right, k, px + halfWidth * ux, py - halfWidth * uy);
+		} //loop
+
+		builds++;
+		return true;
+	} //end update
+
+	/**
+	 * Check if the control points differ from the last build
+	 * @param controlPts Control points of the curve
+	 * @return True if any coordinate changed
+	 */
+	private boolean moved(Point[] controlPts) {
+		for (int i = 0; i <= 5; i++) {
+			if (controlPts[i].getX() != last[2 * i] || controlPts[i].getY() != last[2 * i + 1])
+				return true;
+		} //loop
+
+		return false;
+	} //end moved
+
+	/**
+	 * Store a sample in a polyline's buffer
+	 * @param poly Buffer of the polyline
+	 * @param k Index of the sample
+	 * @param x Screen x in pixels
+	 * @param y Screen y in pixels
+	 */
+	private static void set(int[][] poly, int k, double x, double y) {
+		poly[0][k] = (int) Math.round(x);
+		poly[1][k] = (int) Math.round(y);
+	} //end set
+
+	/**
+	 * Get the number of times the polylines were rebuilt
+	 * @return Builds since the builder was created
+	 */
+	public int getBuilds() {
+		return builds;
+	} //end getBuilds
+
+	/**
+	 * Get the center polyline, filled in place on every build
+	 * @return Screen x values then screen y values
+	 */
+	public int[][] getCenter() {
+		return center;
+	} //end getCenter
+
+	/**
+	 * Get the left polyline, filled in place on every build
+	 * @return Screen x values then screen y values
+	 */
+	public int[][] getLeft() {
+		return left;
+	} //end getLeft
+
+	/**
+	 * Get the right polyline, filled in place on every build
+	 * @return Screen x values then screen y values
+	 */
+	public int[][] getRight() {
+		return right;
+	} //end getRight
+} //end class
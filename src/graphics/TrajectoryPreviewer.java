@@ -0,0 +1,261 @@
+/**
+ * TrajectoryPreviewer
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Build the drivable trajectory for a path being edited in the background, keeping only the latest edit
+ */
+
+package graphics;
+
+import java.awt.Color;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.SwingUtilities;
+
+import main.AutoSim;
+import model.Point;
+import model.motion.BezierProfile;
+import model.motion.PursuitPath;
+import util.Log;
+
+public class TrajectoryPreviewer {
+	//Constants, same as the path the Start button creates
+	private static final double TRACK_WIDTH = 30; //width of the robot wheelbase in inches
+	private static final double PATH_VEL = 12; //top speed of the pursuit path
+	private static final double PROFILE_VEL = 12 * 12; //top speed of the profile in in/s
+	private static final double ACC = 200; //acceleration and deceleration in in/s^2
+	private static final double SPACING = 24; //distance between pursuit path points in inches
+
+	/**
+	 * Receives each preview, on the event dispatch thread
+	 */
+	public interface PreviewListener {
+		void previewed(Preview p);
+	}
+
+	//Attributes
+	private PreviewListener listener; //receives each preview
+	private AtomicReference<Request> pending; //latest edit not started yet, null if there is none
+	private AtomicLong generation; //number of the latest edit
+	private AtomicLong built; //previews delivered
+	private AtomicLong dropped; //edits skipped or stopped because a newer one arrived
+	private Thread worker; //builds the previews
+
+	/**
+	 * Create a previewer with its background thread
+	 * @param listener Receives each preview on the event dispatch thread
+	 */
+	public TrajectoryPreviewer(PreviewListener listener) {
+		this.listener = listener;
+		this.pending = new AtomicReference<Request>();
+		this.generation = new AtomicLong();
+		this.built = new AtomicLong();
+		this.dropped = new AtomicLong();
+
+		worker = new Thread(this::work, "Trajectory preview");
+		worker.setDaemon(true);
+		worker.start();
+	} //end constructor
+
+	/**
+	 * Ask for a preview of a path, replacing any edit that has not been built yet
+	 * Returns right away so it can be called for every mouse drag
+	 * @param controlPts Control points of the path, copied so they can keep changing
+	 */
+	public void request(Point[] controlPts) {
+		Point[] pts = new Point[controlPts.length];
+		for (int i = 0; i < pts.length; i++) {
+			pts[i] = new Point(controlPts[i].getX(), controlPts[i].getY());
+		} //loop
+
+		if (pending.getAndSet(new Request(pts, generation.incrementAndGet())) != null)
+			dropped.incrementAndGet();
+		LockSupport.unpark(worker);
+	} //end request
+
+	/**
+	 * Get the number of previews delivered
+	 * @return Previews built and handed to the listener
+	 */
+	public long getBuilt() {
+		return built.get();
+	} //end getBuilt
+
+	/**
+	 * Get the number of edits that were never shown because a newer one arrived
+	 * @return Edits replaced while waiting, stopped while building or built too late
+	 */
+	public long getDropped() {
+		return dropped.get();
+	} //end getDropped
+
+	/**
+	 * Check if a newer edit has arrived since a request was made
+	 * @param r Request being built
+	 * @return True if the request is out of date
+	 */
+	private boolean isStale(Request r) {
+		return r.generation != generation.get();
+	} //end isStale
+
+	/**
+	 * Build the latest edit whenever there is one, run by the worker thread
+	 */
+	private void work() {
+		while (true) {
+			Request r = pending.getAndSet(null);
+			if (r == null) {
+				LockSupport.park(this);
+				continue;
+			} //if
+
+			try {
+				Preview p = build(r);
+				if (p == null) {
+					dropped.incrementAndGet();
+					continue;
+				} //if
+
+				//the last check is on the event thread so a late preview never replaces a newer one
+				SwingUtilities.invokeLater(() -> {
+					if (isStale(r)) {
+						dropped.incrementAndGet();
+					} else {
+						built.incrementAndGet();
+						listener.previewed(p);
+					} //if
+				});
+
+			} catch (RuntimeException e) {
+				//control points typed in part way can make a path that cannot be built
+				Log.debug(() -> "No preview for the path: " + e);
+			} //try-catch
+		} //loop
+	} //end work
+
+	/**
+	 * Build the preview of an edit, giving up between stages once a newer edit arrives
+	 * @param r Edit to build
+	 * @return Preview, null if the edit went out of date
+	 */
+	private Preview build(Request r) {
+		long start = System.nanoTime();
+		PursuitPath path = new PursuitPath(r.controlPts, TRACK_WIDTH, PATH_VEL, ACC, ACC, SPACING);
+		if (isStale(r))
+			return null;
+
+		BezierProfile profile = new BezierProfile(r.controlPts, TRACK_WIDTH, PROFILE_VEL, ACC, ACC);
+		if (isStale(r))
+			return null;
+
+		return new Preview(r.controlPts, path.getPoints(), path.getVelocities(), profile.getTotalTime(), System.nanoTime() - start);
+	} //end build
+
+	/**
+	 * Control points of an edit and its place in the order of edits
+	 */
+	private static class Request {
+		//Attributes
+		private Point[] controlPts; //control points of the path
+		private long generation; //number of the edit
+
+		/**
+		 * Create a request
+		 * @param controlPts Control points of the path
+		 * @param generation Number of the edit
+		 */
+		private Request(Point[] controlPts, long generation) {
+			this.controlPts = controlPts;
+			this.generation = generation;
+		} //end constructor
+	} //end Request
+
+	/**
+	 * Drivable trajectory of a path, ready to draw
+	 */
+	public static class Preview {
+		//Attributes
+		private Point[] controlPts; //control points the preview was built from
+		private Point[] points; //points of the pursuit path
+		private int[][] polyline; //screen x and y of each point
+		private Color[] colors; //color of the segment ending at each point, red when slow to green at top speed
+		private double totalTime; //time to drive the path in seconds
+		private long nanos; //time taken to build the preview
+
+		/**
+		 * Create a preview, doing all of the work for drawing it
+		 * @param controlPts Control points the preview was built from
+		 * @param points Points of the pursuit path
+		 * @param vel Velocity at each point
+		 * @param totalTime Time to drive the path in seconds
+		 * @param nanos Time taken to build the preview
+		 */
+		private Preview(Point[] controlPts, Point[] points, double[] vel, double totalTime, long nanos) {
+			this.controlPts = controlPts;
+			this.points = points;
+			this.totalTime = totalTime;
+			this.nanos = nanos;
+
+			//flip x and y because of field config
+			polyline = new int[2][points.length];
+			colors = new Color[points.length];
+			for (int i = 0; i < points.length; i++) {
+				polyline[0][i] = (int) (points[i].getY() * AutoSim.PPI);
+				polyline[1][i] = (int) (points[i].getX() * AutoSim.PPI);
+
+				float speed = (float) Math.max(0, Math.min(1, vel[i] / PATH_VEL));
+				colors[i] = Color.getHSBColor(speed / 3, 1, 1); //hue from red to green
+			} //loop
+		} //end constructor
+
+		/**
+		 * Get the control points the preview was built from
+		 * @return Control points of the path
+		 */
+		public Point[] getControlPoints() {
+			return controlPts;
+		} //end getControlPoints
+
+		/**
+		 * Get the points the robot would follow
+		 * @return Points of the pursuit path
+		 */
+		public Point[] getPoints() {
+			return points;
+		} //end getPoints
+
+		/**
+		 * Get the time to drive the path
+		 * @return Total time of the profile in seconds
+		 */
+		public double getTotalTime() {
+			return totalTime;
+		} //end getTotalTime
+
+		/**
+		 * Get the time taken to build the preview
+		 * @return Time in nanoseconds
+		 */
+		public long getNanos() {
+			return nanos;
+		} //end getNanos
+
+		/**
+		 * Get the screen position of each point
+		 * @return Screen x values then screen y values
+		 */
+		public int[][] getPolyline() {
+			return polyline;
+		} //end getPolyline
+
+		/**
+		 * Get the color of the segment ending at each point
+		 * @return Color for each point, red when slow to green at top speed
+		 */
+		public Color[] getColors() {
+			return colors;
+		} //end getColors
+	} //end Preview
+} //end class
@@ -10,11 +10,13 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 
 import commands.Command;
+import commands.Command.TelemetrySink;
 import commands.CommandGroup;
 import commands.CommandList;
 import graphics.components.BoxButton;
@@ -22,8 +24,15 @@ import graphics.components.ButtonController;
 import graphics.widgets.Widget;
 import graphics.widgets.WidgetHub;
 import main.AutoSim;
+import model.Point;
 import model.Pose;
+import model.motion.SplinePath;
+import sim.LivePublisher;
+import sim.RunArchive;
+import sim.UdpPublisher;
 import util.JComponentUtil;
+import util.Metrics;
+import util.Metrics.Stage;
 import util.Util;
 import util.Util.ROBOT_KEY;
 
@@ -40,6 +49,7 @@ public class Window extends JFrame {
 	private Thread animThread; //animation Thread
 	private CommandGroup cg; //CommandGroup to run
 	private ButtonController startCtrl; //controller for start button
+	private List<TelemetrySink> publishers; //publish each pose shown to other programs
 	
 	/**
 	 * Create a window
@@ -51,6 +61,9 @@ public class Window extends JFrame {
 		
 		this.title = title;
 		this.debug = debug;
+		this.publishers = new ArrayList<TelemetrySink>();
+		addPublisher(LivePublisher.fromProperty()); //set with -Dautosim.live=file
+		addPublisher(UdpPublisher.fromProperty()); //set with -Dautosim.udp=host:port
 		layoutView();
 	} 
 	
@@ -206,8 +219,54 @@ public class Window extends JFrame {
 			env.setCurves(cg.getCurves());
 		
 		env.update();
-	} 
-	
+	}
+
+	/**
+	 * Show a saved run without simulating it again, chunks are only read once a tick in them is shown
+	 * @param archive Run archive to show
+	 */
+	public void openArchive(RunArchive archive) {
+		env.setPoses(archive.getPoses());
+		env.setData(archive.getData());
+
+		//draw the center of the path that was followed
+		Point[] path = archive.getPath();
+		if (path.length >= 6) {
+			SplinePath spline = new SplinePath(path);
+			int n = 100 * spline.getNumSegments();
+			int[][] center = new int[2][n + 1];
+			for (int i = 0; i <= n; i++) {
+				Point p = spline.calcPoint((double) i / n);
+				center[0][i] = (int) Math.round(p.getY() * AutoSim.PPI); //flip x and y because of field config
+				center[1][i] = (int) Math.round(p.getX() * AutoSim.PPI);
+			}
+
+			ArrayList<int[][]> curves = new ArrayList<int[][]>();
+			curves.add(center);
+			env.setCurves(curves);
+		}
+
+		showTick(0);
+	}
+
+	/**
+	 * Jump to any update of the run being shown
+	 * @param tick Index of the update to show
+	 */
+	public void showTick(int tick) {
+		env.setPoseIndex(tick - 1);
+		env.incrementPoseIndex();
+
+		if (tick < env.getNumDataPoints()) {
+			HashMap<ROBOT_KEY, Object> data = env.getDataPoint(tick);
+			bar.setCommandName((String) data.get(ROBOT_KEY.CURRENT_COMMAND));
+			if (widgetHub != null)
+				widgetHub.update(data);
+		}
+
+		env.update();
+	}
+
 	/**
 	 * Run the animation
 	 */
@@ -221,6 +280,7 @@ public class Window extends JFrame {
 			
 			//loop through all poses every 5 milliseconds
 			for (int i = 0; i < env.getNumPoses()-1; i++) {
+				long start = Metrics.start();
 				env.incrementPoseIndex(); //draw the next pose
 				
 				try {
@@ -230,6 +290,12 @@ public class Window extends JFrame {
 						widgetHub.update(data); //update all widgets
 				} catch (NullPointerException n) {}
 				
+				//external dashboards follow the animation, publishers never wait for them
+				for (TelemetrySink p : publishers) {
+					p.record(env.getPose(i), i < env.getNumDataPoints() ? env.getDataPoint(i) : null, 1);
+				}
+				Metrics.stop(Stage.RENDER, start);
+				
 				Util.pause(Util.ANIMATION_PERIOD);
 			}
 			
@@ -247,11 +313,20 @@ public class Window extends JFrame {
 		Util.println("Thread Started\n");
 	} 
 	
+	/**
+	 * Publish each pose shown by the animation to another program
+	 * @param p Publisher to send poses and data to, ignored if null
+	 */
+	public void addPublisher(TelemetrySink p) {
+		if (p != null)
+			publishers.add(p);
+	}
+	
 	/**
 	 * Add poses to the Environment
 	 * @param poses List of poses to add
 	 */
-	public void addPoses(ArrayList<Pose> poses) {
+	public void addPoses(List<Pose> poses) {
 		env.setPoses(poses);
 		env.incrementPoseIndex();
 		env.update();
@@ -0,0 +1,81 @@
+/**
+ * MetricsWidget
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Debug widget showing where the time in each simulated update goes
+ */
+
+package graphics.widgets;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+
+import javax.swing.JTextArea;
+import javax.swing.Timer;
+
+import util.JComponentUtil;
+import util.Metrics;
+import util.Util;
+
+public class MetricsWidget extends Widget {
+	//Attributes
+	private JTextArea text; //table of the metrics
+	private Timer timer; //refreshes the table
+	
+	/**
+	 * Create a metrics widget
+	 * @param text Text area to show the metrics in
+	 * @param period Time between refreshes in milliseconds
+	 */
+	public MetricsWidget(JTextArea text, int period) {
+		super(JComponentUtil.panelFromComponent(text));
+		
+		//set attributes
+		this.text = text;
+		this.text.setEditable(false);
+		this.text.setText(Metrics.getSummary());
+		
+		//metrics are read on their own, not from the robot data
+		this.keyArray = null;
+		this.timer = new Timer(period, e -> this.text.setText(Metrics.getSummary()));
+		this.timer.start();
+	} //end constructor
+	
+	/**
+	 * Create a metrics widget that refreshes twice a second
+	 * @param width Width of the widget in pixels
+	 * @param height Height of the widget in pixels
+	 */
+	public MetricsWidget(int width, int height) {
+		this(createTextArea(width, height), 500);
+	} //end constructor
+	
+	/**
+	 * Create a text area with a fixed width font
+	 * @param width Width in pixels
+	 * @param height Height in pixels
+	 * @return Text area of that size
+	 */
+	private static JTextArea createTextArea(int width, int height) {
+		JTextArea text = new JTextArea();
+		text.setPreferredSize(new Dimension(width, height));
+		text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, (int) Util.FONT_SIZE));
+		text.setForeground(Color.BLACK);
+		
+		return text;
+	} //end createTextArea
+	
+	/**
+	 * Update the widget (the metrics refresh on a timer instead)
+	 * @param values Unused
+	 */
+	public void update(double[] values) {}
+	
+	/**
+	 * Stop refreshing the metrics
+	 */
+	public void stop() {
+		timer.stop();
+	} //end stop
+} //end class
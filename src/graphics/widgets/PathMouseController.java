@@ -22,15 +22,28 @@ import graphics.Painter;
 import graphics.components.BoxButton;
 import graphics.components.BoxButton.BUTTON_STATE;
 import main.AutoSim;
-import model.FieldPositioning;
 import model.Point;
+import sim.SpatialHash;
 
 public class PathMouseController implements MouseListener, MouseMotionListener, MouseWheelListener {
+	//Constants
+	private static final Cursor HAND = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR); //cursor over a circle
+	private static final Cursor ARROW = Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR); //cursor anywhere else
+	
 	//Attributes
 	private BezierPathCreator bpc; //path creator component
 	private GraphicBezierPath path; //path with points
-	private int currentCircIndex; //index for the current circle
+	private int currentCircIndex; //index for the current circle, -1 if the mouse is not over one
 	private boolean dragging; //whether a circle is being dragged
+	private Cursor cursor; //cursor last given to the Environment
+	private double range; //half the side of a circle's hit box in inches
+	
+	//Hit testing
+	private SpatialHash grid; //circles by cell so only the ones near the mouse are checked
+	private Circle[] gridCircles; //circles the grid was built from
+	private int gridEdits; //edit count of the path when the grid was built
+	private double[] xs, ys; //positions of the circles in the grid
+	private int[] nearby; //circles found near the mouse
 	
 	/**
 	 * Create a mouse controller with a method to update circles and the curve
@@ -40,41 +53,104 @@ public class PathMouseController implements MouseListener, MouseMotionListener,
 		//set attributes
 		this.bpc = bpc;
 		this.path = this.bpc.getCurve();
-		this.currentCircIndex = 0;
+		this.currentCircIndex = -1;
 		this.dragging = false;
+		this.cursor = ARROW;
+		this.range = Painter.CIRCLE_RAD / (double) AutoSim.PPI;
+		
+		//cells twice the hit box so the whole box around the mouse is in the 3x3 block searched
+		this.grid = new SpatialHash(Util.FIELD_HEIGHT, Util.FIELD_WIDTH, 2 * range);
+		this.xs = new double[0];
+		this.ys = new double[0];
+		this.nearby = new int[0];
 	} //end constructor
 
 	/**
-	 * Update the circles based on mouse position
+	 * Update the circles based on mouse position, only changing what the mouse moved on or off of
 	 * @param m Cursor information
 	 */
 	public void mouseMoved(MouseEvent m) {
-		Point ms = getMouseCoordsInches(m);
-		Circle[] circles = path.getCircles();
+		if (dragging)
+			return;
 		
-		if (!dragging) {
-			//only search through points if over a circle
-			for (int i = 0; i < circles.length; i++) {
-				Circle c = circles[i]; //current circle
-				//if mouse is within a circle
-				boolean over = FieldPositioning.isWithinBounds(c, ms, Painter.CIRCLE_RAD / (double) AutoSim.PPI); 
-				currentCircIndex = over ? i : -1;
-				
-				if (over) { //set to hover
-					Environment.getInstance().setCursor(new Cursor(Cursor.HAND_CURSOR)); //hand cursor
-					bpc.requestCircleUpdate(currentCircIndex, BUTTON_STATE.HOVER);
-					bpc.requestButtonUpdate(currentCircIndex, BUTTON_STATE.HOVER);
-
-					break; //no need to loop through rest of points
-					
-				} else { //set to default
-					Environment.getInstance().setCursor(new Cursor(Cursor.DEFAULT_CURSOR)); //regular cursor
-					bpc.requestCircleUpdate(i, BUTTON_STATE.DEFAULT);
-					bpc.requestButtonUpdate(i, BUTTON_STATE.DEFAULT);
-				} //if
-			} //loop
+		//new circles start in their default state, so the hovered one has to be set again
+		boolean replaced = gridCircles != path.getCircles();
+		
+		//flip x and y because of field config
+		int over = circleAt(m.getY() / (double) AutoSim.PPI, m.getX() / (double) AutoSim.PPI);
+		if (over == currentCircIndex && !replaced)
+			return; //nothing changed so nothing to repaint
+		
+		if (currentCircIndex != -1 && currentCircIndex != over) { //left a circle
+			bpc.requestCircleUpdate(currentCircIndex, BUTTON_STATE.DEFAULT);
+			bpc.requestButtonUpdate(currentCircIndex, BUTTON_STATE.DEFAULT);
 		} //if
+		
+		if (over != -1) { //entered a circle
+			bpc.requestCircleUpdate(over, BUTTON_STATE.HOVER);
+			bpc.requestButtonUpdate(over, BUTTON_STATE.HOVER);
+		} //if
+		
+		currentCircIndex = over;
+		setCursor(over == -1 ? ARROW : HAND);
 	} //end mouseMoved
+	
+	/**
+	 * Find the circle under a point, only checking the circles near it
+	 * @param x X value of the point in inches
+	 * @param y Y value of the point in inches
+	 * @return Lowest index of the circles the point is over, -1 if there are none
+	 */
+	public int circleAt(double x, double y) {
+		updateGrid();
+		
+		//the hit box is a square, so search the circle around it then check the square
+		int found = grid.query(x, y, range * Math.sqrt(2), nearby);
+		int index = -1;
+		for (int k = 0; k < found; k++) {
+			int i = nearby[k];
+			if ((index == -1 || i < index) && Math.abs(xs[i] - x) < range && Math.abs(ys[i] - y) < range)
+				index = i;
+		} //loop
+		
+		return index;
+	} //end circleAt
+	
+	/**
+	 * Rebuild the grid if the circles were replaced or moved since it was built
+	 */
+	private void updateGrid() {
+		Circle[] circles = path.getCircles();
+		if (circles == gridCircles && path.getCircleEdits() == gridEdits)
+			return;
+		
+		//only grows when there are more circles than before
+		if (xs.length < circles.length) {
+			xs = new double[circles.length];
+			ys = new double[circles.length];
+			nearby = new int[circles.length];
+		} //if
+		
+		for (int i = 0; i < circles.length; i++) {
+			xs[i] = circles[i].getX();
+			ys[i] = circles[i].getY();
+		} //loop
+		
+		grid.build(xs, ys, circles.length);
+		gridCircles = circles;
+		gridEdits = path.getCircleEdits();
+	} //end updateGrid
+	
+	/**
+	 * Give the Environment a cursor if it is not already showing it
+	 * @param c Cursor to show
+	 */
+	private void setCursor(Cursor c) {
+		if (c != cursor) {
+			cursor = c;
+			Environment.getInstance().setCursor(c);
+		} //if
+	} //end setCursor
 
 	/**
 	 * Update the current circle on press
@@ -10,6 +10,9 @@ package main;
 import java.awt.Color;
 import java.awt.GraphicsEnvironment;
 import java.awt.Toolkit;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
 
 import org.knowm.xchart.XYChart;
 
@@ -21,6 +24,7 @@ import graphics.Painter;
 import graphics.Window;
 import graphics.widgets.BezierPathCreator;
 import graphics.widgets.BezierPathCreatorWidget;
+import graphics.widgets.MetricsWidget;
 import graphics.widgets.SpeedDisplay;
 import graphics.widgets.SpeedDisplayWidget;
 import model.DriveLoop;
@@ -33,7 +37,10 @@ import model.motion.BezierProfile;
 import model.motion.DriveProfile;
 import model.motion.PurePursuitController;
 import model.motion.PursuitPath;
+import model.motion.TrajectoryPack;
 import util.FieldPoints;
+import util.Log;
+import util.Metrics;
 import util.PlotGenerator;
 import util.Util;
 import util.Util.ROBOT_KEY;
@@ -153,7 +160,9 @@ public class AutoSim {
 		for (int i = 0; i < testPoints.length; i++) {
 			testPoints[i] = new Point(Math.random() * Util.FIELD_HEIGHT, Math.random() * Util.FIELD_HEIGHT);
 		}*/
-		PursuitPath path = new PursuitPath(curve, r.getWidthInches(), 12, 200, 200, 24);
+		PursuitPath path = loadPath("niceLongCurve", r.getWidthInches());
+		if (path == null)
+			path = new PursuitPath(curve, r.getWidthInches(), 12, 200, 200, 24);
 		Util.println("Number of PursuitPath Points: ", path.getPoints().length);
 		Point[] testPoints = path.getPoints();
 		for (int i = 0; i < testPoints.length; i++) {
@@ -166,6 +175,28 @@ public class AutoSim {
 		r.setHeading(path.getInitialHeading());
 	} 
 	
+	/**
+	 * Get a path from the trajectory pack, building a pack of only that curve if it is missing or out of date
+	 * A pack of every curve is built ahead of time with TrajectoryPack.main
+	 * @param name Name of the curve in FieldPoints
+	 * @param trackWidth Wheel-wheel robot width in inches
+	 * @return Pursuit path, null if the pack could not be used
+	 */
+	private static PursuitPath loadPath(String name, double trackWidth) {
+		Point[] controlPts = TrajectoryPack.fieldCurves().get(name);
+		if (controlPts == null)
+			return null;
+		
+		try {
+			return TrajectoryPack.openOrBuild(new File(TrajectoryPack.DEFAULT_FILE), Collections.singletonMap(name, controlPts), 
+					trackWidth, 12, 200, 200, 24).get(name);
+			
+		} catch (IOException e) {
+			Log.warn(() -> "Could not use the trajectory pack: " + e.getMessage());
+			return null;
+		} //try-catch
+	} //end loadPath
+	
 	/**
 	 * Add Widgets to the Widget Hub
 	 */
@@ -190,6 +221,11 @@ public class AutoSim {
 		bezWidg.setControlPoints(curve);
 		w.addWidget(bezWidg);
 		
+		//stage timings, only when the simulator is run with -Dautosim.metrics=true
+		if (Metrics.ENABLED) {
+			w.addWidget(new MetricsWidget(w.getHubWidth(), w.getHubHeight() * 1/4));
+		} //if
+		
 		// Update the curve the command will run to the one from the GUI
 		w.addStartButtonActions(() -> {
 			double robotWidth = 30;
@@ -9,6 +9,9 @@ package model;
 import java.awt.Color;
 
 import model.motion.PurePursuitController;
+import util.Events.StateTransitionEvent;
+import util.Metrics;
+import util.Metrics.Stage;
 import util.Util;
 
 public class DriveLoop {
@@ -52,6 +55,8 @@ public class DriveLoop {
 		this.robot = robot;
 		this.drivePID = new PIDController(drivePID.getP(), drivePID.getI(), drivePID.getD(), robot.getMaxLinSpeed());
 		this.turnPID = new PIDController(turnPID.getP(), turnPID.getI(), turnPID.getD(), robot.getMaxLinSpeed());
+		this.drivePID.setPeriod(robot.getPeriod());
+		this.turnPID.setPeriod(robot.getPeriod());
 		
 		//default cases
 		state = STATE.WAITING;
@@ -80,6 +85,8 @@ public class DriveLoop {
 	 */
 	public void setPurePursuitController(PurePursuitController ppc) {
 		this.ppc = ppc;
+		if (ppc != null)
+			ppc.setPeriod(robot.getPeriod());
 	} 
 	
 	/**
@@ -121,13 +128,30 @@ public class DriveLoop {
 	 * @return state New state of the robot
 	 */
 	public void setState(STATE state) {
+		//record transitions for the flight recorder, not repeated sets of the same state
+		if (state != this.state) {
+			StateTransitionEvent e = new StateTransitionEvent();
+			if (e.shouldCommit()) {
+				e.set(this.state.name(), state.name());
+				e.commit();
+			} //if
+		} //if
+		
 		this.state = state;
+		
+		//the robot's period may have changed since the loop was made
+		drivePID.setPeriod(robot.getPeriod());
+		turnPID.setPeriod(robot.getPeriod());
+		if (ppc != null)
+			ppc.setPeriod(robot.getPeriod());
 	} 
 	
 	/**
 	 * Run commands based on the state the robot is in
 	 */
 	public void onLoop() {
+		long start = Metrics.start();
+		
 		switch (state) {
 			//waiting state
 			case WAITING:
@@ -168,6 +192,8 @@ public class DriveLoop {
 				purePursuitLoop();
 				break;
 		} 
+		
+		Metrics.stop(Stage.CONTROLLER, start);
 	} 
 		
 	/**
@@ -229,7 +255,7 @@ public class DriveLoop {
 		this.goalAngle = robot.getHeading();
 		
 		//set the state
-		this.state = STATE.DRIVE_DISTANCE;
+		setState(STATE.DRIVE_DISTANCE);
 		
 		//reset the PID controllers
 		drivePID.reset();
@@ -265,7 +291,7 @@ public class DriveLoop {
 		this.tolerance = tolerance;
 		
 		//set state
-		this.state = STATE.TURN_ANGLE;
+		setState(STATE.TURN_ANGLE);
 		
 		//reset the PID controllers
 		drivePID.reset();
@@ -321,7 +347,7 @@ public class DriveLoop {
 		this.minSpeed = minSpeed;
 		
 		//set state
-		this.state = STATE.DRIVE_TO_GOAL;
+		setState(STATE.DRIVE_TO_GOAL);
 	} 
 	
 	/**
@@ -341,7 +367,7 @@ public class DriveLoop {
 	 */
 	public void setOpenLoopProfileState() {
 		//set the state
-		this.state = STATE.OPEN_LOOP_PROFILE;
+		setState(STATE.OPEN_LOOP_PROFILE);
 	} 
 	
 	/**
@@ -371,7 +397,7 @@ public class DriveLoop {
 	 * @param initPos Initial position
 	 */
 	public void setClosedLoopLinearProfileState(double tolerance, double totalDist, double initPos) {
-		this.state = STATE.CLOSED_LOOP_LINEAR_PROFILE;
+		setState(STATE.CLOSED_LOOP_LINEAR_PROFILE);
 		this.tolerance = tolerance;
 		this.goalDist = totalDist;
 		this.drivePID.setInitPos(initPos);
@@ -429,5 +455,28 @@ public class DriveLoop {
 		double speed = ppc.getLinOut();
 		double turn = ppc.getAngOut();
 		robot.update(speed - turn, speed + turn);
+	}
+	
+	//Checkpoints
+	
+	/**
+	 * Copy the state of another loop and its controllers (not the robot, gains or feedforward constants)
+	 * @param other Loop to copy the state of
+	 */
+	public void copyStateFrom(DriveLoop other) {
+		this.state = other.state;
+		this.goalDist = other.goalDist;
+		this.tolerance = other.tolerance;
+		this.topSpeed = other.topSpeed;
+		this.minSpeed = other.minSpeed;
+		this.goalAngle = other.goalAngle;
+		this.leftPVA = other.leftPVA;
+		this.rightPVA = other.rightPVA;
+		
+		drivePID.copyStateFrom(other.drivePID);
+		turnPID.copyStateFrom(other.turnPID);
+		
+		if (ppc != null && other.ppc != null)
+			ppc.copyStateFrom(other.ppc);
 	} 
-} 
\ No newline at end of file
+}
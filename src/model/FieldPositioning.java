@@ -109,8 +109,8 @@ public class FieldPositioning {
 	 */
 	public static Point[] pointsFromDoubles(double[][] controlPts) {
 		//turn double[][] to point array 
-		Point[] curvePts = new Point[6];
-		for (int i = 0; i <= 5; i++) {
+		Point[] curvePts = new Point[controlPts.length];
+		for (int i = 0; i < curvePts.length; i++) {
 			curvePts[i] = new Point(controlPts[i]);
 		} //loop
 		
@@ -14,12 +14,16 @@ public class Gearbox {
 	private double kGearRatio; //gear reduction of the gearbox 
 	private Motor kMotor; //motor used in the gearbox
 	private double kNumMotors; //number of motors in the gearbox
+	private double period; //time each update covers in seconds
 	
 	//Calculated
 	private double position; //amount the motor has turned in radians
 	private double velocity; //velocity of the motor in radians per second
 	private double acceleration; //acceleration of the motor in radians per second^2
 	
+	//Constants
+	private static final double STEADY_TOLERANCE = 1E-9; //relative change in velocity treated as steady
+	
 	//Computed constants
 	private double cVoltage; //constant proportional to voltage in torque calculations
 	private double cVelocity; //constant proportional to velocity in torque calculations
@@ -35,6 +39,7 @@ public class Gearbox {
 		this.kGearRatio = gearRatio;
 		this.kMotor = motor;
 		this.kNumMotors = numMotors;
+		this.period = Util.UPDATE_PERIOD;
 		
 		//calculate constants
 		computeConstants();
@@ -59,7 +64,9 @@ public class Gearbox {
 	 * @return - identical copy of this gearbox
 	 */
 	public Gearbox clone() {
-		return new Gearbox(kGearRatio, new Motor(kMotor.getParameters()), kNumMotors);
+		Gearbox gb = new Gearbox(kGearRatio, new Motor(kMotor.getParameters()), kNumMotors);
+		gb.setPeriod(period);
+		return gb;
 	} //end clone
 	
 	/**
@@ -132,6 +139,22 @@ public class Gearbox {
 		return acceleration;
 	} //end getAcc
 	
+	/**
+	 * Set the time each update covers, longer for faster but less accurate simulations
+	 * @param period - time of each update in seconds, Util.UPDATE_PERIOD by default
+	 */
+	public void setPeriod(double period) {
+		this.period = period;
+	} //end setPeriod
+	
+	/**
+	 * Get the time each update covers
+	 * @return - time of each update in seconds
+	 */
+	public double getPeriod() {
+		return period;
+	} //end getPeriod
+	
 	//Dynamics
 	
 	/**
@@ -152,12 +175,38 @@ public class Gearbox {
 		this.acceleration = acceleration; //save the acceleration to memory
 		
 		//v2 = v1 + at
-		this.velocity += this.acceleration * Util.UPDATE_PERIOD; 
+		this.velocity += this.acceleration * period; 
 		
 		//d2 = d1 + vt + 0.5at^2
-		this.position += this.velocity * Util.UPDATE_PERIOD + 0.5 * this.acceleration * Util.UPDATE_PERIOD * Util.UPDATE_PERIOD;
+		this.position += this.velocity * period + 0.5 * this.acceleration * period * period;
 	} //end update
 	
+	/**
+	 * Check if the gearbox has stopped speeding up or slowing down
+	 * @return - true if the last update changed the velocity by a negligible amount
+	 */
+	public boolean isSteady() {
+		return Math.abs(acceleration * period) <= STEADY_TOLERANCE * Math.max(1, Math.abs(velocity));
+	} //end isSteady
+	
+	/**
+	 * Advance the gearbox a number of updates at its current velocity
+	 * @param updates - number of updates to advance
+	 */
+	public void advance(int updates) {
+		this.position += updates * this.velocity * period;
+	} //end advance
+	
+	/**
+	 * Copy the kinematics of another gearbox
+	 * @param other - gearbox to copy the position, velocity and acceleration of
+	 */
+	public void copyStateFrom(Gearbox other) {
+		this.position = other.position;
+		this.velocity = other.velocity;
+		this.acceleration = other.acceleration;
+	} //end copyStateFrom
+	
 	/**
 	 * Reset the kinematics of the gearbox
 	 */
@@ -2,7 +2,7 @@
  * PIDController
  * Author: Neil Balaskandarajah
  * Created on: 03/01/2019
- * A simple PID controller that assumes regular loop intervals
+ * A simple PID controller that assumes regular loop intervals of a set period
  */
 package model;
 
@@ -15,6 +15,7 @@ public class PIDController {
 	private double kI; //integral constant
 	private double kD; //derivative constant
 	private double topSpeed; //max velocity of the robot
+	private double period; //time between calculations in seconds
 
 	//Calculated
 	private double errorSum; //sum of all errors
@@ -35,6 +36,7 @@ public class PIDController {
 		kI = i;
 		kD = d;
 		this.topSpeed = topSpeed;
+		period = Util.UPDATE_PERIOD; //gains are tuned at the regular update period
 		
 		errorSum = 0; //no error sum at beginning
 		lastError = 0; //zero previous error at beginning
@@ -111,6 +113,22 @@ public class PIDController {
 		this.kD = kD;
 	}
 	
+	/**
+	 * Set the time between calculations, so the integral and derivative terms keep their gains at coarser periods
+	 * @param period Time between calculations in seconds, Util.UPDATE_PERIOD by default
+	 */
+	public void setPeriod(double period) {
+		this.period = period;
+	}
+	
+	/**
+	 * Get the time between calculations
+	 * @return Time between calculations in seconds
+	 */
+	public double getPeriod() {
+		return period;
+	}
+	
 	/**
 	 * Reset the controller for the next set of calculations
 	 */
@@ -155,14 +173,14 @@ public class PIDController {
 		//proportional output
 		double pOut = kP * error;
 		
-		//integral output
-		errorSum += error;
+		//integral and derivative outputs, scaled to the regular update period the gains are tuned at
+		double scale = Util.UPDATE_PERIOD / period;
+		errorSum += error / scale;
 		double iOut = kI * errorSum;
 		
-		//derivative output
 		double dOut = 0;
 		if (lastError != 0)
-			dOut = kD * (error - lastError);
+			dOut = kD * (error - lastError) * scale;
 		lastError = error;
 		
 		//output is sum of each constant's output
@@ -205,7 +223,7 @@ public class PIDController {
 		double pOut = kP * error;
 		
 		//output based on velocity difference from goal velocity
-		double errorVel = (error - lastError) / (Util.UPDATE_PERIOD * 12); //convert to FPS
+		double errorVel = (error - lastError) / (period * 12); //convert to FPS
 		double dOut = kD * (errorVel - goalVel);
 						
 		//set lastError for next loop
@@ -214,4 +232,15 @@ public class PIDController {
 		//output is sum of both terms
 		return pOut + dOut;
 	}
+	
+	/**
+	 * Copy the running values of another controller (not its gains)
+	 * @param other Controller to copy the running values of
+	 */
+	public void copyStateFrom(PIDController other) {
+		this.errorSum = other.errorSum;
+		this.lastError = other.lastError;
+		this.atTarget = other.atTarget;
+		this.initPos = other.initPos;
+	}
 } 
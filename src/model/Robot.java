@@ -11,10 +11,16 @@ import java.awt.Color;
 import java.util.HashMap;
 
 import main.AutoSim;
+import util.Metrics;
+import util.Metrics.Stage;
 import util.Util;
 import util.Util.ROBOT_KEY;
 
 public class Robot {
+	//Constants
+	private static final Color[] FORWARD_COLORS = shades(true); //green for each speed, so updates don't allocate
+	private static final Color[] REVERSE_COLORS = shades(false); //red for each speed
+	
 	//Attributes
 	//Configured
 	private double kMass; //mass of the robot in pounds
@@ -22,6 +28,7 @@ public class Robot {
 	private double kWidth; //width of the robot in inches
 	private Gearbox leftGearbox; //left gearbox
 	private Gearbox rightGearbox; //right gearbox
+	private double period; //time each update covers in seconds
 	
 	//Kinematics
 	private double averagePos; //position of robot
@@ -69,6 +76,7 @@ public class Robot {
 		//create gearboxes
 		this.leftGearbox = new Gearbox(gearbox.getGearRatio(), new Motor(gearbox.getMotorParameters()),gearbox.getNumMotors());
 		this.rightGearbox = new Gearbox(gearbox.getGearRatio(), new Motor(gearbox.getMotorParameters()),gearbox.getNumMotors());
+		this.period = Util.UPDATE_PERIOD;
 		
 		//compute constants
 		computeConstants();
@@ -89,7 +97,9 @@ public class Robot {
 		double width = kWidth / Util.INCHES_TO_METERS;
 		
 		//left gearbox identical to right gearbox, doesn't matter which is used
-		return new Robot(wheelDia, mass, length, width, leftGearbox.clone());
+		Robot r = new Robot(wheelDia, mass, length, width, leftGearbox.clone());
+		r.setPeriod(period);
+		return r;
 	} 
 	
 	/**
@@ -112,6 +122,25 @@ public class Robot {
 		maxAngSpeed = (24 * maxLinSpeed * Util.INCHES_TO_METERS) / (kWidth); //rad/s
 	} 
 	
+	/**
+	 * Set the time each update covers, longer for faster but less accurate simulations
+	 * Controllers still run once per update, so a longer period also slows how often they correct
+	 * @param period Time of each update in seconds, Util.UPDATE_PERIOD by default
+	 */
+	public void setPeriod(double period) {
+		this.period = period;
+		leftGearbox.setPeriod(period);
+		rightGearbox.setPeriod(period);
+	} //end setPeriod
+	
+	/**
+	 * Get the time each update covers
+	 * @return Time of each update in seconds
+	 */
+	public double getPeriod() {
+		return period;
+	} //end getPeriod
+	
 	/**
 	 * Reset the gearboxes, pose and kinematics of the robot
 	 */
@@ -127,6 +156,26 @@ public class Robot {
 		commandName = "";
 	} //end reset
 	
+	/**
+	 * Copy the kinematics, pose and graphics of another robot (not its physical constants)
+	 * @param other Robot to copy the state of
+	 */
+	public void copyStateFrom(Robot other) {
+		averagePos = other.averagePos;
+		angularVel = other.angularVel;
+		linearVel = other.linearVel;
+		heading = other.heading;
+		yaw = other.yaw;
+		point = new Point(other.point.getX(), other.point.getY());
+		color = other.color;
+		commandName = other.commandName;
+		goalPoint = other.goalPoint;
+		lookahead = other.lookahead;
+		pidOut = other.pidOut;
+		leftGearbox.copyStateFrom(other.leftGearbox);
+		rightGearbox.copyStateFrom(other.rightGearbox);
+	} //end copyStateFrom
+	
 	/**
 	 * Set the robot into waiting state
 	 */
@@ -196,7 +245,31 @@ public class Robot {
 	 */
 	public double getLengthInches() {
 		return kLength / Util.INCHES_TO_METERS;
-	} 
+	}
+
+	/**
+	 * Get the mass of the robot in pounds
+	 * @return Mass of robot in pounds
+	 */
+	public double getMassPounds() {
+		return kMass / Util.LBS_TO_KG;
+	}
+
+	/**
+	 * Get the wheel diameter of the robot in inches
+	 * @return Wheel diameter in inches
+	 */
+	public double getWheelDiaInches() {
+		return kWheelRad * 2 / Util.INCHES_TO_METERS;
+	}
+
+	/**
+	 * Get a copy of the drive gearbox (both sides are identical)
+	 * @return Copy of the left gearbox
+	 */
+	public Gearbox getGearbox() {
+		return leftGearbox.clone();
+	}
 	
 	/**
 	 * Get the position of the left side of the drive
@@ -316,6 +389,8 @@ public class Robot {
 	 * @param rightVoltage Voltage applied to right gearbox
 	 */
 	public void update(double leftVoltage, double rightVoltage) {
+		long start = Metrics.start();
+		
 		//clamp the voltages between min and max voltage values
 		leftVoltage = Util.clampNum(leftVoltage, -Util.MAX_VOLTAGE, Util.MAX_VOLTAGE);
 		rightVoltage = Util.clampNum(rightVoltage, -Util.MAX_VOLTAGE, Util.MAX_VOLTAGE);
@@ -335,6 +410,8 @@ public class Robot {
 		
 		//update the graphics of the robot
 		updateGraphics();
+		
+		Metrics.stop(Stage.PHYSICS, start);
 	}
 	
 	/**
@@ -378,9 +455,40 @@ public class Robot {
 		averagePos = newPos;
 		
 		//update heading
-		heading += angularVel * Util.UPDATE_PERIOD;
+		heading += angularVel * period;
 	} 
 	
+	/**
+	 * Check if the robot has reached a steady speed
+	 * @return True if both gearboxes are no longer speeding up or slowing down
+	 */
+	public boolean isSteady() {
+		return leftGearbox.isSteady() && rightGearbox.isSteady();
+	}
+	
+	/**
+	 * Advance the robot a number of updates at its current speeds in one step
+	 * The robot moves along an arc, so the sum of the per-update moves has a closed form
+	 * @param updates Number of updates to advance
+	 */
+	public void advance(int updates) {
+		leftGearbox.advance(updates);
+		rightGearbox.advance(updates);
+		
+		//distance moved each update and change in heading each update
+		double newPos = (leftGearbox.getPos() + rightGearbox.getPos()) / 2 * kWheelRad / Util.INCHES_TO_METERS;
+		double step = (newPos - averagePos) / updates;
+		double turn = angularVel * period;
+		
+		//sum of sin(h + k*turn) and cos(h + k*turn) for k = 0 to updates-1
+		double ratio = Math.abs(turn) < 1E-12 ? updates : Math.sin(updates * turn / 2) / Math.sin(turn / 2);
+		double mid = heading + (updates - 1) * turn / 2;
+		point.translate(step * ratio, mid);
+		
+		averagePos = newPos;
+		heading += updates * turn;
+	}
+	
 	//Graphics
 	
 	/**
@@ -412,19 +520,33 @@ public class Robot {
 	private void updateColor() {
 		//percentage of top speed
 		double modifier = Math.min(1, Math.abs(linearVel) / maxLinSpeed);
-		int val = 127 + (int) (128 * modifier);
+		int val = (int) (128 * modifier);
 		
 		if (linearVel > 0) { //moving forward
-			color = new Color(0, val, 0); //green
+			color = FORWARD_COLORS[val]; //green
 			
 		} else if (linearVel < 0) { //reversing
-			color = new Color(val, 0, 0); //red
+			color = REVERSE_COLORS[val]; //red
 			
 		} else { //not moving
 			color = Color.YELLOW;
 		} 
 	} 
 	
+	/**
+	 * Create the colors for every speed from stopped to top speed
+	 * @param forward Whether to create greens for driving forward or reds for reversing
+	 * @return Colors from 127 to 255 brightness
+	 */
+	private static Color[] shades(boolean forward) {
+		Color[] shades = new Color[129];
+		for (int i = 0; i < shades.length; i++) {
+			shades[i] = forward ? new Color(0, 127 + i, 0) : new Color(127 + i, 0, 0);
+		} //loop
+		
+		return shades;
+	} 
+	
 	/**
 	 * Get the width of the robot in pixels
 	 * @return Width of robot in pixels
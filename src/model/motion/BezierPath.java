@@ -161,4 +161,45 @@ public class BezierPath {
 	public double getInitialHeading() {
 		return calcHeading(0);
 	} //end getInitHeading
+	
+	//Basis
+	
+	/**
+	 * Get the weight of a control point of a Bezier curve at a t value
+	 * @param n Degree of the curve
+	 * @param i Index of the control point
+	 * @param t Parametric t value from 0 to 1
+	 * @return Bernstein polynomial, 0 if the index is not part of the curve
+	 */
+	public static double bernstein(int n, int i, double t) {
+		if (i < 0 || i > n)
+			return 0;
+
+		double choose = 1;
+		for (int k = 1; k <= i; k++) {
+			choose = choose * (n - i + k) / k;
+		} //loop
+
+		return choose * Math.pow(t, i) * Math.pow(1 - t, n - i);
+	} //end bernstein
+	
+	/**
+	 * Get the weights of the control points of a quintic curve at evenly spaced t values
+	 * The weights only depend on t, so every curve sampled at the same t values can share them
+	 * @param samples Number of t values from 0 to 1, at least 2
+	 * @return Weights of the point, first and second derivative, by control point then sample
+	 */
+	public static double[][][] calcBasis(int samples) {
+		double[][][] basis = new double[3][6][samples];
+		for (int k = 0; k < samples; k++) {
+			double t = (double) k / (samples - 1);
+			for (int i = 0; i <= 5; i++) {
+				basis[0][i][k] = bernstein(5, i, t);
+				basis[1][i][k] = 5 * (bernstein(4, i - 1, t) - bernstein(4, i, t));
+				basis[2][i][k] = 20 * (bernstein(3, i - 2, t) - 2 * bernstein(3, i - 1, t) + bernstein(3, i, t));
+			} //loop
+		} //loop
+		
+		return basis;
+	} //end calcBasis
 } //end class
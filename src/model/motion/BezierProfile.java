@@ -9,18 +9,21 @@ import java.util.Arrays;
 import model.FieldPositioning;
 import model.Point;
 import model.Pose;
+import util.Events.TrajectoryEvent;
+import util.Metrics;
 import util.Util;
 
 public class BezierProfile extends DriveProfile {
 	//Attributes
-	private BezierPath path; //path to follow
+	private SplinePath path; //path to follow, one or more quintic segments
 	private double trackWidth; //width of the robot wheelbase in inches
 	private double maxVel; //maximum velocity robot can reach in in/s
 	private double maxAcc; //maximum acceleration robot can reach in in/s^2
 	private double maxDec; //maximum deceleration robot can reach in in/s^2
 	
-	private final int SIZE = 500;; //number of pieces the path is split into
-	private final double STEP = 1.0 / SIZE; //inverse of size
+	public static final int SIZE = 500; //default number of pieces each segment of the path is split into
+	private int segmentSize; //number of pieces each segment is split into
+	private double step; //inverse of the segment size
 	
 	private double totalLength; //arclength of the entire path in inches
 	private double[] tVals; //t values for the points evenly spaced along the path
@@ -53,18 +56,57 @@ public class BezierProfile extends DriveProfile {
 	 * @param maxDec Maximum reachable robot deceleration in in/s^2
 	 */
 	public BezierProfile(Point[] controlPts, double trackWidth, double maxVel, double maxAcc, double maxDec) {
+		this(controlPts, trackWidth, maxVel, maxAcc, maxDec, SIZE);
+	} //end constructor
+	
+	/**
+	 * Create a profile to follow a Bezier curve at a chosen resolution
+	 * @param controlPts Control points of the Bezier curve
+	 * @param trackWidth Width of the robot wheelbase in inches
+	 * @param maxVel Maximum reachable robot velocity in in/s
+	 * @param maxAcc Maximum reachable robot acceleration in in/s^2
+	 * @param maxDec Maximum reachable robot deceleration in in/s^2
+	 * @param size Number of pieces the path is split into, fewer is faster but coarser
+	 */
+	public BezierProfile(Point[] controlPts, double trackWidth, double maxVel, double maxAcc, double maxDec, int size) {
+		this(new SplinePath(controlPts), trackWidth, maxVel, maxAcc, maxDec, size);
+	} //end constructor
+	
+	/**
+	 * Create a profile to follow every segment of a spline
+	 * The segments are built in parallel then joined with one velocity pass over the whole path
+	 * @param path Spline of one or more quintic segments
+	 * @param trackWidth Width of the robot wheelbase in inches
+	 * @param maxVel Maximum reachable robot velocity in in/s
+	 * @param maxAcc Maximum reachable robot acceleration in in/s^2
+	 * @param maxDec Maximum reachable robot deceleration in in/s^2
+	 * @param size Number of pieces each segment is split into, fewer is faster but coarser
+	 */
+	public BezierProfile(SplinePath path, double trackWidth, double maxVel, double maxAcc, double maxDec, int size) {
+		TrajectoryEvent event = new TrajectoryEvent();
+		event.begin();
+		
 		//set attributes
-		path = new BezierPath(controlPts);
+		this.path = path;
 		this.trackWidth = trackWidth;
 		this.maxVel = maxVel;
 		this.maxAcc = maxAcc;
 		this.maxDec = maxDec;
-		this.size = SIZE;
+		this.segmentSize = size;
+		this.size = size * path.getNumSegments();
+		this.step = 1.0 / size;
 		
 		//create profile
 		computeConstants();
 		fillProfiles();
 		fillPoses();
+		Metrics.countPathGeneration();
+		
+		event.end();
+		if (event.shouldCommit()) {
+			event.set("BezierProfile", poses.length);
+			event.commit();
+		} //if
 	} //end constructor
 	
 	/**
@@ -87,9 +129,12 @@ public class BezierProfile extends DriveProfile {
 		 * Create a list of points with even t value spacing. This is later used to split the
 		 * curve up into segments of equal length.
 		 */
-		double[] tDistances = parameterizeByT();
-		this.totalLength = tDistances[tDistances.length - 1]; //last distance is length of curve
-		//t value is index/size, tDistances[index] is distance along path at that t value
+		double[][] tDistances = parameterizeByT();
+		this.totalLength = 0;
+		for (int s = 0; s < tDistances.length; s++) {
+			this.totalLength += tDistances[s][segmentSize]; //last distance is length of the segment
+		} //loop
+		//t value is index/segmentSize, tDistances[segment][index] is distance along the segment at that t value
 		
 		/*
 		 * Create the evenly spaced points list by linearly interpolating between the points based on the
@@ -97,8 +142,6 @@ public class BezierProfile extends DriveProfile {
 		 * also calculated at this point.
 		 */
 		parameterizeByD(tDistances);
-		calcRadii();
-		calcHeadings();
 		
 		/*
 		 * Constrain the center velocity of the robot by the path's curvature. 
@@ -119,60 +162,93 @@ public class BezierProfile extends DriveProfile {
 	} //end computeConstants
 	
 	/**
-	 * Split the curve up with evenly spaced t values
-	 * @return Distance along the curve at each t value
+	 * Split each segment up with evenly spaced t values, in parallel
+	 * @return Distance along the segment at each t value, for each segment
 	 */
-	private double[] parameterizeByT() {
-		double t = 0; //parametric value
-		double dist = 0; 
-		double[] distances = new double[SIZE];
-		
-		distances[0] = 0; //start with zero distance
+	private double[][] parameterizeByT() {
+		double[][] distances = new double[path.getNumSegments()][segmentSize + 1]; //t from 0 to 1 so segments meet at their ends
 		
-		for (int i = 1; i < SIZE; i++) {
-			//cumulatively sum the distance
-			dist += FieldPositioning.dist(path.calcPoint(t), path.calcPoint(t - STEP));
-			distances[i] = dist;
+		path.forEachSegment(s -> {
+			BezierPath segment = path.getSegment(s);
+			double dist = 0; 
+			distances[s][0] = 0; //start with zero distance
 			
-			t += 1.0 / SIZE;
-		} //loop
+			for (int i = 1; i <= segmentSize; i++) {
+				double t = i * step; //parametric value
+				
+				//cumulatively sum the distance
+				dist += FieldPositioning.dist(segment.calcPoint(t), segment.calcPoint(t - step));
+				distances[s][i] = dist;
+			} //loop
+		});
 		
 		return distances;
 	} //end parameterizeByT
 
 	/**
-	 * Parameterize the curve by distance values
-	 * @param tDistances Distance values from t parameterization
-	 * @return Array of t values parameterized by distance
+	 * Parameterize the curve by distance values, finding the points, radii and headings of each segment in parallel
+	 * @param tDistances Distance values from t parameterization of each segment
 	 */
-	private void parameterizeByD(double[] tDistances) {
+	private void parameterizeByD(double[][] tDistances) {
+		final int n = tDistances.length; //number of segments
 		double dist = 0;
-		double distStep = this.totalLength / SIZE;
+		double distStep = this.totalLength / size;
+		
+		//distance along the path at each point
+		double[] along = new double[size];
+		for (int i = 1; i < size; i++) {
+			dist += distStep; //increase the distance
+			along[i] = dist;
+		} //loop
+		
+		//distance along the path where each segment starts and the first point that lands on it
+		double[] starts = new double[n];
+		int[] first = new int[n + 1];
+		first[n] = size;
+		for (int s = 1; s < n; s++) {
+			starts[s] = starts[s-1] + tDistances[s-1][segmentSize];
+			int i = first[s-1];
+			while (i < size && along[i] < starts[s]) {
+				i++;
+			} //loop
+			first[s] = i;
+		} //loop
 				
-		//initialize the t values array
-		tVals = new double[SIZE];
+		//initialize the t values, points, radii and headings (t values are along each point's segment)
+		tVals = new double[size];
 		tVals[0] = 0;
-		
-		//initialize the points array
-		this.evenPoints = new Point[SIZE];
+		this.evenPoints = new Point[size];
 		this.evenPoints[0] = path.getControlPoints()[0];
+		centerRadius = new double[size];
+		headings = new double[size];
 		
-		for (int i = 1; i < SIZE; i++) {
-			dist += distStep; //increase the distance
-			
-			//index of the distance in tDistances just below dist (bottom of the sandwich)
-			int k = Util.findSandwichedElements(tDistances, dist, 1E-3)[0];
+		path.forEachSegment(s -> {
+			BezierPath segment = path.getSegment(s);
+			double[] table = tDistances[s];
 			
-			//linear interpolation
-			double t2 = (k+1) * STEP;
-			double t1 = k * STEP;
-			double d2 = tDistances[k+1];
-			double d1 = tDistances[k];
-			
-			//add the point at the interpolated t value to the curve
-			tVals[i] = Util.interpolate(dist, t1, d1, t2, d2);
-			evenPoints[i] = path.calcPoint(tVals[i]);
-		} //loop
+			for (int i = first[s]; i < first[s+1]; i++) {
+				if (i > 0) {
+					double d = along[i] - starts[s];
+					
+					//index of the distance in the table just below dist (bottom of the sandwich)
+					int k = Math.min(Util.findSandwichedElements(table, d, 1E-3)[0], table.length - 2);
+					
+					//linear interpolation
+					double t2 = (k+1) * step;
+					double t1 = k * step;
+					double d2 = table[k+1];
+					double d1 = table[k];
+					
+					//add the point at the interpolated t value to the curve
+					tVals[i] = Util.interpolate(d, t1, d1, t2, d2);
+					evenPoints[i] = segment.calcPoint(tVals[i]);
+				} //if
+				
+				//radius is inverse of curvature
+				centerRadius[i] = segment.calcRadius(tVals[i]);
+				headings[i] = segment.calcHeading(tVals[i]);
+			} //loop
+		});
 	} //end paramaterizeByD
 	
 	/**
@@ -180,37 +256,20 @@ public class BezierProfile extends DriveProfile {
 	 */
 	private void applyCurvatureConstraint() {
 		//initialize the center velocity list
-		centerVel = new double[SIZE];
+		centerVel = new double[size];
 		
 		//fill the center velocities
-		for (int i = 0; i < SIZE; i++) {
+		for (int i = 0; i < size; i++) {
 			centerVel[i] = (maxVel * centerRadius[i]) / (centerRadius[i] + trackWidth / 2);
 		} //loop
 	} //end applyCurvatureConstraint
 	
-	/**
-	 * Calculate the center radius along the spline
-	 */
-	private void calcRadii() {
-		/*
-		 * Potentially refactor this to the calculus method
-		 * dx, dy, ddx, ddy
-		 * Use 1 / curvature formula
-		 */
-		centerRadius = new double[SIZE];
-		
-		for (int i = 0; i < centerRadius.length; i++) {
-			//radius is inverse of curvature
-			centerRadius[i] = path.calcRadius(tVals[i]);
-		} //loop		
-	} //end calcRadii
-	
 	/**
 	 * Constrain the center velocity with the maximum acceleration value
 	 */
 	private void applyAccelerationConstraint() {
 		//distance between points
-		double distStep = this.totalLength / SIZE;
+		double distStep = this.totalLength / size;
 		
 		//start at initial speed of zero
 		centerVel[0] = 0;
@@ -227,13 +286,13 @@ public class BezierProfile extends DriveProfile {
 	 */
 	private void applyDecelerationConstraint() {
 		//distance between points
-		double distStep = this.totalLength / SIZE;
+		double distStep = this.totalLength / size;
 		
 		//start at final speed of zero
 		centerVel[centerVel.length - 1] = 0;
 		
 		//calculate the new center velocity looping backwards, skipping the first one
-		for (int i = SIZE - 2; i >= 0; i--) {
+		for (int i = size - 2; i >= 0; i--) {
 			double velFromAcc = Math.sqrt(Math.pow(centerVel[i+1], 2) + 2 * maxDec * distStep); //sqrt(v^2 + 2ad)
 			centerVel[i] = Math.min(velFromAcc, centerVel[i]); //minimum of this new constraint and old value
 		} //loop
@@ -259,7 +318,7 @@ public class BezierProfile extends DriveProfile {
 		calcWheelAccelerations();
 		
 		//fill the left and right side trajectory points (just velocity setpoints)
-		for (int i = 0; i < SIZE; i++) {
+		for (int i = 0; i < size; i++) {
 			this.leftProfile.add(new double[] {leftPos[i], leftVel[i] / 12, leftAcc[i]});
 			this.rightProfile.add(new double[] {rightPos[i], rightVel[i] / 12, rightAcc[i]});
 		} //loop
@@ -268,10 +327,10 @@ public class BezierProfile extends DriveProfile {
 	public void fillPoses() {
 		fillTimes();
 		
-		poses = new Pose[SIZE];
+		poses = new Pose[size];
 		poses[0] = new Pose(path.getControlPoints()[0], Math.toRadians(path.getInitialHeading()));
 		
-		omega = new double[SIZE];
+		omega = new double[size];
 		omega[0] = 0;
 		
 		for (int i = 1; i < poses.length; i++) {
@@ -280,23 +339,12 @@ public class BezierProfile extends DriveProfile {
 		}
 	}
 	
-	/**
-	 * Fill the array of headings for the robot to follow
-	 */
-	private void calcHeadings() {
-		//first calc 
-		headings = new double[SIZE];
-		
-		for (int i = 0; i < headings.length; i++)
-			headings[i] = path.calcHeading(tVals[i]);
-	} //end calcHeadings
-	
 	/**
 	 * Represent the change in heading as an int (1 if negative, -1 if positive, 0 if none)
 	 * @return Array of values for deciding which wheel is outer
 	 */
 	private int[] calcDeltaHeadings() {
-		int[] dTheta = new int[SIZE];
+		int[] dTheta = new int[size];
 		
 		dTheta[0] = 0; //no change at first point
 		
@@ -314,10 +362,10 @@ public class BezierProfile extends DriveProfile {
 	private void calcOuterRadii() {
 		int[] dTheta = calcDeltaHeadings();
 		double offset = trackWidth / 2;
-		leftRadius = new double[SIZE];
-		rightRadius = new double[SIZE];
+		leftRadius = new double[size];
+		rightRadius = new double[size];
 		
-		for (int i = 0; i < SIZE; i++) {
+		for (int i = 0; i < size; i++) {
 			if (dTheta[i] == 1) { //turning right, left is outer
 				leftRadius[i] = centerRadius[i] + offset;
 				rightRadius[i] = centerRadius[i] - offset;
@@ -337,10 +385,10 @@ public class BezierProfile extends DriveProfile {
 	 * Calculate the wheel velocities in inches per second
 	 */
 	private void calcWheelVelocities() {
-		leftVel = new double[SIZE];
-		rightVel = new double[SIZE];
+		leftVel = new double[size];
+		rightVel = new double[size];
 		
-		for (int i = 0; i < SIZE; i++) {
+		for (int i = 0; i < size; i++) {
 			leftVel[i] = (centerVel[i] / centerRadius[i]) * leftRadius[i];
 			rightVel[i] = (centerVel[i] / centerRadius[i]) * rightRadius[i];
 		} //loop
@@ -350,8 +398,8 @@ public class BezierProfile extends DriveProfile {
 	 * Calculate the time at each step and set the total time
 	 */
 	private void fillTimes() {
-		times = new double[SIZE];
-		double distStep = this.totalLength / SIZE;
+		times = new double[size];
+		double distStep = this.totalLength / size;
 		double time = 0;
 		times[0] = 0;
 		
@@ -367,15 +415,15 @@ public class BezierProfile extends DriveProfile {
 	 * Calculate the wheel positions in inches
 	 */
 	private void calcWheelPositions() {
-		leftPos = new double[SIZE];
-		rightPos = new double[SIZE];
+		leftPos = new double[size];
+		rightPos = new double[size];
 		double left = 0;
 		double right = 0;
 		
 		leftPos[0] = 0;
 		rightPos[0] = 0;
 		
-		for (int i = 1; i < SIZE; i++) {
+		for (int i = 1; i < size; i++) {
 			double dt = times[i] - times[i-1];
 			left += leftVel[i] * dt;
 			leftPos[i] = left;
@@ -389,13 +437,13 @@ public class BezierProfile extends DriveProfile {
 	 * Calculate the wheel accelerations in in/s^2
 	 */
 	public void calcWheelAccelerations() {
-		leftAcc = new double[SIZE];
-		rightAcc = new double[SIZE];
+		leftAcc = new double[size];
+		rightAcc = new double[size];
 		
 		leftAcc[0] = 0;
 		rightAcc[0] = 0;
 		
-		for (int i = 1; i < SIZE; i++) {
+		for (int i = 1; i < size; i++) {
 			double dt = times[i] - times[i-1];
 			leftAcc[i] = (leftVel[i] - leftVel[i-1]) / dt;
 			rightAcc[i] = (rightVel[i] - rightVel[i-1]) / dt;
@@ -427,7 +475,7 @@ public class BezierProfile extends DriveProfile {
 	 * @return Number of steps in the profile
 	 */
 	public int getSize() {
-		return SIZE;
+		return size;
 	} //end getSize
 	
 	/**
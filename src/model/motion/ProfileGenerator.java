@@ -18,6 +18,8 @@ import org.knowm.xchart.XYChart;
 
 import model.Point;
 import model.Pose;
+import util.Events;
+import util.Events.ProfileFileEvent;
 import util.FieldPoints;
 import util.PlotGenerator;
 import util.Util;
@@ -59,6 +61,8 @@ public class ProfileGenerator {
 	 */
 	private static ArrayList<Pose> posesFromVelsFile(String filename, BezierProfile profile) {
 		ArrayList<Pose> poses = new ArrayList<Pose>();
+		ProfileFileEvent event = new ProfileFileEvent();
+		event.begin();
 		
 		try {
 			Scanner s = new Scanner(new File(Util.UTIL_DIR + filename + ".vels"));
@@ -96,9 +100,11 @@ public class ProfileGenerator {
 			} //loop
 			
 			s.close();
+			Events.commitFile(event, Util.UTIL_DIR + filename + ".vels", false, poses.size() - 1, true);
 			
 		} catch (FileNotFoundException e) {
 			Util.println("Could not find " + filename);
+			Events.commitFile(event, Util.UTIL_DIR + filename + ".vels", false, 0, false);
 		} //try-catch
 		
 		return poses;
@@ -111,6 +117,9 @@ public class ProfileGenerator {
 	 * @return True if writing was successful, false if not
 	 */
 	private static boolean posesToFile(ArrayList<Pose> poses, String filename) {
+		ProfileFileEvent event = new ProfileFileEvent();
+		event.begin();
+		
 		try {
 			PrintWriter pw = new PrintWriter(new File(Util.UTIL_DIR + filename + ".poses"));
 			
@@ -124,10 +133,12 @@ public class ProfileGenerator {
 			} //loop
 			
 			pw.close();
+			Events.commitFile(event, Util.UTIL_DIR + filename + ".poses", true, poses.size(), true);
 			return true;
 			
 		} catch (FileNotFoundException e) {
 			Util.println("Could not find " + filename);
+			Events.commitFile(event, Util.UTIL_DIR + filename + ".poses", true, 0, false);
 			return false;
 		} //try-catch
 	} //end posesToFile
@@ -139,6 +150,8 @@ public class ProfileGenerator {
 	 */
 	public static ArrayList<Pose> posesFromFile(String filename) {
 		ArrayList<Pose> poses = new ArrayList<Pose>();
+		ProfileFileEvent event = new ProfileFileEvent();
+		event.begin();
 		
 		try {
 			Scanner s = new Scanner(new File(Util.UTIL_DIR + filename + ".poses"));
@@ -153,15 +166,21 @@ public class ProfileGenerator {
 			} //loop
 			
 			s.close();
+			Events.commitFile(event, Util.UTIL_DIR + filename + ".poses", false, poses.size(), true);
 			
 		} catch (FileNotFoundException e) {
 			Util.println("Could not find " + filename);
+			Events.commitFile(event, Util.UTIL_DIR + filename + ".poses", false, 0, false);
 		} //try-catch
 		
 		return poses;
 	} //end posesFromFile
 	
 	public static boolean posesToFile(BezierProfile profile, String filename) {
+		ProfileFileEvent event = new ProfileFileEvent();
+		event.begin();
+		int lines = 0;
+		
 		try {
 			PrintWriter pw = new PrintWriter(new File(Util.UTIL_DIR + filename + ".ramsete"));
 			
@@ -173,12 +192,15 @@ public class ProfileGenerator {
 				double v = profile.getCenter(time);
 				double w = profile.getOmega(time);
 				pw.println(String.format("%.3f %.3f %.3f %.3f %.3f %.3f", time, x, y, theta, v, w));
+				lines++;
 			}
 			
 			pw.close();
+			Events.commitFile(event, Util.UTIL_DIR + filename + ".ramsete", true, lines, true);
 			return true;
 			
 		} catch(IOException e) {
+			Events.commitFile(event, Util.UTIL_DIR + filename + ".ramsete", true, lines, false);
 			return false;
 		}
 	}
@@ -191,6 +213,10 @@ public class ProfileGenerator {
 	 * @return True if writing was successful, false if not
 	 */
 	public static boolean printPathPointsToFile(BezierPath path, String filename, int numPoints) {
+		ProfileFileEvent event = new ProfileFileEvent();
+		event.begin();
+		int lines = 0;
+		
 		try {
 			PrintWriter pw = new PrintWriter(new File(Util.UTIL_DIR + filename + ".path"));
 			
@@ -198,12 +224,15 @@ public class ProfileGenerator {
 			for (double t = 0; t <= 1.0; t += step) {
 				Point p = path.calcPoint(t);
 				pw.write(String.format("%.3f %.3f\n", p.getX(), p.getY()));
+				lines++;
 			}
 			
 			pw.close();
+			Events.commitFile(event, Util.UTIL_DIR + filename + ".path", true, lines, true);
 			return true;
 			
 		} catch (Exception e) {
+			Events.commitFile(event, Util.UTIL_DIR + filename + ".path", true, lines, false);
 			return false;
 		}
 	}
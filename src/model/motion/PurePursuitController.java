@@ -14,6 +14,7 @@ import org.knowm.xchart.XYChart;
 import model.FieldPositioning;
 import model.Point;
 import model.Pose;
+import util.Events.GoalAdvanceEvent;
 import util.PlotGenerator;
 import util.Util;
 
@@ -42,7 +43,9 @@ public class PurePursuitController {
 	
 	//Rate Limiter
 	private double lastSpeed; //last speed value
-	private double maxSpeedStep; //maximum amount the speed can increase
+	private double accTime; //time for the speed to ramp up to its maximum
+	private double period; //time each update covers in seconds
+	private double maxSpeedStep; //maximum amount the speed can increase in an update
 	ArrayList<Double> output = new ArrayList<Double>();
 		
 	/**
@@ -55,6 +58,7 @@ public class PurePursuitController {
 		this.speed = 0;
 		this.turn = 0;
 		this.turnConst = 0;
+		this.period = Util.UPDATE_PERIOD;
 	} 
 
 	/**
@@ -81,7 +85,18 @@ public class PurePursuitController {
 		this.reverse = reverse;
 		
 		this.lastSpeed = 0; //start at zero lastSpeed
-		this.maxSpeedStep = Util.UPDATE_PERIOD * maxSpeed / accTime;
+		this.accTime = accTime;
+		this.maxSpeedStep = period * maxSpeed / accTime;
+	}
+	
+	/**
+	 * Set the time each update covers, so the speed ramps up over the same time at any period
+	 * @param period Time of each update in seconds, Util.UPDATE_PERIOD by default
+	 */
+	public void setPeriod(double period) {
+		this.period = period;
+		if (accTime != 0)
+			this.maxSpeedStep = period * maxSpeed / accTime;
 	}
 	
 	/**
@@ -155,6 +170,12 @@ public class PurePursuitController {
 		if (FieldPositioning.dist(robotPose.getPoint(), goal) <= endDist) {
 			goal = goals[goalIndex];
 			goalIndex++;
+			
+			GoalAdvanceEvent event = new GoalAdvanceEvent();
+			if (event.shouldCommit()) {
+				event.set(goalIndex, goals.length);
+				event.commit();
+			} //if
 		} 
 		arrived = goalIndex == goals.length-1;
 		
@@ -329,4 +350,18 @@ public class PurePursuitController {
 		this.arrived = false;
 		this.goalIndex = 0;
 	}
+	
+	/**
+	 * Copy the progress of another controller along its waypoints (not its constants)
+	 * @param other Controller to copy the progress of
+	 */
+	public void copyStateFrom(PurePursuitController other) {
+		this.goalIndex = other.goalIndex;
+		this.goal = other.goal;
+		this.arrived = other.arrived;
+		this.speed = other.speed;
+		this.turn = other.turn;
+		this.robotPose = other.robotPose;
+		this.lastSpeed = other.lastSpeed;
+	}
 }
\ No newline at end of file
@@ -14,11 +14,16 @@ import java.util.Scanner;
 
 import model.FieldPositioning;
 import model.Point;
+import util.Events.TrajectoryEvent;
+import util.Metrics;
 import util.Util;
 
 public class PursuitPath {
+	//Constants
+	public static final int GENERATOR = 1; //version of how paths are built, raise it whenever a change moves the points
+	
 	//Attributes
-	private BezierPath path; //quintic bezier spline
+	private SplinePath path; //chained quintic bezier spline
 	private double trackWidth; //wheel-wheel robot width in inches
 	private double maxVel; //top speed in in/s
 	private double acc; //acceleration constant in in/s^2
@@ -41,8 +46,22 @@ public class PursuitPath {
 	 * @param spacing Linear distance between points in inches
 	 */
 	public PursuitPath(Point[] controlPts, double trackWidth, double maxVel, double acc, double dec, double spacing) {
+		this(new SplinePath(controlPts), trackWidth, maxVel, acc, dec, spacing);
+	} //end constructor
+	
+	/**
+	 * Create a Pursuit Path for the robot to follow along every segment of a spline
+	 * The segments are built in parallel then joined with one velocity pass over the whole path
+	 * @param path Spline of one or more quintic segments
+	 * @param trackWidth Wheel-wheel robot width in inches
+	 * @param maxVel Top velocity for robot to reach in in/s
+	 * @param acc Magnitude of acceleration constant in in/s^2
+	 * @param dec Magnitude of deceleration constant in in/s^2
+	 * @param spacing Linear distance between points in inches
+	 */
+	public PursuitPath(SplinePath path, double trackWidth, double maxVel, double acc, double dec, double spacing) {
 		//set attributes
-		this.path = new BezierPath(controlPts);
+		this.path = path;
 		this.trackWidth = trackWidth;
 		this.maxVel = maxVel;
 		this.acc = acc;
@@ -109,11 +128,14 @@ public class PursuitPath {
 	 * Create the path object
 	 */
 	private void createPath() {
+		TrajectoryEvent event = new TrajectoryEvent();
+		event.begin();
+		
 		/*
 		 * Create a list of points with even t value spacing. This is later used to split the
 		 * curve up into segments of equal length.
 		 */
-		double[] tDistances = parameterizeByT();
+		double[][] tDistances = parameterizeByT();
 		
 		/*
 		 * Create the evenly spaced points list by linearly interpolating between the points based on the
@@ -145,66 +167,97 @@ public class PursuitPath {
 		 * of the center velocity list.
 		 */
 		applyDecelerationConstraint();
+		Metrics.countPathGeneration();
+		
+		event.end();
+		if (event.shouldCommit()) {
+			event.set("PursuitPath", points.length);
+			event.commit();
+		} //if
 	} //end createPath
 	
 	/**
-	 * Parameterize the curve with evenly spaced t-values
-	 * @return Array with distance along path at each step
+	 * Parameterize each segment with evenly spaced t-values, in parallel
+	 * @return Array with distance along the segment at each step, for each segment
 	 */
-	private double[] parameterizeByT() {
-		final int size = 500; //total resolution
+	private double[][] parameterizeByT() {
+		final int size = 500; //total resolution of each segment
 		final double step = 1.0/size; //step size for t-value
+		double[][] distances = new double[path.getNumSegments()][size + 1]; //t from 0 to 1 so segments meet at their ends
 		
-		double t = 0; //parametric value
-		double dist = 0; //cumulative distance
-		
-		double[] distances = new double[size];
-		distances[0] = 0; //start with zero distance
+		path.forEachSegment(s -> {
+			BezierPath segment = path.getSegment(s);
+			double dist = 0; //cumulative distance
+			distances[s][0] = 0; //start with zero distance
+			
+			for (int i = 1; i <= size; i++) {
+				double t = i * step; //parametric value
+				//cumulatively sum the distance
+				dist += FieldPositioning.dist(segment.calcPoint(t), segment.calcPoint(t - step));
+				distances[s][i] = dist;
+			} //loop
+		});
 		
-		for (int i = 1; i < size; i++) {
-			t += step;
-			//cumulatively sum the distance
-			dist += FieldPositioning.dist(path.calcPoint(t), path.calcPoint(t - step));
-			distances[i] = dist;
+		//total length of the path is the sum of the fully summed values
+		this.totalLength = 0;
+		for (int s = 0; s < distances.length; s++) {
+			this.totalLength += distances[s][size];
 		} //loop
 		
-		//total length of the path is the fully summed value
-		this.totalLength = distances[distances.length-1];
 		return distances;
 	} //end parameterizeByT
 	
 	/**
-	 * Split the curve up into equally spaced points
-	 * @param tDistances Distance along the path when parameterically defined
+	 * Split the curve up into equally spaced points, placing the points of each segment in parallel
+	 * @param tDistances Distance along each segment when parameterically defined
 	 */
-	private void parameterizeByD(double[] tDistances) {
+	private void parameterizeByD(double[][] tDistances) {
 		final int size = (int) Math.ceil(this.totalLength / DIST_STEP); //total length / step length
-		final double step = 1.0 / tDistances.length; //for new t values
-		double dist = 0; //cumulative distance
+		final int n = tDistances.length; //number of segments
 		
 		//initialize the points array
 		this.points = new Point[size];
 		this.points[0] = path.getControlPoints()[0]; //first point of path object
 		
+		//distance along the path where each segment starts and the first point that lands on it
+		double[] starts = new double[n];
+		int[] first = new int[n + 1];
+		first[0] = 1;
+		first[n] = size;
+		for (int s = 1; s < n; s++) {
+			starts[s] = starts[s-1] + tDistances[s-1][tDistances[s-1].length-1];
+			first[s] = Math.max(first[s-1], Math.min(size, (int) Math.ceil(starts[s] / DIST_STEP)));
+		} //loop
+		
+		path.forEachSegment(s -> {
+			BezierPath segment = path.getSegment(s);
+			double[] table = tDistances[s];
+			final double step = 1.0 / (table.length - 1); //for new t values
+			
+			for (int i = first[s]; i < first[s+1]; i++) {
+				double d = (double) i * DIST_STEP - starts[s];
+				//index of the distance in the table just below dist (bottom of the sandwich)
+				//kept below the last index so a point within the tolerance of the end still has one above it
+				int k = Math.min(Util.findSandwichedElements(table, d, 1E-3)[0], table.length - 2);
+				
+				//linear interpolation
+				double t2 = (k+1) * step;
+				double t1 = k * step;
+				double d2 = table[k+1];
+				double d1 = table[k];
+				
+				//add the point at the interpolated t value to the curve
+				double t = Util.interpolate(d, t1, d1, t2, d2);
+				points[i] = segment.calcPoint(t);
+			} //loop
+		});
+		
 		//initialize the distance array
 		this.distAlongPath = new double[size];
 		distAlongPath[0] = 0; //start at zero units
+		double dist = 0; //cumulative distance
 		
-		for (int i = 1; i < size; i++) {			
-			double d = (double) i * DIST_STEP;
-			//index of the distance in tDistances just below dist (bottom of the sandwich)
-			int k = Util.findSandwichedElements(tDistances, d, 1E-3)[0];
-			
-			//linear interpolation
-			double t2 = (k+1) * step;
-			double t1 = k * step;
-			double d2 = tDistances[k+1];
-			double d1 = tDistances[k];
-			
-			//add the point at the interpolated t value to the curve
-			double t = Util.interpolate(d, t1, d1, t2, d2);
-			points[i] = path.calcPoint(t);
-			
+		for (int i = 1; i < size; i++) {
 			//add the distance to the distances array
 			dist += FieldPositioning.dist(points[i-1], points[i]);
 			distAlongPath[i] = dist;
@@ -426,6 +479,30 @@ public class PursuitPath {
 		return points;
 	} //end getPoints
 	
+	/**
+	 * Get the distance along the path at each point
+	 * @return Distance from the start of the path in inches
+	 */
+	public double[] getDistances() {
+		return distAlongPath;
+	} //end getDistances
+	
+	/**
+	 * Get the radius of travel at each point in the path
+	 * @return Radius of the path at each point in inches
+	 */
+	public double[] getRadii() {
+		return radius;
+	} //end getRadii
+	
+	/**
+	 * Get the velocity at each point in the path
+	 * @return Velocity the robot should be following at each point
+	 */
+	public double[] getVelocities() {
+		return vel;
+	} //end getVelocities
+	
 	/**
 	 * Get the path's initial heading
 	 * @return Initial heading of the path for the robot to point at
@@ -0,0 +1,176 @@
+/**
+ * SplinePath
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Quintic Bezier segments chained end to end into one path
+ */
+
+package model.motion;
+
+import model.FieldPositioning;
+import model.Point;
+import util.Parallel;
+
+public class SplinePath extends BezierPath {
+	//Attributes
+	//Configured
+	private int threads; //threads used to build the segments
+
+	//Calculated
+	private BezierPath[] segments; //quintic curves, each starting where the last one ends
+
+	/**
+	 * Work done on one segment, run in parallel with the other segments
+	 */
+	public interface SegmentTask {
+		/**
+		 * Do the work for a segment
+		 * @param s Index of the segment
+		 */
+		void run(int s);
+	} //end SegmentTask
+
+	/**
+	 * Create a spline from the control points of all its segments
+	 * @param controlPts Six control points for the first segment then five more for each segment after,
+	 * the last point of a segment is the first point of the next
+	 */
+	public SplinePath(Point[] controlPts) {
+		super(controlPts);
+		this.threads = Runtime.getRuntime().availableProcessors();
+		createSegments(controlPts);
+	} //end constructor
+
+	/**
+	 * Create a spline from the control point coordinates of all its segments
+	 * @param controlPts (x,y) control point coordinates, six then five more for each segment after
+	 */
+	public SplinePath(double[][] controlPts) {
+		this(FieldPositioning.pointsFromDoubles(controlPts));
+	} //end constructor
+
+	/**
+	 * Chain segments so the path is C2 continuous (position, heading and curvature match at every join)
+	 * The first two control points after each join follow from the segment before it
+	 * @param first Six control points of the first segment
+	 * @param next Last three control points of each segment after
+	 * @return Spline through all of the segments
+	 */
+	public static SplinePath chain(Point[] first, Point[]... next) {
+		Point[] pts = new Point[6 + 5 * next.length];
+		System.arraycopy(first, 0, pts, 0, 6);
+
+		for (int s = 0; s < next.length; s++) {
+			int j = 5 * (s + 1); //join, shared by both segments
+			Point p3 = pts[j - 2], p4 = pts[j - 1], p5 = pts[j];
+
+			//matching first derivatives: q1 = 2p5 - p4
+			pts[j + 1] = new Point(2 * p5.getX() - p4.getX(), 2 * p5.getY() - p4.getY());
+
+			//matching second derivatives: q2 = p3 - 4p4 + 4p5
+			pts[j + 2] = new Point(p3.getX() - 4 * p4.getX() + 4 * p5.getX(), p3.getY() - 4 * p4.getY() + 4 * p5.getY());
+
+			System.arraycopy(next[s], 0, pts, j + 3, 3);
+		} //loop
+
+		return new SplinePath(pts);
+	} //end chain
+
+	/**
+	 * Chain segments so the path is C2 continuous
+	 * @param first (x,y) coordinates of the six control points of the first segment
+	 * @param next (x,y) coordinates of the last three control points of each segment after
+	 * @return Spline through all of the segments
+	 */
+	public static SplinePath chain(double[][] first, double[][]... next) {
+		Point[][] pts = new Point[next.length][];
+		for (int s = 0; s < next.length; s++) {
+			pts[s] = new Point[3];
+			for (int i = 0; i < 3; i++) {
+				pts[s][i] = new Point(next[s][i]);
+			} //loop
+		} //loop
+
+		return chain(FieldPositioning.pointsFromDoubles(first), pts);
+	} //end chain
+
+	/**
+	 * Split the control points into segments
+	 * @param controlPts Six control points then five more for each segment after
+	 */
+	private void createSegments(Point[] controlPts) {
+		if (controlPts.length < 6 || (controlPts.length - 1) % 5 != 0)
+			throw new IllegalArgumentException("spline needs 6, 11, 16... control points, got " + controlPts.length);
+
+		//each segment shares its end points with its neighbours
+		segments = new BezierPath[(controlPts.length - 1) / 5];
+		for (int s = 0; s < segments.length; s++) {
+			Point[] pts = new Point[6];
+			System.arraycopy(controlPts, 5 * s, pts, 0, 6);
+			segments[s] = new BezierPath(pts);
+		} //loop
+	} //end createSegments
+
+	/**
+	 * Run a task for every segment, in parallel when there is more than one
+	 * @param task Work for a segment, only writing to the parts of shared arrays that belong to that segment
+	 */
+	public void forEachSegment(SegmentTask task) {
+		int n = Math.min(threads, segments.length);
+		if (n <= 1) {
+			for (int s = 0; s < segments.length; s++) {
+				task.run(s);
+			} //loop
+			return;
+		} //if
+
+		Parallel.forEach(segments.length, n, task::run);
+	} //end forEachSegment
+
+	/**
+	 * Calculate the (x,y) point value for a given t
+	 * @param t Parametric t value of the whole spline from 0 to 1 inclusive, each segment gets an equal share
+	 * @return (x,y) point value for t
+	 */
+	@Override
+	public Point calcPoint(double t) {
+		double u = t * segments.length;
+		int s = Math.max(0, Math.min(segments.length - 1, (int) Math.floor(u)));
+		return segments[s].calcPoint(u - s);
+	} //end calcPoint
+
+	/**
+	 * Set the points and rebuild the segments
+	 * @param points Control points, 6 then 5 more for each segment after
+	 */
+	@Override
+	public void setControlPoints(Point[] points) {
+		createSegments(points);
+		super.setControlPoints(points);
+	} //end setControlPoints
+
+	/**
+	 * Get a segment of the spline
+	 * @param s Index of the segment
+	 * @return Quintic curve of the segment
+	 */
+	public BezierPath getSegment(int s) {
+		return segments[s];
+	} //end getSegment
+
+	/**
+	 * Get the number of segments
+	 * @return Number of quintic curves chained together
+	 */
+	public int getNumSegments() {
+		return segments.length;
+	} //end getNumSegments
+
+	/**
+	 * Set the number of threads used to build the segments
+	 * @param threads Threads to use, 1 builds them one after another
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	} //end setThreads
+} //end class
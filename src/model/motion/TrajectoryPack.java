@@ -0,0 +1,480 @@
+/**
+ * TrajectoryPack
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Precomputed pursuit paths for one robot config packed into a single memory-mapped file
+ */
+
+package model.motion;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.FieldPositioning;
+import model.Point;
+import util.Events;
+import util.Events.ProfileFileEvent;
+import util.FieldPoints;
+import util.Log;
+import util.Parallel;
+import util.Util;
+
+public class TrajectoryPack {
+	/*
+	 * File layout, big-endian
+	 *   header:  int MAGIC, int VERSION, int PursuitPath.GENERATOR, double trackWidth, maxVel, acc, dec, spacing, int count
+	 *   table:   per path: short name length, name (UTF-8), long fingerprint of the control points,
+	 *            long offset of its block, int number of points (0 if the curve could not be built)
+	 *   blocks:  per path, starting on a multiple of ALIGN: double x[n], y[n], distAlongPath[n], radius[n], vel[n]
+	 * Only the header and table are read when the pack is opened, with a plain stream so a stale pack can be replaced
+ * The file is mapped the first time a path is used, and each block is read the first time its path is used
+	 */
+
+	//Constants
+	public static final int MAGIC = 0x41535450; //"ASTP", first thing in a pack
+	public static final int VERSION = 2; //version of the layout
+	private static final int ALIGN = 64; //blocks start on a cache line
+	private static final int COLUMNS = 5; //x, y, distance, radius and velocity
+	public static final String DEFAULT_FILE = Util.UTIL_DIR + "trajectories.pack"; //pack the simulator uses
+
+	//Attributes
+	private File file; //pack on disk
+	private long length; //size of the file when its table was read
+	private int generator; //version of the path algorithm the paths were built with
+	private MappedByteBuffer buffer; //whole file, mapped read only when the first path is read
+	private double[] settings; //track width, top speed, acceleration, deceleration and spacing of the paths
+	private Map<String, Entry> entries; //table of contents by name, in file order
+	private Map<String, PursuitPath> loaded; //paths read so far
+
+	/**
+	 * Create a pack from a file and its table of contents
+	 * @param file Pack on disk
+	 * @param length Size of the file when its table was read
+	 * @param generator Version of the path algorithm the paths were built with
+	 * @param settings Settings the paths were built with
+	 * @param entries Table of contents by name
+	 */
+	private TrajectoryPack(File file, long length, int generator, double[] settings, Map<String, Entry> entries) {
+		this.file = file;
+		this.length = length;
+		this.generator = generator;
+		this.settings = settings;
+		this.entries = entries;
+		this.loaded = new ConcurrentHashMap<String, PursuitPath>();
+	} //end constructor
+
+	//Generating
+
+	/**
+	 * Build pursuit paths for every curve in parallel and write them to a pack
+	 * Written to a temporary file first so a pack on disk is never half written
+	 * @param file Pack to write
+	 * @param curves Control points of each curve by name
+	 * @param trackWidth Wheel-wheel robot width in inches
+	 * @param maxVel Top velocity of the paths in in/s
+	 * @param acc Acceleration of the paths in in/s^2
+	 * @param dec Deceleration of the paths in in/s^2
+	 * @param spacing Distance between path points in inches
+	 * @throws IOException If the pack cannot be written
+	 */
+	public static void write(File file, Map<String, Point[]> curves, double trackWidth, double maxVel, double acc,
+			double dec, double spacing) throws IOException {
+		ProfileFileEvent event = new ProfileFileEvent();
+		event.begin();
+
+		String[] names = curves.keySet().toArray(new String[0]);
+		PursuitPath[] paths = new PursuitPath[names.length];
+
+		//curves are independent so they are built at the same time
+		Parallel.forEach(names.length, Runtime.getRuntime().availableProcessors(), i -> {
+			try {
+				paths[i] = new PursuitPath(curves.get(names[i]), trackWidth, maxVel, acc, dec, spacing);
+			} catch (RuntimeException e) {
+				//kept in the table with no points so the pack still matches its curves
+				Log.warn(() -> "Could not build " + names[i] + " for the trajectory pack: " + e);
+			} //try-catch
+		});
+
+		//size of the header and table, so the blocks can be placed after them
+		byte[][] nameBytes = new byte[names.length][];
+		long offset = 4 + 4 + 4 + 8 * 5 + 4;
+		for (int i = 0; i < names.length; i++) {
+			nameBytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+			offset += 2 + nameBytes[i].length + 8 + 8 + 4;
+		} //loop
+
+		long[] offsets = new long[names.length];
+		for (int i = 0; i < names.length; i++) {
+			offset = align(offset);
+			offsets[i] = offset;
+			offset += 8L * COLUMNS * size(paths[i]);
+		} //loop
+
+		File temp = new File(file.getPath() + ".tmp");
+		int records = 0;
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			//header
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(PursuitPath.GENERATOR);
+			for (double d : new double[] {trackWidth, maxVel, acc, dec, spacing}) {
+				out.writeDouble(d);
+			} //loop
+			out.writeInt(names.length);
+
+			//table
+			for (int i = 0; i < names.length; i++) {
+				out.writeShort(nameBytes[i].length);
+				out.write(nameBytes[i]);
+				out.writeLong(fingerprint(curves.get(names[i])));
+				out.writeLong(offsets[i]);
+				out.writeInt(size(paths[i]));
+			} //loop
+
+			//blocks, each column one after another
+			for (int i = 0; i < names.length; i++) {
+				while (out.size() < offsets[i]) {
+					out.writeByte(0);
+				} //loop
+
+				if (paths[i] == null)
+					continue;
+
+				Point[] pts = paths[i].getPoints();
+				for (int k = 0; k < pts.length; k++) {
+					out.writeDouble(pts[k].getX());
+				} //loop
+				for (int k = 0; k < pts.length; k++) {
+					out.writeDouble(pts[k].getY());
+				} //loop
+				for (double[] column : new double[][] {paths[i].getDistances(), paths[i].getRadii(), paths[i].getVelocities()}) {
+					for (int k = 0; k < pts.length; k++) {
+						out.writeDouble(column[k]);
+					} //loop
+				} //loop
+				records += pts.length;
+			} //loop
+
+		} catch (IOException e) {
+			Events.commitFile(event, file.getPath(), true, records, false);
+			throw e;
+		} //try-catch
+
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		Events.commitFile(event, file.getPath(), true, records, true);
+	} //end write
+
+	/**
+	 * Get the number of points in a path
+	 * @param p Path, null if it could not be built
+	 * @return Number of points, 0 if there is no path
+	 */
+	private static int size(PursuitPath p) {
+		return p == null ? 0 : p.getPoints().length;
+	} //end size
+
+	/**
+	 * Round an offset up to the next block boundary
+	 * @param offset Offset in bytes
+	 * @return Smallest multiple of ALIGN at or after the offset
+	 */
+	private static long align(long offset) {
+		return (offset + ALIGN - 1) / ALIGN * ALIGN;
+	} //end align
+
+	/**
+	 * Hash the control points of a curve so a changed curve is noticed
+	 * @param controlPts Control points of the curve
+	 * @return Hash of every coordinate in order
+	 */
+	public static long fingerprint(Point[] controlPts) {
+		long h = controlPts.length;
+		for (Point p : controlPts) {
+			h = 31 * h + Double.doubleToLongBits(p.getX());
+			h = 31 * h + Double.doubleToLongBits(p.getY());
+		} //loop
+
+		return h;
+	} //end fingerprint
+
+	//Reading
+
+	/**
+	 * Read the table of contents of a pack, leaving the paths on disk until they are used
+	 * The file is not mapped yet, so a pack that turns out to be stale can still be replaced on any system
+	 * @param file Pack to open
+	 * @return Opened pack
+	 * @throws IOException If the file cannot be read or is not a pack of this version
+	 */
+	public static TrajectoryPack open(File file) throws IOException {
+		long length = file.length();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			int magic = in.readInt();
+			int version = in.readInt();
+			if (magic != MAGIC || version != VERSION)
+				throw new IOException(String.format("Not a trajectory pack (magic %08x, version %d)", magic, version));
+			int generator = in.readInt();
+
+			double[] settings = new double[5];
+			for (int i = 0; i < settings.length; i++) {
+				settings[i] = in.readDouble();
+			} //loop
+
+			int count = in.readInt();
+			Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+			for (int i = 0; i < count; i++) {
+				byte[] name = new byte[in.readUnsignedShort()];
+				in.readFully(name);
+				Entry e = new Entry(in.readLong(), in.readLong(), in.readInt());
+				if (e.offset < 0 || e.points < 0 || e.offset + 8L * COLUMNS * e.points > length)
+					throw new IOException("Trajectory pack " + file + " is cut short");
+				entries.put(new String(name, StandardCharsets.UTF_8), e);
+			} //loop
+
+			return new TrajectoryPack(file, length, generator, settings, entries);
+
+		} catch (EOFException e) {
+			//a short or corrupt table runs off the end of the file
+			throw new IOException("Could not read trajectory pack " + file, e);
+		} //try-catch
+	} //end open
+
+	/**
+	 * Open a pack, first building it if it is missing, unreadable or was built from other curves, settings or
+	 * another version of PursuitPath
+	 * On a warm run this only reads the header and table
+	 * @param file Pack to open
+	 * @param curves Control points of each curve by name
+	 * @param trackWidth Wheel-wheel robot width in inches
+	 * @param maxVel Top velocity of the paths in in/s
+	 * @param acc Acceleration of the paths in in/s^2
+	 * @param dec Deceleration of the paths in in/s^2
+	 * @param spacing Distance between path points in inches
+	 * @return Pack with a path for every curve
+	 * @throws IOException If the pack cannot be written or read back
+	 */
+	public static TrajectoryPack openOrBuild(File file, Map<String, Point[]> curves, double trackWidth, double maxVel,
+			double acc, double dec, double spacing) throws IOException {
+		if (file.exists()) {
+			try {
+				TrajectoryPack pack = open(file);
+				if (pack.matches(curves, trackWidth, maxVel, acc, dec, spacing))
+					return pack;
+				Log.info(() -> "Trajectory pack " + file + " is out of date, rebuilding");
+
+			} catch (IOException e) {
+				Log.warn(() -> "Rebuilding trajectory pack: " + e.getMessage());
+			} //try-catch
+		} //if
+
+		write(file, curves, trackWidth, maxVel, acc, dec, spacing);
+		return open(file);
+	} //end openOrBuild
+
+	/**
+	 * Check if the pack was built from these curves and settings by the current version of PursuitPath
+	 * @param curves Control points of each curve by name
+	 * @param trackWidth Wheel-wheel robot width in inches
+	 * @param maxVel Top velocity of the paths in in/s
+	 * @param acc Acceleration of the paths in in/s^2
+	 * @param dec Deceleration of the paths in in/s^2
+	 * @param spacing Distance between path points in inches
+	 * @return True if every curve is in the pack unchanged and the settings and generator are the same
+	 */
+	public boolean matches(Map<String, Point[]> curves, double trackWidth, double maxVel, double acc, double dec,
+			double spacing) {
+		if (generator != PursuitPath.GENERATOR)
+			return false;
+		if (!Arrays.equals(settings, new double[] {trackWidth, maxVel, acc, dec, spacing}))
+			return false;
+
+		for (Map.Entry<String, Point[]> c : curves.entrySet()) {
+			Entry e = entries.get(c.getKey());
+			if (e == null || e.fingerprint != fingerprint(c.getValue()))
+				return false;
+		} //loop
+
+		return true;
+	} //end matches
+
+	/**
+	 * Get a path, reading it from the pack the first time it is asked for
+	 * @param name Name of the curve
+	 * @return Pursuit path, null if the pack has no path for the curve
+	 */
+	public PursuitPath get(String name) {
+		Entry e = entries.get(name);
+		if (e == null || e.points == 0)
+			return null;
+
+		return loaded.computeIfAbsent(name, k -> read(e));
+	} //end get
+
+	/**
+	 * Map the file the first time a path is read
+	 * @return Whole file, mapped read only
+	 * @throws UncheckedIOException If the file cannot be mapped or was replaced since its table was read
+	 */
+	private synchronized MappedByteBuffer map() {
+		if (buffer != null)
+			return buffer;
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() != length)
+				throw new IOException("Trajectory pack " + file + " changed since it was opened");
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length); //stays mapped once the channel is closed
+
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} //try-catch
+
+		return buffer;
+	} //end map
+
+	/**
+	 * Read a path's block
+	 * @param e Table entry of the path
+	 * @return Pursuit path with the stored points, distances, radii and velocities
+	 */
+	private PursuitPath read(Entry e) {
+		ProfileFileEvent event = new ProfileFileEvent();
+		event.begin();
+
+		//every column is read in bulk straight from the mapped file
+		int n = e.points;
+		DoubleBuffer in = map().duplicate().position((int) e.offset).slice().asDoubleBuffer();
+		double[][] columns = new double[COLUMNS][n];
+		for (int c = 0; c < COLUMNS; c++) {
+			in.get(columns[c]);
+		} //loop
+
+		Point[] points = new Point[n];
+		for (int i = 0; i < n; i++) {
+			points[i] = new Point(columns[0][i], columns[1][i]);
+		} //loop
+
+		Events.commitFile(event, file.getPath(), false, n, true);
+		return new PursuitPath(points, columns[2], columns[3], columns[4]);
+	} //end read
+
+	/**
+	 * Get the names of the curves in the pack
+	 * @return Names in file order
+	 */
+	public Set<String> getNames() {
+		return Collections.unmodifiableSet(entries.keySet());
+	} //end getNames
+
+	/**
+	 * Get the number of paths read from the pack so far
+	 * @return Paths that have been asked for at least once
+	 */
+	public int getLoaded() {
+		return loaded.size();
+	} //end getLoaded
+
+	/**
+	 * Get the curves in FieldPoints by name
+	 * @return Control points of every field holding a whole number of curve segments with some length, in declaration order
+	 */
+	public static Map<String, Point[]> fieldCurves() {
+		Map<String, Point[]> curves = new LinkedHashMap<String, Point[]>();
+
+		for (Field f : FieldPoints.class.getDeclaredFields()) {
+			if (!Modifier.isStatic(f.getModifiers()) || !Modifier.isPublic(f.getModifiers()))
+				continue;
+
+			try {
+				Point[] pts = null;
+				if (f.getType() == double[][].class)
+					pts = FieldPositioning.pointsFromDoubles((double[][]) f.get(null));
+				else if (f.getType() == Point[].class)
+					pts = (Point[]) f.get(null);
+
+				if (pts != null && pts.length >= 6 && (pts.length - 1) % 5 == 0 && hasLength(pts))
+					curves.put(f.getName(), pts);
+
+			} catch (IllegalAccessException e) {
+				Log.warn(() -> "Could not read FieldPoints." + f.getName());
+			} //try-catch
+		} //loop
+
+		return curves;
+	} //end fieldCurves
+
+	/**
+	 * Check that a curve goes somewhere, a path cannot be built along one that stays on a single point
+	 * @param controlPts Control points of the curve
+	 * @return True if any control point is away from the first
+	 */
+	private static boolean hasLength(Point[] controlPts) {
+		for (Point p : controlPts) {
+			if (p.getX() != controlPts[0].getX() || p.getY() != controlPts[0].getY())
+				return true;
+		} //loop
+
+		return false;
+	} //end hasLength
+
+	/**
+	 * Build the pack the simulator uses ahead of time
+	 * @param args Optional track width, top speed, acceleration, deceleration and spacing, defaults are the simulator's
+	 * @throws IOException If the pack cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		double[] s = {30, 12, 200, 200, 24};
+		for (int i = 0; i < args.length && i < s.length; i++) {
+			s[i] = Double.parseDouble(args[i]);
+		} //loop
+
+		long start = System.nanoTime();
+		Map<String, Point[]> curves = fieldCurves();
+		write(new File(DEFAULT_FILE), curves, s[0], s[1], s[2], s[3], s[4]);
+		System.out.printf("Packed %d curves into %s in %.1f ms%n", curves.size(), DEFAULT_FILE, (System.nanoTime() - start) / 1E6);
+	} //end main
+
+	/**
+	 * Table of contents entry for one path
+	 */
+	private static class Entry {
+		//Attributes
+		private long fingerprint; //hash of the control points the path was built from
+		private long offset; //start of the path's block in bytes
+		private int points; //number of points in the path
+
+		/**
+		 * Create an entry
+		 * @param fingerprint Hash of the control points
+		 * @param offset Start of the block in bytes
+		 * @param points Number of points in the path
+		 */
+		private Entry(long fingerprint, long offset, int points) {
+			this.fingerprint = fingerprint;
+			this.offset = offset;
+			this.points = points;
+		} //end constructor
+	} //end Entry
+} //end class
@@ -1,5 +1,10 @@
 module autosim2 {
 	requires java.desktop;
+	requires java.management;
+	requires jdk.management;
+	requires jdk.jfr;
 	requires org.knowm.xchart;
 	requires junit;
+	
+	exports util to java.management, jdk.jfr; //for the metrics MXBean and flight recorder events
 }
\ No newline at end of file
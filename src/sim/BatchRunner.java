@@ -0,0 +1,682 @@
+/**
+ * BatchRunner
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Run routines defined in a job file headlessly on a pool of threads, writing a result for each job as it finishes
+ */
+
+package sim;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import commands.CommandGroup;
+import commands.CommandList;
+import commands.DriveDistance;
+import commands.PurePursuit;
+import commands.SetPose;
+import commands.TimedVoltage;
+import commands.TurnAngle;
+import commands.Wait;
+import model.DriveLoop;
+import model.Gearbox;
+import model.Motor;
+import model.PIDController;
+import model.Point;
+import model.Robot;
+import model.motion.PurePursuitController;
+import model.motion.PursuitPath;
+import util.Parallel;
+import util.Util;
+
+public class BatchRunner {
+	//Constants
+	public static final String HEADER = "job\tstatus\tticks\tsim (s)\twall (ms)\tx\ty\theading (deg)\tmessage";
+	private static final int CHECK_TICKS = 200; //updates between deadline checks, one second of simulated time
+	private static final double DEFAULT_TIMEOUT = 60; //seconds of real time a job may run for
+	private static final double DEFAULT_LIMIT = 30; //seconds of simulated time before a job is cut off
+	private static final ExecutorService BUILDERS = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "path-builder");
+		t.setDaemon(true);
+		return t;
+	}); //threads building paths, so a job can give up on a path that takes past its deadline
+
+	//Attributes
+	private int threads; //number of threads the jobs run on
+
+	/**
+	 * How a job ended
+	 */
+	public static enum Status {
+		DONE, //every command of the routine finished
+		LIMIT, //the routine ran past its simulated time limit
+		TIMEOUT, //the job ran past its real time deadline
+		FAILED //the job could not be set up or threw an error
+	}
+
+	/**
+	 * Receives each result as soon as its job ends
+	 */
+	public interface ResultListener {
+		/**
+		 * Handle the result of a job, called from the thread that ran it
+		 * @param r Result of the job
+		 */
+		void completed(Result r);
+	} //end ResultListener
+
+	/**
+	 * Create a runner
+	 * @param threads Number of threads to run jobs on
+	 */
+	public BatchRunner(int threads) {
+		this.threads = Math.max(1, threads);
+	} //end constructor
+
+	//Jobs
+
+	/**
+	 * A robot, its gains, a path and a routine, read from a job file
+	 *
+	 * A job starts with "job name" and has one entry per line, with # starting a comment:
+	 *   robot wheelDia mass length width motor numMotors topSpeed   (motor is NEO, FALCON, CIM, MINI_CIM or PRO_775)
+	 *   drivePID p i d / turnPID p i d / feedforward kV kA
+	 *   seek accTime turnConst maxSpeed reverse / arrive goal end / lookahead distance
+	 *   path x,y x,y ...   (control points of the curve to pursue, 6 then 5 more for each chained segment)
+	 *   profile maxVel acc dec spacing   (profile of the pursuit path)
+	 *   start x y headingDegrees   (defaults to the start of the path)
+	 *   timeout seconds / limit seconds   (real time deadline and simulated time limit)
+	 * followed by the routine, one command per line, in order:
+	 *   driveDistance distance tolerance topSpeed / turnAngle angle tolerance topSpeed relative
+	 *   pursuit / wait time / voltage left right time / setPose x y headingDegrees
+	 */
+	public static class Job {
+		//Attributes
+		private String name; //name of the job
+		private int line; //line of the job file the job starts on
+		private Map<String, String[]> settings; //configuration entries by key
+		private List<String[]> steps; //routine entries in order
+		private StringBuilder text; //entries without comments, to send the job elsewhere
+
+		/**
+		 * Create an empty job
+		 * @param name Name of the job
+		 * @param line Line of the job file the job starts on
+		 */
+		private Job(String name, int line) {
+			this.name = name;
+			this.line = line;
+			this.settings = new HashMap<String, String[]>();
+			this.steps = new ArrayList<String[]>();
+			this.text = new StringBuilder("job " + name + "\n");
+		} //end constructor
+
+		/**
+		 * Get the name of the job
+		 * @return Name from the job file
+		 */
+		public String getName() {
+			return name;
+		} //end getName
+
+		/**
+		 * Get the line of the job file the job starts on
+		 * @return Line number starting at 1
+		 */
+		public int getLine() {
+			return line;
+		} //end getLine
+
+		/**
+		 * Get the job as the text of a job file
+		 * @return Job line and entries, which readJobs turns back into the same job
+		 */
+		public String getText() {
+			return text.toString();
+		} //end getText
+
+		/**
+		 * Get the numbers of a configuration entry
+		 * @param key Key of the entry
+		 * @param defaults Values to use if the job does not have the entry
+		 * @return Values of the entry
+		 */
+		private double[] getNumbers(String key, double ... defaults) {
+			String[] s = settings.get(key);
+			if (s == null)
+				return defaults;
+
+			return parseNumbers(key, s, 0, defaults.length);
+		} //end getNumbers
+
+		/**
+		 * Get the real time the job may run for
+		 * @return Timeout in seconds
+		 */
+		public double getTimeout() {
+			return getNumbers("timeout", DEFAULT_TIMEOUT)[0];
+		} //end getTimeout
+
+		/**
+		 * Get the simulated time the routine may run for
+		 * @return Limit in seconds
+		 */
+		public double getLimit() {
+			return getNumbers("limit", DEFAULT_LIMIT)[0];
+		} //end getLimit
+
+		/**
+		 * Create the robot of the job
+		 * @return Robot at the origin, 153lb 4" wheels and 14ft/s two-Falcon gearboxes if not configured
+		 */
+		private Robot createRobot() {
+			String[] s = settings.getOrDefault("robot", new String[] {"4", "153", "30", "30", "FALCON", "2", "14"});
+			if (s.length != 7)
+				throw new IllegalArgumentException("robot needs 7 values, got " + s.length);
+
+			double[] size = parseNumbers("robot", s, 0, 4);
+			double[] motor = motor(s[4]);
+			double[] drive = parseNumbers("robot", s, 5, 2);
+
+			Gearbox gb = new Gearbox(Gearbox.ratioFromTopSpeed(motor, size[0], drive[1]), new Motor(motor), drive[0]);
+			return new Robot(size[0], size[1], size[2], size[3], gb);
+		} //end createRobot
+
+		/**
+		 * Create the loop controlling the robot, with its gains and pure pursuit controller
+		 * @param r Robot to control
+		 * @return Loop for the robot
+		 */
+		private DriveLoop createLoop(Robot r) {
+			double[] d = getNumbers("drivePID", Util.kP_DRIVE, Util.kI_DRIVE, Util.kD_DRIVE);
+			double[] t = getNumbers("turnPID", Util.kP_TURN, Util.kI_TURN, Util.kD_TURN);
+			double[] ff = getNumbers("feedforward", Util.kV_EMPIR, Util.kA_EMPIR);
+
+			DriveLoop loop = new DriveLoop(r, new PIDController(d[0], d[1], d[2], r.getMaxLinSpeed()),
+					new PIDController(t[0], t[1], t[2], r.getMaxLinSpeed()));
+			loop.setFFValues(ff[0], ff[1]);
+
+			//same constants as the main simulation unless configured
+			PurePursuitController ppc = new PurePursuitController();
+			double[] seek = getNumbers("seek", 0.25, 50, 12);
+			String[] reverse = settings.get("seek");
+			ppc.setSeekConstants(seek[0], seek[1], seek[2], reverse != null && reverse.length > 3 && Boolean.parseBoolean(reverse[3]));
+			double[] arrive = getNumbers("arrive", 30, 3);
+			ppc.setArriveConstants(arrive[0], arrive[1]);
+			ppc.setPurePursuitConstants(getNumbers("lookahead", 30)[0]);
+			loop.setPurePursuitController(ppc);
+
+			return loop;
+		} //end createLoop
+
+		/**
+		 * Create the path to pursue
+		 * @param r Robot following the path
+		 * @return Path from the control points, null if the job has none
+		 */
+		private PursuitPath createPath(Robot r) {
+			String[] s = settings.get("path");
+			if (s == null)
+				return null;
+
+			Point[] controlPts = new Point[s.length];
+			for (int i = 0; i < s.length; i++) {
+				String[] xy = s[i].split(",");
+				if (xy.length != 2)
+					throw new IllegalArgumentException("path point " + s[i] + " is not x,y");
+				double[] p = parseNumbers("path", xy, 0, 2);
+				controlPts[i] = new Point(p[0], p[1]);
+			} //loop
+
+			double[] profile = getNumbers("profile", 12, 200, 200, 24);
+			return new PursuitPath(controlPts, r.getWidthInches(), profile[0], profile[1], profile[2], profile[3]);
+		} //end createPath
+
+		/**
+		 * Create the routine from its entries
+		 * @param loop Loop controlling the robot
+		 * @param path Path to pursue, null if the job has none
+		 * @return Routine running each command in order
+		 */
+		private CommandGroup createRoutine(DriveLoop loop, PursuitPath path) {
+			CommandList routine = new CommandList();
+			for (String[] s : steps) {
+				String key = s[0];
+				double[] v;
+
+				switch (key) {
+					case "driveDistance":
+						v = parseNumbers(key, s, 1, 3);
+						routine.add(new DriveDistance(loop, v[0], v[1], v[2]));
+						break;
+
+					case "turnAngle":
+						v = parseNumbers(key, s, 1, 3);
+						routine.add(new TurnAngle(loop, v[0], v[1], v[2], s.length > 4 && Boolean.parseBoolean(s[4])));
+						break;
+
+					case "pursuit":
+						if (path == null)
+							throw new IllegalArgumentException("pursuit needs a path");
+						routine.add(new PurePursuit(loop, path.getPoints()));
+						break;
+
+					case "wait":
+						routine.add(new Wait(loop, parseNumbers(key, s, 1, 1)[0]));
+						break;
+
+					case "voltage":
+						v = parseNumbers(key, s, 1, 3);
+						routine.add(new TimedVoltage(loop, v[0], v[1], v[2]));
+						break;
+
+					case "setPose":
+						v = parseNumbers(key, s, 1, 3);
+						routine.add(new SetPose(loop, v[0], v[1], v[2]));
+						break;
+
+					default:
+						throw new IllegalArgumentException("unknown entry " + key);
+				} //switch
+			} //loop
+
+			if (steps.isEmpty())
+				throw new IllegalArgumentException("no routine");
+
+			return routine;
+		} //end createRoutine
+	} //end Job
+
+	/**
+	 * Parse numbers from an entry
+	 * @param key Key of the entry, for the error message
+	 * @param s Values of the entry
+	 * @param from Index of the first number
+	 * @param n Number of numbers needed
+	 * @return Parsed numbers
+	 */
+	private static double[] parseNumbers(String key, String[] s, int from, int n) {
+		if (s.length < from + n)
+			throw new IllegalArgumentException(key + " needs " + n + " values, got " + (s.length - from));
+
+		double[] v = new double[n];
+		for (int i = 0; i < n; i++) {
+			try {
+				v[i] = Double.parseDouble(s[from + i]);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(key + " value " + s[from + i] + " is not a number");
+			} //try-catch
+		} //loop
+
+		return v;
+	} //end parseNumbers
+
+	/**
+	 * Get the parameters of a motor by name
+	 * @param name Name of the motor
+	 * @return Motor parameters (ie. Util.NEO)
+	 */
+	private static double[] motor(String name) {
+		switch (name.toUpperCase()) {
+			case "NEO": return Util.NEO;
+			case "FALCON": return Util.FALCON;
+			case "CIM": return Util.CIM;
+			case "MINI_CIM": return Util.MINI_CIM;
+			case "PRO_775": return Util.PRO_775;
+			default: throw new IllegalArgumentException("unknown motor " + name);
+		} //switch
+	} //end motor
+
+	/**
+	 * Read the jobs in a job file
+	 * Entries are only checked when a job runs, so a mistake fails that job alone
+	 * @param s Scanner over the job file
+	 * @return Jobs in the order they appear
+	 */
+	public static List<Job> readJobs(Scanner s) {
+		List<Job> jobs = new ArrayList<Job>();
+		Job job = null;
+		int line = 0;
+
+		while (s.hasNextLine()) {
+			line++;
+			String text = s.nextLine();
+			int comment = text.indexOf('#');
+			if (comment >= 0)
+				text = text.substring(0, comment);
+			text = text.trim();
+			if (text.isEmpty())
+				continue;
+
+			String[] tokens = text.split("\\s+");
+			if (tokens[0].equals("job")) {
+				job = new Job(tokens.length > 1 ? tokens[1] : "job" + (jobs.size() + 1), line);
+				jobs.add(job);
+
+			} else if (job == null) {
+				throw new IllegalArgumentException("Line " + line + ": entry before the first job");
+
+			} else if (isSetting(tokens[0])) {
+				job.text.append(text).append('\n');
+				String[] values = new String[tokens.length - 1];
+				System.arraycopy(tokens, 1, values, 0, values.length);
+				job.settings.put(tokens[0], values);
+
+			} else {
+				job.text.append(text).append('\n');
+				job.steps.add(tokens);
+			} //if
+		} //loop
+
+		return jobs;
+	} //end readJobs
+
+	/**
+	 * Check if a key configures the job rather than adding to its routine
+	 * @param key First word of the entry
+	 * @return True if the key is a configuration entry
+	 */
+	private static boolean isSetting(String key) {
+		switch (key) {
+			case "robot": case "drivePID": case "turnPID": case "feedforward":
+			case "seek": case "arrive": case "lookahead":
+			case "path": case "profile": case "start":
+			case "timeout": case "limit":
+				return true;
+			default:
+				return false;
+		} //switch
+	} //end isSetting
+
+	//Running
+
+	/**
+	 * Run jobs in parallel, handing each result to the listener as soon as its job ends
+	 * @param jobs Jobs to run
+	 * @param listener Receives each result, must be safe to call from several threads
+	 * @return Results in the order the jobs ended
+	 */
+	public List<Result> run(List<Job> jobs, ResultListener listener) {
+		List<Result> results = Collections.synchronizedList(new ArrayList<Result>());
+
+		//idle workers steal queued jobs, and every job ends by itself so none can hold up the rest
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[jobs.size()];
+		for (int i = 0; i < futures.length; i++) {
+			Job job = jobs.get(i);
+			futures[i] = CompletableFuture.runAsync(() -> {
+				Result r = runJob(job);
+				results.add(r);
+				listener.completed(r);
+			}, Parallel.getPool(threads));
+		} //loop
+
+		CompletableFuture.allOf(futures).join();
+
+		return results;
+	} //end run
+
+	/**
+	 * Run a single job, catching anything it throws
+	 * @param job Job to run
+	 * @return Result of the job
+	 */
+	public static Result runJob(Job job) {
+		long start = System.nanoTime();
+		Robot r = null;
+		int ticks = 0;
+
+		try {
+			long deadline = start + (long) (job.getTimeout() * 1E9);
+			int maxTicks = (int) Math.round(job.getLimit() / Util.UPDATE_PERIOD);
+
+			r = job.createRobot();
+			DriveLoop loop = job.createLoop(r);
+
+			//a path can take longer to build than the whole deadline, and the build cannot be stopped part way,
+			//so it is built on its own thread and left to finish there if the deadline passes first
+			Robot robot = r;
+			CompletableFuture<PursuitPath> building = CompletableFuture.supplyAsync(() -> job.createPath(robot), BUILDERS);
+			PursuitPath path;
+			try {
+				path = building.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				return new Result(job, Status.TIMEOUT, 0, System.nanoTime() - start, r, "");
+			} catch (ExecutionException e) {
+				return new Result(job, Status.FAILED, 0, System.nanoTime() - start, r, e.getCause().toString());
+			} //try-catch
+
+			//start where configured, otherwise at the start of the path facing along it
+			if (job.settings.containsKey("start")) {
+				double[] p = job.getNumbers("start", 0, 0, 0);
+				r.setXY(new Point(p[0], p[1]));
+				r.setHeadingDegrees(p[2]);
+			} else if (path != null) {
+				r.setXY(path.getPoints()[0]);
+				r.setHeading(path.getInitialHeading());
+			} //if
+
+			CommandGroup routine = job.createRoutine(loop, path);
+			routine.setRecording(false);
+			routine.start();
+
+			//check the deadline every so often, ending the job where it is once it passes
+			while (ticks < maxTicks) {
+				if (System.nanoTime() > deadline)
+					return new Result(job, Status.TIMEOUT, ticks, System.nanoTime() - start, r, "");
+
+				int updates = routine.advance(Math.min(CHECK_TICKS, maxTicks - ticks));
+				if (updates == 0)
+					return new Result(job, Status.DONE, ticks, System.nanoTime() - start, r, "");
+				ticks += updates;
+			} //loop
+
+			return new Result(job, Status.LIMIT, ticks, System.nanoTime() - start, r, "");
+
+		} catch (Throwable e) {
+			//errors too (ie. running out of memory on a huge path), so one job cannot sink the whole batch
+			return new Result(job, Status.FAILED, ticks, System.nanoTime() - start, r, e.toString());
+		} //try-catch
+	} //end runJob
+
+	/**
+	 * Outcome of a single job
+	 */
+	public static class Result {
+		//Attributes
+		private String name; //name of the job
+		private Status status; //how the job ended
+		private int ticks; //updates the routine ran for
+		private long nanos; //real time the job took
+		private double x; //final x value in inches
+		private double y; //final y value in inches
+		private double heading; //final heading in degrees
+		private String message; //error the job failed with, empty otherwise
+
+		/**
+		 * Create the result of a job
+		 * @param job Job that ended
+		 * @param status How the job ended
+		 * @param ticks Updates the routine ran for
+		 * @param nanos Real time the job took
+		 * @param r Robot of the job, null if it was never created
+		 * @param message Error the job failed with, empty otherwise
+		 */
+		private Result(Job job, Status status, int ticks, long nanos, Robot r, String message) {
+			this(job.getName(), status, ticks, nanos, r == null ? Double.NaN : r.getX(), r == null ? Double.NaN : r.getY(),
+					r == null ? Double.NaN : Math.toDegrees(r.getHeading()), message);
+		} //end constructor
+
+		/**
+		 * Create a result from its values
+		 * @param name Name of the job
+		 * @param status How the job ended
+		 * @param ticks Updates the routine ran for
+		 * @param nanos Real time the job took
+		 * @param x Final x value in inches
+		 * @param y Final y value in inches
+		 * @param heading Final heading in degrees
+		 * @param message Error the job failed with, empty otherwise
+		 */
+		Result(String name, Status status, int ticks, long nanos, double x, double y, double heading, String message) {
+			this.name = name;
+			this.status = status;
+			this.ticks = ticks;
+			this.nanos = nanos;
+			this.x = x;
+			this.y = y;
+			this.heading = heading;
+			this.message = message;
+		} //end constructor
+
+		/**
+		 * Write the result in binary
+		 * @param out Stream to write to
+		 * @throws IOException If the stream cannot be written
+		 */
+		public void write(DataOutputStream out) throws IOException {
+			out.writeUTF(name);
+			out.writeByte(status.ordinal());
+			out.writeInt(ticks);
+			out.writeLong(nanos);
+			out.writeDouble(x);
+			out.writeDouble(y);
+			out.writeDouble(heading);
+			out.writeUTF(message);
+		} //end write
+
+		/**
+		 * Read a result written by write
+		 * @param in Stream to read from
+		 * @return Result that was written
+		 * @throws IOException If the stream ends or cannot be read
+		 */
+		public static Result read(DataInputStream in) throws IOException {
+			return new Result(in.readUTF(), Status.values()[in.readByte()], in.readInt(), in.readLong(),
+					in.readDouble(), in.readDouble(), in.readDouble(), in.readUTF());
+		} //end read
+
+		/**
+		 * Get the name of the job
+		 * @return Name from the job file
+		 */
+		public String getName() {
+			return name;
+		} //end getName
+
+		/**
+		 * Get how the job ended
+		 * @return Status of the job
+		 */
+		public Status getStatus() {
+			return status;
+		} //end getStatus
+
+		/**
+		 * Get the number of updates the routine ran for
+		 * @return Updates run or skipped
+		 */
+		public int getTicks() {
+			return ticks;
+		} //end getTicks
+
+		/**
+		 * Get the real time the job took
+		 * @return Time from starting the job to its result in seconds
+		 */
+		public double getSeconds() {
+			return nanos / 1E9;
+		} //end getSeconds
+
+		/**
+		 * Get the final position of the robot
+		 * @return Final point in inches, NaN if the robot was never created
+		 */
+		public Point getEndPoint() {
+			return new Point(x, y);
+		} //end getEndPoint
+
+		/**
+		 * Get the error the job failed with
+		 * @return Message of the error, empty if the job did not fail
+		 */
+		public String getMessage() {
+			return message;
+		} //end getMessage
+
+		/**
+		 * Get the result as a line of the results file
+		 * @return Tab separated values in the order of HEADER
+		 */
+		public String toString() {
+			return String.format("%s\t%s\t%d\t%.3f\t%.1f\t%.2f\t%.2f\t%.2f\t%s", name, status, ticks,
+					ticks * Util.UPDATE_PERIOD, nanos / 1E6, x, y, heading, message);
+		} //end toString
+	} //end Result
+
+	/**
+	 * Run a job file, writing results as they arrive and the throughput at the end
+	 * Arguments: job file, results file (console if left out) and number of threads (all processors if left out)
+	 */
+	public static void main(String[] args) {
+		String jobFile = args.length > 0 ? args[0] : Util.UTIL_DIR + "example.jobs";
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+		List<Job> jobs;
+		try (Scanner s = new Scanner(new File(jobFile))) {
+			jobs = readJobs(s);
+		} catch (FileNotFoundException e) {
+			Util.println("Could not find", jobFile);
+			return;
+		} //try-catch
+
+		PrintStream out = System.out;
+		if (args.length > 1) {
+			try {
+				out = new PrintStream(new FileOutputStream(args[1]), true);
+			} catch (FileNotFoundException e) {
+				Util.println("Could not write", args[1]);
+				return;
+			} //try-catch
+		} //if
+
+		//one line per job as it ends, so a long run can be followed or cut short
+		PrintStream results = out;
+		results.println(HEADER);
+		long start = System.nanoTime();
+		List<Result> res = new BatchRunner(threads).run(jobs, r -> {
+			synchronized (results) {
+				results.println(r);
+				results.flush();
+			} //sync
+		});
+		double seconds = (System.nanoTime() - start) / 1E9;
+
+		//count each way the jobs ended
+		int[] counts = new int[Status.values().length];
+		for (Result r : res) {
+			counts[r.getStatus().ordinal()]++;
+		} //loop
+
+		System.out.println(String.format("Ran %d jobs in %.2fs on %d threads: %.1f jobs/s (%d done, %d limit, %d timeout, %d failed)",
+				res.size(), seconds, threads, res.size() / seconds, counts[0], counts[1], counts[2], counts[3]));
+		if (out != System.out)
+			out.close();
+	} //end main
+} //end class
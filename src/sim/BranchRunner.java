@@ -0,0 +1,296 @@
+/**
+ * BranchRunner
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Run a routine to a checkpoint once, then branch many variants of the rest of it in parallel
+ */
+
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import commands.CommandGroup;
+import commands.CommandList;
+import commands.DriveDistance;
+import commands.TurnAngle;
+import commands.Wait;
+import model.DriveLoop;
+import model.Gearbox;
+import model.Motor;
+import model.PIDController;
+import model.Point;
+import model.Pose;
+import model.Robot;
+import sim.MonteCarloRunner.RoutineFactory;
+import util.Util;
+
+public class BranchRunner {
+	//Attributes
+	private Robot robot; //robot to copy for every run
+	private PIDController drivePID; //driving gains up to the checkpoint
+	private PIDController turnPID; //turning gains up to the checkpoint
+	private Point start; //starting point of the robot
+	private double startHeading; //starting heading of the robot in radians
+
+	/**
+	 * Create a runner for a robot
+	 * @param robot Robot to copy for every run
+	 * @param drivePID Driving gains up to the checkpoint
+	 * @param turnPID Turning gains up to the checkpoint
+	 */
+	public BranchRunner(Robot robot, PIDController drivePID, PIDController turnPID) {
+		this.robot = robot;
+		this.drivePID = drivePID;
+		this.turnPID = turnPID;
+		this.start = new Point(0, 0);
+		this.startHeading = 0;
+	} //end constructor
+
+	/**
+	 * Set the starting pose of the robot
+	 * @param start Starting point
+	 * @param heading Starting heading in radians
+	 */
+	public void setStart(Point start, double heading) {
+		this.start = start;
+		this.startHeading = heading;
+	} //end setStart
+
+	/**
+	 * Result of running a routine to its end
+	 */
+	public static class Branch {
+		//Attributes
+		private List<Pose> poses; //poses of the whole routine, shared with the checkpoint up to it
+		private Point end; //final point of the robot
+		private double heading; //final heading of the robot in radians
+		private int ticks; //updates run in total
+
+		/**
+		 * Create the result of a run
+		 * @param loop Loop that ran the routine
+		 * @param routine Finished routine
+		 * @param ticks Updates run in total
+		 */
+		private Branch(DriveLoop loop, CommandGroup routine, int ticks) {
+			this.poses = routine.getPoses();
+			this.end = loop.getRobot().getPoint();
+			this.heading = loop.getRobot().getHeading();
+			this.ticks = ticks;
+		} //end constructor
+
+		/**
+		 * Get the poses of the whole routine
+		 * @return Robot pose at every update
+		 */
+		public List<Pose> getPoses() {
+			return poses;
+		} //end getPoses
+
+		/**
+		 * Get the final point of the robot
+		 * @return Point at the end of the routine
+		 */
+		public Point getEnd() {
+			return end;
+		} //end getEnd
+
+		/**
+		 * Get the final heading of the robot
+		 * @return Heading at the end of the routine in radians
+		 */
+		public double getHeading() {
+			return heading;
+		} //end getHeading
+
+		/**
+		 * Get the number of updates the routine ran for
+		 * @return Updates from the start of the routine
+		 */
+		public int getTicks() {
+			return ticks;
+		} //end getTicks
+	} //end Branch
+
+	/**
+	 * Create a fresh loop for a run
+	 * @param drivePID Driving gains
+	 * @param turnPID Turning gains
+	 * @return Loop with a copy of the robot at the starting pose
+	 */
+	private DriveLoop createLoop(PIDController drivePID, PIDController turnPID) {
+		Robot r = robot.clone();
+		r.setXY(start);
+		r.setHeading(startHeading);
+
+		return new DriveLoop(r, drivePID, turnPID);
+	} //end createLoop
+
+	/**
+	 * Run a routine until the command at an index is about to start
+	 * @param factory Creates the routine
+	 * @param index Index of the first command to leave out of the shared part
+	 * @return Checkpoint just before the command at the index starts
+	 */
+	public Checkpoint checkpointAtCommand(RoutineFactory factory, int index) {
+		DriveLoop loop = createLoop(drivePID, turnPID);
+		CommandGroup routine = factory.create(loop);
+		int ticks = 0;
+
+		//stop once the command before the index has run its last update
+		routine.start();
+		while (routine.getCommandIndex() < index &&
+				!(routine.getCommandIndex() == index - 1 && routine.isCommandDone())) {
+			int updates = routine.advance(Integer.MAX_VALUE);
+			if (updates == 0)
+				break;
+			ticks += updates;
+		} //loop
+
+		return new Checkpoint(loop, routine, ticks);
+	} //end checkpointAtCommand
+
+	/**
+	 * Run a routine for a number of updates
+	 * @param factory Creates the routine
+	 * @param ticks Updates to run before the checkpoint
+	 * @return Checkpoint after the updates have run
+	 */
+	public Checkpoint checkpointAtTick(RoutineFactory factory, int ticks) {
+		DriveLoop loop = createLoop(drivePID, turnPID);
+		CommandGroup routine = factory.create(loop);
+		int ran = 0;
+
+		routine.start();
+		while (ran < ticks) {
+			int updates = routine.advance(ticks - ran);
+			if (updates == 0)
+				break;
+			ran += updates;
+		} //loop
+
+		return new Checkpoint(loop, routine, ran);
+	} //end checkpointAtTick
+
+	/**
+	 * Continue a routine from a checkpoint to its end
+	 * @param cp Checkpoint to continue from
+	 * @param factory Creates the routine, which must match the original up to the checkpoint
+	 * @param drivePID Driving gains for the rest of the routine
+	 * @param turnPID Turning gains for the rest of the routine
+	 * @return Result of the whole routine
+	 */
+	public Branch branch(Checkpoint cp, RoutineFactory factory, PIDController drivePID, PIDController turnPID) {
+		DriveLoop loop = createLoop(drivePID, turnPID);
+		CommandGroup routine = factory.create(loop);
+		int ticks = cp.getTicks();
+
+		cp.restore(loop, routine);
+		for (int updates = routine.advance(Integer.MAX_VALUE); updates > 0; updates = routine.advance(Integer.MAX_VALUE)) {
+			ticks += updates;
+		} //loop
+
+		return new Branch(loop, routine, ticks);
+	} //end branch
+
+	/**
+	 * Continue a routine from a checkpoint with many sets of gains in parallel
+	 * @param cp Checkpoint to continue from
+	 * @param factory Creates the routine, which must match the original up to the checkpoint
+	 * @param gains Driving and turning gains for each branch
+	 * @return Result of each branch in the same order as the gains
+	 */
+	public List<Branch> branchGains(Checkpoint cp, RoutineFactory factory, List<PIDController[]> gains) {
+		return gains.parallelStream().map(g -> branch(cp, factory, g[0], g[1])).collect(Collectors.toList());
+	} //end branchGains
+	
+	/**
+	 * Continue a routine from a checkpoint with many different endings in parallel
+	 * @param cp Checkpoint to continue from
+	 * @param routines Create the routines, which must all match the original up to the checkpoint
+	 * @return Result of each branch in the same order as the routines
+	 */
+	public List<Branch> branchRoutines(Checkpoint cp, List<RoutineFactory> routines) {
+		return routines.parallelStream().map(f -> branch(cp, f, drivePID, turnPID)).collect(Collectors.toList());
+	} //end branchRoutines
+
+	/**
+	 * Run a routine from the start to its end
+	 * @param factory Creates the routine
+	 * @param drivePID Driving gains
+	 * @param turnPID Turning gains
+	 * @return Result of the routine
+	 */
+	public Branch runFull(RoutineFactory factory, PIDController drivePID, PIDController turnPID) {
+		DriveLoop loop = createLoop(drivePID, turnPID);
+		CommandGroup routine = factory.create(loop);
+		int ticks = 0;
+
+		routine.start();
+		for (int updates = routine.advance(Integer.MAX_VALUE); updates > 0; updates = routine.advance(Integer.MAX_VALUE)) {
+			ticks += updates;
+		} //loop
+
+		return new Branch(loop, routine, ticks);
+	} //end runFull
+
+	/**
+	 * Sweep the ending of a long routine, with and without a checkpoint
+	 */
+	public static void main(String[] args) {
+		Gearbox gb = new Gearbox(8.5521, new Motor(Util.NEO), 2);
+		Robot r = new Robot(4, 153, 30, 30, gb);
+		PIDController drivePID = new PIDController(Util.kP_DRIVE, Util.kI_DRIVE, Util.kD_DRIVE, r.getMaxLinSpeed());
+		PIDController turnPID = new PIDController(Util.kP_TURN, Util.kI_TURN, Util.kD_TURN, r.getMaxLinSpeed());
+		int tail = 9; //index of the first command that changes
+
+		//long shared start, then a turn and drive that change between branches
+		List<RoutineFactory> routines = new ArrayList<RoutineFactory>();
+		for (int i = 0; i < 32; i++) {
+			double angle = 90 + 5 * (i % 8);
+			double dist = 40 + 10 * (i / 8);
+			routines.add(loop -> new CommandList(
+					new DriveDistance(loop, 120, 1, 12), new TurnAngle(loop, 90, 1, 12, true),
+					new DriveDistance(loop, 100, 1, 12), new TurnAngle(loop, -90, 1, 12, true),
+					new DriveDistance(loop, 80, 1, 12), new Wait(loop, 2),
+					new DriveDistance(loop, -60, 1, 12), new TurnAngle(loop, 45, 1, 12, true),
+					new DriveDistance(loop, 90, 1, 12), new TurnAngle(loop, angle, 1, 12, true),
+					new DriveDistance(loop, dist, 1, 12)));
+		} //loop
+
+		BranchRunner runner = new BranchRunner(r, drivePID, turnPID);
+		runner.setStart(new Point(50, 50), 0);
+
+		//warm up both ways
+		for (int i = 0; i < 3; i++) {
+			runner.branchRoutines(runner.checkpointAtCommand(routines.get(0), tail), routines);
+			routines.parallelStream().forEach(f -> runner.runFull(f, drivePID, turnPID));
+		} //loop
+
+		//sweep from the start every time
+		long t0 = System.nanoTime();
+		List<Branch> full = routines.parallelStream().map(f -> runner.runFull(f, drivePID, turnPID))
+									.collect(Collectors.toList());
+		long t1 = System.nanoTime();
+
+		//sweep from a checkpoint before the last two commands
+		Checkpoint cp = runner.checkpointAtCommand(routines.get(0), tail);
+		List<Branch> branches = runner.branchRoutines(cp, routines);
+		long t2 = System.nanoTime();
+
+		//check the branches match the full runs
+		int same = 0;
+		for (int i = 0; i < routines.size(); i++) {
+			boolean match = full.get(i).getTicks() == branches.get(i).getTicks() &&
+							full.get(i).getEnd().getX() == branches.get(i).getEnd().getX() &&
+							full.get(i).getEnd().getY() == branches.get(i).getEnd().getY();
+			same += match ? 1 : 0;
+		} //loop
+
+		System.out.println(String.format("Checkpoint at update %d of %d", cp.getTicks(), full.get(0).getTicks()));
+		System.out.println(String.format("Full runs: %.2f ms, branches: %.2f ms, %d/%d identical",
+							(t1 - t0) / 1E6, (t2 - t1) / 1E6, same, routines.size()));
+	} //end main
+} //end class
@@ -0,0 +1,73 @@
+/**
+ * Checkpoint
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Saved state of a robot, its loop and its routine at one update of a simulation
+ */
+
+package sim;
+
+import commands.CommandGroup;
+import model.DriveLoop;
+import model.Robot;
+import model.motion.PurePursuitController;
+
+public class Checkpoint {
+	//Attributes
+	private Robot robot; //copy of the robot's state
+	private DriveLoop loop; //copy of the loop's state and its controllers
+	private CommandGroup.Progress progress; //progress through the routine
+	private int ticks; //updates run before the checkpoint
+
+	/**
+	 * Save the state of a simulation
+	 * The routine's recorded poses and data are shared with the checkpoint, not copied
+	 * @param loop Loop controlling the robot
+	 * @param routine Routine being run
+	 * @param ticks Updates run so far
+	 */
+	public Checkpoint(DriveLoop loop, CommandGroup routine, int ticks) {
+		//copy the robot
+		Robot r = loop.getRobot();
+		this.robot = r.clone();
+		this.robot.copyStateFrom(r);
+
+		//copy the loop and its controllers
+		this.loop = new DriveLoop(robot, loop.getDrivePID(), loop.getTurnPID());
+		if (loop.getPurePursuitController() != null)
+			this.loop.setPurePursuitController(new PurePursuitController());
+		this.loop.copyStateFrom(loop);
+
+		this.progress = routine.saveProgress();
+		this.ticks = ticks;
+	} //end constructor
+
+	/**
+	 * Continue a simulation from this checkpoint
+	 * The loop's gains and the routine's commands after the checkpoint may differ from the original
+	 * @param loop Loop to restore, with a robot of the same size
+	 * @param routine Routine with the same commands up to the checkpoint
+	 */
+	public void restore(DriveLoop loop, CommandGroup routine) {
+		//the routine initializes its command first, then the saved state replaces what it set
+		routine.resume(progress);
+		loop.getRobot().copyStateFrom(robot);
+		loop.copyStateFrom(this.loop);
+	} //end restore
+
+	/**
+	 * Get the number of updates run before the checkpoint
+	 * @return Updates since the routine started
+	 */
+	public int getTicks() {
+		return ticks;
+	} //end getTicks
+
+	/**
+	 * Get the index of the command that was running at the checkpoint
+	 * @return Index of the command in the routine
+	 */
+	public int getCommandIndex() {
+		return progress.getIndex();
+	} //end getCommandIndex
+} //end class
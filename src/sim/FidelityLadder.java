@@ -0,0 +1,588 @@
+/**
+ * FidelityLadder
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Screen many candidates with cheap coarse simulations and only confirm the best with full ones
+ */
+
+package sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import commands.PurePursuit;
+import model.DriveLoop;
+import model.FieldPositioning;
+import model.Gearbox;
+import model.Motor;
+import model.PIDController;
+import model.Point;
+import model.Robot;
+import model.motion.BezierProfile;
+import model.motion.PurePursuitController;
+import model.motion.PursuitPath;
+import util.FieldPoints;
+import util.Parallel;
+import util.Util;
+
+public class FidelityLadder<C> {
+	//Constants
+	private static final int MIN_PROFILE_SIZE = 20; //fewest pieces a coarse profile is split into
+	public static final Fidelity FINE = new Fidelity("fine", 1, 1); //5ms updates and full sampling
+	public static final Fidelity COARSE = new Fidelity("coarse", 4, 4); //20ms updates and a quarter of the samples
+
+	/**
+	 * Scores a candidate at a level of fidelity, lower is better
+	 */
+	public interface Evaluator<C> {
+		double evaluate(C candidate, Fidelity f);
+	}
+
+	//Attributes
+	private Evaluator<C> evaluator; //scores each candidate
+	private Fidelity[] levels; //levels each candidate may be scored at, coarsest first
+	private double promote; //fraction of the candidates at each level moved up to the next
+	private int audits; //candidates rejected by the first level that are scored at the last anyway
+	private long seed; //seed for picking the audited candidates
+
+	/**
+	 * Create a ladder that screens at coarse fidelity and promotes the best tenth to fine fidelity
+	 * @param evaluator Scores each candidate
+	 */
+	public FidelityLadder(Evaluator<C> evaluator) {
+		this.evaluator = evaluator;
+		this.levels = new Fidelity[] {COARSE, FINE};
+		this.promote = 0.1;
+		this.audits = 0;
+		this.seed = 0;
+	} //end constructor
+
+	/**
+	 * Set the levels each candidate climbs through
+	 * @param promote Fraction of the candidates at each level moved up to the next, at least one always is
+	 * @param levels Levels of fidelity, coarsest first and ending with the one the ranking is made at
+	 */
+	public void setLevels(double promote, Fidelity ... levels) {
+		if (levels.length == 0)
+			throw new IllegalArgumentException("A ladder needs at least one level");
+
+		this.promote = Util.clampNum(promote, 0, 1);
+		this.levels = levels.clone();
+	} //end setLevels
+
+	/**
+	 * Also score some candidates the first level rejected at the last level, to check the error bound holds
+	 * @param audits Number of rejected candidates to score
+	 * @param seed Seed for picking them
+	 */
+	public void setAudit(int audits, long seed) {
+		this.audits = Math.max(0, audits);
+		this.seed = seed;
+	} //end setAudit
+
+	/**
+	 * Score the candidates, moving the best of each level up to the next until the last ranks them
+	 * @param candidates Candidates to rank
+	 * @param threads Number of threads to score candidates on
+	 * @return Candidates that reached the last level in order, with the work each level took and how stable the ranking is
+	 */
+	public Result<C> run(List<C> candidates, int threads) {
+		int n = candidates.size();
+		Result<C> res = new Result<C>(candidates, levels);
+		int last = levels.length - 1;
+
+		int[] climbing = IntStream.range(0, n).toArray();
+		for (int l = 0; l <= last; l++) {
+			score(res, l, climbing, threads);
+			if (l == last)
+				break;
+
+			//move the best up, ones with the same score in the order they were given
+			int[] ranked = order(res.costs[l], climbing);
+			int kept = Math.max(1, (int) Math.ceil(promote * ranked.length));
+			climbing = Arrays.copyOf(ranked, Math.min(kept, ranked.length));
+			res.promoted[l] = climbing.length;
+
+			//pick the audited candidates out of the first level's rejects before the next level runs
+			if (l == 0 && audits > 0) {
+				int[] rejected = Arrays.copyOfRange(ranked, climbing.length, ranked.length);
+				SplittableRandom random = new SplittableRandom(seed);
+				for (int i = 0; i < Math.min(audits, rejected.length); i++) {
+					int j = i + random.nextInt(rejected.length - i);
+					int swap = rejected[i];
+					rejected[i] = rejected[j];
+					rejected[j] = swap;
+				} //loop
+				res.audited = Arrays.copyOf(rejected, Math.min(audits, rejected.length));
+			} //if
+		} //loop
+
+		//audits are scored separately so they do not count towards the screening time
+		if (res.audited.length > 0 && last > 0) {
+			long start = System.nanoTime();
+			scoreAt(res.costs[last], levels[last], candidates, res.audited, threads);
+			res.auditSeconds = (System.nanoTime() - start) / 1E9;
+		} //if
+
+		res.ranking = order(res.costs[last], res.finished());
+		return res;
+	} //end run
+
+	/**
+	 * Score candidates at one level, timing it
+	 * @param res Result to store the scores and time in
+	 * @param l Index of the level
+	 * @param indices Candidates to score
+	 * @param threads Number of threads to score on
+	 */
+	private void score(Result<C> res, int l, int[] indices, int threads) {
+		long start = System.nanoTime();
+		scoreAt(res.costs[l], levels[l], res.candidates, indices, threads);
+		res.seconds[l] = (System.nanoTime() - start) / 1E9;
+		res.evaluated[l] = indices.length;
+	} //end score
+
+	/**
+	 * Score candidates at a level of fidelity in parallel
+	 * @param costs Array to store each candidate's score in
+	 * @param f Level of fidelity
+	 * @param candidates Every candidate
+	 * @param indices Candidates to score
+	 * @param threads Number of threads to score on
+	 */
+	private void scoreAt(double[] costs, Fidelity f, List<C> candidates, int[] indices, int threads) {
+		Parallel.forEach(indices, threads, i -> costs[i] = evaluator.evaluate(candidates.get(i), f));
+	} //end scoreAt
+
+	/**
+	 * Sort candidates by score, keeping the given order for equal scores
+	 * @param costs Score of every candidate
+	 * @param indices Candidates to sort
+	 * @return Indices from best to worst
+	 */
+	private static int[] order(double[] costs, int[] indices) {
+		return Arrays.stream(indices).boxed()
+				.sorted((a, b) -> Double.compare(costs[a], costs[b]))
+				.mapToInt(Integer::intValue).toArray();
+	} //end order
+
+	/**
+	 * Level of detail a candidate is simulated at
+	 */
+	public static class Fidelity {
+		//Attributes
+		private String name; //name shown in reports
+		private int stepScale; //multiple of Util.UPDATE_PERIOD each update covers
+		private int sampleScale; //multiple of the normal spacing between path samples
+
+		/**
+		 * Create a level of fidelity
+		 * @param name Name shown in reports
+		 * @param stepScale Multiple of Util.UPDATE_PERIOD each update covers, 1 for full fidelity
+		 * @param sampleScale Multiple of the normal spacing between path samples, 1 for full fidelity
+		 */
+		public Fidelity(String name, int stepScale, int sampleScale) {
+			this.name = name;
+			this.stepScale = Math.max(1, stepScale);
+			this.sampleScale = Math.max(1, sampleScale);
+		} //end constructor
+
+		/**
+		 * Get the name of the level
+		 * @return Name shown in reports
+		 */
+		public String getName() {
+			return name;
+		} //end getName
+
+		/**
+		 * Get how many normal updates each update at this level covers
+		 * @return Multiple of Util.UPDATE_PERIOD
+		 */
+		public int getStepScale() {
+			return stepScale;
+		} //end getStepScale
+
+		/**
+		 * Get the time each update covers at this level
+		 * @return Period in seconds
+		 */
+		public double getPeriod() {
+			return stepScale * Util.UPDATE_PERIOD;
+		} //end getPeriod
+
+		/**
+		 * Get the spacing between path samples at this level
+		 * @param spacing Spacing used at full fidelity
+		 * @return Spacing to use, in the same units
+		 */
+		public double scaleSpacing(double spacing) {
+			return spacing * sampleScale;
+		} //end scaleSpacing
+
+		/**
+		 * Get the number of pieces a BezierProfile is split into at this level
+		 * @return Size to create the profile with
+		 */
+		public int getProfileSize() {
+			return Math.max(MIN_PROFILE_SIZE, BezierProfile.SIZE / sampleScale);
+		} //end getProfileSize
+
+		/**
+		 * Set a robot to update at this level's period
+		 * @param r Robot to simulate
+		 */
+		public void apply(Robot r) {
+			r.setPeriod(getPeriod());
+		} //end apply
+
+		/**
+		 * Get the level as text
+		 * @return Name, period and sampling
+		 */
+		public String toString() {
+			return String.format("%s (%.0fms, 1/%d sampling)", name, 1000 * getPeriod(), sampleScale);
+		} //end toString
+	} //end Fidelity
+
+	/**
+	 * Ranking from a run and the evidence that screening did not change it
+	 */
+	public static class Result<C> {
+		//Attributes
+		private List<C> candidates; //every candidate
+		private Fidelity[] levels; //levels of the ladder
+		private double[][] costs; //score of each candidate at each level, NaN if not scored there
+		private double[] seconds; //time spent scoring at each level
+		private int[] evaluated; //candidates scored at each level
+		private int[] promoted; //candidates moved up from each level
+		private int[] audited; //candidates rejected by the first level that were scored at the last
+		private double auditSeconds; //time spent scoring the audited candidates
+		private int[] ranking; //candidates scored at the last level from best to worst
+
+		/**
+		 * Create an empty result
+		 * @param candidates Every candidate
+		 * @param levels Levels of the ladder
+		 */
+		private Result(List<C> candidates, Fidelity[] levels) {
+			this.candidates = candidates;
+			this.levels = levels;
+			this.costs = new double[levels.length][candidates.size()];
+			for (double[] c : costs) {
+				Arrays.fill(c, Double.NaN);
+			} //loop
+			this.seconds = new double[levels.length];
+			this.evaluated = new int[levels.length];
+			this.promoted = new int[levels.length];
+			this.audited = new int[0];
+		} //end constructor
+
+		/**
+		 * Get the candidates scored at the last level
+		 * @return Indices of the candidates
+		 */
+		private int[] finished() {
+			double[] fine = costs[levels.length - 1];
+			return IntStream.range(0, fine.length).filter(i -> !Double.isNaN(fine[i])).toArray();
+		} //end finished
+
+		/**
+		 * Get the best candidate
+		 * @return Candidate with the lowest score at the last level
+		 */
+		public C getBest() {
+			return candidates.get(ranking[0]);
+		} //end getBest
+
+		/**
+		 * Get the score of the best candidate
+		 * @return Lowest score at the last level
+		 */
+		public double getBestCost() {
+			return costs[levels.length - 1][ranking[0]];
+		} //end getBestCost
+
+		/**
+		 * Get the candidates scored at the last level in order
+		 * @return Candidates from best to worst
+		 */
+		public List<C> getRanking() {
+			List<C> list = new ArrayList<C>();
+			for (int i : ranking) {
+				list.add(candidates.get(i));
+			} //loop
+
+			return list;
+		} //end getRanking
+
+		/**
+		 * Get the score of each candidate at a level
+		 * @param level Index of the level
+		 * @return Score of each candidate in the order given, NaN if it did not reach the level
+		 */
+		public double[] getCosts(int level) {
+			return costs[level].clone();
+		} //end getCosts
+
+		/**
+		 * Get how much faster the ladder was than scoring every candidate at the last level
+		 * The full cost is estimated from the time each candidate took at the last level
+		 * @return Ratio of the estimated full time to the time spent screening and confirming
+		 */
+		public double getSpeedup() {
+			int last = levels.length - 1;
+			double full = candidates.size() * seconds[last] / Math.max(1, evaluated[last]);
+			double spent = 0;
+			for (double s : seconds) {
+				spent += s;
+			} //loop
+
+			return full / spent;
+		} //end getSpeedup
+
+		/**
+		 * Get the largest difference between a level's score and the last level's score
+		 * @param level Index of the level
+		 * @return Largest difference over the candidates scored at both
+		 */
+		public double getMaxError(int level) {
+			double[] fine = costs[levels.length - 1];
+			double max = 0;
+			for (int i : finished()) {
+				if (!Double.isNaN(costs[level][i]))
+					max = Math.max(max, Math.abs(fine[i] - costs[level][i]));
+			} //loop
+
+			return max;
+		} //end getMaxError
+
+		/**
+		 * Get the rank correlation between a level's scores and the last level's scores
+		 * @param level Index of the level
+		 * @return Spearman correlation over the candidates scored at both, 1 if the order is the same
+		 */
+		public double getRankCorrelation(int level) {
+			double[] fine = costs[levels.length - 1];
+			int[] both = Arrays.stream(finished()).filter(i -> !Double.isNaN(costs[level][i])).toArray();
+			if (both.length < 2)
+				return 1;
+
+			double[] a = new double[both.length];
+			double[] b = new double[both.length];
+			for (int k = 0; k < both.length; k++) {
+				a[k] = costs[level][both[k]];
+				b[k] = fine[both[k]];
+			} //loop
+
+			return correlation(ranks(a), ranks(b));
+		} //end getRankCorrelation
+
+		/**
+		 * Get how far the best candidate a level rejected is from beating the winner, allowing for the level's error
+		 * @param level Index of the level, not the last
+		 * @return Best rejected score minus the largest error minus the winner's score, positive if no reject could have won
+		 */
+		public double getMargin(int level) {
+			double[] c = costs[level];
+			double[] next = costs[level + 1];
+			double bestRejected = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < c.length; i++) {
+				if (!Double.isNaN(c[i]) && (Double.isNaN(next[i]) || (level == 0 && isAudited(i))))
+					bestRejected = Math.min(bestRejected, c[i]);
+			} //loop
+
+			return bestRejected - getMaxError(level) - getBestCost();
+		} //end getMargin
+
+		/**
+		 * Check if a candidate was rejected by the first level and audited at the last
+		 * @param i Index of the candidate
+		 * @return True if it was audited
+		 */
+		private boolean isAudited(int i) {
+			for (int a : audited) {
+				if (a == i)
+					return true;
+			} //loop
+
+			return false;
+		} //end isAudited
+
+		/**
+		 * Check that no candidate a level rejected could have beaten the winner, given each level's largest error
+		 * @return True if every level's margin is at least zero
+		 */
+		public boolean isCertified() {
+			for (int l = 0; l < levels.length - 1; l++) {
+				if (getMargin(l) < 0)
+					return false;
+			} //loop
+
+			return true;
+		} //end isCertified
+
+		/**
+		 * Get the number of audited candidates that beat every candidate the ladder promoted, each one a ranking the screen got wrong
+		 * @return Audited candidates with a lower score at the last level than the best promoted candidate
+		 */
+		public int getAuditMisses() {
+			double[] fine = costs[levels.length - 1];
+			double bestPromoted = Double.POSITIVE_INFINITY;
+			for (int i : finished()) {
+				if (!isAudited(i))
+					bestPromoted = Math.min(bestPromoted, fine[i]);
+			} //loop
+
+			int misses = 0;
+			for (int a : audited) {
+				if (fine[a] < bestPromoted)
+					misses++;
+			} //loop
+
+			return misses;
+		} //end getAuditMisses
+
+		/**
+		 * Get the rank of each value, ties sharing their average rank
+		 * @param values Values to rank
+		 * @return Rank of each value starting at 1
+		 */
+		private static double[] ranks(double[] values) {
+			Integer[] order = new Integer[values.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			} //loop
+			Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+			double[] r = new double[values.length];
+			for (int i = 0; i < order.length;) {
+				int j = i;
+				while (j + 1 < order.length && Double.compare(values[order[j + 1]], values[order[i]]) == 0) {
+					j++;
+				} //loop
+				for (int k = i; k <= j; k++) {
+					r[order[k]] = (i + j) / 2.0 + 1;
+				} //loop
+				i = j + 1;
+			} //loop
+
+			return r;
+		} //end ranks
+
+		/**
+		 * Get the Pearson correlation of two lists of values
+		 * @param a First values
+		 * @param b Second values
+		 * @return Correlation from -1 to 1, 1 if either list has no spread
+		 */
+		private static double correlation(double[] a, double[] b) {
+			double ma = Arrays.stream(a).average().orElse(0);
+			double mb = Arrays.stream(b).average().orElse(0);
+			double ab = 0, aa = 0, bb = 0;
+			for (int i = 0; i < a.length; i++) {
+				ab += (a[i] - ma) * (b[i] - mb);
+				aa += (a[i] - ma) * (a[i] - ma);
+				bb += (b[i] - mb) * (b[i] - mb);
+			} //loop
+
+			return aa == 0 || bb == 0 ? 1 : ab / Math.sqrt(aa * bb);
+		} //end correlation
+
+		/**
+		 * Get the result as a report
+		 * @return Work at each level, then how well each level's ranking agrees with the last
+		 */
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for (int l = 0; l < levels.length; l++) {
+				sb.append(String.format("%-32s %6d scored %8.3fs%s%n", levels[l], evaluated[l], seconds[l],
+						l < levels.length - 1 ? String.format(", %d promoted", promoted[l]) : ""));
+			} //loop
+			if (audited.length > 0)
+				sb.append(String.format("%-32s %6d scored %8.3fs, %d beat the winner%n", "audit of first level rejects",
+						audited.length, auditSeconds, getAuditMisses()));
+
+			for (int l = 0; l < levels.length - 1; l++) {
+				sb.append(String.format("%-32s rank correlation %.3f, max error %.4f, margin %.4f%n",
+						levels[l].getName() + " vs " + levels[levels.length - 1].getName(),
+						getRankCorrelation(l), getMaxError(l), getMargin(l)));
+			} //loop
+			sb.append(String.format("Best %.4f, %s, %.1fx faster than scoring all %d at %s",
+					getBestCost(), isCertified() ? "certified" : "NOT certified", getSpeedup(),
+					candidates.size(), levels[levels.length - 1].getName()));
+
+			return sb.toString();
+		} //end toString
+	} //end Result
+
+	/**
+	 * Rank random variations of a curve by how quickly pure pursuit follows them
+	 */
+	public static void main(String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+
+		//same robot as the main simulation
+		Robot nominal = new Robot(4, 153, 30, 30, new Gearbox(8.5521, new Motor(Util.NEO), 2));
+
+		//move the inner control points of the curve around
+		Point[] base = FieldPositioning.pointsFromDoubles(FieldPoints.curve);
+		SplittableRandom random = new SplittableRandom(2020);
+		List<Point[]> paths = new ArrayList<Point[]>();
+		for (int c = 0; c < count; c++) {
+			Point[] pts = base.clone();
+			for (int i = 1; i < pts.length - 1; i++) {
+				pts[i] = new Point(pts[i].getX() + 20 * random.nextGaussian(), pts[i].getY() + 20 * random.nextGaussian());
+			} //loop
+			paths.add(pts);
+		} //loop
+
+		FidelityLadder<Point[]> ladder = new FidelityLadder<Point[]>((pts, f) -> pursue(nominal, pts, f));
+		ladder.setLevels(0.05, COARSE, FINE);
+		ladder.setAudit(20, 2020);
+
+		//warm up first so the compiler does not make the first level look slow
+		ladder.run(paths.subList(0, Math.min(count, 50)), threads);
+		Result<Point[]> res = ladder.run(paths, threads);
+		System.out.println(res);
+	} //end main
+
+	/**
+	 * Score a path by the time pure pursuit takes to follow it plus a second for every foot it ends from the goal
+	 * @param nominal Robot to follow the path with
+	 * @param controlPts Control points of the path
+	 * @param f Fidelity to simulate at
+	 * @return Score in seconds
+	 */
+	private static double pursue(Robot nominal, Point[] controlPts, Fidelity f) {
+		Robot r = nominal.clone();
+		f.apply(r);
+		PursuitPath path = new PursuitPath(controlPts, r.getWidthInches(), 12, 200, 200, f.scaleSpacing(2));
+		r.setXY(path.getPoints()[0]);
+		r.setHeading(path.getInitialHeading());
+
+		DriveLoop loop = new DriveLoop(r, new PIDController(Util.kP_DRIVE, Util.kI_DRIVE, Util.kD_DRIVE, r.getMaxLinSpeed()),
+				new PIDController(Util.kP_TURN, Util.kI_TURN, Util.kD_TURN, r.getMaxLinSpeed()));
+		PurePursuitController ppc = new PurePursuitController();
+		ppc.setSeekConstants(0.25, 50, 12, false);
+		ppc.setArriveConstants(30, 3);
+		ppc.setPurePursuitConstants(30);
+		loop.setPurePursuitController(ppc);
+
+		PurePursuit pursuit = new PurePursuit(loop, path.getPoints());
+		pursuit.setRecording(false);
+		pursuit.start();
+		int updates = 0;
+		int step;
+		while ((step = pursuit.advance(Integer.MAX_VALUE)) > 0) {
+			updates += step;
+		} //loop
+
+		Point end = path.getPoints()[path.getPoints().length - 1];
+		return updates * r.getPeriod() + Math.hypot(r.getX() - end.getX(), r.getY() - end.getY()) / 12;
+	} //end pursue
+} //end class
@@ -0,0 +1,377 @@
+/**
+ * FieldSimulation
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Simulate many robots on the field at once, each with its own loop and routine
+ */
+
+package sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import commands.CommandGroup;
+import commands.CommandList;
+import commands.TimedVoltage;
+import model.DriveLoop;
+import model.Gearbox;
+import model.Motor;
+import model.PIDController;
+import model.Point;
+import model.Robot;
+import util.Util;
+
+public class FieldSimulation {
+	//Attributes
+	//Configured
+	private ArrayList<DriveLoop> loops; //loop controlling each robot
+	private ArrayList<CommandGroup> routines; //routine each robot runs
+	private boolean recording; //whether the routines save robot data every update
+
+	//Collision detection
+	private SpatialHash hash; //broad phase grid
+	private double[] xs; //x value of each robot this update
+	private double[] ys; //y value of each robot this update
+	private boolean[] hitWall; //whether each robot is touching the field boundary this update
+	private int[] contactsA; //first robot of each contact this update
+	private int[] contactsB; //second robot of each contact this update
+	private int numContacts; //number of robot-robot contacts this update
+	private SpatialHash.PairConsumer narrowPhase; //exact overlap check for candidate pairs
+
+	//Statistics
+	private int ticks; //number of updates run
+	private long candidatePairs; //total pairs checked by the narrow phase
+	private long robotCollisions; //total robot-robot contacts over all updates
+	private long wallCollisions; //total robot-boundary contacts over all updates
+
+	/**
+	 * Create an empty field
+	 */
+	public FieldSimulation() {
+		//set attributes
+		this.loops = new ArrayList<DriveLoop>();
+		this.routines = new ArrayList<CommandGroup>();
+		this.recording = false;
+		this.contactsA = new int[16];
+		this.contactsB = new int[16];
+		this.narrowPhase = this::checkPair;
+	} //end constructor
+
+	/**
+	 * Add a robot to the field
+	 * @param loop Loop controlling the robot
+	 * @param routine Routine the robot runs
+	 */
+	public void addRobot(DriveLoop loop, CommandGroup routine) {
+		loops.add(loop);
+		routines.add(routine);
+	} //end addRobot
+
+	/**
+	 * Set whether the routines save their robot data every update (off by default)
+	 * @param recording True to keep poses and data for playback
+	 */
+	public void setRecording(boolean recording) {
+		this.recording = recording;
+	} //end setRecording
+
+	/**
+	 * Start every routine and size the collision grid to the largest robot
+	 */
+	public void start() {
+		int n = loops.size();
+		xs = new double[n];
+		ys = new double[n];
+		hitWall = new boolean[n];
+
+		//cells must be at least as wide as the largest robot's diagonal
+		double cellSize = 1;
+		for (int i = 0; i < n; i++) {
+			Robot r = loops.get(i).getRobot();
+			cellSize = Math.max(cellSize, Math.hypot(r.getLengthInches(), r.getWidthInches()));
+		} //loop
+		hash = new SpatialHash(Util.FIELD_HEIGHT, Util.FIELD_WIDTH, cellSize);
+
+		//start the routines
+		for (int i = 0; i < n; i++) {
+			routines.get(i).setRecording(recording);
+			routines.get(i).start();
+		} //loop
+
+		ticks = 0;
+		candidatePairs = 0;
+		robotCollisions = 0;
+		wallCollisions = 0;
+	} //end start
+
+	/**
+	 * Update every robot once, then find the collisions between them
+	 * @return True if any routine is still running
+	 */
+	public boolean step() {
+		boolean running = false;
+
+		//step each routine (finished routines leave their robot where it stopped)
+		for (int i = 0; i < routines.size(); i++) {
+			running |= routines.get(i).step();
+		} //loop
+
+		detectCollisions();
+		ticks++;
+
+		return running;
+	} //end step
+
+	/**
+	 * Run every routine until they have all finished
+	 */
+	public void run() {
+		start();
+		while (step());
+	} //end run
+
+	/**
+	 * Find the robots touching the field boundary and the pairs of robots touching each other
+	 */
+	private void detectCollisions() {
+		int n = loops.size();
+
+		//boundary checks and positions for the grid
+		for (int i = 0; i < n; i++) {
+			Robot r = loops.get(i).getRobot();
+			xs[i] = r.getX();
+			ys[i] = r.getY();
+
+			//extent of the rotated robot along each field axis
+			double h = r.getHeading();
+			double halfL = r.getLengthInches() / 2;
+			double halfW = r.getWidthInches() / 2;
+			double sin = Math.abs(Math.sin(h));
+			double cos = Math.abs(Math.cos(h));
+			double extentX = halfL * sin + halfW * cos;
+			double extentY = halfL * cos + halfW * sin;
+
+			hitWall[i] = xs[i] - extentX < 0 || xs[i] + extentX > Util.FIELD_HEIGHT ||
+						ys[i] - extentY < 0 || ys[i] + extentY > Util.FIELD_WIDTH;
+			if (hitWall[i])
+				wallCollisions++;
+		} //loop
+
+		//broad phase finds nearby pairs, narrow phase checks if they overlap
+		numContacts = 0;
+		hash.build(xs, ys, n);
+		candidatePairs += hash.forEachCandidatePair(narrowPhase);
+		robotCollisions += numContacts;
+	} //end detectCollisions
+
+	/**
+	 * Check if two robots overlap using the separating axis test on their rectangles
+	 * @param a Index of the first robot
+	 * @param b Index of the second robot
+	 */
+	private void checkPair(int a, int b) {
+		Robot ra = loops.get(a).getRobot();
+		Robot rb = loops.get(b).getRobot();
+
+		//vector between the centers
+		double dx = xs[b] - xs[a];
+		double dy = ys[b] - ys[a];
+
+		//forward and side axes of each robot (x is sin, y is cos because the field is flipped)
+		double ha = ra.getHeading(), hb = rb.getHeading();
+		double fax = Math.sin(ha), fay = Math.cos(ha);
+		double fbx = Math.sin(hb), fby = Math.cos(hb);
+		double la = ra.getLengthInches() / 2, wa = ra.getWidthInches() / 2;
+		double lb = rb.getLengthInches() / 2, wb = rb.getWidthInches() / 2;
+
+		//test the four axes, the robots are apart if any axis separates them
+		if (separated(fax, fay, dx, dy, la, wa, fax, fay, lb, wb, fbx, fby) ||
+			separated(fay, -fax, dx, dy, la, wa, fax, fay, lb, wb, fbx, fby) ||
+			separated(fbx, fby, dx, dy, la, wa, fax, fay, lb, wb, fbx, fby) ||
+			separated(fby, -fbx, dx, dy, la, wa, fax, fay, lb, wb, fbx, fby)) {
+			return;
+		} //if
+
+		//grow the contact arrays if needed
+		if (numContacts == contactsA.length) {
+			contactsA = Arrays.copyOf(contactsA, numContacts * 2);
+			contactsB = Arrays.copyOf(contactsB, numContacts * 2);
+		} //if
+
+		contactsA[numContacts] = a;
+		contactsB[numContacts] = b;
+		numContacts++;
+	} //end checkPair
+
+	/**
+	 * Check if an axis separates two rectangles
+	 * @param ax X component of the unit axis
+	 * @param ay Y component of the unit axis
+	 * @param dx X distance between the centers
+	 * @param dy Y distance between the centers
+	 * @param la Half length of the first rectangle
+	 * @param wa Half width of the first rectangle
+	 * @param fax X component of the first rectangle's forward axis
+	 * @param fay Y component of the first rectangle's forward axis
+	 * @param lb Half length of the second rectangle
+	 * @param wb Half width of the second rectangle
+	 * @param fbx X component of the second rectangle's forward axis
+	 * @param fby Y component of the second rectangle's forward axis
+	 * @return True if the projections onto the axis do not overlap
+	 */
+	private static boolean separated(double ax, double ay, double dx, double dy, double la, double wa,
+			double fax, double fay, double lb, double wb, double fbx, double fby) {
+		//projected half sizes of each rectangle (side axis is the forward axis rotated 90 degrees)
+		double ra = la * Math.abs(fax * ax + fay * ay) + wa * Math.abs(fay * ax - fax * ay);
+		double rb = lb * Math.abs(fbx * ax + fby * ay) + wb * Math.abs(fby * ax - fbx * ay);
+
+		return Math.abs(dx * ax + dy * ay) > ra + rb;
+	} //end separated
+
+	//Results
+
+	/**
+	 * Get the number of robot-robot contacts found in the last update
+	 * @return Number of touching pairs
+	 */
+	public int getNumContacts() {
+		return numContacts;
+	} //end getNumContacts
+
+	/**
+	 * Get a pair of touching robots from the last update
+	 * @param i Index of the contact
+	 * @return Indices of the two robots that are touching
+	 */
+	public int[] getContact(int i) {
+		return new int[] {contactsA[i], contactsB[i]};
+	} //end getContact
+
+	/**
+	 * Check if a robot was touching the field boundary in the last update
+	 * @param i Index of the robot
+	 * @return True if part of the robot was outside the field
+	 */
+	public boolean isTouchingWall(int i) {
+		return hitWall[i];
+	} //end isTouchingWall
+
+	/**
+	 * Get the number of robots on the field
+	 * @return Number of robots added
+	 */
+	public int getNumRobots() {
+		return loops.size();
+	} //end getNumRobots
+
+	/**
+	 * Get the loop controlling a robot
+	 * @param i Index of the robot
+	 * @return Loop of the robot
+	 */
+	public DriveLoop getLoop(int i) {
+		return loops.get(i);
+	} //end getLoop
+
+	/**
+	 * Get the routine a robot runs
+	 * @param i Index of the robot
+	 * @return Routine of the robot
+	 */
+	public CommandGroup getRoutine(int i) {
+		return routines.get(i);
+	} //end getRoutine
+
+	/**
+	 * Get the number of updates run
+	 * @return Ticks since the simulation started
+	 */
+	public int getTicks() {
+		return ticks;
+	} //end getTicks
+
+	/**
+	 * Get the total number of pairs the broad phase passed to the narrow phase
+	 * @return Candidate pairs over all updates
+	 */
+	public long getCandidatePairs() {
+		return candidatePairs;
+	} //end getCandidatePairs
+
+	/**
+	 * Get the total number of robot-robot contacts
+	 * @return Contacts over all updates
+	 */
+	public long getRobotCollisions() {
+		return robotCollisions;
+	} //end getRobotCollisions
+
+	/**
+	 * Get the total number of robot-boundary contacts
+	 * @return Boundary contacts over all updates
+	 */
+	public long getWallCollisions() {
+		return wallCollisions;
+	} //end getWallCollisions
+
+	//Benchmark
+
+	/**
+	 * Report the per-tick cost of the simulation for 6, 60 and 600 robots
+	 */
+	public static void main(String[] args) {
+		int[] counts = {6, 60, 600};
+		double seconds = 3;
+
+		System.out.println("robots\tticks\tms/tick\tus/robot/tick\tpairs/tick\tcontacts\twalls");
+		for (int n : counts) {
+			//run twice so the second run is measured with the code warmed up
+			createDemo(n, seconds).run();
+			FieldSimulation sim = createDemo(n, seconds);
+
+			long start = System.nanoTime();
+			sim.run();
+			double elapsed = System.nanoTime() - start;
+
+			double msPerTick = elapsed / sim.getTicks() / 1E6;
+			System.out.println(String.format("%d\t%d\t%.3f\t%.3f\t\t%.1f\t\t%d\t\t%d", n, sim.getTicks(), msPerTick,
+								1E3 * msPerTick / n, (double) sim.getCandidatePairs() / sim.getTicks(),
+								sim.getRobotCollisions(), sim.getWallCollisions()));
+		} //loop
+	} //end main
+
+	/**
+	 * Create a field of robots spread out in a grid, each driving random arcs
+	 * @param n Number of robots
+	 * @param seconds Length of each robot's routine in seconds
+	 * @return Field with the robots and their routines added
+	 */
+	public static FieldSimulation createDemo(int n, double seconds) {
+		FieldSimulation sim = new FieldSimulation();
+		Random rand = new Random(n);
+
+		//shrink the robots as more are added so a quarter of the field is covered
+		double side = Math.min(30, Math.sqrt(0.25 * Util.FIELD_WIDTH * Util.FIELD_HEIGHT / n));
+		int cols = (int) Math.ceil(Math.sqrt(2.0 * n));
+		int rows = (int) Math.ceil((double) n / cols);
+
+		Gearbox gb = new Gearbox(Gearbox.ratioFromTopSpeed(Util.NEO, 4, 12), new Motor(Util.NEO), 2);
+		for (int i = 0; i < n; i++) {
+			Robot r = new Robot(4, 153, side, side, gb);
+			r.setXY(new Point(Util.FIELD_HEIGHT * (i / cols + 0.5) / rows, Util.FIELD_WIDTH * (i % cols + 0.5) / cols));
+			r.setHeading(rand.nextDouble() * 2 * Math.PI);
+
+			PIDController drivePID = new PIDController(Util.kP_DRIVE, Util.kI_DRIVE, Util.kD_DRIVE, r.getMaxLinSpeed());
+			PIDController turnPID = new PIDController(Util.kP_TURN, Util.kI_TURN, Util.kD_TURN, r.getMaxLinSpeed());
+			DriveLoop loop = new DriveLoop(r, drivePID, turnPID);
+
+			//drive an arc at a random speed
+			double left = 2 + 4 * rand.nextDouble();
+			double right = 2 + 4 * rand.nextDouble();
+			sim.addRobot(loop, new CommandList(new TimedVoltage(loop, left, right, seconds)));
+		} //loop
+
+		return sim;
+	} //end createDemo
+} //end class
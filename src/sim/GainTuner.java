@@ -0,0 +1,509 @@
+/**
+ * GainTuner
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Search for the PID and feedforward gains that bring a robot through a routine to its goal fastest
+ */
+
+package sim;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import commands.CommandGroup;
+import commands.CommandList;
+import commands.DriveDistance;
+import commands.TurnAngle;
+import model.DriveLoop;
+import model.Gearbox;
+import model.Motor;
+import model.PIDController;
+import model.Point;
+import model.Robot;
+import sim.MonteCarloRunner.RoutineFactory;
+import util.Parallel;
+import util.Util;
+
+public class GainTuner {
+	//Constants
+	private static final double HEADING_WEIGHT = 12; //inches of error that one radian of heading error counts as
+	private static final double MIN_SIGMA = 0.002; //smallest spread of a gain, as a fraction of its range
+	private static final double SMOOTHING = 0.7; //weight of the elites when updating the spread each generation
+
+	/**
+	 * Gains that can be tuned
+	 */
+	public static enum Gain {
+		DRIVE_P,
+		DRIVE_I,
+		DRIVE_D,
+		TURN_P,
+		TURN_I,
+		TURN_D,
+		FF_V, //velocity feedforward in V / ft/s
+		FF_A //acceleration feedforward in V / ft/s^2
+	}
+
+	//Attributes
+	//Configured
+	private Robot nominal; //robot the gains are tuned for
+	private RoutineFactory factory; //creates the routine for each candidate
+	private Point start; //starting point of the robot
+	private double startHeading; //starting heading of the robot in radians
+	private Point goal; //point the robot should end at
+	private double goalHeading; //heading the robot should end at in radians
+	private int maxTicks; //updates each candidate is scored over
+	private double[] initial; //starting value of each gain
+	private double[] low; //smallest value of each gain
+	private double[] high; //largest value of each gain, equal to low if the gain is not tuned
+	private int population; //candidates per generation
+	private int elites; //best candidates each generation learns from
+	private int generations; //most generations to run
+	private long seed; //seed for the candidates
+	private boolean earlyStop; //whether candidates that cannot be one of the best are stopped part way
+
+	/**
+	 * Create a tuner, starting from the gains in Util and tuning nothing until ranges are set
+	 * @param nominal Robot the gains are tuned for
+	 * @param factory Creates the routine to score each set of gains on
+	 * @param seed Seed for the candidates
+	 */
+	public GainTuner(Robot nominal, RoutineFactory factory, long seed) {
+		//set attributes
+		this.nominal = nominal;
+		this.factory = factory;
+		this.seed = seed;
+		this.start = new Point(0, 0);
+		this.startHeading = 0;
+		this.goal = new Point(0, 0);
+		this.goalHeading = 0;
+		this.maxTicks = (int) (15 / Util.UPDATE_PERIOD); //15s
+		this.population = 24;
+		this.elites = 6;
+		this.generations = 30;
+		this.earlyStop = true;
+
+		this.initial = new double[] {Util.kP_DRIVE, Util.kI_DRIVE, Util.kD_DRIVE, Util.kP_TURN, Util.kI_TURN, Util.kD_TURN,
+				Util.kV_EMPIR, Util.kA_EMPIR};
+		this.low = initial.clone();
+		this.high = initial.clone();
+	} //end constructor
+
+	//Configuration
+
+	/**
+	 * Set the starting pose of the robot
+	 * @param start Starting point
+	 * @param heading Starting heading in radians
+	 */
+	public void setStart(Point start, double heading) {
+		this.start = start;
+		this.startHeading = heading;
+	} //end setStart
+
+	/**
+	 * Set the pose the robot should end the routine at
+	 * @param goal Final point
+	 * @param heading Final heading in radians
+	 */
+	public void setGoal(Point goal, double heading) {
+		this.goal = goal;
+		this.goalHeading = heading;
+	} //end setGoal
+
+	/**
+	 * Set the time each candidate is scored over
+	 * @param seconds Simulated time, long enough for good gains to finish the routine
+	 */
+	public void setHorizon(double seconds) {
+		this.maxTicks = (int) Math.round(seconds / Util.UPDATE_PERIOD);
+	} //end setHorizon
+
+	/**
+	 * Tune a gain within a range
+	 * @param g Gain to tune
+	 * @param low Smallest value
+	 * @param high Largest value
+	 */
+	public void setRange(Gain g, double low, double high) {
+		this.low[g.ordinal()] = low;
+		this.high[g.ordinal()] = high;
+		this.initial[g.ordinal()] = Util.clampNum(initial[g.ordinal()], low, high);
+	} //end setRange
+
+	/**
+	 * Set the value a gain starts at, or stays at if it is not tuned
+	 * @param g Gain to set
+	 * @param value Starting value
+	 */
+	public void setInitial(Gain g, double value) {
+		this.initial[g.ordinal()] = value;
+		if (low[g.ordinal()] == high[g.ordinal()]) {
+			low[g.ordinal()] = value;
+			high[g.ordinal()] = value;
+		} //if
+	} //end setInitial
+
+	/**
+	 * Set the size of the search
+	 * @param population Candidates per generation
+	 * @param elites Best candidates each generation learns from
+	 * @param generations Most generations to run
+	 */
+	public void setSearch(int population, int elites, int generations) {
+		this.population = Math.max(2, population);
+		this.elites = Math.max(1, Math.min(elites, this.population));
+		this.generations = Math.max(1, generations);
+	} //end setSearch
+
+	/**
+	 * Set whether candidates are stopped once they cannot be one of the best of their generation
+	 * Stopping them only saves work, the search finds the same gains either way
+	 * @param earlyStop True to stop hopeless candidates, false to run every candidate to the end
+	 */
+	public void setEarlyStop(boolean earlyStop) {
+		this.earlyStop = earlyStop;
+	} //end setEarlyStop
+
+	//Search
+
+	/**
+	 * Search for the best gains, scoring each generation's candidates in parallel
+	 *
+	 * Each gain is sampled from a normal distribution over its range. The best candidates of a generation set the
+	 * mean and spread of the next, so the search narrows in on good gains (the cross-entropy method).
+	 * A candidate's score only grows as it runs, so it is stopped once it passes the worst of the best candidates
+	 * finished so far in its own generation, as it could no longer be one of the best. The elites, and so the search,
+	 * are the same as when every candidate runs to the end.
+	 * @param threads Number of threads to score candidates on
+	 * @return Best gains found and the work it took
+	 */
+	public Result tune(int threads) {
+		int n = initial.length;
+		SplittableRandom random = new SplittableRandom(seed);
+
+		//search each gain as a fraction of its range
+		double[] mean = new double[n];
+		double[] sigma = new double[n];
+		for (int i = 0; i < n; i++) {
+			mean[i] = isTuned(i) ? (initial[i] - low[i]) / (high[i] - low[i]) : 0;
+			sigma[i] = isTuned(i) ? 0.3 : 0;
+		} //loop
+
+		Result res = new Result();
+		res.best = initial.clone();
+		res.bestCost = score(initial, null, res);
+
+		for (int gen = 0; gen < generations; gen++) {
+			//draw every candidate first so the search is the same on any number of threads
+			double[][] unit = new double[population][n];
+			double[][] gains = new double[population][];
+			for (int c = 0; c < population; c++) {
+				for (int i = 0; i < n; i++) {
+					unit[c][i] = Util.clampNum(mean[i] + sigma[i] * random.nextGaussian(), 0, 1);
+				} //loop
+				gains[c] = toGains(unit[c]);
+			} //loop
+
+			double[] costs = new double[population];
+			EliteBound cutoff = earlyStop ? new EliteBound(elites) : null;
+			Parallel.forEach(population, threads, c -> costs[c] = score(gains[c], cutoff, res));
+			res.generations++;
+
+			//rank the candidates, ones that were stopped early last
+			Integer[] order = new Integer[population];
+			for (int c = 0; c < population; c++) {
+				order[c] = c;
+			} //loop
+			Arrays.sort(order, (a, b) -> Double.compare(costs[a], costs[b]));
+
+			if (costs[order[0]] < res.bestCost) {
+				res.bestCost = costs[order[0]];
+				res.best = gains[order[0]];
+			} //if
+
+			//learn from the elites, which always finished as only candidates that cannot be one of them are stopped
+			double spread = 0;
+			for (int i = 0; i < n; i++) {
+				if (!isTuned(i))
+					continue;
+
+				double m = 0;
+				for (int k = 0; k < elites; k++) {
+					m += unit[order[k]][i];
+				} //loop
+				m /= elites;
+
+				double var = 0;
+				for (int k = 0; k < elites; k++) {
+					var += (unit[order[k]][i] - m) * (unit[order[k]][i] - m);
+				} //loop
+
+				mean[i] = m;
+				sigma[i] = Math.max(MIN_SIGMA, SMOOTHING * Math.sqrt(var / elites) + (1 - SMOOTHING) * sigma[i]);
+				spread = Math.max(spread, sigma[i]);
+			} //loop
+
+			//the distribution has collapsed onto an answer
+			if (spread <= MIN_SIGMA)
+				break;
+		} //loop
+
+		return res;
+	} //end tune
+
+	/**
+	 * Check if a gain is being tuned
+	 * @param i Index of the gain
+	 * @return True if the gain has a range
+	 */
+	private boolean isTuned(int i) {
+		return high[i] > low[i];
+	} //end isTuned
+
+	/**
+	 * Turn fractions of each range into gains
+	 * @param unit Fraction of the range of each gain
+	 * @return Gains, with untuned gains at their initial values
+	 */
+	private double[] toGains(double[] unit) {
+		double[] g = new double[unit.length];
+		for (int i = 0; i < g.length; i++) {
+			g[i] = isTuned(i) ? low[i] + unit[i] * (high[i] - low[i]) : initial[i];
+		} //loop
+
+		return g;
+	} //end toGains
+
+	/**
+	 * Score a set of gains over the whole horizon
+	 * @param gains Value of each gain, in the order of Gain
+	 * @return Integral of the error from the goal in inch-seconds
+	 */
+	public double evaluate(double[] gains) {
+		return score(gains, null, new Result());
+	} //end evaluate
+
+	/**
+	 * Get the value each gain starts at
+	 * @return Gains in the order of Gain
+	 */
+	public double[] getInitialGains() {
+		return initial.clone();
+	} //end getInitialGains
+
+	/**
+	 * Score a set of gains by how far the robot is from its goal over the whole horizon
+	 * @param gains Value of each gain
+	 * @param bound Score past which the run is stopped, null to always finish
+	 * @param res Result to count the work in
+	 * @return Integral of the error from the goal in inch-seconds, infinite if the run was stopped
+	 */
+	private double score(double[] gains, EliteBound bound, Result res) {
+		Robot r = nominal.clone();
+		r.setXY(start);
+		r.setHeading(startHeading);
+
+		DriveLoop loop = new DriveLoop(r, new PIDController(gains[Gain.DRIVE_P.ordinal()], gains[Gain.DRIVE_I.ordinal()],
+				gains[Gain.DRIVE_D.ordinal()], r.getMaxLinSpeed()), new PIDController(gains[Gain.TURN_P.ordinal()],
+				gains[Gain.TURN_I.ordinal()], gains[Gain.TURN_D.ordinal()], r.getMaxLinSpeed()));
+		loop.setFFValues(gains[Gain.FF_V.ordinal()], gains[Gain.FF_A.ordinal()]);
+		CommandGroup routine = factory.create(loop);
+		routine.setRecording(false);
+
+		//the error after the routine ends is held to the end of the horizon, so every candidate is scored as long
+		double cost = 0;
+		int ticks = 0;
+		routine.start();
+		while (ticks < maxTicks) {
+			int updates = routine.advance(maxTicks - ticks);
+			if (updates == 0) {
+				cost += (maxTicks - ticks) * Util.UPDATE_PERIOD * error(r);
+				break;
+			} //if
+
+			ticks += updates;
+			cost += updates * Util.UPDATE_PERIOD * error(r);
+			if (bound != null && cost > bound.get()) {
+				res.count(ticks, maxTicks - ticks);
+				return Double.POSITIVE_INFINITY;
+			} //if
+		} //loop
+
+		res.count(ticks, 0);
+		if (bound != null)
+			bound.offer(cost);
+		return cost;
+	} //end score
+
+	/**
+	 * Get how far the robot is from its goal
+	 * @param r Robot being scored
+	 * @return Distance in inches plus heading error weighted as inches
+	 */
+	private double error(Robot r) {
+		double heading = Math.abs(Math.IEEEremainder(r.getHeading() - goalHeading, 2 * Math.PI));
+		return Math.hypot(r.getX() - goal.getX(), r.getY() - goal.getY()) + HEADING_WEIGHT * heading;
+	} //end error
+
+	/**
+	 * Score a candidate has to beat to be one of the best of its generation, shared by the threads scoring it
+	 * Only candidates worse than enough finished ones of the same generation are stopped, so the best are the same
+	 * in any order and the same as when nothing is stopped
+	 */
+	private static class EliteBound {
+		//Attributes
+		private double[] best; //lowest scores finished so far, in order
+		private int filled; //number of scores in best
+		private volatile double bound; //score past which candidates are stopped
+
+		/**
+		 * Create a bound for a generation, stopping nothing until enough of its candidates have finished
+		 * @param elites Number of best candidates
+		 */
+		private EliteBound(int elites) {
+			this.best = new double[elites];
+			this.bound = Double.POSITIVE_INFINITY;
+		} //end constructor
+
+		/**
+		 * Get the score past which candidates are stopped
+		 * @return Bound on the score
+		 */
+		private double get() {
+			return bound;
+		} //end get
+
+		/**
+		 * Add the score of a finished candidate, lowering the bound once there are enough
+		 * @param cost Score of the candidate
+		 */
+		private synchronized void offer(double cost) {
+			if (filled == best.length && cost >= best[filled - 1])
+				return;
+
+			//insert in order, dropping the worst if full
+			int i = filled == best.length ? filled - 1 : filled++;
+			while (i > 0 && best[i - 1] > cost) {
+				best[i] = best[i - 1];
+				i--;
+			} //loop
+			best[i] = cost;
+
+			if (filled == best.length)
+				bound = best[filled - 1];
+		} //end offer
+	} //end EliteBound
+
+	/**
+	 * Best gains found by a search and the work it took
+	 */
+	public static class Result {
+		//Attributes
+		private double[] best; //best value of each gain
+		private double bestCost; //score of the best gains
+		private int generations; //generations run
+		private long evaluations; //candidates scored
+		private long ticks; //updates simulated
+		private long skipped; //updates not simulated because candidates were stopped early
+
+		/**
+		 * Count a scored candidate
+		 * @param ran Updates simulated
+		 * @param saved Updates not simulated because the candidate was stopped
+		 */
+		private synchronized void count(int ran, int saved) {
+			evaluations++;
+			ticks += ran;
+			skipped += saved;
+		} //end count
+
+		/**
+		 * Get the best value of a gain
+		 * @param g Gain to get
+		 * @return Value of the gain in the best candidate
+		 */
+		public double getGain(Gain g) {
+			return best[g.ordinal()];
+		} //end getGain
+
+		/**
+		 * Get the best value of every gain
+		 * @return Gains in the order of Gain
+		 */
+		public double[] getGains() {
+			return best.clone();
+		} //end getGains
+
+		/**
+		 * Get the score of the best gains
+		 * @return Integral of the error from the goal in inch-seconds
+		 */
+		public double getCost() {
+			return bestCost;
+		} //end getCost
+
+		/**
+		 * Get the number of candidates scored
+		 * @return Number of evaluations, including the initial gains
+		 */
+		public long getEvaluations() {
+			return evaluations;
+		} //end getEvaluations
+
+		/**
+		 * Get the fraction of updates not simulated because candidates were stopped early
+		 * @return Fraction from 0 to 1
+		 */
+		public double getSkippedFraction() {
+			return ticks + skipped == 0 ? 0 : (double) skipped / (ticks + skipped);
+		} //end getSkippedFraction
+
+		/**
+		 * Get the result as a table
+		 * @return Each gain, then the score and work done
+		 */
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for (Gain g : Gain.values()) {
+				sb.append(String.format("%-8s %.4f%n", g, getGain(g)));
+			} //loop
+			sb.append(String.format("Cost %.2f in*s after %d generations, %d evaluations, %.0f%% of updates skipped",
+					bestCost, generations, evaluations, 100 * getSkippedFraction()));
+
+			return sb.toString();
+		} //end toString
+	} //end Result
+
+	/**
+	 * Tune the drive and turn gains for a drive-turn-drive routine
+	 */
+	public static void main(String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		//same robot as the main simulation
+		Gearbox gb = new Gearbox(8.5521, new Motor(Util.NEO), 2);
+		Robot r = new Robot(4, 153, 30, 30, gb);
+
+		GainTuner tuner = new GainTuner(r, loop -> new CommandList(new DriveDistance(loop, 100, 1, 12),
+				new TurnAngle(loop, 90, 1, 12, true), new DriveDistance(loop, 60, 1, 12)), 2020);
+		tuner.setStart(new Point(50, 50), 0);
+		tuner.setGoal(new Point(110, 150), Math.toRadians(90));
+		tuner.setRange(Gain.DRIVE_P, 0, 3);
+		tuner.setRange(Gain.DRIVE_D, 0, 3);
+		tuner.setRange(Gain.TURN_P, 0, 1);
+		tuner.setRange(Gain.TURN_D, 0, 1);
+
+		double initialCost = tuner.evaluate(tuner.getInitialGains());
+
+		long t0 = System.nanoTime();
+		Result res = tuner.tune(threads);
+		double seconds = (System.nanoTime() - t0) / 1E9;
+
+		//a grid of 20 values per gain would score 20^4 candidates
+		double perEval = seconds / res.getEvaluations();
+		System.out.println(res);
+		System.out.println(String.format("Initial cost %.2f in*s, tuned in %.2fs on %d threads (a 20 point grid would take about %.0f min)",
+				initialCost, seconds, threads, Math.pow(20, 4) * perEval / 60));
+	} //end main
+} //end class
@@ -0,0 +1,327 @@
+/**
+ * LivePublisher
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Publish each update of a run into a shared memory-mapped ring file that other local programs can tail as it runs
+ */
+
+package sim;
+
+import java.awt.Color;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import commands.Command.TelemetrySink;
+import model.Point;
+import model.Pose;
+import util.Log;
+import util.Util;
+import util.Util.ROBOT_KEY;
+
+public class LivePublisher implements TelemetrySink, Closeable {
+	/*
+	 * File layout, in the byte order of the machine (MAGIC reads as 0x4153544C when a reader has the same order)
+	 *   header:  int MAGIC, int VERSION, int slots, int columns, int slotBytes, int 0, double period,
+	 *            long latest (last update published, -1 before the first), padded to HEADER bytes
+	 *   names:   columns names of NAME_BYTES ASCII bytes each, zero padded, then padded to a multiple of 64
+	 *   ring:    slots slots of slotBytes, update n is in slot n % slots
+	 *   slot:    long seq, then a double for each column, padded to a multiple of 64
+	 * Each slot is a seqlock: seq is odd while the slot is being written and 2n + 2 once update n is in it
+	 * To read update n, read seq, the values, then seq again, keeping the values if both reads were 2n + 2
+	 * The writer never waits, a reader that falls more than a ring behind sees newer seq values and skips ahead
+	 * Columns are the pose x, y and heading, then each key in order, points taking two (x then y) and the color as ARGB
+	 * Keys whose values are text are left out, missing values are NaN
+	 */
+
+	//Constants
+	public static final int MAGIC = 0x4153544C; //"ASTL", first thing in the file
+	public static final int VERSION = 1; //version of the layout
+	public static final int DEFAULT_SLOTS = 4096; //updates kept, about 20 seconds of simulated time
+	public static final String PROPERTY = "autosim.live"; //system property naming the file to publish to
+	private static final int HEADER = 64; //bytes before the names
+	private static final int NAME_BYTES = 32; //bytes of each column name
+	private static final int LATEST = 32; //offset of the latest update in the header
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+	private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+	static final ROBOT_KEY[] COLUMN_KEYS = Arrays.stream(ROBOT_KEY.values()) //keys with number values, in column order
+			.filter(k -> k != ROBOT_KEY.CURRENT_COMMAND && k != ROBOT_KEY.STATE).toArray(ROBOT_KEY[]::new);
+
+	//Attributes
+	private File file; //ring file
+	private FileChannel channel; //open ring file
+	private MappedByteBuffer map; //whole file, written in place
+	private int slots; //updates kept in the ring
+	private int slotBytes; //size of each slot
+	private int ring; //offset of the first slot
+	private List<String> names; //name of each column
+	private ROBOT_KEY[] keys; //key of each data column, in column order
+	private long next; //index of the next update to publish
+
+	/**
+	 * Create a ring file, replacing any that is there
+	 * @param file File to publish to
+	 * @param slots Number of updates kept for readers
+	 * @param period Time between updates in seconds
+	 * @throws IOException If the file cannot be created and mapped
+	 */
+	public LivePublisher(File file, int slots, double period) throws IOException {
+		this.file = file;
+		this.slots = Math.max(2, slots);
+
+		//fixed columns so the file is complete before the first update
+		names = columnNames();
+		keys = COLUMN_KEYS;
+
+		slotBytes = align(Long.BYTES + names.size() * Double.BYTES);
+		ring = HEADER + align(names.size() * NAME_BYTES);
+		long bytes = ring + (long) this.slots * slotBytes;
+
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		map = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+		map.order(ByteOrder.nativeOrder());
+
+		for (int c = 0; c < names.size(); c++) {
+			byte[] name = names.get(c).getBytes(StandardCharsets.US_ASCII);
+			map.position(HEADER + c * NAME_BYTES);
+			map.put(name, 0, Math.min(name.length, NAME_BYTES - 1));
+		} //loop
+		map.clear();
+
+		map.putInt(4, VERSION);
+		map.putInt(8, this.slots);
+		map.putInt(12, names.size());
+		map.putInt(16, slotBytes);
+		map.putDouble(24, period);
+		LONGS.setRelease(map, LATEST, -1L);
+		INTS.setRelease(map, 0, MAGIC); //last, so a reader never sees a magic number before the rest of the header
+	} //end constructor
+
+	/**
+	 * Create a publisher if the autosim.live property names a file
+	 * @return Publisher to the file, null if the property is not set or the file cannot be created
+	 */
+	public static LivePublisher fromProperty() {
+		String path = System.getProperty(PROPERTY);
+		if (path == null || path.isEmpty())
+			return null;
+
+		try {
+			LivePublisher p = new LivePublisher(new File(path), DEFAULT_SLOTS, Util.UPDATE_PERIOD);
+			Log.info(() -> "Publishing live telemetry to " + path);
+			return p;
+
+		} catch (IOException e) {
+			Log.warn("Could not publish live telemetry to " + path + ": " + e.getMessage());
+			return null;
+		} //try-catch
+	} //end fromProperty
+
+	/**
+	 * Get the names of the columns every update is published as
+	 * @return Pose x, y and heading then a column for each number, two for each point
+	 */
+	static List<String> columnNames() {
+		List<String> names = new ArrayList<String>(Arrays.asList("x", "y", "heading"));
+		for (ROBOT_KEY k : COLUMN_KEYS) {
+			if (isPoint(k)) {
+				names.add(k.name() + ".x");
+				names.add(k.name() + ".y");
+			} else {
+				names.add(k.name());
+			} //if
+		} //loop
+
+		return names;
+	} //end columnNames
+
+	/**
+	 * Check if a key holds a point
+	 * @param k Key to check
+	 * @return True if the key has two columns
+	 */
+	static boolean isPoint(ROBOT_KEY k) {
+		return k == ROBOT_KEY.POINT || k == ROBOT_KEY.GOAL_POINT;
+	} //end isPoint
+
+	/**
+	 * Round a size up to a whole number of cache lines
+	 * @param bytes Size in bytes
+	 * @return Multiple of 64 at least as large
+	 */
+	private static int align(int bytes) {
+		return (bytes + 63) & ~63;
+	} //end align
+
+	/**
+	 * Publish the pose and data of the robot, overwriting the oldest update in the ring without waiting for readers
+	 * @param pose Pose of the robot
+	 * @param data Data of the robot, null if there is none
+	 * @param updates Number of updates the pose and data hold for, each one is published
+	 */
+	@Override
+	public void record(Pose pose, HashMap<ROBOT_KEY, Object> data, int updates) {
+		for (int u = 0; u < updates; u++) {
+			long n = next++;
+			int slot = ring + (int) (n % slots) * slotBytes;
+
+			//odd while writing, so a reader part way through sees the change
+			LONGS.setOpaque(map, slot, 2 * n + 1);
+			VarHandle.storeStoreFence();
+
+			int at = slot + Long.BYTES;
+			map.putDouble(at, pose.getX());
+			map.putDouble(at + 8, pose.getY());
+			map.putDouble(at + 16, pose.getHeading());
+			at += 24;
+
+			for (ROBOT_KEY k : keys) {
+				Object v = data == null ? null : data.get(k);
+				if (isPoint(k)) {
+					map.putDouble(at, v instanceof Point ? ((Point) v).getX() : Double.NaN);
+					map.putDouble(at + 8, v instanceof Point ? ((Point) v).getY() : Double.NaN);
+					at += 16;
+				} else {
+					map.putDouble(at, v instanceof Number ? ((Number) v).doubleValue()
+							: v instanceof Color ? ((Color) v).getRGB() : Double.NaN);
+					at += 8;
+				} //if
+			} //loop
+
+			//values are visible before the slot and the header say they are done
+			LONGS.setRelease(map, slot, 2 * n + 2);
+			LONGS.setRelease(map, LATEST, n);
+		} //loop
+	} //end record
+
+	/**
+	 * Get the number of updates published
+	 * @return Updates published since the file was created
+	 */
+	public long size() {
+		return next;
+	} //end size
+
+	/**
+	 * Get the names of the columns
+	 * @return Name of each column in slot order
+	 */
+	public List<String> getNames() {
+		return names;
+	} //end getNames
+
+	/**
+	 * Stop publishing, the file is left for readers
+	 * @throws IOException If the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		map.force();
+		channel.close();
+	} //end close
+
+	/**
+	 * Tails a ring file, as an example of and test for the reader side of the layout
+	 */
+	public static class Reader implements Closeable {
+		//Attributes
+		private FileChannel channel; //open ring file
+		private MappedByteBuffer map; //whole file
+		private int slots; //updates kept in the ring
+		private int slotBytes; //size of each slot
+		private int ring; //offset of the first slot
+		private List<String> names; //name of each column
+
+		/**
+		 * Open a ring file being published to
+		 * @param file Ring file
+		 * @throws IOException If the file cannot be read or is not a ring file of this version
+		 */
+		public Reader(File file) throws IOException {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			map.order(ByteOrder.nativeOrder());
+
+			//the magic number is read first and with acquire, so the header written before it is seen whole
+			int magic = map.capacity() >= HEADER ? (int) INTS.getAcquire(map, 0) : 0;
+			int version = map.capacity() >= HEADER ? map.getInt(4) : 0;
+			if (magic != MAGIC || version != VERSION) {
+				channel.close();
+				throw new IOException(String.format("Not a live telemetry file (magic %08x, version %d)", magic, version));
+			} //if
+
+			slots = map.getInt(8);
+			int columns = map.getInt(12);
+			slotBytes = map.getInt(16);
+			ring = HEADER + align(columns * NAME_BYTES);
+
+			names = new ArrayList<String>();
+			for (int c = 0; c < columns; c++) {
+				byte[] name = new byte[NAME_BYTES];
+				map.get(HEADER + c * NAME_BYTES, name);
+				int len = 0;
+				while (len < NAME_BYTES && name[len] != 0) {
+					len++;
+				} //loop
+				names.add(new String(name, 0, len, StandardCharsets.US_ASCII));
+			} //loop
+		} //end constructor
+
+		/**
+		 * Get the index of the last update published
+		 * @return Index of the update, -1 if nothing has been published
+		 */
+		public long latest() {
+			return (long) LONGS.getAcquire(map, LATEST);
+		} //end latest
+
+		/**
+		 * Read an update if it is still in the ring and was not overwritten while reading
+		 * @param n Index of the update
+		 * @param values Filled with the value of each column
+		 * @return True if the values are all from update n
+		 */
+		public boolean read(long n, double[] values) {
+			int slot = ring + (int) (n % slots) * slotBytes;
+			long seq = (long) LONGS.getAcquire(map, slot);
+			if (seq != 2 * n + 2)
+				return false;
+
+			for (int c = 0; c < values.length; c++) {
+				values[c] = map.getDouble(slot + Long.BYTES + c * Double.BYTES);
+			} //loop
+
+			VarHandle.loadLoadFence();
+			return (long) LONGS.getOpaque(map, slot) == seq;
+		} //end read
+
+		/**
+		 * Get the names of the columns
+		 * @return Name of each column in slot order
+		 */
+		public List<String> getNames() {
+			return names;
+		} //end getNames
+
+		/**
+		 * Stop reading
+		 * @throws IOException If the file cannot be closed
+		 */
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		} //end close
+	} //end Reader
+} //end class
@@ -0,0 +1,506 @@
+/**
+ * MonteCarloRunner
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Run a routine many times on randomly perturbed robots to see how robust it is
+ */
+
+package sim;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import commands.CommandGroup;
+import commands.CommandList;
+import commands.DriveDistance;
+import commands.TurnAngle;
+import model.DriveLoop;
+import model.Gearbox;
+import model.Motor;
+import model.PIDController;
+import model.Point;
+import model.Robot;
+import util.Parallel;
+import util.Util;
+
+public class MonteCarloRunner {
+	//Attributes
+	//Configured
+	private Robot nominal; //robot the routine was tuned for
+	private PIDController drivePID; //driving gains
+	private PIDController turnPID; //turning gains
+	private RoutineFactory factory; //creates the routine for each trial
+	private Point start; //starting point of the robot
+	private double startHeading; //starting heading of the robot in radians
+	private long seed; //seed all trial streams are split from
+	private int bucketTicks; //updates per tracking envelope bucket
+	private int maxTicks; //updates before a trial is cut off
+
+	//Noise
+	private double massStd; //standard deviation of the mass as a fraction of nominal
+	private double wheelStd; //standard deviation of the wheel diameter as a fraction of nominal
+	private double motorStd; //standard deviation of each motor parameter as a fraction of nominal
+	private double voltageStd; //standard deviation of the voltage error each update in volts
+	private double posStd; //standard deviation of the position reading error in inches
+	private double headingStd; //standard deviation of the heading reading error in radians
+	private double velStd; //standard deviation of the velocity reading error in ft/s
+
+	//Calculated
+	private Trial nominalTrial; //trial run on the nominal robot with no noise
+
+	/**
+	 * Creates the routine to run on a trial's loop
+	 */
+	public interface RoutineFactory {
+		/**
+		 * Create the routine
+		 * @param loop Loop controlling the trial's robot
+		 * @return Routine to run
+		 */
+		CommandGroup create(DriveLoop loop);
+	} //end RoutineFactory
+
+	/**
+	 * Create a runner for a routine
+	 * @param nominal Robot the routine was tuned for
+	 * @param drivePID Driving gains
+	 * @param turnPID Turning gains
+	 * @param factory Creates the routine for each trial
+	 * @param seed Seed for the random streams
+	 */
+	public MonteCarloRunner(Robot nominal, PIDController drivePID, PIDController turnPID, RoutineFactory factory, long seed) {
+		//set attributes
+		this.nominal = nominal;
+		this.drivePID = drivePID;
+		this.turnPID = turnPID;
+		this.factory = factory;
+		this.seed = seed;
+		this.start = new Point(0, 0);
+		this.startHeading = 0;
+		this.bucketTicks = 10; //50ms buckets
+		this.maxTicks = (int) (30 / Util.UPDATE_PERIOD); //30s
+	} //end constructor
+
+	//Configuration
+
+	/**
+	 * Set the starting pose of the robot
+	 * @param start Starting point
+	 * @param heading Starting heading in radians
+	 */
+	public void setStart(Point start, double heading) {
+		this.start = start;
+		this.startHeading = heading;
+		this.nominalTrial = null;
+	} //end setStart
+
+	/**
+	 * Set the spread of the robot's physical parameters
+	 * @param massStd Standard deviation of the mass as a fraction of nominal
+	 * @param wheelStd Standard deviation of the wheel diameter as a fraction of nominal
+	 * @param motorStd Standard deviation of each motor parameter as a fraction of nominal
+	 */
+	public void setParameterNoise(double massStd, double wheelStd, double motorStd) {
+		this.massStd = massStd;
+		this.wheelStd = wheelStd;
+		this.motorStd = motorStd;
+	} //end setParameterNoise
+
+	/**
+	 * Set the error added to the voltages each update
+	 * @param voltageStd Standard deviation of the voltage error in volts
+	 */
+	public void setVoltageNoise(double voltageStd) {
+		this.voltageStd = voltageStd;
+	} //end setVoltageNoise
+
+	/**
+	 * Set the error added to the sensor readings each update
+	 * @param posStd Standard deviation of the position error in inches
+	 * @param headingStd Standard deviation of the heading error in radians
+	 * @param velStd Standard deviation of the velocity error in ft/s
+	 */
+	public void setSensorNoise(double posStd, double headingStd, double velStd) {
+		this.posStd = posStd;
+		this.headingStd = headingStd;
+		this.velStd = velStd;
+	} //end setSensorNoise
+
+	/**
+	 * Set the time resolution of the tracking envelope
+	 * @param bucketTicks Updates per bucket
+	 */
+	public void setBucketTicks(int bucketTicks) {
+		this.bucketTicks = Math.max(1, bucketTicks);
+		this.nominalTrial = null;
+	} //end setBucketTicks
+
+	//Trials
+
+	/**
+	 * Run many trials in parallel
+	 * @param trials Number of trials
+	 * @param threads Number of threads to run the trials on
+	 * @return Distributions of the errors from the nominal run
+	 */
+	public Result run(int trials, int threads) {
+		Trial ref = getNominalTrial();
+
+		//split the streams in order so trial i always gets the same stream
+		SplittableRandom root = new SplittableRandom(seed);
+		SplittableRandom[] streams = new SplittableRandom[trials];
+		for (int i = 0; i < trials; i++) {
+			streams[i] = root.split();
+		} //loop
+
+		//each trial writes only its own slot, so the workers share nothing
+		Trial[] results = new Trial[trials];
+		Parallel.forEach(trials, threads, i -> results[i] = simulate(perturb(streams[i]), ref));
+
+		return new Result(results, ref, bucketTicks);
+	} //end run
+
+	/**
+	 * Re-run a single trial on its own, giving the same result as it had in a full run
+	 * @param trial Index of the trial
+	 * @return Endpoint and tracking errors of the trial
+	 */
+	public Trial runTrial(int trial) {
+		SplittableRandom root = new SplittableRandom(seed);
+		SplittableRandom stream = null;
+		for (int i = 0; i <= trial; i++) {
+			stream = root.split();
+		} //loop
+
+		return simulate(perturb(stream), getNominalTrial());
+	} //end runTrial
+
+	/**
+	 * Get the trial run on the nominal robot without noise, running it if needed
+	 * @return Nominal trial
+	 */
+	public Trial getNominalTrial() {
+		if (nominalTrial == null) {
+			nominalTrial = simulate(nominal.clone(), null);
+		} //if
+
+		return nominalTrial;
+	} //end getNominalTrial
+
+	/**
+	 * Create a robot with its parameters and noise drawn from a random stream
+	 * @param random Stream for this trial only
+	 * @return Perturbed robot
+	 */
+	private NoisyRobot perturb(SplittableRandom random) {
+		double mass = nominal.getMassPounds() * (1 + massStd * random.nextGaussian());
+		double wheelDia = nominal.getWheelDiaInches() * (1 + wheelStd * random.nextGaussian());
+
+		//scale each motor parameter separately
+		Gearbox gb = nominal.getGearbox();
+		double[] motor = gb.getMotorParameters().clone();
+		for (int i = 0; i < motor.length; i++) {
+			motor[i] *= 1 + motorStd * random.nextGaussian();
+		} //loop
+
+		return new NoisyRobot(wheelDia, mass, nominal.getLengthInches(), nominal.getWidthInches(),
+				new Gearbox(gb.getGearRatio(), new Motor(motor), gb.getNumMotors()), random.split(),
+				voltageStd, posStd, headingStd, velStd);
+	} //end perturb
+
+	/**
+	 * Run the routine on a robot, recording its position every bucket
+	 * @param robot Robot to run the routine on
+	 * @param ref Nominal trial to measure the errors from, null if this is the nominal trial
+	 * @return Errors of the robot from the nominal trial
+	 */
+	private Trial simulate(Robot robot, Trial ref) {
+		robot.setXY(start);
+		robot.setHeading(startHeading);
+
+		DriveLoop loop = new DriveLoop(robot, drivePID, turnPID);
+		CommandGroup routine = factory.create(loop);
+		routine.setRecording(false);
+
+		//positions at the end of each bucket
+		int buckets = maxTicks / bucketTicks;
+		double[] xs = new double[buckets];
+		double[] ys = new double[buckets];
+		int filled = 0;
+		int ticks = 0;
+
+		//skip ahead no further than the end of the current bucket
+		routine.start();
+		while (ticks < maxTicks) {
+			int updates = routine.advance(Math.min(bucketTicks - ticks % bucketTicks, maxTicks - ticks));
+			if (updates == 0)
+				break;
+			ticks += updates;
+
+			if (ticks % bucketTicks == 0) {
+				xs[filled] = robot.getX();
+				ys[filled] = robot.getY();
+				filled++;
+			} //if
+		} //loop
+
+		//true heading, not the one the sensors saw
+		double heading = robot instanceof NoisyRobot ? ((NoisyRobot) robot).getTrueHeading() : robot.getHeading();
+		Trial t = new Trial(Arrays.copyOf(xs, filled), Arrays.copyOf(ys, filled), robot.getX(), robot.getY(), heading, ticks);
+
+		if (ref != null)
+			t.compareTo(ref);
+
+		return t;
+	} //end simulate
+
+	/**
+	 * Path and errors of a single trial
+	 */
+	public static class Trial {
+		//Attributes
+		private double[] xs; //x value at the end of each bucket
+		private double[] ys; //y value at the end of each bucket
+		private double endX; //final x value
+		private double endY; //final y value
+		private double endHeading; //final heading in radians
+		private int ticks; //updates the routine ran for
+
+		private double endError; //distance from the nominal endpoint in inches
+		private double headingError; //absolute heading difference from the nominal endpoint in radians
+		private double[] trackingError; //distance from the nominal path at each nominal bucket
+
+		/**
+		 * Create a trial from its recorded path
+		 * @param xs X value at the end of each bucket
+		 * @param ys Y value at the end of each bucket
+		 * @param endX Final x value
+		 * @param endY Final y value
+		 * @param endHeading Final heading in radians
+		 * @param ticks Updates the routine ran for
+		 */
+		private Trial(double[] xs, double[] ys, double endX, double endY, double endHeading, int ticks) {
+			this.xs = xs;
+			this.ys = ys;
+			this.endX = endX;
+			this.endY = endY;
+			this.endHeading = endHeading;
+			this.ticks = ticks;
+			this.trackingError = new double[0];
+		} //end constructor
+
+		/**
+		 * Calculate the errors of this trial from the nominal trial
+		 * @param ref Nominal trial
+		 */
+		private void compareTo(Trial ref) {
+			endError = Math.hypot(endX - ref.endX, endY - ref.endY);
+			headingError = Math.abs(Math.IEEEremainder(endHeading - ref.endHeading, 2 * Math.PI));
+
+			//a path that ends early is held at its final point
+			trackingError = new double[ref.xs.length];
+			for (int i = 0; i < trackingError.length; i++) {
+				double x = i < xs.length ? xs[i] : endX;
+				double y = i < ys.length ? ys[i] : endY;
+				trackingError[i] = Math.hypot(x - ref.xs[i], y - ref.ys[i]);
+			} //loop
+		} //end compareTo
+
+		/**
+		 * Get the distance from the nominal endpoint
+		 * @return Endpoint error in inches
+		 */
+		public double getEndError() {
+			return endError;
+		} //end getEndError
+
+		/**
+		 * Get the heading difference from the nominal endpoint
+		 * @return Heading error in radians
+		 */
+		public double getHeadingError() {
+			return headingError;
+		} //end getHeadingError
+
+		/**
+		 * Get the distance from the nominal path at each bucket
+		 * @return Tracking errors in inches
+		 */
+		public double[] getTrackingError() {
+			return trackingError;
+		} //end getTrackingError
+
+		/**
+		 * Get the number of updates the routine ran for
+		 * @return Updates until the routine finished or was cut off
+		 */
+		public int getTicks() {
+			return ticks;
+		} //end getTicks
+	} //end Trial
+
+	/**
+	 * Error distributions over all the trials of a run
+	 */
+	public static class Result {
+		//Attributes
+		private Trial[] trials; //every trial in order
+		private double[] endErrors; //sorted endpoint errors
+		private double[] headingErrors; //sorted heading errors
+		private double[][] envelope; //sorted tracking errors for each bucket
+		private int bucketTicks; //updates per bucket
+
+		/**
+		 * Sort the errors of the trials into distributions
+		 * @param trials Trials of the run
+		 * @param ref Nominal trial
+		 * @param bucketTicks Updates per bucket
+		 */
+		private Result(Trial[] trials, Trial ref, int bucketTicks) {
+			this.trials = trials;
+			this.endErrors = new double[trials.length];
+			this.headingErrors = new double[trials.length];
+			this.envelope = new double[ref.xs.length][trials.length];
+			this.bucketTicks = bucketTicks;
+
+			for (int i = 0; i < trials.length; i++) {
+				endErrors[i] = trials[i].endError;
+				headingErrors[i] = trials[i].headingError;
+
+				for (int b = 0; b < envelope.length; b++) {
+					envelope[b][i] = trials[i].trackingError[b];
+				} //loop
+			} //loop
+
+			Arrays.sort(endErrors);
+			Arrays.sort(headingErrors);
+			for (double[] bucket : envelope) {
+				Arrays.sort(bucket);
+			} //loop
+		} //end constructor
+
+		/**
+		 * Get a percentile of the endpoint errors
+		 * @param p Percentile from 0 to 100
+		 * @return Endpoint error in inches
+		 */
+		public double getEndError(double p) {
+			return Util.percentile(endErrors, p);
+		} //end getEndError
+
+		/**
+		 * Get a percentile of the heading errors
+		 * @param p Percentile from 0 to 100
+		 * @return Heading error in radians
+		 */
+		public double getHeadingError(double p) {
+			return Util.percentile(headingErrors, p);
+		} //end getHeadingError
+
+		/**
+		 * Get a percentile of the tracking error at every bucket
+		 * @param p Percentile from 0 to 100
+		 * @return Tracking error in inches for each bucket
+		 */
+		public double[] getEnvelope(double p) {
+			double[] e = new double[envelope.length];
+			for (int b = 0; b < e.length; b++) {
+				e[b] = Util.percentile(envelope[b], p);
+			} //loop
+
+			return e;
+		} //end getEnvelope
+
+		/**
+		 * Get a single trial of the run
+		 * @param i Index of the trial
+		 * @return Trial at that index
+		 */
+		public Trial getTrial(int i) {
+			return trials[i];
+		} //end getTrial
+
+		/**
+		 * Get the number of trials in the run
+		 * @return Number of trials
+		 */
+		public int getNumTrials() {
+			return trials.length;
+		} //end getNumTrials
+
+		/**
+		 * Get the index of the trial with the largest endpoint error
+		 * @return Index of the worst trial
+		 */
+		public int getWorstTrial() {
+			int worst = 0;
+			for (int i = 1; i < trials.length; i++) {
+				if (trials[i].endError > trials[worst].endError)
+					worst = i;
+			} //loop
+
+			return worst;
+		} //end getWorstTrial
+
+		/**
+		 * Get the time at the end of a bucket
+		 * @param b Index of the bucket
+		 * @return Time in seconds
+		 */
+		public double getBucketTime(int b) {
+			return (b + 1) * bucketTicks * Util.UPDATE_PERIOD;
+		} //end getBucketTime
+	} //end Result
+
+	/**
+	 * Run a drive-turn-drive routine under noise and print the error distributions
+	 */
+	public static void main(String[] args) {
+		int trials = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		//same robot and gains as the main simulation
+		Gearbox gb = new Gearbox(8.5521, new Motor(Util.NEO), 2);
+		Robot r = new Robot(4, 153, 30, 30, gb);
+		PIDController drivePID = new PIDController(Util.kP_DRIVE, Util.kI_DRIVE, Util.kD_DRIVE, r.getMaxLinSpeed());
+		PIDController turnPID = new PIDController(Util.kP_TURN, Util.kI_TURN, Util.kD_TURN, r.getMaxLinSpeed());
+
+		MonteCarloRunner mc = new MonteCarloRunner(r, drivePID, turnPID,
+				loop -> new CommandList(new DriveDistance(loop, 100, 1, 12),
+										new TurnAngle(loop, 90, 1, 12, true),
+										new DriveDistance(loop, 60, 1, 12)), 2020);
+		mc.setStart(new Point(50, 50), 0);
+		mc.setParameterNoise(0.05, 0.01, 0.05);
+		mc.setVoltageNoise(0.25);
+		mc.setSensorNoise(0.1, Math.toRadians(0.5), 0.05);
+
+		//warm up, then time one thread against all of them
+		mc.run(Math.min(trials, 200), threads);
+		long t0 = System.nanoTime();
+		mc.run(trials, 1);
+		long t1 = System.nanoTime();
+		Result res = mc.run(trials, threads);
+		long t2 = System.nanoTime();
+
+		System.out.println(String.format("%d trials: %.0f trials/s on 1 thread, %.0f trials/s on %d threads",
+							trials, trials / ((t1 - t0) / 1E9), trials / ((t2 - t1) / 1E9), threads));
+
+		//endpoint distributions
+		System.out.println("percentile\tend error (in)\theading error (deg)");
+		for (double p : new double[] {5, 50, 95, 99}) {
+			System.out.println(String.format("p%.0f\t\t%.2f\t\t%.2f", p, res.getEndError(p), Math.toDegrees(res.getHeadingError(p))));
+		} //loop
+
+		//tracking envelope every half second
+		double[] p5 = res.getEnvelope(5), p50 = res.getEnvelope(50), p95 = res.getEnvelope(95);
+		System.out.println("time (s)\tp5 (in)\tp50 (in)\tp95 (in)");
+		for (int b = 9; b < p50.length; b += 10) {
+			System.out.println(String.format("%.2f\t\t%.2f\t%.2f\t\t%.2f", res.getBucketTime(b), p5[b], p50[b], p95[b]));
+		} //loop
+
+		//the worst trial can be re-run on its own with the same result
+		int worst = res.getWorstTrial();
+		boolean same = mc.runTrial(worst).getEndError() == res.getTrial(worst).getEndError();
+		System.out.println("Worst trial " + worst + " re-run bit-exact: " + same);
+	} //end main
+} //end class
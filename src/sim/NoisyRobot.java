@@ -0,0 +1,121 @@
+/**
+ * NoisyRobot
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Robot with random error added to its voltages and sensor readings
+ */
+
+package sim;
+
+import java.util.SplittableRandom;
+
+import model.Gearbox;
+import model.Robot;
+
+public class NoisyRobot extends Robot {
+	//Attributes
+	//Configured
+	private SplittableRandom random; //source of the noise, owned by this robot only
+	private double voltageStd; //standard deviation of the voltage error in volts
+	private double posStd; //standard deviation of the position reading error in inches
+	private double headingStd; //standard deviation of the heading reading error in radians
+	private double velStd; //standard deviation of the velocity reading error in ft/s
+
+	//Calculated
+	private double posError; //position reading error for this update
+	private double headingError; //heading reading error for this update
+	private double velError; //velocity reading error for this update
+
+	/**
+	 * Create a robot with noise
+	 * @param wheelDia Wheel diameter in inches
+	 * @param mass Mass of the robot in pounds
+	 * @param length Length of the robot in inches
+	 * @param width Width of the robot in inches
+	 * @param gearbox Drive gearboxes
+	 * @param random Random stream for the noise
+	 * @param voltageStd Standard deviation of the voltage error in volts
+	 * @param posStd Standard deviation of the position reading error in inches
+	 * @param headingStd Standard deviation of the heading reading error in radians
+	 * @param velStd Standard deviation of the velocity reading error in ft/s
+	 */
+	public NoisyRobot(double wheelDia, double mass, double length, double width, Gearbox gearbox, SplittableRandom random,
+			double voltageStd, double posStd, double headingStd, double velStd) {
+		super(wheelDia, mass, length, width, gearbox);
+
+		//set attributes
+		this.random = random;
+		this.voltageStd = voltageStd;
+		this.posStd = posStd;
+		this.headingStd = headingStd;
+		this.velStd = velStd;
+	} //end constructor
+
+	/**
+	 * Get a normally distributed error, skipping the random stream when the deviation is zero
+	 * @param std Standard deviation of the error
+	 * @return Random error
+	 */
+	private double error(double std) {
+		return std == 0 ? 0 : std * random.nextGaussian();
+	} //end error
+
+	/**
+	 * Update the robot with error added to each voltage, then take new sensor errors
+	 * @param leftVoltage Voltage applied to left gearbox
+	 * @param rightVoltage Voltage applied to right gearbox
+	 */
+	@Override
+	public void update(double leftVoltage, double rightVoltage) {
+		super.update(leftVoltage + error(voltageStd), rightVoltage + error(voltageStd));
+
+		//sensor errors are held for the whole update so repeated reads agree
+		posError = error(posStd);
+		headingError = error(headingStd);
+		velError = error(velStd);
+	} //end update
+
+	/**
+	 * Check if the robot has reached a steady speed, which it never does while noise is added
+	 * @return True if there is no noise and the robot is steady
+	 */
+	@Override
+	public boolean isSteady() {
+		return voltageStd == 0 && posStd == 0 && headingStd == 0 && velStd == 0 && super.isSteady();
+	} //end isSteady
+
+	/**
+	 * Get the measured average position of the robot
+	 * @return Average distance travelled plus sensor error in inches
+	 */
+	@Override
+	public double getAveragePos() {
+		return super.getAveragePos() + posError;
+	} //end getAveragePos
+
+	/**
+	 * Get the measured heading of the robot
+	 * @return Heading plus sensor error in radians
+	 */
+	@Override
+	public double getHeading() {
+		return super.getHeading() + headingError;
+	} //end getHeading
+
+	/**
+	 * Get the measured linear velocity of the robot
+	 * @return Linear speed plus sensor error in ft/s
+	 */
+	@Override
+	public double getLinearVel() {
+		return super.getLinearVel() + velError;
+	} //end getLinearVel
+
+	/**
+	 * Get the actual heading of the robot without sensor error
+	 * @return Heading of the robot in radians
+	 */
+	public double getTrueHeading() {
+		return super.getHeading();
+	} //end getTrueHeading
+} //end class
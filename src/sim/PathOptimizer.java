@@ -0,0 +1,434 @@
+/**
+ * PathOptimizer
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Move the inner control points of a Bezier curve to make it as fast to drive as possible
+ */
+
+package sim;
+
+import model.FieldPositioning;
+import model.Point;
+import model.motion.BezierPath;
+import model.motion.BezierProfile;
+import util.FieldPoints;
+import util.Parallel;
+import util.Util;
+
+public class PathOptimizer {
+	//Constants
+	private static final double MAX_RADIUS = 1E6; //radius of a straight section, same as BezierPath
+	private static final double PENALTY = 1; //seconds added per inch the tightest turn of an infeasible path is under the smallest radius
+	private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+	private static final int FIRST = 1; //first control point that is moved
+	private static final int LAST = 4; //last control point that is moved, the ends stay put
+
+	//Attributes
+	//Configured
+	private double trackWidth; //width of the robot wheelbase in inches
+	private double maxVel; //maximum velocity in in/s
+	private double maxAcc; //maximum acceleration in in/s^2
+	private double maxDec; //maximum deceleration in in/s^2
+	private double minRadius; //smallest radius the center of the robot may turn at in inches
+	private double[] bounds; //smallest x, smallest y, largest x and largest y of the control points
+	private double startStep; //distance control points are first moved in inches
+	private double minStep; //distance control points are moved when the search stops in inches
+	private int maxIterations; //most moves the search makes
+
+	//Calculated
+	private int samples; //t values the curve is timed at
+	private double[][][] basis; //value, first and second derivative of each control point's weight at each t value
+
+	/**
+	 * Create an optimizer for a robot, with no limit on curvature and the control points kept on the field
+	 * @param trackWidth Width of the robot wheelbase in inches
+	 * @param maxVel Maximum velocity in in/s
+	 * @param maxAcc Maximum acceleration in in/s^2
+	 * @param maxDec Maximum deceleration in in/s^2
+	 */
+	public PathOptimizer(double trackWidth, double maxVel, double maxAcc, double maxDec) {
+		//set attributes
+		this.trackWidth = trackWidth;
+		this.maxVel = maxVel;
+		this.maxAcc = maxAcc;
+		this.maxDec = maxDec;
+		this.minRadius = 0;
+		this.bounds = new double[] {0, 0, Util.FIELD_HEIGHT, Util.FIELD_WIDTH};
+		this.startStep = 16;
+		this.minStep = 0.25;
+		this.maxIterations = 1000;
+
+		setSamples(BezierProfile.SIZE);
+	} //end constructor
+
+	/**
+	 * Set the smallest radius the center of the robot may turn at
+	 * Once the search has a path that keeps to it, paths with tighter turns are rejected. Until then they are
+	 * penalized by how far they are under it, so an infeasible start is pulled towards a feasible one
+	 * @param minRadius Radius in inches, 0 for no limit
+	 */
+	public void setMinRadius(double minRadius) {
+		this.minRadius = minRadius;
+	} //end setMinRadius
+
+	/**
+	 * Set the area the control points must stay in, which keeps the whole curve in it too
+	 * @param minX Smallest x in inches
+	 * @param minY Smallest y in inches
+	 * @param maxX Largest x in inches
+	 * @param maxY Largest y in inches
+	 */
+	public void setBounds(double minX, double minY, double maxX, double maxY) {
+		this.bounds = new double[] {minX, minY, maxX, maxY};
+	} //end setBounds
+
+	/**
+	 * Set how far control points are moved
+	 * @param startStep Distance control points are first moved in inches, halved whenever no move helps
+	 * @param minStep Distance at which the search stops in inches
+	 */
+	public void setSteps(double startStep, double minStep) {
+		this.startStep = startStep;
+		this.minStep = minStep;
+	} //end setSteps
+
+	/**
+	 * Set the number of t values the curve is timed at
+	 * @param samples Number of t values, BezierProfile.SIZE by default
+	 */
+	public void setSamples(int samples) {
+		this.samples = Math.max(3, samples);
+
+		basis = BezierPath.calcBasis(this.samples); //shared by every candidate
+	} //end setSamples
+
+	/**
+	 * Move the inner control points until no move makes the path faster.
+	 * Each round tries moving each inner point in eight directions in parallel and keeps the best move,
+	 * halving the distance moved when none helps (a pattern search). Moving one point changes the curve by
+	 * that point's weight times the move, so each candidate's curve is the current curve plus one term.
+	 * @param controlPts Control points of the starting path
+	 * @param threads Number of threads to time candidates on
+	 * @return Fastest control points found, how long they take to drive and whether they keep to the smallest radius
+	 */
+	public Result optimize(Point[] controlPts, int threads) {
+		Result res = new Result();
+		res.initialTime = new BezierProfile(controlPts, trackWidth, maxVel, maxAcc, maxDec).getTotalTime();
+		long start = System.nanoTime();
+
+		Point[] pts = new Point[controlPts.length];
+		for (int i = 0; i < pts.length; i++) {
+			pts[i] = new Point(controlPts[i].getX(), controlPts[i].getY());
+		} //loop
+		Curve current = new Curve(pts);
+		double best = cost(current, false);
+		res.evaluations++;
+
+		int moves = (LAST - FIRST + 1) * DIRECTIONS.length;
+		double[] costs = new double[moves];
+		Curve[] candidates = new Curve[moves];
+		double step = startStep;
+
+		while (step >= minStep && res.iterations < maxIterations) {
+			double s = step;
+			Curve c = current;
+			boolean feasible = c.minRadius() >= minRadius;
+			Parallel.forEach(moves, threads, m -> {
+				int i = FIRST + m / DIRECTIONS.length;
+				double dx = s * DIRECTIONS[m % DIRECTIONS.length][0];
+				double dy = s * DIRECTIONS[m % DIRECTIONS.length][1];
+				candidates[m] = inBounds(c.pts[i], dx, dy) ? c.moved(i, dx, dy) : null;
+				costs[m] = candidates[m] == null ? Double.POSITIVE_INFINITY : cost(candidates[m], feasible);
+			});
+			res.evaluations += moves;
+
+			//keep the best move, the first one on a tie so the search is the same on any number of threads
+			int bestMove = -1;
+			for (int m = 0; m < moves; m++) {
+				if (costs[m] < best && (bestMove < 0 || costs[m] < costs[bestMove]))
+					bestMove = m;
+			} //loop
+
+			if (bestMove < 0) {
+				step /= 2;
+			} else {
+				current = candidates[bestMove];
+				best = costs[bestMove];
+				res.iterations++;
+			} //if
+		} //loop
+
+		res.seconds = (System.nanoTime() - start) / 1E9;
+		res.controlPts = current.pts;
+		res.estimatedTime = time(current);
+		res.minRadius = current.minRadius();
+		res.feasible = res.minRadius >= minRadius;
+		res.finalTime = new BezierProfile(res.controlPts, trackWidth, maxVel, maxAcc, maxDec).getTotalTime();
+		return res;
+	} //end optimize
+
+	/**
+	 * Check that a moved control point stays in bounds
+	 * @param p Control point
+	 * @param dx Change in x in inches
+	 * @param dy Change in y in inches
+	 * @return True if the moved point is in bounds
+	 */
+	private boolean inBounds(Point p, double dx, double dy) {
+		double x = p.getX() + dx;
+		double y = p.getY() + dy;
+		return x >= bounds[0] && y >= bounds[1] && x <= bounds[2] && y <= bounds[3];
+	} //end inBounds
+
+	/**
+	 * Get the score of a curve
+	 * @param c Curve to score
+	 * @param feasible True if the search already has a curve that keeps to the smallest radius
+	 * @return Time to drive the curve in seconds, plus a penalty if it turns too tightly, infinite if it turns too
+	 * tightly when a feasible curve is known
+	 */
+	private double cost(Curve c, boolean feasible) {
+		double shortBy = minRadius - c.minRadius();
+		if (shortBy > 0 && feasible)
+			return Double.POSITIVE_INFINITY;
+
+		return time(c) + (shortBy > 0 ? PENALTY * shortBy : 0);
+	} //end cost
+
+	/**
+	 * Time a curve the way BezierProfile does, limiting the speed by curvature then acceleration forwards and deceleration backwards
+	 * Only these passes run for each candidate, the geometry comes from the curve it was moved from
+	 * @param c Curve to time
+	 * @return Time to drive the curve in seconds
+	 */
+	private double time(Curve c) {
+		double[] vel = new double[samples];
+		double[] dist = new double[samples];
+		for (int k = 0; k < samples; k++) {
+			double r = c.radius(k);
+			vel[k] = (maxVel * r) / (r + trackWidth / 2);
+			dist[k] = k == 0 ? 0 : Math.hypot(c.x[k] - c.x[k - 1], c.y[k] - c.y[k - 1]);
+		} //loop
+
+		vel[0] = 0;
+		for (int k = 1; k < samples; k++) {
+			vel[k] = Math.min(vel[k], Math.sqrt(vel[k - 1] * vel[k - 1] + 2 * maxAcc * dist[k]));
+		} //loop
+
+		vel[samples - 1] = 0;
+		for (int k = samples - 2; k >= 0; k--) {
+			vel[k] = Math.min(vel[k], Math.sqrt(vel[k + 1] * vel[k + 1] + 2 * maxDec * dist[k + 1]));
+		} //loop
+
+		//don't step forward in time if not moving
+		double time = 0;
+		for (int k = 1; k < samples; k++) {
+			time += vel[k] == 0 ? 0 : dist[k] / vel[k];
+		} //loop
+
+		return time;
+	} //end time
+
+	/**
+	 * Position and first two derivatives of a curve at each t value
+	 */
+	private class Curve {
+		//Attributes
+		private Point[] pts; //control points
+		private double[] x, y; //position at each t value
+		private double[] dx, dy; //first derivative at each t value
+		private double[] ddx, ddy; //second derivative at each t value
+
+		/**
+		 * Compute a curve from its control points
+		 * @param pts Control points
+		 */
+		private Curve(Point[] pts) {
+			this.pts = pts;
+			x = new double[samples];
+			y = new double[samples];
+			dx = new double[samples];
+			dy = new double[samples];
+			ddx = new double[samples];
+			ddy = new double[samples];
+
+			for (int i = 0; i <= 5; i++) {
+				add(i, pts[i].getX(), pts[i].getY());
+			} //loop
+		} //end constructor
+
+		/**
+		 * Copy a curve with one control point moved
+		 * @param c Curve to copy
+		 * @param i Index of the control point to move
+		 * @param mx Change in x in inches
+		 * @param my Change in y in inches
+		 */
+		private Curve(Curve c, int i, double mx, double my) {
+			pts = c.pts.clone();
+			pts[i] = new Point(c.pts[i].getX() + mx, c.pts[i].getY() + my);
+			x = c.x.clone();
+			y = c.y.clone();
+			dx = c.dx.clone();
+			dy = c.dy.clone();
+			ddx = c.ddx.clone();
+			ddy = c.ddy.clone();
+
+			add(i, mx, my);
+		} //end constructor
+
+		/**
+		 * Get this curve with one control point moved, only adding that point's change
+		 * @param i Index of the control point to move
+		 * @param mx Change in x in inches
+		 * @param my Change in y in inches
+		 * @return New curve
+		 */
+		private Curve moved(int i, double mx, double my) {
+			return new Curve(this, i, mx, my);
+		} //end moved
+
+		/**
+		 * Add a control point's weighted contribution to the curve
+		 * @param i Index of the control point
+		 * @param px X of the contribution in inches
+		 * @param py Y of the contribution in inches
+		 */
+		private void add(int i, double px, double py) {
+			double[] b0 = basis[0][i], b1 = basis[1][i], b2 = basis[2][i];
+			for (int k = 0; k < samples; k++) {
+				x[k] += b0[k] * px;
+				y[k] += b0[k] * py;
+				dx[k] += b1[k] * px;
+				dy[k] += b1[k] * py;
+				ddx[k] += b2[k] * px;
+				ddy[k] += b2[k] * py;
+			} //loop
+		} //end add
+
+		/**
+		 * Get the radius of the curve at a t value
+		 * @param k Index of the t value
+		 * @return Radius in inches, MAX_RADIUS where the curve is straight
+		 */
+		private double radius(int k) {
+			double speed = Math.hypot(dx[k], dy[k]);
+			double cross = Math.abs(dx[k] * ddy[k] - dy[k] * ddx[k]);
+			return cross * MAX_RADIUS <= speed * speed * speed ? MAX_RADIUS : speed * speed * speed / cross;
+		} //end radius
+
+		/**
+		 * Get the tightest radius of the curve
+		 * @return Smallest radius in inches
+		 */
+		private double minRadius() {
+			double min = MAX_RADIUS;
+			for (int k = 0; k < samples; k++) {
+				min = Math.min(min, radius(k));
+			} //loop
+
+			return min;
+		} //end minRadius
+	} //end Curve
+
+	/**
+	 * Fastest path found and the work it took
+	 */
+	public static class Result {
+		//Attributes
+		private Point[] controlPts; //control points of the fastest path
+		private double initialTime; //time to drive the starting path according to BezierProfile
+		private double finalTime; //time to drive the fastest path according to BezierProfile
+		private double estimatedTime; //time to drive the fastest path according to the optimizer
+		private double minRadius; //tightest radius of the fastest path
+		private boolean feasible; //whether the fastest path keeps to the smallest radius
+		private long evaluations; //candidates timed
+		private int iterations; //moves made
+		private double seconds; //time the search took
+
+		/**
+		 * Get the control points of the fastest path
+		 * @return Control points, the ends the same as the starting path
+		 */
+		public Point[] getControlPoints() {
+			return controlPts;
+		} //end getControlPoints
+
+		/**
+		 * Get the time to drive the starting path
+		 * @return BezierProfile total time in seconds
+		 */
+		public double getInitialTime() {
+			return initialTime;
+		} //end getInitialTime
+
+		/**
+		 * Get the time to drive the fastest path
+		 * @return BezierProfile total time in seconds
+		 */
+		public double getFinalTime() {
+			return finalTime;
+		} //end getFinalTime
+
+		/**
+		 * Get the time the optimizer estimated for the fastest path
+		 * @return Time in seconds
+		 */
+		public double getEstimatedTime() {
+			return estimatedTime;
+		} //end getEstimatedTime
+
+		/**
+		 * Get the tightest radius of the fastest path
+		 * @return Radius in inches
+		 */
+		public double getMinRadius() {
+			return minRadius;
+		} //end getMinRadius
+
+		/**
+		 * Check if the fastest path keeps to the smallest radius
+		 * @return False if no path the search reached turns loosely enough, the tightest is still returned
+		 */
+		public boolean isFeasible() {
+			return feasible;
+		} //end isFeasible
+
+		/**
+		 * Get the number of candidates timed
+		 * @return Number of candidates
+		 */
+		public long getEvaluations() {
+			return evaluations;
+		} //end getEvaluations
+
+		/**
+		 * Get the result as text
+		 * @return Control points, then the times and work done
+		 */
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for (Point p : controlPts) {
+				sb.append(String.format("{%.1f, %.1f},%n", p.getX(), p.getY()));
+			} //loop
+			sb.append(String.format("%.3fs -> %.3fs (estimated %.3fs), tightest radius %.1f in%s, %d moves, %d candidates in %.2fs",
+					initialTime, finalTime, estimatedTime, minRadius, feasible ? "" : " (too tight)", iterations, evaluations, seconds));
+
+			return sb.toString();
+		} //end toString
+	} //end Result
+
+	/**
+	 * Optimize the long curve and the pretzel for the main simulation's robot
+	 */
+	public static void main(String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		PathOptimizer opt = new PathOptimizer(30, 12 * 12, 200, 200);
+		opt.setMinRadius(24);
+
+		System.out.println("niceLongCurve");
+		System.out.println(opt.optimize(FieldPositioning.pointsFromDoubles(FieldPoints.niceLongCurve), threads));
+		System.out.println("pretzel");
+		System.out.println(opt.optimize(FieldPositioning.pointsFromDoubles(FieldPoints.pretzel), threads));
+	} //end main
+} //end class
@@ -0,0 +1,1098 @@
+/**
+ * RunArchive
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Saved simulation with its robot, gains, path and telemetry, compressed in chunks so any update can be read back without re-simulating
+ * Runs can be streamed into an archive as they are simulated, keeping one chunk in memory
+ */
+
+package sim;
+
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import commands.Command.TelemetrySink;
+import commands.CommandGroup;
+import model.DriveLoop;
+import model.PIDController;
+import model.Point;
+import model.Pose;
+import model.Robot;
+import util.Util.ROBOT_KEY;
+
+public class RunArchive {
+	/*
+	 * File layout, big-endian as written by DataOutputStream
+	 *   header:  int MAGIC, int VERSION, int ticks, int chunkTicks, double period
+	 *   config:  int count, then UTF key and UTF value of each entry
+	 *   path:    int count, then double x and y of each control point
+	 *   keys:    int count, then UTF name of the ROBOT_KEY and byte kind of each data column
+	 *   dicts:   for each name or color stream, int count then each entry (boolean present, UTF name or int ARGB)
+	 *   index:   int chunks, then long offset and int length of each chunk
+	 *   chunks:  for each stream, int length then its bytes
+	 *              doubles: byte predictor, then each value XORed with its prediction and bit packed
+	 *              names and colors: zigzag varint of each dictionary id minus the one before it
+	 * Streams are the pose x, y, heading and color, then one for each key (two for points, x then y)
+	 */
+
+	//Constants
+	public static final int MAGIC = 0x41535241; //"ASRA", first thing in an archive
+	public static final int VERSION = 1; //version of the layout
+	public static final int CHUNK_TICKS = 1024; //updates in each chunk
+	private static final int CACHE_CHUNKS = 4; //decoded chunks kept around the one in view
+
+	//Kinds of data column
+	private static final byte NUMBER = 0; //one double stream
+	private static final byte POINT = 1; //x and y double streams, NaN when there is no point
+	private static final byte NAME = 2; //dictionary stream of strings
+	private static final byte COLOR = 3; //dictionary stream of colors
+
+	//Predictors for a double stream
+	private static final byte PREVIOUS = 0; //same as the value before, best for values that hold
+	private static final byte LINEAR = 1; //straight line through the two values before, best for smooth values
+
+	//Attributes
+	private int ticks; //number of updates
+	private int chunkTicks; //updates in each chunk
+	private double period; //time between updates in seconds
+	private Map<String, String> config; //robot, gains and anything else saved with the run
+	private Point[] path; //control points of the path, empty if there is none
+	private ROBOT_KEY[] keys; //data columns
+	private byte[] kinds; //kind of each data column
+	private boolean[] dictStreams; //whether each stream is dictionary ids rather than doubles
+	private List<List<Object>> dicts; //dictionary of each stream, null for double streams
+
+	//Reading
+	private File file; //archive on disk
+	private FileChannel channel; //open for mapping chunks
+	private long[] offsets; //start of each chunk in bytes
+	private int[] lengths; //size of each chunk in bytes
+	private Map<Integer, Chunk> cache; //recently decoded chunks, least recently used first
+	private int decoded; //chunks mapped and decoded
+
+	/**
+	 * Create an archive with no chunks read yet
+	 */
+	private RunArchive() {
+		this.cache = new LinkedHashMap<Integer, Chunk>(CACHE_CHUNKS, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Chunk> eldest) {
+				return size() > CACHE_CHUNKS;
+			} //end removeEldestEntry
+		};
+	} //end constructor
+
+	//Writing
+
+	/**
+	 * Describe a robot and its gains for saving with a run
+	 * @param loop Drive loop with the robot and its controllers
+	 * @return Robot, gearbox and gain settings by name
+	 */
+	public static Map<String, String> describe(DriveLoop loop) {
+		Robot r = loop.getRobot();
+		Map<String, String> config = new LinkedHashMap<String, String>();
+		config.put("robot", r.getWheelDiaInches() + " " + r.getMassPounds() + " " + r.getLengthInches() + " " + r.getWidthInches());
+		config.put("gearbox", r.getGearbox().getGearRatio() + " " + r.getGearbox().getNumMotors());
+		config.put("topSpeed", Double.toString(r.getMaxLinSpeed()));
+		config.put("drivePID", gains(loop.getDrivePID()));
+		config.put("turnPID", gains(loop.getTurnPID()));
+		return config;
+	} //end describe
+
+	/**
+	 * Write the gains of a controller
+	 * @param pid Controller, null if the loop has none
+	 * @return P, I and D separated by spaces
+	 */
+	private static String gains(PIDController pid) {
+		return pid == null ? "" : pid.getP() + " " + pid.getI() + " " + pid.getD();
+	} //end gains
+
+	/**
+	 * Save a routine that has been run
+	 * @param file Archive to write
+	 * @param loop Drive loop the routine ran on
+	 * @param path Control points of the path followed, null if there is none
+	 * @param cg Routine that has been run
+	 * @throws IOException If the archive cannot be written
+	 */
+	public static void write(File file, DriveLoop loop, Point[] path, CommandGroup cg) throws IOException {
+		write(file, describe(loop), path, cg.getPoses(), cg.getData(), loop.getRobot().getPeriod());
+	} //end write
+
+	/**
+	 * Save a run
+	 * @param file Archive to write
+	 * @param config Robot, gains and anything else to save with the run
+	 * @param path Control points of the path followed, null if there is none
+	 * @param poses Pose of the robot at each update
+	 * @param data Data of the robot at each update, may be empty
+	 * @param period Time between updates in seconds
+	 * @throws IOException If the archive cannot be written
+	 */
+	public static void write(File file, Map<String, String> config, Point[] path, List<Pose> poses,
+			List<HashMap<ROBOT_KEY, Object>> data, double period) throws IOException {
+		boolean hasData = data != null && data.size() >= poses.size();
+		try (Writer w = new Writer(file, config, path, period)) {
+			for (int i = 0; i < poses.size(); i++) {
+				w.record(poses.get(i), hasData ? data.get(i) : null, 1);
+			} //loop
+		} //try
+	} //end write
+
+	/**
+	 * Find the data columns and their kinds from the first data point of the run
+	 * @param first Data of the robot at the first update, null if there is no data
+	 */
+	private void findKeys(HashMap<ROBOT_KEY, Object> first) {
+		List<ROBOT_KEY> found = new ArrayList<ROBOT_KEY>();
+		if (first != null) {
+			for (ROBOT_KEY k : ROBOT_KEY.values()) {
+				if (first.containsKey(k))
+					found.add(k);
+			} //loop
+		} //if
+
+		keys = found.toArray(new ROBOT_KEY[0]);
+		kinds = new byte[keys.length];
+		for (int k = 0; k < keys.length; k++) {
+			kinds[k] = kindOf(keys[k], first.get(keys[k]));
+		} //loop
+
+		createStreams();
+	} //end findKeys
+
+	/**
+	 * Get the kind of a data column
+	 * @param key Key of the column
+	 * @param v First value of the column, may be null
+	 * @return Kind of the value, or the kind the robot gives the key when there is no value yet
+	 */
+	private static byte kindOf(ROBOT_KEY key, Object v) {
+		if (v != null)
+			return v instanceof Number ? NUMBER : v instanceof Point ? POINT : v instanceof Color ? COLOR : NAME;
+
+		switch (key) {
+			case POINT:
+			case GOAL_POINT:
+				return POINT;
+
+			case COLOR:
+				return COLOR;
+
+			case CURRENT_COMMAND:
+			case STATE:
+				return NAME;
+
+			default:
+				return NUMBER;
+		} //switch
+	} //end kindOf
+
+	/**
+	 * Lay out the streams from the data columns
+	 */
+	private void createStreams() {
+		List<Boolean> dict = new ArrayList<Boolean>(Arrays.asList(false, false, false, true)); //pose x, y, heading, color
+		for (byte kind : kinds) {
+			if (kind == POINT) {
+				dict.add(false);
+				dict.add(false);
+			} else {
+				dict.add(kind == NAME || kind == COLOR);
+			} //if
+		} //loop
+
+		dictStreams = new boolean[dict.size()];
+		dicts = new ArrayList<List<Object>>();
+		for (int s = 0; s < dictStreams.length; s++) {
+			dictStreams[s] = dict.get(s);
+			dicts.add(dictStreams[s] ? new ArrayList<Object>() : null);
+		} //loop
+	} //end createStreams
+
+	/**
+	 * Write everything that comes before the chunk index
+	 * @param out Stream to write to
+	 * @throws IOException If the stream cannot be written
+	 */
+	private void writeHead(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(ticks);
+		out.writeInt(chunkTicks);
+		out.writeDouble(period);
+
+		out.writeInt(config.size());
+		for (Map.Entry<String, String> e : config.entrySet()) {
+			out.writeUTF(e.getKey());
+			out.writeUTF(e.getValue());
+		} //loop
+
+		out.writeInt(path.length);
+		for (Point p : path) {
+			out.writeDouble(p.getX());
+			out.writeDouble(p.getY());
+		} //loop
+
+		out.writeInt(keys.length);
+		for (int k = 0; k < keys.length; k++) {
+			out.writeUTF(keys[k].name());
+			out.writeByte(kinds[k]);
+		} //loop
+
+		for (int s = 0; s < dictStreams.length; s++) {
+			if (!dictStreams[s])
+				continue;
+
+			boolean colors = s == 3 || kindOfStream(s) == COLOR;
+			out.writeInt(dicts.get(s).size());
+			for (Object v : dicts.get(s)) {
+				out.writeBoolean(v != null);
+				if (v != null && colors)
+					out.writeInt(((Color) v).getRGB());
+				else if (v != null)
+					out.writeUTF((String) v);
+			} //loop
+		} //loop
+	} //end writeHead
+
+	/**
+	 * Get the kind of data column a stream belongs to
+	 * @param s Index of the stream
+	 * @return Kind of the column, -1 for the pose streams
+	 */
+	private byte kindOfStream(int s) {
+		int stream = 4;
+		for (int k = 0; k < keys.length; k++) {
+			int width = kinds[k] == POINT ? 2 : 1;
+			if (s < stream + width)
+				return kinds[k];
+			stream += width;
+		} //loop
+
+		return -1;
+	} //end kindOfStream
+
+	//Encoding
+
+	/**
+	 * Compress part of a double stream, trying each predictor and keeping the smaller
+	 * @param v Values of the stream
+	 * @param from First update of the chunk
+	 * @param to Update after the last one of the chunk
+	 * @return Predictor followed by the packed bits
+	 */
+	private static byte[] encodeDoubles(double[] v, int from, int to) {
+		byte[] best = null;
+		for (byte mode = PREVIOUS; mode <= LINEAR; mode++) {
+			BitWriter out = new BitWriter();
+			out.write(mode, 8);
+
+			int lead = -1, trail = 0; //window of meaningful bits from the last value that had one
+			for (int i = from; i < to; i++) {
+				long x = Double.doubleToRawLongBits(v[i]) ^ predict(v, from, i, mode);
+				if (x == 0) {
+					out.write(0, 1); //same as predicted
+					continue;
+				} //if
+
+				int lz = Math.min(31, Long.numberOfLeadingZeros(x));
+				int tz = Long.numberOfTrailingZeros(x);
+				if (lead >= 0 && lz >= lead && tz >= trail) {
+					//fits in the last window, only its bits are needed
+					out.write(0b10, 2);
+					out.write(x >>> trail, 64 - lead - trail);
+				} else {
+					int bits = 64 - lz - tz;
+					out.write(0b11, 2);
+					out.write(lz, 5);
+					out.write(bits - 1, 6);
+					out.write(x >>> tz, bits);
+					lead = lz;
+					trail = tz;
+				} //if
+			} //loop
+
+			byte[] b = out.toArray();
+			if (best == null || b.length < best.length)
+				best = b;
+		} //loop
+
+		return best;
+	} //end encodeDoubles
+
+	/**
+	 * Predict a value from the ones before it in the same chunk
+	 * @param v Values of the stream, decoded ones when reading
+	 * @param from First update of the chunk
+	 * @param i Update to predict
+	 * @param mode Predictor to use
+	 * @return Bits of the prediction
+	 */
+	private static long predict(double[] v, int from, int i, byte mode) {
+		if (i == from)
+			return 0;
+		if (mode == PREVIOUS || i == from + 1)
+			return Double.doubleToRawLongBits(v[i - 1]);
+
+		return Double.doubleToRawLongBits(2 * v[i - 1] - v[i - 2]); //straight line through the two before
+	} //end predict
+
+	/**
+	 * Compress part of a dictionary stream as the change in id from one update to the next
+	 * @param ids Dictionary ids of the stream
+	 * @param from First update of the chunk
+	 * @param to Update after the last one of the chunk
+	 * @return Zigzag varints of the changes
+	 */
+	private static byte[] encodeIds(int[] ids, int from, int to) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int last = 0;
+		for (int i = from; i < to; i++) {
+			int d = ids[i] - last;
+			int z = (d << 1) ^ (d >> 31); //small changes either way become small numbers
+			while ((z & ~0x7F) != 0) {
+				out.write((z & 0x7F) | 0x80);
+				z >>>= 7;
+			} //loop
+			out.write(z);
+			last = ids[i];
+		} //loop
+
+		return out.toByteArray();
+	} //end encodeIds
+
+	//Reading
+
+	/**
+	 * Open an archive, reading everything but the chunks
+	 * @param file Archive to open
+	 * @return Archive whose chunks are mapped as they are needed
+	 * @throws IOException If the file cannot be read or is not an archive of this version
+	 */
+	public static RunArchive open(File file) throws IOException {
+		RunArchive a = new RunArchive();
+		a.file = file;
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			int magic = in.readInt();
+			int version = in.readInt();
+			if (magic != MAGIC || version != VERSION)
+				throw new IOException(String.format("Not a run archive (magic %08x, version %d)", magic, version));
+
+			a.ticks = in.readInt();
+			a.chunkTicks = in.readInt();
+			a.period = in.readDouble();
+
+			a.config = new LinkedHashMap<String, String>();
+			for (int i = in.readInt(); i > 0; i--) {
+				a.config.put(in.readUTF(), in.readUTF());
+			} //loop
+
+			a.path = new Point[in.readInt()];
+			for (int i = 0; i < a.path.length; i++) {
+				a.path[i] = new Point(in.readDouble(), in.readDouble());
+			} //loop
+
+			a.keys = new ROBOT_KEY[in.readInt()];
+			a.kinds = new byte[a.keys.length];
+			for (int k = 0; k < a.keys.length; k++) {
+				a.keys[k] = ROBOT_KEY.valueOf(in.readUTF());
+				a.kinds[k] = in.readByte();
+			} //loop
+			a.createStreams();
+
+			for (int s = 0; s < a.dictStreams.length; s++) {
+				if (!a.dictStreams[s])
+					continue;
+
+				boolean colors = s == 3 || a.kindOfStream(s) == COLOR;
+				for (int i = in.readInt(); i > 0; i--) {
+					boolean present = in.readBoolean();
+					a.dicts.get(s).add(!present ? null : colors ? new Color(in.readInt(), true) : in.readUTF());
+				} //loop
+			} //loop
+
+			int chunks = in.readInt();
+			a.offsets = new long[chunks];
+			a.lengths = new int[chunks];
+			for (int c = 0; c < chunks; c++) {
+				a.offsets[c] = in.readLong();
+				a.lengths[c] = in.readInt();
+			} //loop
+
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Unknown data key in " + file, e);
+		} //try-catch
+
+		a.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		return a;
+	} //end open
+
+	/**
+	 * Get a decoded chunk, mapping and decoding it if it is not one of the last few used
+	 * @param c Index of the chunk
+	 * @return Values of every stream in the chunk
+	 */
+	private synchronized Chunk chunk(int c) {
+		Chunk chunk = cache.get(c);
+		if (chunk != null)
+			return chunk;
+
+		try {
+			MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, offsets[c], lengths[c]);
+			int n = Math.min(chunkTicks, ticks - c * chunkTicks);
+			chunk = new Chunk(dictStreams.length);
+
+			for (int s = 0; s < dictStreams.length; s++) {
+				byte[] b = new byte[in.getInt()];
+				in.get(b);
+				if (dictStreams[s])
+					chunk.ids[s] = decodeIds(b, n);
+				else
+					chunk.values[s] = decodeDoubles(b, n);
+			} //loop
+
+		} catch (IOException e) {
+			throw new RuntimeException("Could not read chunk " + c + " of " + file, e);
+		} //try-catch
+
+		cache.put(c, chunk);
+		decoded++;
+		return chunk;
+	} //end chunk
+
+	/**
+	 * Decompress a double stream
+	 * @param b Predictor followed by the packed bits
+	 * @param n Number of values
+	 * @return Values of the stream
+	 */
+	private static double[] decodeDoubles(byte[] b, int n) {
+		BitReader in = new BitReader(b);
+		byte mode = (byte) in.read(8);
+		double[] v = new double[n];
+
+		int lead = 0, trail = 0;
+		for (int i = 0; i < n; i++) {
+			long x = 0;
+			if (in.read(1) == 1) {
+				if (in.read(1) == 1) {
+					lead = (int) in.read(5);
+					int bits = (int) in.read(6) + 1;
+					trail = 64 - lead - bits;
+				} //if
+				x = in.read(64 - lead - trail) << trail;
+			} //if
+
+			v[i] = Double.longBitsToDouble(x ^ predict(v, 0, i, mode));
+		} //loop
+
+		return v;
+	} //end decodeDoubles
+
+	/**
+	 * Decompress a dictionary stream
+	 * @param b Zigzag varints of the changes in id
+	 * @param n Number of values
+	 * @return Dictionary ids of the stream
+	 */
+	private static int[] decodeIds(byte[] b, int n) {
+		int[] ids = new int[n];
+		int pos = 0, last = 0;
+		for (int i = 0; i < n; i++) {
+			int z = 0;
+			for (int shift = 0; ; shift += 7) {
+				int part = b[pos++];
+				z |= (part & 0x7F) << shift;
+				if ((part & 0x80) == 0)
+					break;
+			} //loop
+
+			last += (z >>> 1) ^ -(z & 1);
+			ids[i] = last;
+		} //loop
+
+		return ids;
+	} //end decodeIds
+
+	/**
+	 * Get the pose of the robot at an update
+	 * @param tick Index of the update
+	 * @return Pose at that update
+	 */
+	public Pose getPose(int tick) {
+		Chunk c = chunk(tick / chunkTicks);
+		int i = tick % chunkTicks;
+		Color color = (Color) dicts.get(3).get(c.ids[3][i]);
+		Point p = new Point(c.values[0][i], c.values[1][i]);
+		return color == null ? new Pose(p, c.values[2][i]) : new Pose(p, c.values[2][i], color);
+	} //end getPose
+
+	/**
+	 * Get the data of the robot at an update
+	 * @param tick Index of the update
+	 * @return Value of each saved key at that update
+	 */
+	public HashMap<ROBOT_KEY, Object> getDataPoint(int tick) {
+		Chunk c = chunk(tick / chunkTicks);
+		int i = tick % chunkTicks;
+		HashMap<ROBOT_KEY, Object> data = new HashMap<ROBOT_KEY, Object>();
+
+		int s = 4;
+		for (int k = 0; k < keys.length; k++) {
+			switch (kinds[k]) {
+				case NUMBER:
+					data.put(keys[k], c.values[s++][i]);
+					break;
+
+				case POINT:
+					double x = c.values[s++][i];
+					double y = c.values[s++][i];
+					data.put(keys[k], Double.isNaN(x) ? null : new Point(x, y));
+					break;
+
+				default:
+					data.put(keys[k], dicts.get(s).get(c.ids[s][i]));
+					s++;
+			} //switch
+		} //loop
+
+		return data;
+	} //end getDataPoint
+
+	/**
+	 * Get the poses as a list that reads each one from the archive when asked for
+	 * @return Pose at each update
+	 */
+	public List<Pose> getPoses() {
+		return new AbstractList<Pose>() {
+			@Override
+			public Pose get(int index) {
+				return getPose(index);
+			} //end get
+
+			@Override
+			public int size() {
+				return ticks;
+			} //end size
+		};
+	} //end getPoses
+
+	/**
+	 * Get the data as a list that reads each point from the archive when asked for
+	 * @return Data at each update
+	 */
+	public List<HashMap<ROBOT_KEY, Object>> getData() {
+		return new AbstractList<HashMap<ROBOT_KEY, Object>>() {
+			@Override
+			public HashMap<ROBOT_KEY, Object> get(int index) {
+				return getDataPoint(index);
+			} //end get
+
+			@Override
+			public int size() {
+				return keys.length == 0 ? 0 : ticks;
+			} //end size
+		};
+	} //end getData
+
+	/**
+	 * Get the number of updates in the run
+	 * @return Number of updates
+	 */
+	public int size() {
+		return ticks;
+	} //end size
+
+	/**
+	 * Get the time between updates
+	 * @return Update period in seconds
+	 */
+	public double getPeriod() {
+		return period;
+	} //end getPeriod
+
+	/**
+	 * Get the robot, gains and anything else saved with the run
+	 * @return Settings by name
+	 */
+	public Map<String, String> getConfig() {
+		return Collections.unmodifiableMap(config);
+	} //end getConfig
+
+	/**
+	 * Get the path followed
+	 * @return Control points, empty if there was no path
+	 */
+	public Point[] getPath() {
+		return path;
+	} //end getPath
+
+	/**
+	 * Get the number of chunks in the archive
+	 * @return Chunks of CHUNK_TICKS updates
+	 */
+	public int getNumChunks() {
+		return offsets.length;
+	} //end getNumChunks
+
+	/**
+	 * Get the number of times a chunk was mapped and decoded
+	 * @return Chunks decoded since the archive was opened
+	 */
+	public int getDecoded() {
+		return decoded;
+	} //end getDecoded
+
+	/**
+	 * Close the file, chunks already decoded can still be read
+	 * @throws IOException If the file cannot be closed
+	 */
+	public void close() throws IOException {
+		channel.close();
+	} //end close
+
+	/**
+	 * Records a run one update at a time into a chunk of fixed size, handing each full chunk to a background
+	 * thread that compresses it and streams it to disk, so memory stays the same however long the run is
+	 */
+	public static class Writer implements TelemetrySink, Closeable {
+		//Constants
+		public static final int QUEUE_CHUNKS = 4; //full chunks waiting for the disk before recording blocks
+
+		//Attributes
+		private RunArchive a; //layout of the archive being written
+		private File file; //archive written on close
+		private File body; //chunks streamed so far, joined to the header on close
+		private DataOutputStream out; //stream to the body, only used by the writer thread
+		private List<Integer> lengths; //size of each chunk written, only used by the writer thread
+		private List<Map<Object, Integer>> lookup; //dictionary id of each value seen in each stream
+		private ArrayBlockingQueue<Block> free; //chunks ready to be filled
+		private ArrayBlockingQueue<Block> full; //chunks waiting to be written
+		private Block block; //chunk being filled
+		private int blocks; //chunks created, at most QUEUE_CHUNKS + 1
+		private Thread thread; //compresses and writes full chunks
+		private volatile IOException error; //first failure of the writer thread
+		private boolean closed; //whether the archive has been written
+
+		/**
+		 * Start recording a run for a robot
+		 * @param file Archive to write
+		 * @param loop Drive loop the run is on
+		 * @param path Control points of the path followed, null if there is none
+		 * @throws IOException If the chunks cannot be written next to the archive
+		 */
+		public Writer(File file, DriveLoop loop, Point[] path) throws IOException {
+			this(file, describe(loop), path, loop.getRobot().getPeriod());
+		} //end constructor
+
+		/**
+		 * Start recording a run
+		 * @param file Archive to write
+		 * @param config Robot, gains and anything else to save with the run
+		 * @param path Control points of the path followed, null if there is none
+		 * @param period Time between updates in seconds
+		 * @throws IOException If the chunks cannot be written next to the archive
+		 */
+		public Writer(File file, Map<String, String> config, Point[] path, double period) throws IOException {
+			a = new RunArchive();
+			a.chunkTicks = CHUNK_TICKS;
+			a.period = period;
+			a.config = config;
+			a.path = path == null ? new Point[0] : path;
+
+			this.file = file;
+			body = File.createTempFile(file.getName(), ".chunks", file.getAbsoluteFile().getParentFile());
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(body)));
+			lengths = new ArrayList<Integer>();
+			free = new ArrayBlockingQueue<Block>(QUEUE_CHUNKS + 1);
+			full = new ArrayBlockingQueue<Block>(QUEUE_CHUNKS + 1);
+
+			thread = new Thread(this::writeChunks, "Archive writer " + file.getName());
+			thread.setDaemon(true);
+			thread.start();
+		} //end constructor
+
+		/**
+		 * Record the pose and data of the robot
+		 * @param pose Pose of the robot
+		 * @param data Data of the robot, null if there is none
+		 * @param updates Number of updates the pose and data hold for
+		 */
+		@Override
+		public void record(Pose pose, HashMap<ROBOT_KEY, Object> data, int updates) {
+			if (closed)
+				throw new IllegalStateException("Archive " + file + " is already written");
+			if (error != null)
+				throw new RuntimeException("Could not write " + file, error);
+
+			//the first data point fixes the columns
+			if (block == null) {
+				if (a.keys == null)
+					a.findKeys(data);
+				block = nextBlock();
+			} //if
+
+			for (int u = 0; u < updates; u++) {
+				if (u == 0 || block.n == 0)
+					fill(block, pose, data); //a new chunk has no update before it to repeat
+				else
+					block.repeat();
+				a.ticks++;
+
+				if (block.n == CHUNK_TICKS) {
+					hand(block);
+					block = nextBlock();
+				} //if
+			} //loop
+		} //end record
+
+		/**
+		 * Put the values of an update at the end of a chunk
+		 * @param b Chunk being filled
+		 * @param pose Pose of the robot
+		 * @param data Data of the robot, null if there is none
+		 */
+		private void fill(Block b, Pose pose, HashMap<ROBOT_KEY, Object> data) {
+			int i = b.n++;
+			b.values[0][i] = pose.getX();
+			b.values[1][i] = pose.getY();
+			b.values[2][i] = pose.getHeading();
+			b.ids[3][i] = idOf(3, pose.getColor());
+
+			int s = 4;
+			for (int k = 0; k < a.keys.length; k++) {
+				Object v = data == null ? null : data.get(a.keys[k]);
+				switch (a.kinds[k]) {
+					case NUMBER:
+						b.values[s++][i] = v instanceof Number ? ((Number) v).doubleValue() : Double.NaN;
+						break;
+
+					case POINT:
+						b.values[s++][i] = v instanceof Point ? ((Point) v).getX() : Double.NaN;
+						b.values[s++][i] = v instanceof Point ? ((Point) v).getY() : Double.NaN;
+						break;
+
+					case COLOR:
+						b.ids[s][i] = idOf(s, v instanceof Color ? v : null);
+						s++;
+						break;
+
+					default:
+						b.ids[s][i] = idOf(s, v == null ? null : v.toString());
+						s++;
+				} //switch
+			} //loop
+		} //end fill
+
+		/**
+		 * Get the dictionary id of a value, adding it if it is new
+		 * @param s Stream the value is in
+		 * @param v Value, may be null
+		 * @return Index of the value in the stream's dictionary
+		 */
+		private int idOf(int s, Object v) {
+			if (lookup == null) {
+				lookup = new ArrayList<Map<Object, Integer>>();
+				for (int i = 0; i < a.dictStreams.length; i++) {
+					lookup.add(new HashMap<Object, Integer>());
+				} //loop
+			} //if
+
+			Integer id = lookup.get(s).get(v);
+			if (id == null) {
+				id = a.dicts.get(s).size();
+				a.dicts.get(s).add(v);
+				lookup.get(s).put(v, id);
+			} //if
+
+			return id;
+		} //end idOf
+
+		/**
+		 * Get an empty chunk, waiting for the writer thread if every chunk is full
+		 * @return Chunk to fill
+		 */
+		private Block nextBlock() {
+			Block b = free.poll();
+			try {
+				if (b == null && blocks <= QUEUE_CHUNKS) {
+					b = new Block(a.dictStreams);
+					blocks++;
+				} else if (b == null) {
+					b = free.take(); //the disk is behind, so recording waits for it
+				} //if
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while recording " + file, e);
+			} //try-catch
+
+			b.n = 0;
+			return b;
+		} //end nextBlock
+
+		/**
+		 * Give a full chunk to the writer thread
+		 * @param b Chunk to write
+		 */
+		private void hand(Block b) {
+			try {
+				full.put(b);
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while recording " + file, e);
+			} //try-catch
+		} //end hand
+
+		/**
+		 * Compress and write chunks until the end of the run, run by the writer thread
+		 */
+		private void writeChunks() {
+			try {
+				for (Block b = full.take(); b != Block.END; b = full.take()) {
+					if (error == null) {
+						try {
+							ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+							DataOutputStream c = new DataOutputStream(chunk);
+							for (int s = 0; s < b.values.length; s++) {
+								byte[] bytes = a.dictStreams[s] ? encodeIds(b.ids[s], 0, b.n) : encodeDoubles(b.values[s], 0, b.n);
+								c.writeInt(bytes.length);
+								c.write(bytes);
+							} //loop
+
+							chunk.writeTo(out);
+							lengths.add(chunk.size());
+
+						} catch (IOException e) {
+							error = e;
+						} //try-catch
+					} //if
+
+					free.put(b);
+				} //loop
+
+			} catch (InterruptedException e) {
+				error = new IOException("Writer of " + file + " was interrupted", e);
+			} //try-catch
+		} //end writeChunks
+
+		/**
+		 * Get the number of updates recorded so far
+		 * @return Updates recorded
+		 */
+		public int size() {
+			return a.ticks;
+		} //end size
+
+		/**
+		 * Get the number of chunks held in memory
+		 * @return Chunks created, the same however long the run is
+		 */
+		public int getBlocks() {
+			return blocks;
+		} //end getBlocks
+
+		/**
+		 * Write the last chunk and wait for the writer thread, then join the header and chunks into the archive
+		 * @throws IOException If the archive cannot be written
+		 */
+		@Override
+		public void close() throws IOException {
+			if (closed)
+				return;
+			closed = true;
+
+			try {
+				if (a.keys == null)
+					a.findKeys(null); //nothing was recorded
+				if (block != null && block.n > 0)
+					hand(block);
+				full.put(Block.END);
+				thread.join();
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				error = new IOException("Interrupted while writing " + file, e);
+
+			} finally {
+				out.close();
+			} //try-catch
+
+			try {
+				if (error != null)
+					throw error;
+
+				//everything before the chunks, so the index can point past it
+				ByteArrayOutputStream head = new ByteArrayOutputStream();
+				a.writeHead(new DataOutputStream(head));
+				long offset = head.size() + 4 + lengths.size() * 12L;
+
+				try (DataOutputStream archive = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+					head.writeTo(archive);
+					archive.writeInt(lengths.size());
+					for (int length : lengths) {
+						archive.writeLong(offset);
+						archive.writeInt(length);
+						offset += length;
+					} //loop
+
+					Files.copy(body.toPath(), archive);
+				} //try
+
+			} finally {
+				body.delete();
+			} //try
+		} //end close
+	} //end Writer
+
+	/**
+	 * Values of every stream for the updates in a chunk being recorded
+	 */
+	private static class Block {
+		//Constants
+		private static final Block END = new Block(new boolean[0]); //marks the end of the run for the writer thread
+
+		//Attributes
+		private double[][] values; //values of each double stream, null for dictionary streams
+		private int[][] ids; //ids of each dictionary stream, null for double streams
+		private int n; //number of updates filled
+
+		/**
+		 * Create an empty chunk
+		 * @param dictStreams Whether each stream is dictionary ids rather than doubles
+		 */
+		private Block(boolean[] dictStreams) {
+			values = new double[dictStreams.length][];
+			ids = new int[dictStreams.length][];
+			for (int s = 0; s < dictStreams.length; s++) {
+				if (dictStreams[s])
+					ids[s] = new int[CHUNK_TICKS];
+				else
+					values[s] = new double[CHUNK_TICKS];
+			} //loop
+		} //end constructor
+
+		/**
+		 * Fill the next update with the values of the last one
+		 */
+		private void repeat() {
+			for (int s = 0; s < values.length; s++) {
+				if (values[s] != null)
+					values[s][n] = values[s][n - 1];
+				else
+					ids[s][n] = ids[s][n - 1];
+			} //loop
+			n++;
+		} //end repeat
+	} //end Block
+
+	/**
+	 * Values of every stream for the updates in one chunk
+	 */
+	private static class Chunk {
+		//Attributes
+		private double[][] values; //values of each double stream, null for dictionary streams
+		private int[][] ids; //ids of each dictionary stream, null for double streams
+
+		/**
+		 * Create an empty chunk
+		 * @param streams Number of streams
+		 */
+		private Chunk(int streams) {
+			this.values = new double[streams][];
+			this.ids = new int[streams][];
+		} //end constructor
+	} //end Chunk
+
+	/**
+	 * Writes values a few bits at a time, most significant bit first
+	 */
+	private static class BitWriter {
+		//Attributes
+		private byte[] bytes = new byte[64]; //bits written so far
+		private long size; //number of bits written
+
+		/**
+		 * Write the lowest bits of a value
+		 * @param v Value to write
+		 * @param n Number of bits, up to 64
+		 */
+		private void write(long v, int n) {
+			for (int i = n - 1; i >= 0; i--) {
+				int b = (int) (size >>> 3);
+				if (b == bytes.length)
+					bytes = Arrays.copyOf(bytes, bytes.length * 2);
+
+				bytes[b] |= ((v >>> i) & 1) << (7 - (size & 7));
+				size++;
+			} //loop
+		} //end write
+
+		/**
+		 * Get the bits written, padded to a whole byte
+		 * @return Written bytes
+		 */
+		private byte[] toArray() {
+			return Arrays.copyOf(bytes, (int) ((size + 7) >>> 3));
+		} //end toArray
+	} //end BitWriter
+
+	/**
+	 * Reads values a few bits at a time, most significant bit first
+	 */
+	private static class BitReader {
+		//Attributes
+		private byte[] bytes; //bits to read
+		private long pos; //number of bits read
+
+		/**
+		 * Create a reader at the start of some bytes
+		 * @param bytes Bits to read
+		 */
+		private BitReader(byte[] bytes) {
+			this.bytes = bytes;
+		} //end constructor
+
+		/**
+		 * Read a value
+		 * @param n Number of bits, up to 64
+		 * @return Value in the lowest bits
+		 */
+		private long read(int n) {
+			long v = 0;
+			for (int i = 0; i < n; i++) {
+				v = (v << 1) | ((bytes[(int) (pos >>> 3)] >>> (7 - (pos & 7))) & 1);
+				pos++;
+			} //loop
+
+			return v;
+		} //end read
+	} //end BitReader
+} //end class
@@ -0,0 +1,199 @@
+/**
+ * SpatialHash
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Uniform grid for finding objects that are close to one another without checking every pair
+ */
+
+package sim;
+
+import java.util.Arrays;
+
+public class SpatialHash {
+	//Attributes
+	//Configured
+	private double cellSize; //side length of each square cell in inches
+	private int rows; //number of cells along the x axis
+	private int cols; //number of cells along the y axis
+
+	//Calculated
+	private int[] cellStart; //index in entries where each cell starts (prefix sums of the cell counts)
+	private int[] entries; //object indices sorted by cell
+	private int[] cellOf; //cell each object was put in
+	private double[] xs; //x values of the objects
+	private double[] ys; //y values of the objects
+	private int size; //number of objects in the grid
+
+	/**
+	 * Visitor for pairs of objects found in neighbouring cells
+	 */
+	public interface PairConsumer {
+		/**
+		 * Accept a pair of object indices (a is always less than b)
+		 * @param a Index of the first object
+		 * @param b Index of the second object
+		 */
+		void accept(int a, int b);
+	} //end PairConsumer
+
+	/**
+	 * Create a grid covering an area of the field
+	 * @param xLength Length of the area along the x axis in inches
+	 * @param yLength Length of the area along the y axis in inches
+	 * @param cellSize Side length of a cell in inches (at least the size of the largest object)
+	 */
+	public SpatialHash(double xLength, double yLength, double cellSize) {
+		//set attributes
+		this.cellSize = cellSize;
+		this.rows = Math.max(1, (int) Math.ceil(xLength / cellSize));
+		this.cols = Math.max(1, (int) Math.ceil(yLength / cellSize));
+
+		//storage is grown as objects are added
+		this.cellStart = new int[rows * cols + 1];
+		this.entries = new int[0];
+		this.cellOf = new int[0];
+		this.size = 0;
+	} //end constructor
+
+	/**
+	 * Get the cell an (x,y) point falls in, clamping points outside the area to the edge cells
+	 * @param x X value in inches
+	 * @param y Y value in inches
+	 * @return Index of the cell
+	 */
+	private int cellIndex(double x, double y) {
+		int r = Math.min(rows - 1, Math.max(0, (int) (x / cellSize)));
+		int c = Math.min(cols - 1, Math.max(0, (int) (y / cellSize)));
+		return r * cols + c;
+	} //end cellIndex
+
+	/**
+	 * Rebuild the grid with new object positions (no allocation once the grid has grown to n)
+	 * @param xs X values of the objects in inches
+	 * @param ys Y values of the objects in inches
+	 * @param n Number of objects to use from the arrays
+	 */
+	public void build(double[] xs, double[] ys, int n) {
+		//grow the storage if there are more objects than before
+		if (entries.length < n) {
+			entries = new int[n];
+			cellOf = new int[n];
+		} //if
+
+		this.xs = xs;
+		this.ys = ys;
+		this.size = n;
+
+		//count the objects in each cell
+		Arrays.fill(cellStart, 0);
+		for (int i = 0; i < n; i++) {
+			cellOf[i] = cellIndex(xs[i], ys[i]);
+			cellStart[cellOf[i] + 1]++;
+		} //loop
+
+		//prefix sum the counts so each cell knows where its objects start
+		for (int i = 1; i < cellStart.length; i++) {
+			cellStart[i] += cellStart[i-1];
+		} //loop
+
+		//place the objects in their cells, shifting the starts forward as they are filled
+		for (int i = 0; i < n; i++) {
+			entries[cellStart[cellOf[i]]++] = i;
+		} //loop
+
+		//shift the starts back to where they were
+		for (int i = cellStart.length - 1; i > 0; i--) {
+			cellStart[i] = cellStart[i-1];
+		} //loop
+		cellStart[0] = 0;
+	} //end build
+
+	/**
+	 * Visit every pair of objects in the same or neighbouring cells once
+	 * @param consumer Receives each candidate pair
+	 * @return Number of candidate pairs visited
+	 */
+	public int forEachCandidatePair(PairConsumer consumer) {
+		int pairs = 0;
+
+		for (int a = 0; a < size; a++) {
+			int r = cellOf[a] / cols;
+			int c = cellOf[a] % cols;
+
+			//check the 3x3 block of cells around the object
+			for (int dr = -1; dr <= 1; dr++) {
+				int nr = r + dr;
+				if (nr < 0 || nr >= rows)
+					continue;
+
+				for (int dc = -1; dc <= 1; dc++) {
+					int nc = c + dc;
+					if (nc < 0 || nc >= cols)
+						continue;
+
+					int cell = nr * cols + nc;
+					for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+						int b = entries[k];
+
+						//only visit each pair once
+						if (b > a) {
+							consumer.accept(a, b);
+							pairs++;
+						} //if
+					} //loop
+				} //loop
+			} //loop
+		} //loop
+
+		return pairs;
+	} //end forEachCandidatePair
+
+	/**
+	 * Find the objects whose positions are within a distance of a point
+	 * @param x X value of the point in inches
+	 * @param y Y value of the point in inches
+	 * @param range Distance to be within in inches (at most the cell size)
+	 * @param out Array to fill with object indices
+	 * @return Number of indices written to out
+	 */
+	public int query(double x, double y, double range, int[] out) {
+		int cell = cellIndex(x, y);
+		int r = cell / cols;
+		int c = cell % cols;
+		int found = 0;
+		double rangeSq = range * range;
+
+		//check the 3x3 block of cells around the point
+		for (int nr = Math.max(0, r - 1); nr <= Math.min(rows - 1, r + 1); nr++) {
+			for (int nc = Math.max(0, c - 1); nc <= Math.min(cols - 1, c + 1); nc++) {
+				int n = nr * cols + nc;
+				for (int k = cellStart[n]; k < cellStart[n + 1] && found < out.length; k++) {
+					int i = entries[k];
+					double dx = xs[i] - x;
+					double dy = ys[i] - y;
+
+					if (dx * dx + dy * dy <= rangeSq)
+						out[found++] = i;
+				} //loop
+			} //loop
+		} //loop
+
+		return found;
+	} //end query
+
+	/**
+	 * Get the number of objects in the grid
+	 * @return Number of objects added in the last build
+	 */
+	public int size() {
+		return size;
+	} //end size
+
+	/**
+	 * Get the side length of the cells
+	 * @return Cell size in inches
+	 */
+	public double getCellSize() {
+		return cellSize;
+	} //end getCellSize
+} //end class
@@ -0,0 +1,242 @@
+/**
+ * SystemIdentifier
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Find the feedforward constants of many drivetrains by running voltage tests on each
+ */
+
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import model.DriveLoop;
+import model.Gearbox;
+import model.Motor;
+import model.PIDController;
+import model.Robot;
+import commands.TimedVoltage;
+import util.LeastSquares;
+import util.Util;
+
+public class SystemIdentifier {
+	//Attributes
+	//Configured
+	private double rampRate; //volts per second for the quasistatic tests
+	private double rampTime; //seconds to ramp for
+	private double stepVoltage; //voltage for the step tests
+	private double stepTime; //seconds to hold the step for
+
+	/**
+	 * Drivetrain configuration to find the constants of
+	 */
+	public static class Setup {
+		//Attributes
+		private String name; //name of the motor
+		private double[] motor; //motor parameters
+		private int numMotors; //motors per gearbox
+		private double wheelDia; //wheel diameter in inches
+		private double mass; //mass of the robot in pounds
+		private double topSpeed; //top speed the gearing is chosen for in ft/s
+
+		//Calculated
+		private double kS; //voltage to overcome friction
+		private double kV; //volts per ft/s
+		private double kA; //volts per ft/s^2
+		private double rSquared; //quality of the fit
+		private long samples; //number of samples in the fit
+
+		/**
+		 * Create a drivetrain configuration
+		 * @param name Name of the motor
+		 * @param motor Motor parameters (ie. Util.NEO)
+		 * @param numMotors Motors per gearbox
+		 * @param wheelDia Wheel diameter in inches
+		 * @param mass Mass of the robot in pounds
+		 * @param topSpeed Top speed the gearing is chosen for in ft/s
+		 */
+		public Setup(String name, double[] motor, int numMotors, double wheelDia, double mass, double topSpeed) {
+			this.name = name;
+			this.motor = motor;
+			this.numMotors = numMotors;
+			this.wheelDia = wheelDia;
+			this.mass = mass;
+			this.topSpeed = topSpeed;
+		} //end constructor
+
+		/**
+		 * Create a robot with this configuration
+		 * @return 30"x30" robot with the configured drive
+		 */
+		public Robot createRobot() {
+			Gearbox gb = new Gearbox(Gearbox.ratioFromTopSpeed(motor, wheelDia, topSpeed), new Motor(motor), numMotors);
+			return new Robot(wheelDia, mass, 30, 30, gb);
+		} //end createRobot
+
+		/**
+		 * Get the static friction constant
+		 * @return kS in volts
+		 */
+		public double getKS() {
+			return kS;
+		} //end getKS
+
+		/**
+		 * Get the velocity constant
+		 * @return kV in V / ft/s
+		 */
+		public double getKV() {
+			return kV;
+		} //end getKV
+
+		/**
+		 * Get the acceleration constant
+		 * @return kA in V / ft/s^2
+		 */
+		public double getKA() {
+			return kA;
+		} //end getKA
+
+		/**
+		 * Get the coefficient of determination of the fit
+		 * @return R^2 of the fit
+		 */
+		public double getRSquared() {
+			return rSquared;
+		} //end getRSquared
+
+		/**
+		 * Get the row of the results table for this setup
+		 * @return Tab separated configuration and constants
+		 */
+		public String toString() {
+			return String.format("%s x%d\t%.1f\t%.0f\t%.1f\t%.4f\t%.4f\t%.4f\t%.5f\t%d", name, numMotors, wheelDia, mass,
+								topSpeed, kS, kV, kA, rSquared, samples);
+		} //end toString
+	} //end Setup
+
+	/**
+	 * Create an identifier with the default tests (1V/s ramp to 10V, 7V step for 3s, both directions)
+	 */
+	public SystemIdentifier() {
+		this.rampRate = 1;
+		this.rampTime = 10;
+		this.stepVoltage = 7;
+		this.stepTime = 3;
+	} //end constructor
+
+	/**
+	 * Set the quasistatic test
+	 * @param rampRate Volts per second to ramp at
+	 * @param rampTime Seconds to ramp for
+	 */
+	public void setRamp(double rampRate, double rampTime) {
+		this.rampRate = rampRate;
+		this.rampTime = rampTime;
+	} //end setRamp
+
+	/**
+	 * Set the step test
+	 * @param stepVoltage Voltage to step to
+	 * @param stepTime Seconds to hold the voltage for
+	 */
+	public void setStep(double stepVoltage, double stepTime) {
+		this.stepVoltage = stepVoltage;
+		this.stepTime = stepTime;
+	} //end setStep
+
+	/**
+	 * Find the constants of every setup in parallel
+	 * @param setups Drivetrains to characterize
+	 * @return The setups with their constants filled in
+	 */
+	public List<Setup> characterize(List<Setup> setups) {
+		return setups.parallelStream().map(this::characterize).collect(Collectors.toList());
+	} //end characterize
+
+	/**
+	 * Run the quasistatic and step tests in both directions and fit V = kS*sgn(v) + kV*v + kA*a
+	 * @param setup Drivetrain to characterize
+	 * @return The setup with its constants filled in
+	 */
+	public Setup characterize(Setup setup) {
+		LeastSquares fit = new LeastSquares(3);
+
+		runTest(setup, fit, 0, rampRate, rampTime);
+		runTest(setup, fit, 0, -rampRate, rampTime);
+		runTest(setup, fit, stepVoltage, 0, stepTime);
+		runTest(setup, fit, -stepVoltage, 0, stepTime);
+
+		double[] c = fit.solve();
+		setup.kS = c[0];
+		setup.kV = c[1];
+		setup.kA = c[2];
+		setup.rSquared = fit.getRSquared();
+		setup.samples = fit.getCount();
+
+		return setup;
+	} //end characterize
+
+	/**
+	 * Drive a fresh robot with a voltage and add every update to the fit
+	 * @param setup Drivetrain to test
+	 * @param fit Fit to add the samples to
+	 * @param voltage Starting voltage
+	 * @param rampRate Volts per second to ramp at
+	 * @param time Seconds to run for
+	 */
+	private void runTest(Setup setup, LeastSquares fit, double voltage, double rampRate, double time) {
+		Robot r = setup.createRobot();
+		PIDController pid = new PIDController(0, 0, 0, r.getMaxLinSpeed()); //unused, voltage is open loop
+		TimedVoltage test = new TimedVoltage(new DriveLoop(r, pid, pid), voltage, voltage, rampRate, time);
+		test.setRecording(false);
+
+		double[] x = new double[3];
+		double lastVel = r.getLinearVel();
+
+		//the voltage in an update acts on the velocity from the end of the last update
+		test.start();
+		while (test.step()) {
+			double vel = r.getLinearVel();
+			x[0] = Math.signum(lastVel);
+			x[1] = lastVel;
+			x[2] = (vel - lastVel) / Util.UPDATE_PERIOD;
+			fit.add(x, test.getVoltage());
+			lastVel = vel;
+		} //loop
+		test.finish();
+	} //end runTest
+
+	/**
+	 * Characterize a range of drivetrains and print the constants as a table
+	 */
+	public static void main(String[] args) {
+		List<Setup> setups = new ArrayList<Setup>();
+		String[] names = {"NEO", "FALCON", "CIM", "MINI_CIM"};
+		double[][] motors = {Util.NEO, Util.FALCON, Util.CIM, Util.MINI_CIM};
+
+		//every combination of motor, motor count, wheel, mass and gearing
+		for (int m = 0; m < motors.length; m++) {
+			for (int numMotors = 2; numMotors <= 3; numMotors++) {
+				for (double wheel : new double[] {4, 6}) {
+					for (double mass : new double[] {100, 153}) {
+						for (double speed : new double[] {10, 14}) {
+							setups.add(new Setup(names[m], motors[m], numMotors, wheel, mass, speed));
+						} //loop
+					} //loop
+				} //loop
+			} //loop
+		} //loop
+
+		long start = System.nanoTime();
+		List<Setup> results = new SystemIdentifier().characterize(setups);
+		double seconds = (System.nanoTime() - start) / 1E9;
+
+		System.out.println("motor\twheel\tmass\tspeed\tkS (V)\tkV (V/fps)\tkA (V/fps^2)\tR^2\tsamples");
+		for (Setup s : results) {
+			System.out.println(s);
+		} //loop
+		System.out.println(String.format("Characterized %d setups in %.2fs", results.size(), seconds));
+	} //end main
+} //end class
@@ -0,0 +1,358 @@
+/**
+ * TelemetryColumns
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Numeric telemetry of a run kept in columns outside the Java heap, in native memory or mapped from a file
+ */
+
+package sim;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import commands.Command.TelemetrySink;
+import model.Point;
+import model.Pose;
+import util.Util.ROBOT_KEY;
+
+public class TelemetryColumns implements TelemetrySink, Closeable {
+	/*
+	 * Memory is taken in blocks of BLOCK_TICKS updates for every column at once, so the heap only holds one
+	 * small object per block however many updates are kept
+	 *   block:  column 0 for BLOCK_TICKS updates, then column 1, ... as native-order doubles
+	 * Columns are the pose x, y and heading, then each number the robot records in key order, points taking two (x then y)
+	 * Blocks are direct buffers, or consecutive regions of the backing file when it is mapped
+	 * Direct buffers count against -XX:MaxDirectMemorySize (the heap size unless set), so without a backing file only the
+	 * first NATIVE_BLOCKS are direct and longer runs go on in a temporary file that the operating system pages to disk
+	 * Every public method holds the columns' lock, so shared columns can be recorded on one thread and read on others
+	 */
+
+	//Constants
+	public static final int BLOCK_TICKS = 1 << 16; //updates in each block
+	public static final int NATIVE_BLOCKS = 2; //blocks kept in direct memory before the rest are mapped from a temporary file
+
+	//Attributes
+	//Configured
+	private boolean shared; //whether any thread may use the columns, otherwise only the one that created them
+	private File file; //backing file, null until native memory runs out
+
+	//Calculated
+	private Thread owner; //thread that created the columns
+	private FileChannel channel; //open backing file, null in native memory
+	private long mapped; //bytes of the backing file mapped into blocks
+	private ROBOT_KEY[] keys; //key of each data column
+	private boolean[] points; //whether each data column is the x of a point, followed by a column for its y
+	private List<String> names; //name of each column
+	private List<DoubleBuffer[]> blocks; //view of every column in each block
+	private long ticks; //updates recorded
+	private boolean closed; //whether the memory has been released
+
+	/**
+	 * Create columns in native memory, moving to a temporary file once NATIVE_BLOCKS are full or direct memory runs out
+	 * @param shared True to let any thread use the columns, false to confine them to the calling thread
+	 */
+	public TelemetryColumns(boolean shared) {
+		this.shared = shared;
+		this.owner = Thread.currentThread();
+		this.blocks = new ArrayList<DoubleBuffer[]>();
+	} //end constructor
+
+	/**
+	 * Create columns mapped from a file, so the operating system pages them to disk as they grow however long the run
+	 * @param file Backing file, replaced if it exists and deleted when the columns are closed
+	 * @param shared True to let any thread use the columns, false to confine them to the calling thread
+	 * @throws IOException If the file cannot be opened
+	 */
+	public TelemetryColumns(File file, boolean shared) throws IOException {
+		this(shared);
+		openFile(file);
+	} //end constructor
+
+	/**
+	 * Open the backing file that blocks are mapped from
+	 * @param file Backing file, replaced if it exists
+	 * @throws IOException If the file cannot be opened
+	 */
+	private void openFile(File file) throws IOException {
+		this.file = file;
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+	} //end openFile
+
+	/**
+	 * Check the columns can be used from the calling thread
+	 * @throws IllegalStateException If the columns are closed or confined to another thread
+	 */
+	private void check() {
+		if (closed)
+			throw new IllegalStateException("Telemetry columns are closed");
+		if (!shared && Thread.currentThread() != owner)
+			throw new IllegalStateException("Telemetry columns are confined to " + owner.getName());
+	} //end check
+
+	/**
+	 * Find the columns from the first data point
+	 * @param data Data of the robot at the first update, null if there is none
+	 */
+	private void findColumns(HashMap<ROBOT_KEY, Object> data) {
+		names = new ArrayList<String>(Arrays.asList("x", "y", "heading"));
+		List<ROBOT_KEY> found = new ArrayList<ROBOT_KEY>();
+
+		for (ROBOT_KEY k : ROBOT_KEY.values()) {
+			if (data == null || !data.containsKey(k))
+				continue;
+
+			//the goal point is empty until the robot has a goal
+			Object v = data.get(k);
+			if (v instanceof Number) {
+				found.add(k);
+				names.add(k.name());
+			} else if (v instanceof Point || k == ROBOT_KEY.GOAL_POINT) {
+				found.add(k);
+				names.add(k.name() + ".x");
+				names.add(k.name() + ".y");
+			} //if
+		} //loop
+
+		keys = found.toArray(new ROBOT_KEY[0]);
+		points = new boolean[keys.length];
+		for (int k = 0; k < keys.length; k++) {
+			points[k] = !names.contains(keys[k].name());
+		} //loop
+	} //end findColumns
+
+	/**
+	 * Take memory for another block of updates, in direct memory while it lasts and from the backing file after
+	 * @throws IOException If the backing file cannot be created or grown
+	 */
+	private void addBlock() throws IOException {
+		int columns = names.size();
+		long bytes = (long) BLOCK_TICKS * columns * Double.BYTES;
+
+		ByteBuffer block = null;
+		if (channel == null && blocks.size() < NATIVE_BLOCKS) {
+			try {
+				block = ByteBuffer.allocateDirect((int) bytes);
+			} catch (OutOfMemoryError e) {
+				//direct memory is capped, the rest of the run goes to disk
+			} //try-catch
+		} //if
+
+		if (block == null) {
+			if (channel == null) {
+				File temp = File.createTempFile("telemetry", ".columns");
+				temp.deleteOnExit();
+				openFile(temp);
+			} //if
+
+			block = channel.map(FileChannel.MapMode.READ_WRITE, mapped, bytes);
+			mapped += bytes;
+		} //if
+		block.order(ByteOrder.nativeOrder());
+
+		DoubleBuffer[] views = new DoubleBuffer[columns];
+		for (int c = 0; c < columns; c++) {
+			block.position(c * BLOCK_TICKS * Double.BYTES);
+			block.limit((c + 1) * BLOCK_TICKS * Double.BYTES);
+			views[c] = block.slice().order(ByteOrder.nativeOrder()).asDoubleBuffer();
+			block.clear();
+		} //loop
+
+		blocks.add(views);
+	} //end addBlock
+
+	/**
+	 * Record the pose and data of the robot
+	 * @param pose Pose of the robot
+	 * @param data Data of the robot, null if there is none
+	 * @param updates Number of updates the pose and data hold for
+	 * @throws IllegalStateException If no more memory can be taken for the updates
+	 */
+	@Override
+	public synchronized void record(Pose pose, HashMap<ROBOT_KEY, Object> data, int updates) {
+		check();
+		if (names == null)
+			findColumns(data);
+
+		for (int u = 0; u < updates; u++) {
+			int i = (int) (ticks % BLOCK_TICKS);
+			if (i == 0) {
+				try {
+					addBlock();
+
+				} catch (IOException | OutOfMemoryError e) {
+					//a file that cannot grow or be mapped, ie. a full disk or no address space left
+					throw new IllegalStateException("Could not take memory for telemetry past update " + ticks + " in "
+							+ (file == null ? "native memory" : file) + ": " + e, e);
+				} //try-catch
+			} //if
+
+			DoubleBuffer[] cols = blocks.get(blocks.size() - 1);
+			cols[0].put(i, pose.getX());
+			cols[1].put(i, pose.getY());
+			cols[2].put(i, pose.getHeading());
+
+			int c = 3;
+			for (int k = 0; k < keys.length; k++) {
+				Object v = data == null ? null : data.get(keys[k]);
+				if (points[k]) {
+					cols[c++].put(i, v instanceof Point ? ((Point) v).getX() : Double.NaN);
+					cols[c++].put(i, v instanceof Point ? ((Point) v).getY() : Double.NaN);
+				} else {
+					cols[c++].put(i, v instanceof Number ? ((Number) v).doubleValue() : Double.NaN);
+				} //if
+			} //loop
+
+			ticks++;
+		} //loop
+	} //end record
+
+	/**
+	 * Get the index of a column
+	 * @param name Name of the column
+	 * @return Index of the column
+	 * @throws IllegalArgumentException If there is no such column
+	 */
+	public synchronized int getColumn(String name) {
+		int c = names == null ? -1 : names.indexOf(name);
+		if (c < 0)
+			throw new IllegalArgumentException("No telemetry column " + name + ", have " + getNames());
+
+		return c;
+	} //end getColumn
+
+	/**
+	 * Get the index of the column of a key
+	 * @param key Key of a number the robot records, or of a point for its x column
+	 * @return Index of the column
+	 */
+	public synchronized int getColumn(ROBOT_KEY key) {
+		return names != null && names.contains(key.name()) ? getColumn(key.name()) : getColumn(key.name() + ".x");
+	} //end getColumn
+
+	/**
+	 * Get a value
+	 * @param column Index of the column
+	 * @param tick Index of the update
+	 * @return Value of the column at that update
+	 */
+	public synchronized double get(int column, long tick) {
+		check();
+		if (tick < 0 || tick >= ticks)
+			throw new IndexOutOfBoundsException("Tick " + tick + " of " + ticks);
+
+		return blocks.get((int) (tick / BLOCK_TICKS))[column].get((int) (tick % BLOCK_TICKS));
+	} //end get
+
+	/**
+	 * Copy part of a column onto the heap, for charting or analysis
+	 * @param column Index of the column
+	 * @param from First update to copy
+	 * @param dst Array to copy into
+	 * @param offset Index in the array of the first value
+	 * @param length Number of updates to copy
+	 */
+	public synchronized void copy(int column, long from, double[] dst, int offset, int length) {
+		check();
+		if (from < 0 || length < 0 || from + length > ticks)
+			throw new IndexOutOfBoundsException("Ticks " + from + " to " + (from + length) + " of " + ticks);
+
+		//bulk copy out of each block the range covers
+		while (length > 0) {
+			int i = (int) (from % BLOCK_TICKS);
+			int n = Math.min(length, BLOCK_TICKS - i);
+			DoubleBuffer col = blocks.get((int) (from / BLOCK_TICKS))[column].duplicate();
+			col.position(i);
+			col.get(dst, offset, n);
+
+			from += n;
+			offset += n;
+			length -= n;
+		} //loop
+	} //end copy
+
+	/**
+	 * Copy part of a column onto the heap
+	 * @param column Index of the column
+	 * @param from First update to copy
+	 * @param length Number of updates to copy
+	 * @return Values of the column
+	 */
+	public double[] copy(int column, long from, int length) {
+		double[] dst = new double[length];
+		copy(column, from, dst, 0, length);
+		return dst;
+	} //end copy
+
+	/**
+	 * Get the number of updates recorded
+	 * @return Updates recorded
+	 */
+	public synchronized long size() {
+		return ticks;
+	} //end size
+
+	/**
+	 * Get the names of the columns
+	 * @return Name of each column by index, empty until the first update
+	 */
+	public synchronized List<String> getNames() {
+		return names == null ? Collections.emptyList() : Collections.unmodifiableList(names);
+	} //end getNames
+
+	/**
+	 * Get the number of blocks of memory taken
+	 * @return Blocks of BLOCK_TICKS updates
+	 */
+	public synchronized int getBlocks() {
+		return blocks.size();
+	} //end getBlocks
+
+	/**
+	 * Get the backing file
+	 * @return File the blocks past native memory are mapped from, null if every block is in native memory
+	 */
+	public synchronized File getFile() {
+		return file;
+	} //end getFile
+
+	/**
+	 * Check if the memory has been released
+	 * @return True once the columns are closed
+	 */
+	public synchronized boolean isClosed() {
+		return closed;
+	} //end isClosed
+
+	/**
+	 * Stop using the memory, the columns cannot be used afterwards
+	 * A backing file is closed and deleted, but the JDK cannot free direct or mapped blocks on demand, so their memory
+	 * and mappings are only released once the garbage collector finds them unreachable
+	 * @throws IOException If the backing file cannot be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+		check();
+		closed = true;
+		blocks.clear();
+
+		if (channel != null) {
+			channel.close();
+			if (!file.delete())
+				file.deleteOnExit(); //still mapped on some systems until the blocks are collected
+		} //if
+	} //end close
+} //end class
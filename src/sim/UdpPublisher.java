@@ -0,0 +1,523 @@
+/**
+ * UdpPublisher
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Publish the data of each update as batches of binary UDP datagrams for live dashboards on the same network
+ */
+
+package sim;
+
+import java.awt.Color;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import commands.Command.TelemetrySink;
+import model.Point;
+import model.Pose;
+import util.Log;
+import util.Util.ROBOT_KEY;
+
+public class UdpPublisher implements TelemetrySink, Closeable {
+	/*
+	 * Datagrams, big-endian
+	 *   key table:  byte KEYS, int MAGIC, byte VERSION, short columns, then short length and ASCII bytes of each name
+	 *   values:     byte VALUES, int batch, short rows, then for each row long update and a double for each column
+	 * The key table is sent before the first batch and again every KEY_REPEAT batches so late receivers can join
+	 * Columns are the same as LivePublisher's, updates count up from 0 so a gap is an update that was dropped
+	 * The simulation thread hands updates to the I/O thread through a single producer, single consumer ring
+	 * that never locks or waits; when the ring is full the overflow policy drops the newest or the oldest update
+	 */
+
+	//Constants
+	public static final int MAGIC = 0x41535455; //"ASTU", in every key table
+	public static final byte VERSION = 1; //version of the datagrams
+	public static final byte KEYS = 1; //key table datagram
+	public static final byte VALUES = 2; //batch of updates datagram
+	public static final int DEFAULT_PORT = 5805; //port dashboards listen on
+	public static final int DEFAULT_QUEUE = 1024; //updates waiting for the I/O thread
+	public static final int DEFAULT_DATAGRAM = 1400; //bytes in a datagram, under the usual network MTU
+	public static final String PROPERTY = "autosim.udp"; //system property with the host:port to publish to
+	private static final int KEY_REPEAT = 256; //batches between key tables
+	private static final int BATCH_HEADER = 7; //bytes before the rows of a batch
+	private static final long IDLE_NANOS = 200_000; //pause of the I/O thread when the ring is empty
+
+	/**
+	 * What to do with an update when the I/O thread has fallen a whole ring behind
+	 */
+	public static enum OVERFLOW {
+		DROP_NEWEST, //keep what is queued and drop the update, so the stream has one gap
+		DROP_OLDEST //drop the oldest queued update, coalescing the backlog so the newest values always get out
+	}
+
+	//Attributes
+	//Configured
+	private InetSocketAddress target; //address datagrams are sent to
+	private OVERFLOW policy; //what to drop when the ring is full
+
+	//Ring, filled by the simulation thread and emptied by the I/O thread
+	private double[][] rows; //values of each queued update
+	private long[] updates; //index of each queued update
+	private int mask; //ring size minus one, the size is a power of two
+	private AtomicLong head; //next slot to fill, only advanced by the simulation thread
+	private AtomicLong tail; //next slot to send, advanced by the I/O thread or by DROP_OLDEST
+
+	//I/O thread
+	private DatagramChannel channel; //socket datagrams are sent from
+	private ByteBuffer datagram; //batch being built
+	private ByteBuffer keyTable; //key table, built once
+	private int rowsPerBatch; //updates that fit in a datagram
+	private int batches; //batches sent
+	private Thread thread; //sends batches
+	private volatile boolean running; //false once the publisher is closed
+
+	//Counters
+	private long next; //index of the next update recorded
+	private volatile long dropped; //updates dropped by the overflow policy
+	private volatile long sent; //updates sent
+	private volatile long datagrams; //datagrams sent, key tables included
+
+	/**
+	 * Create a publisher and start its I/O thread
+	 * @param target Address to send to, loopback or another local address
+	 * @param queue Updates that can wait for the I/O thread, rounded up to a power of two
+	 * @param datagramBytes Most bytes in a datagram
+	 * @param policy What to drop when the I/O thread falls behind
+	 * @throws IOException If the socket cannot be opened
+	 */
+	public UdpPublisher(InetSocketAddress target, int queue, int datagramBytes, OVERFLOW policy) throws IOException {
+		this.target = target;
+		this.policy = policy;
+
+		List<String> names = LivePublisher.columnNames();
+		int size = Integer.highestOneBit(Math.max(2, queue - 1)) << 1;
+		rows = new double[size][names.size()];
+		updates = new long[size];
+		mask = size - 1;
+		head = new AtomicLong();
+		tail = new AtomicLong();
+
+		rowsPerBatch = (datagramBytes - BATCH_HEADER) / (Long.BYTES + names.size() * Double.BYTES);
+		if (rowsPerBatch < 1)
+			throw new IllegalArgumentException("Datagram of " + datagramBytes + " bytes cannot hold an update");
+		datagram = ByteBuffer.allocateDirect(datagramBytes);
+
+		//key table
+		keyTable = ByteBuffer.allocate(8 + names.size() * (2 + 32));
+		keyTable.put(KEYS).putInt(MAGIC).put(VERSION).putShort((short) names.size());
+		for (String name : names) {
+			byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+			keyTable.putShort((short) bytes.length).put(bytes);
+		} //loop
+		keyTable.flip();
+
+		channel = DatagramChannel.open();
+		running = true;
+		thread = new Thread(this::sendLoop, "UDP telemetry " + target);
+		thread.setDaemon(true);
+		thread.start();
+	} //end constructor
+
+	/**
+	 * Create a publisher with the default ring, datagram size and policy
+	 * @param target Address to send to
+	 * @throws IOException If the socket cannot be opened
+	 */
+	public UdpPublisher(InetSocketAddress target) throws IOException {
+		this(target, DEFAULT_QUEUE, DEFAULT_DATAGRAM, OVERFLOW.DROP_OLDEST);
+	} //end constructor
+
+	/**
+	 * Create a publisher if the autosim.udp property names an address
+	 * @return Publisher to host:port (or the loopback address if only a port is given), null if not set or unusable
+	 */
+	public static UdpPublisher fromProperty() {
+		String value = System.getProperty(PROPERTY);
+		if (value == null || value.isEmpty())
+			return null;
+
+		try {
+			int colon = value.lastIndexOf(':');
+			String host = colon < 0 ? null : value.substring(0, colon);
+			int port = Integer.parseInt(colon < 0 ? value : value.substring(colon + 1));
+			InetSocketAddress target = new InetSocketAddress(host == null ? InetAddress.getLoopbackAddress()
+					: InetAddress.getByName(host), port);
+
+			UdpPublisher p = new UdpPublisher(target);
+			Log.info(() -> "Publishing UDP telemetry to " + target);
+			return p;
+
+		} catch (IOException | NumberFormatException e) {
+			Log.warn("Could not publish UDP telemetry to " + value + ": " + e.getMessage());
+			return null;
+		} //try-catch
+	} //end fromProperty
+
+	/**
+	 * Queue the pose and data of the robot for sending, never waiting for the I/O thread
+	 * @param pose Pose of the robot
+	 * @param data Data of the robot, null if there is none
+	 * @param updates Number of updates the pose and data hold for, each one is sent
+	 */
+	@Override
+	public void record(Pose pose, HashMap<ROBOT_KEY, Object> data, int updates) {
+		for (int u = 0; u < updates; u++) {
+			long n = next++;
+			long h = head.get();
+
+			//a whole ring behind
+			if (h - tail.get() > mask) {
+				if (policy == OVERFLOW.DROP_NEWEST) {
+					dropped++;
+					continue;
+				} //if
+
+				//take the oldest slot back from the I/O thread, unless it has just sent it
+				long t = tail.get();
+				if (h - t > mask && tail.compareAndSet(t, t + 1))
+					dropped++;
+			} //if
+
+			int slot = (int) (h & mask);
+			fill(rows[slot], pose, data);
+			this.updates[slot] = n;
+			head.lazySet(h + 1); //release, the row is written before the I/O thread can see it
+		} //loop
+	} //end record
+
+	/**
+	 * Put the values of an update into a row
+	 * @param row Value of each column
+	 * @param pose Pose of the robot
+	 * @param data Data of the robot, null if there is none
+	 */
+	private static void fill(double[] row, Pose pose, HashMap<ROBOT_KEY, Object> data) {
+		row[0] = pose.getX();
+		row[1] = pose.getY();
+		row[2] = pose.getHeading();
+
+		int c = 3;
+		for (ROBOT_KEY k : LivePublisher.COLUMN_KEYS) {
+			Object v = data == null ? null : data.get(k);
+			if (LivePublisher.isPoint(k)) {
+				row[c++] = v instanceof Point ? ((Point) v).getX() : Double.NaN;
+				row[c++] = v instanceof Point ? ((Point) v).getY() : Double.NaN;
+			} else {
+				row[c++] = v instanceof Number ? ((Number) v).doubleValue() : v instanceof Color ? ((Color) v).getRGB() : Double.NaN;
+			} //if
+		} //loop
+	} //end fill
+
+	/**
+	 * Batch queued updates into datagrams until closed, run by the I/O thread
+	 */
+	private void sendLoop() {
+		int count = 0; //rows in the batch being built
+		try {
+			while (true) {
+				boolean stopping = !running; //read first, so everything queued before closing is sent
+				long t = tail.get();
+
+				if (t == head.get()) {
+					//nothing queued, send what there is rather than wait for a full batch
+					if (count > 0) {
+						send(count);
+						count = 0;
+					} //if
+					if (stopping)
+						break;
+
+					LockSupport.parkNanos(IDLE_NANOS);
+					continue;
+				} //if
+
+				//copy the row, keeping it only if DROP_OLDEST did not take the slot back meanwhile
+				int slot = (int) (t & mask);
+				int start = datagram.position();
+				if (count == 0)
+					datagram.clear().position(BATCH_HEADER);
+				datagram.putLong(updates[slot]);
+				for (double v : rows[slot]) {
+					datagram.putDouble(v);
+				} //loop
+
+				if (!tail.compareAndSet(t, t + 1)) {
+					datagram.position(count == 0 ? BATCH_HEADER : start);
+					continue;
+				} //if
+
+				if (++count == rowsPerBatch) {
+					send(count);
+					count = 0;
+				} //if
+			} //loop
+
+		} catch (IOException e) {
+			if (running)
+				Log.warn("UDP telemetry to " + target + " stopped: " + e.getMessage());
+		} //try-catch
+	} //end sendLoop
+
+	/**
+	 * Send the batch being built, with the key table first when it is due
+	 * @param count Rows in the batch
+	 * @throws IOException If the datagram cannot be sent
+	 */
+	private void send(int count) throws IOException {
+		if (batches % KEY_REPEAT == 0) {
+			channel.send(keyTable.duplicate(), target);
+			datagrams++;
+		} //if
+
+		datagram.put(0, VALUES).putInt(1, batches++).putShort(5, (short) count);
+		datagram.flip();
+		channel.send(datagram, target);
+		datagrams++;
+		sent += count;
+		datagram.clear();
+	} //end send
+
+	/**
+	 * Get the number of updates recorded
+	 * @return Updates given to the publisher
+	 */
+	public long size() {
+		return next;
+	} //end size
+
+	/**
+	 * Get the number of updates dropped because the I/O thread was a whole ring behind
+	 * @return Updates dropped by the overflow policy
+	 */
+	public long getDropped() {
+		return dropped;
+	} //end getDropped
+
+	/**
+	 * Get the number of updates sent
+	 * @return Updates in datagrams sent so far
+	 */
+	public long getSent() {
+		return sent;
+	} //end getSent
+
+	/**
+	 * Get the number of datagrams sent
+	 * @return Batches and key tables sent so far
+	 */
+	public long getDatagrams() {
+		return datagrams;
+	} //end getDatagrams
+
+	/**
+	 * Send everything queued, then stop the I/O thread and close the socket
+	 * @throws IOException If the socket cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		running = false;
+		try {
+			thread.join();
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+		} finally {
+			channel.close();
+		} //try-catch
+	} //end close
+
+	/**
+	 * Listens for published datagrams and measures the rate they arrive at and how many updates never arrived
+	 */
+	public static class Receiver implements Closeable {
+		//Attributes
+		private DatagramChannel channel; //socket datagrams arrive on
+		private Thread thread; //receives datagrams
+		private volatile List<String> names; //columns from the key table, null until one arrives
+		private volatile double[] latest; //values of the newest update received
+		private volatile long datagrams; //datagrams received
+		private volatile long rows; //updates received
+		private volatile long missing; //updates skipped over between received ones
+		private volatile long lastUpdate = -1; //index of the newest update received
+		private volatile long firstNanos, lastNanos; //times of the first and last datagram
+
+		/**
+		 * Start listening
+		 * @param address Address to listen on, port 0 for any free port
+		 * @throws IOException If the socket cannot be bound
+		 */
+		public Receiver(InetSocketAddress address) throws IOException {
+			channel = DatagramChannel.open();
+			channel.setOption(StandardSocketOptions.SO_RCVBUF, 1 << 22);
+			channel.bind(address);
+
+			thread = new Thread(this::receiveLoop, "UDP telemetry receiver");
+			thread.setDaemon(true);
+			thread.start();
+		} //end constructor
+
+		/**
+		 * Receive and count datagrams until closed
+		 */
+		private void receiveLoop() {
+			ByteBuffer in = ByteBuffer.allocate(1 << 16);
+			try {
+				while (true) {
+					in.clear();
+					channel.receive(in);
+					in.flip();
+
+					long now = System.nanoTime();
+					if (datagrams == 0)
+						firstNanos = now;
+					lastNanos = now;
+					datagrams++;
+
+					byte type = in.get();
+					if (type == KEYS && in.getInt() == MAGIC && in.get() == VERSION) {
+						List<String> keys = new ArrayList<String>();
+						for (int c = in.getShort(); c > 0; c--) {
+							byte[] name = new byte[in.getShort()];
+							in.get(name);
+							keys.add(new String(name, StandardCharsets.US_ASCII));
+						} //loop
+						names = keys;
+
+					} else if (type == VALUES && names != null) {
+						in.getInt(); //batch
+						int count = in.getShort();
+						double[] row = new double[names.size()];
+						for (int r = 0; r < count; r++) {
+							long update = in.getLong();
+							for (int c = 0; c < row.length; c++) {
+								row[c] = in.getDouble();
+							} //loop
+
+							if (lastUpdate >= 0 && update > lastUpdate + 1)
+								missing += update - lastUpdate - 1;
+							lastUpdate = Math.max(lastUpdate, update);
+							rows++;
+						} //loop
+						latest = row;
+					} //if
+				} //loop
+
+			} catch (ClosedChannelException e) {
+				//closed
+			} catch (IOException e) {
+				Log.warn("UDP telemetry receiver stopped: " + e.getMessage());
+			} //try-catch
+		} //end receiveLoop
+
+		/**
+		 * Get the port datagrams arrive on
+		 * @return Bound port
+		 * @throws IOException If the socket is closed
+		 */
+		public int getPort() throws IOException {
+			return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+		} //end getPort
+
+		/**
+		 * Get the rate datagrams arrived at
+		 * @return Datagrams per second between the first and the last, 0 before two have arrived
+		 */
+		public double getMessagesPerSecond() {
+			long nanos = lastNanos - firstNanos;
+			return nanos <= 0 ? 0 : (datagrams - 1) * 1e9 / nanos;
+		} //end getMessagesPerSecond
+
+		/**
+		 * Get the share of updates that never arrived, dropped by the publisher or lost on the way
+		 * @return Updates skipped over as a fraction of all updates since the first one received
+		 */
+		public double getDropRate() {
+			long total = rows + missing;
+			return total == 0 ? 0 : (double) missing / total;
+		} //end getDropRate
+
+		/**
+		 * Get the columns of the updates
+		 * @return Names from the key table, null until one has arrived
+		 */
+		public List<String> getNames() {
+			return names;
+		} //end getNames
+
+		/**
+		 * Get the values of the newest update received
+		 * @return Value of each column, null until an update has arrived
+		 */
+		public double[] getLatest() {
+			return latest;
+		} //end getLatest
+
+		/**
+		 * Get the index of the newest update received
+		 * @return Index of the update, -1 until one has arrived
+		 */
+		public long getLastUpdate() {
+			return lastUpdate;
+		} //end getLastUpdate
+
+		/**
+		 * Get the number of updates received
+		 * @return Updates received
+		 */
+		public long getRows() {
+			return rows;
+		} //end getRows
+
+		/**
+		 * Get the number of updates skipped over
+		 * @return Updates that never arrived between ones that did
+		 */
+		public long getMissing() {
+			return missing;
+		} //end getMissing
+
+		/**
+		 * Stop listening
+		 * @throws IOException If the socket cannot be closed
+		 */
+		@Override
+		public void close() throws IOException {
+			channel.close();
+			try {
+				thread.join();
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} //try-catch
+		} //end close
+	} //end Receiver
+
+	/**
+	 * Listen for telemetry and print the rate and drop rate every second
+	 * @param args Port to listen on, DEFAULT_PORT if not given
+	 * @throws Exception If the socket cannot be bound
+	 */
+	public static void main(String[] args) throws Exception {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		try (Receiver r = new Receiver(new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+			System.out.println("Listening on port " + r.getPort());
+			while (true) {
+				Thread.sleep(1000);
+				System.out.println(String.format("%,.0f datagrams/s, %,d updates, %.2f%% dropped, latest update %d",
+						r.getMessagesPerSecond(), r.getRows(), 100 * r.getDropRate(), r.getLastUpdate()));
+			} //loop
+		} //try
+	} //end main
+} //end class
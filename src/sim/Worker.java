@@ -0,0 +1,134 @@
+/**
+ * Worker
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Process that runs batch jobs sent over its standard input and writes the results to its standard output
+ */
+
+package sim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Scanner;
+
+import sim.BatchRunner.Job;
+import sim.BatchRunner.Result;
+import sim.BatchRunner.Status;
+
+public class Worker {
+	/*
+	 * Protocol, big-endian as written by DataOutputStream
+	 *   worker -> coordinator on start:  int MAGIC, byte VERSION
+	 *   coordinator -> worker:           byte JOB, int id, int length, length bytes of job file text (UTF-8)
+	 *                                    byte SHUTDOWN
+	 *   worker -> coordinator per job:   byte RESULT, int id, result as written by BatchRunner.Result.write
+	 * The job is sent as the text of a job file so the worker needs nothing but the stream to run it
+	 */
+
+	//Constants
+	public static final int MAGIC = 0x41534D57; //"ASMW", first thing a worker writes
+	public static final byte VERSION = 1; //version of the protocol
+	public static final byte JOB = 1; //job to run
+	public static final byte RESULT = 2; //result of a job
+	public static final byte SHUTDOWN = 3; //no more jobs, exit
+
+	/**
+	 * Write a job message
+	 * @param out Stream to the worker
+	 * @param id Id of the job, returned with its result
+	 * @param job Job to run
+	 * @throws IOException If the stream cannot be written
+	 */
+	public static void writeJob(DataOutputStream out, int id, Job job) throws IOException {
+		byte[] text = job.getText().getBytes(StandardCharsets.UTF_8);
+		out.writeByte(JOB);
+		out.writeInt(id);
+		out.writeInt(text.length);
+		out.write(text);
+		out.flush();
+	} //end writeJob
+
+	/**
+	 * Write a result message
+	 * @param out Stream to the coordinator
+	 * @param id Id of the job the result is for
+	 * @param r Result of the job
+	 * @throws IOException If the stream cannot be written
+	 */
+	public static void writeResult(DataOutputStream out, int id, Result r) throws IOException {
+		out.writeByte(RESULT);
+		out.writeInt(id);
+		r.write(out);
+		out.flush();
+	} //end writeResult
+
+	/**
+	 * Read the greeting a worker writes when it starts
+	 * @param in Stream from the worker
+	 * @throws IOException If the stream ends or is not from a worker speaking this version
+	 */
+	public static void readHello(DataInputStream in) throws IOException {
+		int magic = in.readInt();
+		byte version = in.readByte();
+		if (magic != MAGIC || version != VERSION)
+			throw new IOException(String.format("Not a worker (magic %08x, version %d)", magic, version));
+	} //end readHello
+
+	/**
+	 * Run jobs from standard input until told to shut down or the input ends
+	 * Anything printed while running goes to standard error so it cannot corrupt the results
+	 */
+	public static void main(String[] args) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+		System.setOut(System.err);
+		DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		out.flush();
+
+		try {
+			while (true) {
+				byte type = in.readByte();
+				if (type == SHUTDOWN)
+					break;
+				if (type != JOB)
+					throw new IOException("Unknown message " + type);
+
+				int id = in.readInt();
+				byte[] text = new byte[in.readInt()];
+				in.readFully(text);
+				writeResult(out, id, run(new String(text, StandardCharsets.UTF_8)));
+			} //loop
+		} catch (EOFException e) {
+			//the coordinator went away, nothing left to do
+		} //try-catch
+	} //end main
+
+	/**
+	 * Run a job from its text
+	 * @param text Text of a job file with one job
+	 * @return Result of the job, failed if the text is not a single job
+	 */
+	private static Result run(String text) {
+		List<Job> jobs;
+		try {
+			jobs = BatchRunner.readJobs(new Scanner(text));
+		} catch (IllegalArgumentException e) {
+			return new Result("?", Status.FAILED, 0, 0, Double.NaN, Double.NaN, Double.NaN, e.getMessage());
+		} //try-catch
+
+		if (jobs.size() != 1)
+			return new Result("?", Status.FAILED, 0, 0, Double.NaN, Double.NaN, Double.NaN, jobs.size() + " jobs sent");
+
+		return BatchRunner.runJob(jobs.get(0));
+	} //end run
+} //end class
@@ -0,0 +1,369 @@
+/**
+ * WorkerPool
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Run batch jobs across worker processes so a sweep is not limited to the memory of one JVM
+ */
+
+package sim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import sim.BatchRunner.Job;
+import sim.BatchRunner.Result;
+import sim.BatchRunner.ResultListener;
+import sim.BatchRunner.Status;
+import util.Util;
+
+public class WorkerPool {
+	//Constants
+	private static final int MAX_ATTEMPTS = 2; //times a job is sent before a crashing worker fails it
+	private static final long WATCH_MILLIS = 100; //time between checks for workers past their deadline
+
+	//Attributes
+	private int workers; //number of worker processes
+	private List<String> jvmArgs; //extra arguments for each worker JVM
+	private AtomicInteger restarts; //workers replaced after crashing or being killed
+	private long graceNanos; //real time past a job's timeout before its worker is killed
+
+	/**
+	 * Create a pool
+	 * @param workers Number of worker processes to run jobs on
+	 */
+	public WorkerPool(int workers) {
+		this.workers = Math.max(1, workers);
+		this.jvmArgs = new ArrayList<String>();
+		this.restarts = new AtomicInteger();
+		this.graceNanos = 5_000_000_000L;
+	} //end constructor
+
+	/**
+	 * Set extra arguments for each worker JVM
+	 * @param args JVM arguments (ie. "-Xmx256m")
+	 */
+	public void setJvmArgs(String ... args) {
+		this.jvmArgs = Arrays.asList(args);
+	} //end setJvmArgs
+
+	/**
+	 * Set how long past its timeout a job may run before its worker is killed
+	 * @param seconds Real time after the job's timeout, 5 by default
+	 */
+	public void setGrace(double seconds) {
+		this.graceNanos = (long) (seconds * 1E9);
+	} //end setGrace
+
+	/**
+	 * Get the number of workers replaced after crashing or being killed
+	 * @return Number of restarts since the pool was created
+	 */
+	public int getRestarts() {
+		return restarts.get();
+	} //end getRestarts
+
+	/**
+	 * Called on a slot's thread when a worker's answer has been read, before its job stops being watched
+	 * Does nothing, subclasses can use it to follow the pool's progress
+	 * @param job Index of the job that was answered
+	 */
+	protected void replied(int job) {}
+
+	/**
+	 * Get the command that starts a worker with the same classes as this JVM
+	 * @return Java executable, arguments and worker class
+	 */
+	private List<String> command() {
+		List<String> cmd = new ArrayList<String>();
+		cmd.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		cmd.add("-Djava.awt.headless=true");
+		cmd.add("-XX:+ExitOnOutOfMemoryError"); //a worker out of memory exits and is replaced
+		cmd.addAll(jvmArgs);
+
+		//run on the module path if this JVM is, otherwise the class path
+		String modulePath = System.getProperty("jdk.module.path");
+		if (modulePath != null && !modulePath.isEmpty()) {
+			cmd.addAll(Arrays.asList("-p", modulePath, "-m", Worker.class.getModule().getName() + "/" + Worker.class.getName()));
+		} else {
+			cmd.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), Worker.class.getName()));
+		} //if
+
+		return cmd;
+	} //end command
+
+	/**
+	 * Run jobs across the workers, handing each result to the listener as soon as its job ends
+	 * @param jobs Jobs to run
+	 * @param listener Receives each result, must be safe to call from several threads
+	 * @return Results in the order the jobs ended
+	 */
+	public List<Result> run(List<Job> jobs, ResultListener listener) {
+		Queue<Integer> queue = new ConcurrentLinkedQueue<Integer>();
+		for (int i = 0; i < jobs.size(); i++) {
+			queue.add(i);
+		} //loop
+		AtomicIntegerArray attempts = new AtomicIntegerArray(jobs.size());
+		List<Result> results = Collections.synchronizedList(new ArrayList<Result>());
+
+		//one thread feeds each worker, taking the next job when its last one returns
+		Slot[] slots = new Slot[Math.min(workers, Math.max(1, jobs.size()))];
+		Thread[] threads = new Thread[slots.length];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = new Slot(jobs, queue, attempts, r -> {
+				results.add(r);
+				listener.completed(r);
+			});
+			threads[i] = new Thread(slots[i], "Worker " + i);
+			threads[i].start();
+		} //loop
+
+		//kill workers that run past their deadline, failing the job and freeing the slot
+		Thread watchdog = new Thread(() -> {
+			try {
+				while (true) {
+					for (Slot s : slots) {
+						s.watch();
+					} //loop
+					Thread.sleep(WATCH_MILLIS);
+				} //loop
+			} catch (InterruptedException e) {
+				//the run is over
+			} //try-catch
+		}, "Worker watchdog");
+		watchdog.setDaemon(true);
+		watchdog.start();
+
+		try {
+			for (Thread t : threads) {
+				t.join();
+			} //loop
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			watchdog.interrupt();
+			for (Slot s : slots) {
+				s.stopWorker();
+			} //loop
+		} //try
+
+		return results;
+	} //end run
+
+	/**
+	 * A worker process and the thread feeding it jobs
+	 */
+	private class Slot implements Runnable {
+		//Attributes
+		private List<Job> jobs; //every job of the run
+		private Queue<Integer> queue; //indices of the jobs left to run
+		private AtomicIntegerArray attempts; //times each job has been sent to a worker that crashed
+		private ResultListener listener; //receives each result
+
+		private volatile Process process; //running worker, null if there is none
+		private DataInputStream in; //results from the worker
+		private DataOutputStream out; //jobs to the worker
+		private volatile long deadline; //time the current job must return by, in nanoseconds
+		private boolean killed; //whether the watchdog killed the worker, guarded by the slot with deadline
+
+		/**
+		 * Create a slot with no worker running
+		 * @param jobs Every job of the run
+		 * @param queue Indices of the jobs left to run
+		 * @param attempts Times each job has been sent to a worker that crashed
+		 * @param listener Receives each result
+		 */
+		private Slot(List<Job> jobs, Queue<Integer> queue, AtomicIntegerArray attempts, ResultListener listener) {
+			this.jobs = jobs;
+			this.queue = queue;
+			this.attempts = attempts;
+			this.listener = listener;
+			this.deadline = Long.MAX_VALUE;
+		} //end constructor
+
+		/**
+		 * Run jobs until the queue is empty, replacing the worker whenever it dies
+		 */
+		public void run() {
+			Integer i;
+			while ((i = queue.poll()) != null) {
+				Job job = jobs.get(i);
+				long start = System.nanoTime();
+				deadline = start + (long) (job.getTimeout() * 1E9) + graceNanos;
+
+				try {
+					if (process == null)
+						startWorker();
+
+					Worker.writeJob(out, i, job);
+					if (in.readByte() != Worker.RESULT || in.readInt() != i)
+						throw new IOException("Worker out of step");
+					Result r = Result.read(in);
+					replied(i);
+
+					//the watchdog may have killed the worker just as its answer arrived, the answer still stands
+					if (endJob()) {
+						process.destroyForcibly();
+						process = null; //replaced before the next job
+						restarts.incrementAndGet();
+					} //if
+					listener.completed(r);
+
+				} catch (IOException e) {
+					//the worker crashed, was killed or cannot be started, so start over with a new one
+					boolean timedOut = endJob();
+					String reason = destroyWorker(e);
+					restarts.incrementAndGet();
+
+					if (timedOut) {
+						listener.completed(failed(job, Status.TIMEOUT, start, "worker killed after " + job.getTimeout() + "s"));
+					} else if (attempts.incrementAndGet(i) < MAX_ATTEMPTS) {
+						queue.add(i);
+					} else {
+						listener.completed(failed(job, Status.FAILED, start, reason));
+					} //if
+				} //try-catch
+			} //loop
+		} //end run
+
+		/**
+		 * Stop watching the current job, so the watchdog cannot kill the worker once this returns
+		 * @return True if the watchdog killed the worker first
+		 */
+		private synchronized boolean endJob() {
+			deadline = Long.MAX_VALUE;
+			boolean wasKilled = killed;
+			killed = false;
+			return wasKilled;
+		} //end endJob
+
+		/**
+		 * Create the result of a job whose worker died
+		 * @param job Job that was running
+		 * @param status How the job ended
+		 * @param start Time the job was sent in nanoseconds
+		 * @param message Reason the job ended
+		 * @return Result with no final pose
+		 */
+		private Result failed(Job job, Status status, long start, String message) {
+			return new Result(job.getName(), status, 0, System.nanoTime() - start, Double.NaN, Double.NaN, Double.NaN, message);
+		} //end failed
+
+		/**
+		 * Start a worker process and wait for its greeting
+		 * @throws IOException If the worker cannot be started or does not speak the protocol
+		 */
+		private void startWorker() throws IOException {
+			ProcessBuilder pb = new ProcessBuilder(command());
+			pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+			process = pb.start();
+
+			in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+			out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+			Worker.readHello(in);
+		} //end startWorker
+
+		/**
+		 * Kill the worker if its job is past the deadline, checked under the same lock as the job ending
+		 */
+		private synchronized void watch() {
+			Process p = process;
+			if (p != null && System.nanoTime() > deadline) {
+				killed = true;
+				p.destroyForcibly();
+			} //if
+		} //end watch
+
+		/**
+		 * Kill the worker after it stopped answering
+		 * @param e Error from the worker's streams
+		 * @return Exit code of the worker if it exited by itself, otherwise the error
+		 */
+		private String destroyWorker(IOException e) {
+			Process p = process;
+			process = null;
+			if (p == null)
+				return e.getMessage();
+
+			//a crashing worker may still be writing its last words, so give it a moment to exit
+			try {
+				if (p.waitFor(1, TimeUnit.SECONDS))
+					return "worker exited with code " + p.exitValue();
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			} //try-catch
+
+			p.destroyForcibly();
+			return e.getMessage();
+		} //end destroyWorker
+
+		/**
+		 * Ask the worker to exit, killing it if it does not
+		 */
+		private void stopWorker() {
+			Process p = process;
+			if (p == null)
+				return;
+
+			try {
+				out.writeByte(Worker.SHUTDOWN);
+				out.flush();
+				if (!p.waitFor(1, TimeUnit.SECONDS))
+					p.destroyForcibly();
+			} catch (IOException e) {
+				p.destroyForcibly();
+			} catch (InterruptedException e) {
+				p.destroyForcibly();
+				Thread.currentThread().interrupt();
+			} //try-catch
+			process = null;
+		} //end stopWorker
+	} //end Slot
+
+	/**
+	 * Run a job file across worker processes, writing results as they arrive and the throughput at the end
+	 * Arguments: job file, number of workers (all processors if left out), then any JVM arguments for the workers
+	 */
+	public static void main(String[] args) {
+		String jobFile = args.length > 0 ? args[0] : Util.UTIL_DIR + "example.jobs";
+		int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		List<Job> jobs;
+		try (Scanner s = new Scanner(new File(jobFile))) {
+			jobs = BatchRunner.readJobs(s);
+		} catch (FileNotFoundException e) {
+			Util.println("Could not find", jobFile);
+			return;
+		} //try-catch
+
+		WorkerPool pool = new WorkerPool(workers);
+		if (args.length > 2)
+			pool.setJvmArgs(Arrays.copyOfRange(args, 2, args.length));
+
+		System.out.println(BatchRunner.HEADER);
+		long start = System.nanoTime();
+		List<Result> res = pool.run(jobs, r -> {
+			synchronized (System.out) {
+				System.out.println(r);
+			} //sync
+		});
+		double seconds = (System.nanoTime() - start) / 1E9;
+
+		System.out.println(String.format("Ran %d jobs in %.2fs on %d workers: %.1f jobs/s (%d restarts)",
+				res.size(), seconds, workers, res.size() / seconds, pool.getRestarts()));
+	} //end main
+} //end class
@@ -0,0 +1,364 @@
+/**
+ * Benchmark
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Measure the throughput, latency and allocation of operations and compare them to a saved baseline
+ */
+
+package util;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+import com.sun.management.ThreadMXBean;
+
+public class Benchmark {
+	//Constants
+	private static final ThreadMXBean THREADS = ManagementFactory.getPlatformMXBean(ThreadMXBean.class); //allocation counters
+
+	//Attributes
+	//Configured
+	private long warmupNanos; //time to run each operation before measuring it
+	private long measureNanos; //time to measure each operation for
+	private long batchNanos; //shortest time for one timed batch of calls
+	private LinkedHashMap<String, Operation> operations; //operations to measure by name, in the order added
+
+	//Calculated
+	private double sink; //sum of every result so the work cannot be optimized away
+
+	/**
+	 * Operation to be measured
+	 */
+	public interface Operation {
+		/**
+		 * Run the operation once
+		 * @return Any value that depends on the work done
+		 */
+		double run();
+	} //end Operation
+
+	/**
+	 * Creates an operation for a parameter
+	 * @param <P> Type of the parameter
+	 */
+	public interface Parameterized<P> {
+		/**
+		 * Set up an operation
+		 * @param param Parameter to set it up with
+		 * @return Operation to measure
+		 */
+		Operation create(P param);
+	} //end Parameterized
+
+	/**
+	 * Create a benchmark
+	 * @param warmupSeconds Time to run each operation before measuring it in seconds
+	 * @param measureSeconds Time to measure each operation for in seconds
+	 */
+	public Benchmark(double warmupSeconds, double measureSeconds) {
+		this.warmupNanos = (long) (warmupSeconds * 1E9);
+		this.measureNanos = (long) (measureSeconds * 1E9);
+		this.batchNanos = 50_000; //50us, well above the cost of reading the clock
+		this.operations = new LinkedHashMap<String, Operation>();
+	} //end constructor
+
+	/**
+	 * Add an operation to measure
+	 * @param name Name of the operation, without spaces
+	 * @param op Operation to measure
+	 */
+	public void add(String name, Operation op) {
+		operations.put(name, op);
+	} //end add
+
+	/**
+	 * Add an operation for each of a set of parameters, named name[param]
+	 * @param <P> Type of the parameters
+	 * @param name Name of the operation, without spaces
+	 * @param params Parameters to set the operation up with, without spaces in their names
+	 * @param setup Creates the operation for a parameter
+	 */
+	public <P> void add(String name, P[] params, Parameterized<P> setup) {
+		for (P p : params) {
+			operations.put(name + "[" + p + "]", setup.create(p));
+		} //loop
+	} //end add
+
+	/**
+	 * Get the names of the operations added
+	 * @return Names in the order they were added
+	 */
+	public List<String> getNames() {
+		return new ArrayList<String>(operations.keySet());
+	} //end getNames
+
+	/**
+	 * Result of measuring one operation
+	 */
+	public static class Result {
+		//Attributes
+		private String name; //name of the operation
+		private double opsPerSec; //calls per second
+		private double p50; //median time per call in nanoseconds
+		private double p90; //90th percentile time per call in nanoseconds
+		private double p99; //99th percentile time per call in nanoseconds
+		private double bytesPerOp; //bytes allocated per call, NaN if it could not be measured
+
+		/**
+		 * Create a result
+		 * @param name Name of the operation
+		 * @param opsPerSec Calls per second
+		 * @param p50 Median time per call in nanoseconds
+		 * @param p90 90th percentile time per call in nanoseconds
+		 * @param p99 99th percentile time per call in nanoseconds
+		 * @param bytesPerOp Bytes allocated per call
+		 */
+		public Result(String name, double opsPerSec, double p50, double p90, double p99, double bytesPerOp) {
+			this.name = name;
+			this.opsPerSec = opsPerSec;
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p99 = p99;
+			this.bytesPerOp = bytesPerOp;
+		} //end constructor
+
+		/**
+		 * Get the name of the operation
+		 * @return Name the operation was added with
+		 */
+		public String getName() {
+			return name;
+		} //end getName
+
+		/**
+		 * Get the throughput of the operation
+		 * @return Calls per second
+		 */
+		public double getOpsPerSec() {
+			return opsPerSec;
+		} //end getOpsPerSec
+
+		/**
+		 * Get a percentile of the time per call
+		 * @param p Percentile, one of 50, 90 or 99
+		 * @return Time per call in nanoseconds
+		 */
+		public double getLatency(int p) {
+			return p >= 99 ? p99 : p >= 90 ? p90 : p50;
+		} //end getLatency
+
+		/**
+		 * Get the allocation of the operation
+		 * @return Bytes allocated per call, NaN if it could not be measured
+		 */
+		public double getBytesPerOp() {
+			return bytesPerOp;
+		} //end getBytesPerOp
+
+		/**
+		 * Get the result as a line of the baseline file
+		 * @return Name, throughput, latencies and allocation separated by spaces
+		 */
+		public String toString() {
+			return String.format("%s %.1f %.1f %.1f %.1f %.1f", name, opsPerSec, p50, p90, p99, bytesPerOp);
+		} //end toString
+	} //end Result
+
+	/**
+	 * Measure an operation
+	 * Calls are timed in batches long enough for the clock to be accurate, so the latency percentiles
+	 * are of the average time per call in each batch
+	 * @param name Name of the operation
+	 * @param op Operation to measure
+	 * @return Throughput, latency and allocation of the operation
+	 */
+	public Result measure(String name, Operation op) {
+		//double the batch size until one batch is long enough to time
+		int batch = 1;
+		while (timeBatch(op, batch) < batchNanos && batch < (1 << 30)) {
+			batch *= 2;
+		} //loop
+
+		//warm up so the measured code is compiled
+		for (long start = System.nanoTime(); System.nanoTime() - start < warmupNanos;) {
+			timeBatch(op, batch);
+		} //loop
+
+		//room for every batch up front so the measurement does not allocate
+		double[] samples = new double[(int) (measureNanos / batchNanos) + 16];
+		int n = 0;
+		long ops = 0;
+		long total = 0;
+		long startBytes = allocatedBytes();
+
+		while (total < measureNanos && n < samples.length) {
+			long t = timeBatch(op, batch);
+			samples[n++] = (double) t / batch;
+			ops += batch;
+			total += t;
+		} //loop
+
+		long bytes = allocatedBytes() - startBytes;
+
+		//latencies from the sorted batch averages
+		Arrays.sort(samples, 0, n);
+		double[] sorted = Arrays.copyOf(samples, n);
+		double bytesPerOp = startBytes < 0 ? Double.NaN : (double) bytes / ops;
+
+		return new Result(name, ops / (total / 1E9), Util.percentile(sorted, 50), Util.percentile(sorted, 90),
+				Util.percentile(sorted, 99), bytesPerOp);
+	} //end measure
+
+	/**
+	 * Time a batch of calls
+	 * @param op Operation to call
+	 * @param batch Number of calls
+	 * @return Time taken for all the calls in nanoseconds
+	 */
+	private long timeBatch(Operation op, int batch) {
+		double sum = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < batch; i++) {
+			sum += op.run();
+		} //loop
+		long time = System.nanoTime() - start;
+
+		sink += sum;
+		return time;
+	} //end timeBatch
+
+	/**
+	 * Get the bytes allocated by this thread so far
+	 * @return Bytes allocated, -1 if the JVM cannot measure it
+	 */
+	static long allocatedBytes() {
+		if (THREADS == null || !THREADS.isThreadAllocatedMemorySupported())
+			return -1;
+
+		return THREADS.getCurrentThreadAllocatedBytes();
+	} //end allocatedBytes
+
+	/**
+	 * Measure every operation with a name containing a filter
+	 * @param filter Text the names must contain, empty for all of them
+	 * @return Result of each operation in the order they were added
+	 */
+	public List<Result> run(String filter) {
+		List<Result> results = new ArrayList<Result>();
+		for (Map.Entry<String, Operation> e : operations.entrySet()) {
+			if (e.getKey().contains(filter)) {
+				results.add(measure(e.getKey(), e.getValue()));
+			} //if
+		} //loop
+
+		return results;
+	} //end run
+
+	/**
+	 * Get the sum of every result, which keeps the measured work from being optimized away
+	 * @return Sum of the values returned by the operations
+	 */
+	public double getSink() {
+		return sink;
+	} //end getSink
+
+	//Baselines
+
+	/**
+	 * Save results as a baseline
+	 * @param results Results to save
+	 * @param filename Path of the baseline file
+	 * @return True if the file was written, false if not
+	 */
+	public static boolean saveBaseline(List<Result> results, String filename) {
+		try {
+			PrintWriter pw = new PrintWriter(new File(filename));
+			pw.println("#name ops/s p50(ns) p90(ns) p99(ns) bytes/op");
+			for (Result r : results) {
+				pw.println(r);
+			} //loop
+			pw.close();
+			return true;
+
+		} catch (FileNotFoundException e) {
+			Util.println("Could not write", filename);
+			return false;
+		} //try-catch
+	} //end saveBaseline
+
+	/**
+	 * Read a saved baseline
+	 * @param filename Path of the baseline file
+	 * @return Results by name, empty if there is no baseline
+	 */
+	public static Map<String, Result> loadBaseline(String filename) {
+		Map<String, Result> baseline = new LinkedHashMap<String, Result>();
+
+		try {
+			Scanner s = new Scanner(new File(filename));
+			while (s.hasNextLine()) {
+				String line = s.nextLine().trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+
+				String[] tokens = line.split("\\s+");
+				baseline.put(tokens[0], new Result(tokens[0], Double.parseDouble(tokens[1]), Double.parseDouble(tokens[2]),
+						Double.parseDouble(tokens[3]), Double.parseDouble(tokens[4]), Double.parseDouble(tokens[5])));
+			} //loop
+			s.close();
+
+		} catch (FileNotFoundException e) {
+			//no baseline yet
+		} //try-catch
+
+		return baseline;
+	} //end loadBaseline
+
+	/**
+	 * Check if a result is worse than its baseline
+	 * @param current Newly measured result
+	 * @param baseline Saved result of the same operation
+	 * @param tolerance Fraction the result may be worse by before it counts, such as 0.1 for 10%
+	 * @return True if the throughput dropped or the allocation grew by more than the tolerance
+	 */
+	public static boolean isRegression(Result current, Result baseline, double tolerance) {
+		boolean slower = current.opsPerSec < baseline.opsPerSec * (1 - tolerance);
+
+		//allow a few bytes either way so an operation that allocates nothing is not flagged by noise
+		boolean heavier = current.bytesPerOp > baseline.bytesPerOp * (1 + tolerance) + 8;
+
+		return slower || heavier;
+	} //end isRegression
+
+	/**
+	 * Create a table of results compared to a baseline
+	 * @param results Newly measured results
+	 * @param baseline Saved results by name
+	 * @param tolerance Fraction a result may be worse by before it is flagged
+	 * @return One row per result with its change in throughput and a flag if it regressed
+	 */
+	public static String report(List<Result> results, Map<String, Result> baseline, double tolerance) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-52s %14s %10s %10s %10s %10s %9s%n",
+				"Benchmark", "ops/s", "p50(ns)", "p90(ns)", "p99(ns)", "B/op", "vs base"));
+
+		for (Result r : results) {
+			Result base = baseline.get(r.name);
+			String change = base == null ? "new" : String.format("%+.1f%%", 100 * (r.opsPerSec / base.opsPerSec - 1));
+			String flag = base != null && isRegression(r, base, tolerance) ? "  REGRESSION" : "";
+
+			sb.append(String.format("%-52s %14.1f %10.1f %10.1f %10.1f %10.1f %9s%s%n",
+					r.name, r.opsPerSec, r.p50, r.p90, r.p99, r.bytesPerOp, change, flag));
+		} //loop
+
+		return sb.toString();
+	} //end report
+} //end class
@@ -0,0 +1,305 @@
+/**
+ * BenchmarkSuite
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Benchmarks of the simulator's hot paths, compared against the saved baseline
+ */
+
+package util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import commands.Command;
+import commands.DriveDistance;
+import commands.TurnAngle;
+import model.DriveLoop;
+import model.DriveLoop.STATE;
+import model.FieldPositioning;
+import model.Gearbox;
+import model.Motor;
+import model.PIDController;
+import model.Point;
+import model.Pose;
+import model.Robot;
+import model.motion.BezierPath;
+import model.motion.BezierProfile;
+import model.motion.PurePursuitController;
+import model.motion.PursuitPath;
+import sim.NoisyRobot;
+import util.Benchmark.Result;
+
+public class BenchmarkSuite {
+	//Constants
+	public static final String BASELINE_FILE = Util.UTIL_DIR + "benchmarks.baseline"; //saved results to compare to
+	public static final double TOLERANCE = 0.15; //fraction a result may be worse by before it is flagged
+
+	/**
+	 * Get every curve in FieldPoints, so new curves are benchmarked without changing the suite
+	 * @return Control points of each curve by name
+	 */
+	public static Map<String, Point[]> getCurves() {
+		Map<String, Point[]> curves = new LinkedHashMap<String, Point[]>();
+
+		for (Field f : FieldPoints.class.getFields()) {
+			if (!Modifier.isStatic(f.getModifiers()) || f.getName().equals("empty"))
+				continue;
+
+			try {
+				if (f.getType() == double[][].class) {
+					curves.put(f.getName(), FieldPositioning.pointsFromDoubles((double[][]) f.get(null)));
+				} else if (f.getType() == Point[].class) {
+					curves.put(f.getName(), (Point[]) f.get(null));
+				} //if
+			} catch (IllegalAccessException e) {
+				Util.println("Could not read curve", f.getName());
+			} //try-catch
+		} //loop
+
+		return curves;
+	} //end getCurves
+
+	/**
+	 * Create the robot every benchmark drives
+	 * @return 4" wheel, 153lb, 30"x30" robot with two NEOs a side
+	 */
+	static Robot createRobot() {
+		Gearbox gb = new Gearbox(8.5521, new Motor(Util.NEO), 2);
+		return new Robot(4, 153, 30, 30, gb);
+	} //end createRobot
+
+	/**
+	 * Create a loop for a robot with the default gains
+	 * @param r Robot to control
+	 * @return Loop with driving and turning PID controllers
+	 */
+	static DriveLoop createLoop(Robot r) {
+		PIDController drivePID = new PIDController(Util.kP_DRIVE, Util.kI_DRIVE, Util.kD_DRIVE, r.getMaxLinSpeed());
+		PIDController turnPID = new PIDController(Util.kP_TURN, Util.kI_TURN, Util.kD_TURN, r.getMaxLinSpeed());
+		DriveLoop loop = new DriveLoop(r, drivePID, turnPID);
+		loop.setFFValues(Util.kV_EMPIR, Util.kA_EMPIR);
+
+		return loop;
+	} //end createLoop
+
+	/**
+	 * Get the waypoints along a curve for pure pursuit
+	 * @param curve Control points of the curve
+	 * @return Points 24" apart along the curve
+	 */
+	private static Point[] createWaypoints(Point[] curve) {
+		return new PursuitPath(curve, 30, 12, 200, 200, 24).getPoints();
+	} //end createWaypoints
+
+	/**
+	 * Create a pure pursuit controller following waypoints
+	 * @param waypoints Points to follow
+	 * @return Controller with the same constants as AutoSim
+	 */
+	private static PurePursuitController createController(Point[] waypoints) {
+		PurePursuitController ppc = new PurePursuitController();
+		ppc.setSeekConstants(0.25, 50, 12, false);
+		ppc.setArriveConstants(30, 3);
+		ppc.setPurePursuitConstants(30);
+		ppc.setWaypoints(waypoints);
+
+		return ppc;
+	} //end createController
+
+	/**
+	 * Add every benchmark to a harness
+	 * @param b Harness to add to
+	 */
+	public static void addAll(Benchmark b) {
+		Map<String, Point[]> curves = getCurves();
+		String[] curveNames = curves.keySet().toArray(new String[0]);
+
+		//robot physics
+		b.add("Robot.update", new String[] {"Robot", "NoisyRobot"}, type -> {
+			Robot r = type.equals("Robot") ? createRobot() : new NoisyRobot(4, 153, 30, 30,
+					new Gearbox(8.5521, new Motor(Util.NEO), 2), new SplittableRandom(0), 0.1, 0.1, 0.01, 0.1);
+			return () -> {
+				r.update(12, 11);
+				return r.getLinearVel();
+			};
+		});
+
+		//state machine
+		b.add("DriveLoop.onLoop", STATE.values(), state -> {
+			DriveLoop loop = createLoop(createRobot());
+			setState(loop, state, curves.values().iterator().next());
+			return () -> {
+				loop.onLoop();
+				return loop.getRobot().getAveragePos();
+			};
+		});
+
+		//curve math, sweeping t from 0 to 1
+		b.add("BezierPath.calcPoint", curveNames, name -> {
+			BezierPath path = new BezierPath(curves.get(name));
+			int[] i = {0};
+			return () -> path.calcPoint((i[0]++ % 1001) / 1000.0).getX();
+		});
+		b.add("BezierPath.calcRadius", curveNames, name -> {
+			BezierPath path = new BezierPath(curves.get(name));
+			int[] i = {0};
+			return () -> path.calcRadius((i[0]++ % 1001) / 1000.0);
+		});
+		b.add("BezierPath.calcHeading", curveNames, name -> {
+			BezierPath path = new BezierPath(curves.get(name));
+			int[] i = {0};
+			return () -> path.calcHeading((i[0]++ % 1001) / 1000.0);
+		});
+
+		//trajectory generation
+		b.add("BezierProfile.new", curveNames, name -> {
+			Point[] curve = curves.get(name);
+			return () -> new BezierProfile(curve, 30, 12 * 12, 200, 200).getSize();
+		});
+		b.add("PursuitPath.new", curveNames, name -> {
+			Point[] curve = curves.get(name);
+			return () -> new PursuitPath(curve, 30, 12 * 12, 200, 200, 6).getPoints().length;
+		});
+
+		//pure pursuit, replaying the poses of one run along the curve
+		b.add("PurePursuitController.calcOutputs", curveNames, name -> {
+			Point[] waypoints = createWaypoints(curves.get(name));
+			PurePursuitController ppc = createController(waypoints);
+			List<Pose> poses = new ArrayList<Pose>();
+			List<Double> speeds = new ArrayList<Double>();
+			recordPursuit(createController(waypoints), poses, speeds);
+
+			int[] i = {0};
+			return () -> {
+				//start the run over once every pose has been replayed
+				if (i[0] == poses.size()) {
+					ppc.setWaypoints(waypoints);
+					ppc.reset();
+					i[0] = 0;
+				} //if
+				ppc.calcOutputs(poses.get(i[0]), speeds.get(i[0]));
+				i[0]++;
+				return ppc.getAngOut();
+			};
+		});
+
+		//searching sorted arrays
+		b.add("Util.findSandwichedElements", new Integer[] {10, 100, 1000}, n -> {
+			double[] list = Util.indexArray(n);
+			int[] i = {0};
+			return () -> Util.findSandwichedElements(list, (i[0]++ * 0.37) % n, 1E-3)[0];
+		});
+
+		//whole commands
+		b.add("Command.run", new String[] {"DriveDistance", "TurnAngle", "DriveDistanceRecorded"}, name -> {
+			DriveLoop loop = createLoop(createRobot());
+			Command c = name.startsWith("DriveDistance") ? new DriveDistance(loop, 100, 1, 12)
+														: new TurnAngle(loop, 90, 1, 12, true);
+			c.setRecording(name.endsWith("Recorded"));
+			return () -> {
+				c.run();
+				return c.getIterations();
+			};
+		});
+	} //end addAll
+
+	/**
+	 * Put a loop into a state with targets it will not reach
+	 * @param loop Loop to set up
+	 * @param state State to put it in
+	 * @param curve Curve to follow in the pure pursuit state
+	 */
+	static void setState(DriveLoop loop, STATE state, Point[] curve) {
+		switch (state) {
+			case WAITING:
+				loop.setState(STATE.WAITING);
+				break;
+
+			case DRIVE_TO_GOAL:
+				loop.setDriveToGoalState(1E6, 0, 1, 12, 0, false);
+				break;
+
+			case DRIVE_DISTANCE:
+				loop.setDriveDistanceState(1E6, 12, 1);
+				break;
+
+			case TURN_ANGLE:
+				loop.setTurnAngleState(1E6, 12, 1, true);
+				break;
+
+			case OPEN_LOOP_PROFILE:
+				loop.setOpenLoopProfileState();
+				loop.updateOpenLoopProfileState(new double[] {0, 6, 1}, new double[] {0, 6, 1});
+				break;
+
+			case CLOSED_LOOP_LINEAR_PROFILE:
+				loop.setClosedLoopLinearProfileState(1, 1E6, 0);
+				loop.updateClosedLoopLinearProfileState(new double[] {10, 6, 1}, new double[] {10, 6, 1});
+				break;
+
+			case PURE_PURSUIT:
+				loop.setPurePursuitController(createController(createWaypoints(curve)));
+				loop.setState(STATE.PURE_PURSUIT);
+				loop.updatePurePursuitState(loop.getRobot().getPose(), 0);
+				break;
+		} //switch
+	} //end setState
+
+	/**
+	 * Drive a robot along a controller's waypoints, saving what the controller was given each update
+	 * @param ppc Controller to follow
+	 * @param poses Filled with the robot's pose at each update
+	 * @param speeds Filled with the robot's speed at each update
+	 */
+	private static void recordPursuit(PurePursuitController ppc, List<Pose> poses, List<Double> speeds) {
+		Robot r = createRobot();
+		DriveLoop loop = createLoop(r);
+		loop.setPurePursuitController(ppc);
+		loop.setState(STATE.PURE_PURSUIT);
+		r.setXY(ppc.getGoal());
+
+		//stop at the end of the path or after ten seconds
+		for (int i = 0; i < 2000 && !ppc.isArrived(); i++) {
+			poses.add(r.getPose());
+			speeds.add(r.getLinearVel());
+			loop.updatePurePursuitState(poses.get(i), speeds.get(i));
+			loop.onLoop();
+		} //loop
+	} //end recordPursuit
+
+	/**
+	 * Run the benchmarks and compare them to the baseline
+	 * Arguments: "save" to replace the baseline with the results, anything else runs only the names containing it
+	 */
+	public static void main(String[] args) {
+		boolean save = false;
+		String filter = "";
+		for (String a : args) {
+			if (a.equals("save"))
+				save = true;
+			else
+				filter = a;
+		} //loop
+
+		Benchmark b = new Benchmark(0.5, 1);
+		addAll(b);
+
+		List<Result> results = b.run(filter);
+		System.out.print(Benchmark.report(results, Benchmark.loadBaseline(BASELINE_FILE), TOLERANCE));
+		System.out.println(String.format("(sink %.1f)", b.getSink()));
+
+		//replace only the results that were run
+		if (save) {
+			Map<String, Result> baseline = Benchmark.loadBaseline(BASELINE_FILE);
+			for (Result r : results) {
+				baseline.put(r.getName(), r);
+			} //loop
+			Util.println("Baseline saved: " + Benchmark.saveBaseline(new ArrayList<Result>(baseline.values()), BASELINE_FILE));
+		} //if
+	} //end main
+} //end class
@@ -0,0 +1,193 @@
+/**
+ * Events
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Flight recorder events for simulation activity, recorded alongside the JVM's GC and CPU samples
+ */
+
+package util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+public class Events {
+	//Constants
+	private static final String CATEGORY = "AutoSim"; //category all the events are grouped under
+
+	/**
+	 * A command running from start to finish
+	 */
+	@Name("autosim.Command")
+	@Label("Command")
+	@Category(CATEGORY)
+	@Description("Command from start to finish")
+	@StackTrace(false)
+	public static class CommandEvent extends Event {
+		@Label("Name")
+		private String name; //name of the command
+
+		@Label("Iterations")
+		private int iterations; //updates the command ran for
+
+		/**
+		 * Set the details of the command
+		 * @param name Name of the command
+		 * @param iterations Updates the command ran for
+		 */
+		public void set(String name, int iterations) {
+			this.name = name;
+			this.iterations = iterations;
+		} //end set
+	} //end CommandEvent
+
+	/**
+	 * The drive loop changing states
+	 */
+	@Name("autosim.StateTransition")
+	@Label("Drive Loop State Transition")
+	@Category(CATEGORY)
+	@Description("DriveLoop moving from one state to another")
+	@StackTrace(false)
+	public static class StateTransitionEvent extends Event {
+		@Label("From")
+		private String from; //state before the transition
+
+		@Label("To")
+		private String to; //state after the transition
+
+		/**
+		 * Set the states of the transition
+		 * @param from State before the transition
+		 * @param to State after the transition
+		 */
+		public void set(String from, String to) {
+			this.from = from;
+			this.to = to;
+		} //end set
+	} //end StateTransitionEvent
+
+	/**
+	 * A trajectory being generated
+	 */
+	@Name("autosim.TrajectoryGeneration")
+	@Label("Trajectory Generation")
+	@Category(CATEGORY)
+	@Description("Profile or path generated from a curve")
+	@StackTrace(false)
+	public static class TrajectoryEvent extends Event {
+		@Label("Type")
+		private String type; //kind of trajectory
+
+		@Label("Points")
+		private int points; //number of points generated
+
+		/**
+		 * Set the details of the trajectory
+		 * @param type Kind of trajectory
+		 * @param points Number of points generated
+		 */
+		public void set(String type, int points) {
+			this.type = type;
+			this.points = points;
+		} //end set
+	} //end TrajectoryEvent
+
+	/**
+	 * The pure pursuit controller moving on to its next goal
+	 */
+	@Name("autosim.GoalAdvance")
+	@Label("Pure Pursuit Goal Advance")
+	@Category(CATEGORY)
+	@Description("Pure pursuit controller moving on to its next waypoint")
+	@StackTrace(false)
+	public static class GoalAdvanceEvent extends Event {
+		@Label("Goal Index")
+		private int goalIndex; //index of the next waypoint
+
+		@Label("Waypoints")
+		private int waypoints; //number of waypoints on the path
+
+		/**
+		 * Set the progress along the path
+		 * @param goalIndex Index of the next waypoint
+		 * @param waypoints Number of waypoints on the path
+		 */
+		public void set(int goalIndex, int waypoints) {
+			this.goalIndex = goalIndex;
+			this.waypoints = waypoints;
+		} //end set
+	} //end GoalAdvanceEvent
+
+	/**
+	 * A profile file being read or written
+	 */
+	@Name("autosim.ProfileFile")
+	@Label("Profile File")
+	@Category(CATEGORY)
+	@Description("Profile, pose or path file read or written by ProfileGenerator")
+	@StackTrace(false)
+	public static class ProfileFileEvent extends Event {
+		@Label("Path")
+		private String path; //file read or written
+
+		@Label("Write")
+		private boolean write; //whether the file was written rather than read
+
+		@Label("Records")
+		private int records; //number of lines read or written
+
+		@Label("Success")
+		private boolean success; //whether the file was read or written without error
+
+		/**
+		 * Set the details of the file operation
+		 * @param path File read or written
+		 * @param write Whether the file was written rather than read
+		 * @param records Number of lines read or written
+		 * @param success Whether the operation finished without error
+		 */
+		public void set(String path, boolean write, int records, boolean success) {
+			this.path = path;
+			this.write = write;
+			this.records = records;
+			this.success = success;
+		} //end set
+	} //end ProfileFileEvent
+
+	//Event types, used to skip creating long-lived events when nothing is recording them
+	private static final EventType COMMAND_TYPE = EventType.getEventType(CommandEvent.class);
+
+	/**
+	 * Begin a command event if it is being recorded
+	 * @return Started event, null if no recording has commands enabled
+	 */
+	public static CommandEvent beginCommand() {
+		if (!COMMAND_TYPE.isEnabled())
+			return null;
+
+		CommandEvent e = new CommandEvent();
+		e.begin();
+		return e;
+	} //end beginCommand
+
+	/**
+	 * Commit a profile file event
+	 * @param e Event begun before the file was opened
+	 * @param path File read or written
+	 * @param write Whether the file was written rather than read
+	 * @param records Number of lines read or written
+	 * @param success Whether the operation finished without error
+	 */
+	public static void commitFile(ProfileFileEvent e, String path, boolean write, int records, boolean success) {
+		e.end();
+		if (e.shouldCommit()) {
+			e.set(path, write, records, success);
+			e.commit();
+		} //if
+	} //end commitFile
+} //end class
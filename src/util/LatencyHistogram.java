@@ -0,0 +1,149 @@
+/**
+ * LatencyHistogram
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Fixed-size histogram of durations with log-linear buckets that many threads can record into without locking
+ */
+
+package util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+	//Constants
+	private static final int SUB_BITS = 5; //linear buckets per power of two as a power of two (about 3% precision)
+	private static final int SUB = 1 << SUB_BITS; //linear buckets per power of two
+	private static final int MAX_EXP = 40; //largest power of two tracked, about 18 minutes in nanoseconds
+	private static final int BUCKETS = SUB + (MAX_EXP - SUB_BITS + 1) * SUB; //total number of buckets
+
+	//Attributes
+	private AtomicLongArray counts; //number of values in each bucket
+	private LongAdder count; //number of values recorded
+	private LongAdder sum; //sum of the values recorded
+	private LongAccumulator max; //largest value recorded
+
+	/**
+	 * Create an empty histogram
+	 */
+	public LatencyHistogram() {
+		counts = new AtomicLongArray(BUCKETS);
+		count = new LongAdder();
+		sum = new LongAdder();
+		max = new LongAccumulator(Math::max, 0);
+	} //end constructor
+
+	/**
+	 * Get the bucket a value falls in
+	 * @param value Non-negative value
+	 * @return Index of the bucket, exact below SUB and within about 3% above it
+	 */
+	private static int bucket(long value) {
+		if (value < SUB)
+			return (int) Math.max(value, 0);
+
+		//power of two of the value, then which of the linear steps within it
+		int exp = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXP);
+		int sub = (int) Math.min((value >>> (exp - SUB_BITS)) - SUB, SUB - 1);
+		return SUB + (exp - SUB_BITS) * SUB + sub;
+	} //end bucket
+
+	/**
+	 * Get the middle value of a bucket
+	 * @param index Index of the bucket
+	 * @return Value halfway through the range the bucket covers
+	 */
+	private static double bucketValue(int index) {
+		if (index < SUB)
+			return index;
+
+		int shift = (index - SUB) / SUB;
+		long low = (long) (SUB + (index - SUB) % SUB) << shift;
+		return low + (1L << shift) / 2.0;
+	} //end bucketValue
+
+	/**
+	 * Record a value
+	 * @param value Duration in nanoseconds
+	 */
+	public void record(long value) {
+		counts.incrementAndGet(bucket(value));
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+	} //end record
+
+	/**
+	 * Get the number of values recorded
+	 * @return Number of values
+	 */
+	public long getCount() {
+		return count.sum();
+	} //end getCount
+
+	/**
+	 * Get the mean of the values recorded
+	 * @return Mean value, 0 if there are none
+	 */
+	public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	} //end getMean
+
+	/**
+	 * Get the total of the values recorded
+	 * @return Sum of every value
+	 */
+	public long getTotal() {
+		return sum.sum();
+	} //end getTotal
+
+	/**
+	 * Get the largest value recorded
+	 * @return Largest value, 0 if there are none
+	 */
+	public long getMax() {
+		return max.get();
+	} //end getMax
+
+	/**
+	 * Get a percentile of the values recorded
+	 * @param p Percentile from 0 to 100
+	 * @return Value below which p percent of the values fall, to the precision of the buckets
+	 */
+	public double getPercentile(double p) {
+		//count the buckets themselves so the total matches while others are recording
+		long[] snapshot = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		} //loop
+
+		if (total == 0)
+			return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(Util.clampNum(p, 0, 100) / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank)
+				return Math.min(bucketValue(i), max.get());
+		} //loop
+
+		return max.get();
+	} //end getPercentile
+
+	/**
+	 * Remove every value recorded
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		} //loop
+		count.reset();
+		sum.reset();
+		max.reset();
+	} //end reset
+} //end class
@@ -0,0 +1,151 @@
+/**
+ * LeastSquares
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Linear least squares fit that keeps running sums instead of the samples
+ */
+
+package util;
+
+import java.util.Arrays;
+
+public class LeastSquares {
+	//Attributes
+	//Configured
+	private int n; //number of coefficients being fit
+
+	//Calculated
+	private double[][] xtx; //sum of the outer products of the inputs (normal equation matrix)
+	private double[] xty; //sum of the inputs scaled by the outputs
+	private double yty; //sum of the squared outputs
+	private double ySum; //sum of the outputs
+	private long count; //number of samples added
+
+	/**
+	 * Create an empty fit
+	 * @param n - number of coefficients to fit
+	 */
+	public LeastSquares(int n) {
+		this.n = n;
+		this.xtx = new double[n][n];
+		this.xty = new double[n];
+	} //end constructor
+
+	/**
+	 * Add a sample to the fit (y = c0 * x[0] + c1 * x[1] + ...)
+	 * @param x - inputs of the sample, one per coefficient
+	 * @param y - output of the sample
+	 */
+	public void add(double[] x, double y) {
+		for (int i = 0; i < n; i++) {
+			//matrix is symmetric, only the upper half is summed
+			for (int j = i; j < n; j++) {
+				xtx[i][j] += x[i] * x[j];
+			} //loop
+			xty[i] += x[i] * y;
+		} //loop
+
+		yty += y * y;
+		ySum += y;
+		count++;
+	} //end add
+
+	/**
+	 * Add the samples of another fit to this one
+	 * @param other - fit with the same number of coefficients
+	 */
+	public void merge(LeastSquares other) {
+		for (int i = 0; i < n; i++) {
+			for (int j = i; j < n; j++) {
+				xtx[i][j] += other.xtx[i][j];
+			} //loop
+			xty[i] += other.xty[i];
+		} //loop
+
+		yty += other.yty;
+		ySum += other.ySum;
+		count += other.count;
+	} //end merge
+
+	/**
+	 * Solve the normal equations for the coefficients using Gaussian elimination
+	 * @return - coefficients of best fit, NaN if the inputs do not determine them
+	 */
+	public double[] solve() {
+		//copy the sums into an augmented matrix, filling in the lower half
+		double[][] a = new double[n][n + 1];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				a[i][j] = i <= j ? xtx[i][j] : xtx[j][i];
+			} //loop
+			a[i][n] = xty[i];
+		} //loop
+
+		//eliminate with partial pivoting
+		for (int col = 0; col < n; col++) {
+			int pivot = col;
+			for (int row = col + 1; row < n; row++) {
+				if (Math.abs(a[row][col]) > Math.abs(a[pivot][col]))
+					pivot = row;
+			} //loop
+
+			double[] temp = a[col];
+			a[col] = a[pivot];
+			a[pivot] = temp;
+
+			//singular, an input never changed or two inputs always moved together
+			if (Math.abs(a[col][col]) < 1E-12 * Math.max(1, count)) {
+				double[] nan = new double[n];
+				Arrays.fill(nan, Double.NaN);
+				return nan;
+			} //if
+
+			for (int row = col + 1; row < n; row++) {
+				double f = a[row][col] / a[col][col];
+				for (int k = col; k <= n; k++) {
+					a[row][k] -= f * a[col][k];
+				} //loop
+			} //loop
+		} //loop
+
+		//back substitute
+		double[] c = new double[n];
+		for (int row = n - 1; row >= 0; row--) {
+			double sum = a[row][n];
+			for (int k = row + 1; k < n; k++) {
+				sum -= a[row][k] * c[k];
+			} //loop
+			c[row] = sum / a[row][row];
+		} //loop
+
+		return c;
+	} //end solve
+
+	/**
+	 * Get the coefficient of determination of the fit
+	 * @return - fraction of the variance in the outputs explained by the fit
+	 */
+	public double getRSquared() {
+		double[] c = solve();
+
+		//residual sum of squares from the running sums: y'y - 2c'X'y + c'X'Xc
+		double residual = yty;
+		for (int i = 0; i < n; i++) {
+			residual -= 2 * c[i] * xty[i];
+			for (int j = 0; j < n; j++) {
+				residual += c[i] * c[j] * (i <= j ? xtx[i][j] : xtx[j][i]);
+			} //loop
+		} //loop
+
+		double total = yty - ySum * ySum / count;
+		return 1 - Math.max(0, residual) / total;
+	} //end getRSquared
+
+	/**
+	 * Get the number of samples added
+	 * @return - number of samples
+	 */
+	public long getCount() {
+		return count;
+	} //end getCount
+} //end class
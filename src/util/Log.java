@@ -0,0 +1,295 @@
+/**
+ * Log
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Logging with level filtering, lazy messages and a background writer so logging never waits on the console
+ */
+
+package util;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+public class Log {
+	//Constants
+	private static final int CAPACITY = 1 << 13; //messages the buffer holds before new ones are dropped
+	private static final long IDLE_NANOS = 1_000_000; //time the writer sleeps when the buffer is empty
+
+	/**
+	 * Importance of a message, in increasing order
+	 */
+	public static enum Level {
+		DEBUG,
+		INFO,
+		WARN,
+		ERROR,
+		OFF //no messages
+	}
+
+	//Attributes
+	private static volatile Level level; //least important level that is written
+	private static volatile boolean callerInfo; //whether to start each message with the calling method
+	private static StackWalker walker; //finds the calling method without building a whole stack trace
+	private static PrintStream out; //stream the writer prints to
+
+	//ring buffer shared by every thread that logs and the one writer thread
+	private static AtomicReferenceArray<String> ring; //messages waiting to be written
+	private static AtomicLong head; //sequence of the next message to write
+	private static AtomicLong tail; //sequence of the next free slot
+	private static AtomicLong dropped; //messages dropped because the buffer was full
+
+	static {
+		level = Level.INFO;
+		callerInfo = !System.getProperty("autosim.log.caller", "true").equals("false");
+		walker = StackWalker.getInstance();
+		out = System.out;
+
+		ring = new AtomicReferenceArray<String>(CAPACITY);
+		head = new AtomicLong();
+		tail = new AtomicLong();
+		dropped = new AtomicLong();
+
+		//write in the background and finish writing when the program exits
+		Thread writer = new Thread(Log::write, "Log writer");
+		writer.setDaemon(true);
+		writer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(Log::drain, "Log flush"));
+
+		//a mistyped level keeps the default rather than stopping every class that logs from loading
+		String name = System.getProperty("autosim.log", "INFO");
+		try {
+			level = Level.valueOf(name.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			warn(() -> "Unknown log level " + name + " in autosim.log, using INFO (one of " + Arrays.toString(Level.values()) + ")");
+		} //try-catch
+	} //end static
+
+	//Configuration
+
+	/**
+	 * Set the least important level that is written
+	 * @param level New level, OFF to write nothing
+	 */
+	public static void setLevel(Level level) {
+		Log.level = level;
+	} //end setLevel
+
+	/**
+	 * Get the least important level that is written
+	 * @return Current level
+	 */
+	public static Level getLevel() {
+		return level;
+	} //end getLevel
+
+	/**
+	 * Set whether to start each message with the class and method that logged it
+	 * @param callerInfo True to look up the caller, false to skip it
+	 */
+	public static void setCallerInfo(boolean callerInfo) {
+		Log.callerInfo = callerInfo;
+	} //end setCallerInfo
+
+	/**
+	 * Check if messages of a level are written
+	 * @param l Level of the message
+	 * @return True if the message would be written
+	 */
+	public static boolean isEnabled(Level l) {
+		return l.compareTo(level) >= 0 && l != Level.OFF;
+	} //end isEnabled
+
+	/**
+	 * Get the number of messages dropped because they were logged faster than they could be written
+	 * @return Messages dropped since the program started
+	 */
+	public static long getDropped() {
+		return dropped.get();
+	} //end getDropped
+
+	//Logging
+
+	/**
+	 * Log detail only needed when debugging
+	 * @param msg Message to write
+	 */
+	public static void debug(String msg) {
+		log(Level.DEBUG, msg);
+	} //end debug
+
+	/**
+	 * Log detail only needed when debugging, only building the message if it will be written
+	 * @param msg Creates the message to write
+	 */
+	public static void debug(Supplier<String> msg) {
+		log(Level.DEBUG, msg);
+	} //end debug
+
+	/**
+	 * Log progress of the program
+	 * @param msg Message to write
+	 */
+	public static void info(String msg) {
+		log(Level.INFO, msg);
+	} //end info
+
+	/**
+	 * Log progress of the program, only building the message if it will be written
+	 * @param msg Creates the message to write
+	 */
+	public static void info(Supplier<String> msg) {
+		log(Level.INFO, msg);
+	} //end info
+
+	/**
+	 * Log something unexpected that the program recovered from
+	 * @param msg Message to write
+	 */
+	public static void warn(String msg) {
+		log(Level.WARN, msg);
+	} //end warn
+
+	/**
+	 * Log something unexpected that the program recovered from, only building the message if it will be written
+	 * @param msg Creates the message to write
+	 */
+	public static void warn(Supplier<String> msg) {
+		log(Level.WARN, msg);
+	} //end warn
+
+	/**
+	 * Log a failure
+	 * @param msg Message to write
+	 */
+	public static void error(String msg) {
+		log(Level.ERROR, msg);
+	} //end error
+
+	/**
+	 * Log a failure, only building the message if it will be written
+	 * @param msg Creates the message to write
+	 */
+	public static void error(Supplier<String> msg) {
+		log(Level.ERROR, msg);
+	} //end error
+
+	/**
+	 * Log a message
+	 * @param l Level of the message
+	 * @param msg Message to write
+	 */
+	public static void log(Level l, String msg) {
+		if (isEnabled(l)) {
+			publish(callerInfo ? caller() + msg : msg);
+		} //if
+	} //end log
+
+	/**
+	 * Log a message that is only built if it will be written
+	 * @param l Level of the message
+	 * @param msg Creates the message to write
+	 */
+	public static void log(Level l, Supplier<String> msg) {
+		if (isEnabled(l)) {
+			publish(callerInfo ? caller() + msg.get() : msg.get());
+		} //if
+	} //end log
+
+	/**
+	 * Get the method that logged the message, skipping the logging methods themselves
+	 * @return "[class.method()] " of the first frame outside Log and Util's print methods
+	 */
+	private static String caller() {
+		Optional<StackWalker.StackFrame> frame = walker.walk(s -> s.filter(f -> !isLogFrame(f)).findFirst());
+
+		return frame.map(f -> "[" + f.getClassName() + "." + f.getMethodName() + "()] ").orElse("");
+	} //end caller
+
+	/**
+	 * Check if a stack frame is part of logging rather than the code that logged
+	 * @param f Frame to check
+	 * @return True if the frame is in Log or one of Util's print methods
+	 */
+	private static boolean isLogFrame(StackWalker.StackFrame f) {
+		return f.getClassName().equals(Log.class.getName()) ||
+				(f.getClassName().equals(Util.class.getName()) && f.getMethodName().equals("println"));
+	} //end isLogFrame
+
+	//Ring buffer
+
+	/**
+	 * Add a message to the buffer without waiting, dropping it if the buffer is full
+	 * @param msg Message to write
+	 */
+	private static void publish(String msg) {
+		//claim a slot, giving up if the writer is a whole buffer behind
+		long seq;
+		do {
+			seq = tail.get();
+			if (seq - head.get() >= CAPACITY) {
+				dropped.incrementAndGet();
+				return;
+			} //if
+		} while (!tail.compareAndSet(seq, seq + 1));
+
+		ring.set((int) (seq & (CAPACITY - 1)), msg);
+	} //end publish
+
+	/**
+	 * Write messages in order as they arrive, run by the writer thread
+	 */
+	private static void write() {
+		while (true) {
+			if (!writeNext()) {
+				LockSupport.parkNanos(IDLE_NANOS);
+			} //if
+		} //loop
+	} //end write
+
+	/**
+	 * Write the next message if it has been added
+	 * @return True if a message was written, false if there was none ready
+	 */
+	private static synchronized boolean writeNext() {
+		long seq = head.get();
+		if (seq == tail.get())
+			return false;
+
+		//a slot may be claimed but not filled yet
+		int index = (int) (seq & (CAPACITY - 1));
+		String msg = ring.get(index);
+		if (msg == null)
+			return false;
+
+		ring.set(index, null);
+		head.set(seq + 1);
+		out.println(msg);
+		return true;
+	} //end writeNext
+
+	/**
+	 * Write every message logged so far, waiting for them to be written
+	 */
+	public static void flush() {
+		long end = tail.get();
+		while (head.get() < end) {
+			if (!writeNext()) {
+				Thread.yield();
+			} //if
+		} //loop
+		out.flush();
+	} //end flush
+
+	/**
+	 * Write whatever is left when the program exits
+	 */
+	private static void drain() {
+		while (writeNext());
+		out.flush();
+	} //end drain
+} //end class
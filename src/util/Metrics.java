@@ -0,0 +1,278 @@
+/**
+ * Metrics
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Timers, histograms and counters for the stages of a simulated update, enabled with -Dautosim.metrics=true
+ */
+
+package util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class Metrics {
+	//Constants
+	public static final boolean ENABLED = Boolean.getBoolean("autosim.metrics"); //constant so disabled calls compile away
+	public static final String MBEAN_NAME = "autosim2:type=Metrics"; //name the metrics are registered under in JMX
+
+	/**
+	 * Stages of an update, where each of the first three includes the ones after it
+	 */
+	public static enum Stage {
+		COMMAND_EXECUTE, //Command.execute, including the loop and physics
+		CONTROLLER, //DriveLoop.onLoop, including the physics
+		PHYSICS, //Robot.update
+		TELEMETRY, //saving the robot's pose and data
+		RENDER //handing a pose and data point to the window
+	}
+
+	//Attributes
+	private static LatencyHistogram[] stages; //time spent in each stage
+	private static Map<String, LatencyHistogram> commands; //time per update of each command by name
+	private static LongAdder ticks; //updates run or skipped
+	private static LongAdder allocatedBytes; //bytes allocated while running updates
+	private static LongAdder pathGenerations; //profiles and paths created
+
+	static {
+		stages = new LatencyHistogram[Stage.values().length];
+		for (int i = 0; i < stages.length; i++) {
+			stages[i] = new LatencyHistogram();
+		} //loop
+		commands = new ConcurrentHashMap<String, LatencyHistogram>();
+		ticks = new LongAdder();
+		allocatedBytes = new LongAdder();
+		pathGenerations = new LongAdder();
+
+		if (ENABLED) {
+			registerMBean();
+		} //if
+	} //end static
+
+	/**
+	 * Register the metrics with the platform MBean server so tools like JConsole can read them
+	 */
+	private static void registerMBean() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(MBEAN_NAME));
+		} catch (JMException e) {
+			Util.println("Could not register metrics:", e.getMessage());
+		} //try-catch
+	} //end registerMBean
+
+	//Recording
+
+	/**
+	 * Start timing a stage
+	 * @return Current time in nanoseconds, 0 if metrics are disabled
+	 */
+	public static long start() {
+		return ENABLED ? System.nanoTime() : 0;
+	} //end start
+
+	/**
+	 * Stop timing a stage
+	 * @param stage Stage being timed
+	 * @param start Time from start()
+	 */
+	public static void stop(Stage stage, long start) {
+		if (ENABLED) {
+			stages[stage.ordinal()].record(System.nanoTime() - start);
+		} //if
+	} //end stop
+
+	/**
+	 * Start measuring the memory a tick allocates
+	 * @return Bytes allocated by this thread so far, 0 if metrics are disabled
+	 */
+	public static long startAllocation() {
+		return ENABLED ? Benchmark.allocatedBytes() : 0;
+	} //end startAllocation
+
+	/**
+	 * Record a command's update
+	 * @param command Name of the command
+	 * @param start Time from start() when the update began
+	 * @param allocStart Bytes from startAllocation() when the update began
+	 */
+	public static void recordTick(String command, long start, long allocStart) {
+		if (ENABLED) {
+			long time = System.nanoTime() - start;
+			commands.computeIfAbsent(command, c -> new LatencyHistogram()).record(time);
+			ticks.increment();
+			allocatedBytes.add(Math.max(0, Benchmark.allocatedBytes() - allocStart));
+		} //if
+	} //end recordTick
+
+	/**
+	 * Count updates that were skipped over rather than run
+	 * @param updates Number of updates skipped
+	 */
+	public static void countSkippedTicks(int updates) {
+		if (ENABLED) {
+			ticks.add(updates);
+		} //if
+	} //end countSkippedTicks
+
+	/**
+	 * Count a profile or path being generated
+	 */
+	public static void countPathGeneration() {
+		if (ENABLED) {
+			pathGenerations.increment();
+		} //if
+	} //end countPathGeneration
+
+	//Reading
+
+	/**
+	 * Get the number of updates run or skipped
+	 * @return Number of updates
+	 */
+	public static long getTicks() {
+		return ticks.sum();
+	} //end getTicks
+
+	/**
+	 * Get the memory allocated while running updates
+	 * @return Bytes allocated
+	 */
+	public static long getAllocatedBytes() {
+		return allocatedBytes.sum();
+	} //end getAllocatedBytes
+
+	/**
+	 * Get the number of profiles and paths generated
+	 * @return Number of generations
+	 */
+	public static long getPathGenerations() {
+		return pathGenerations.sum();
+	} //end getPathGenerations
+
+	/**
+	 * Get the time spent in a stage
+	 * @param stage Stage of the update
+	 * @return Histogram of the time of each call in nanoseconds
+	 */
+	public static LatencyHistogram getStage(Stage stage) {
+		return stages[stage.ordinal()];
+	} //end getStage
+
+	/**
+	 * Get the time per update of every command
+	 * @return Histograms of update times in nanoseconds by command name
+	 */
+	public static Map<String, LatencyHistogram> getCommands() {
+		return Collections.unmodifiableMap(commands);
+	} //end getCommands
+
+	/**
+	 * Clear every counter and histogram
+	 */
+	public static void reset() {
+		for (LatencyHistogram h : stages) {
+			h.reset();
+		} //loop
+		commands.clear();
+		ticks.reset();
+		allocatedBytes.reset();
+		pathGenerations.reset();
+	} //end reset
+
+	/**
+	 * Format a histogram as a row
+	 * @param name Name of the row
+	 * @param h Histogram in nanoseconds
+	 * @return Name, count, mean, p50, p99 and max in microseconds
+	 */
+	private static String row(String name, LatencyHistogram h) {
+		return String.format("%-18s %9d %8.2f %8.2f %8.2f %9.2f", name, h.getCount(), h.getMean() / 1E3,
+				h.getPercentile(50) / 1E3, h.getPercentile(99) / 1E3, h.getMax() / 1E3);
+	} //end row
+
+	/**
+	 * Get a row for each stage
+	 * @return Rows of calls and times in microseconds
+	 */
+	public static List<String> getStageRows() {
+		List<String> rows = new ArrayList<String>();
+		for (Stage s : Stage.values()) {
+			rows.add(row(s.name(), getStage(s)));
+		} //loop
+
+		return rows;
+	} //end getStageRows
+
+	/**
+	 * Get a row for each command, sorted by name
+	 * @return Rows of updates and times in microseconds
+	 */
+	public static List<String> getCommandRows() {
+		List<String> rows = new ArrayList<String>();
+		for (Map.Entry<String, LatencyHistogram> e : new TreeMap<String, LatencyHistogram>(commands).entrySet()) {
+			rows.add(row(e.getKey(), e.getValue()));
+		} //loop
+
+		return rows;
+	} //end getCommandRows
+
+	/**
+	 * Get every metric as a table
+	 * @return Counters, then stage and command times in microseconds
+	 */
+	public static String getSummary() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Ticks %d, allocated %.1f KB/tick, paths %d%n", getTicks(),
+				getAllocatedBytes() / 1024.0 / Math.max(1, getTicks()), getPathGenerations()));
+
+		sb.append(String.format("%-18s %9s %8s %8s %8s %9s%n", "Stage", "count", "mean", "p50", "p99", "max(us)"));
+		for (String r : getStageRows()) {
+			sb.append(r).append(System.lineSeparator());
+		} //loop
+
+		sb.append(String.format("%-18s %9s %8s %8s %8s %9s%n", "Command", "updates", "mean", "p50", "p99", "max(us)"));
+		for (String r : getCommandRows()) {
+			sb.append(r).append(System.lineSeparator());
+		} //loop
+
+		return sb.toString();
+	} //end getSummary
+
+	/**
+	 * Metrics as seen over JMX
+	 */
+	private static class Bean implements MetricsMXBean {
+
+		public long getTicks() {
+			return Metrics.getTicks();
+		} //end getTicks
+
+		public long getAllocatedBytes() {
+			return Metrics.getAllocatedBytes();
+		} //end getAllocatedBytes
+
+		public long getPathGenerations() {
+			return Metrics.getPathGenerations();
+		} //end getPathGenerations
+
+		public String[] getStages() {
+			return getStageRows().toArray(new String[0]);
+		} //end getStages
+
+		public String[] getCommands() {
+			return getCommandRows().toArray(new String[0]);
+		} //end getCommands
+
+		public void reset() {
+			Metrics.reset();
+		} //end reset
+	} //end Bean
+} //end class
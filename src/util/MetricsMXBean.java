@@ -0,0 +1,46 @@
+/**
+ * MetricsMXBean
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Simulation metrics readable over JMX
+ */
+
+package util;
+
+public interface MetricsMXBean {
+	
+	/**
+	 * Get the number of simulated updates
+	 * @return Updates run or skipped by every command
+	 */
+	long getTicks();
+	
+	/**
+	 * Get the memory allocated while running updates
+	 * @return Bytes allocated by the threads running commands
+	 */
+	long getAllocatedBytes();
+	
+	/**
+	 * Get the number of paths generated
+	 * @return Number of BezierProfiles and PursuitPaths created
+	 */
+	long getPathGenerations();
+	
+	/**
+	 * Get the time spent in each stage of an update
+	 * @return One row per stage with its calls, mean, percentiles and max in microseconds
+	 */
+	String[] getStages();
+	
+	/**
+	 * Get the time per update of each command
+	 * @return One row per command with its updates, mean, percentiles and max in microseconds
+	 */
+	String[] getCommands();
+	
+	/**
+	 * Clear every counter and histogram
+	 */
+	void reset();
+}
@@ -10,27 +10,85 @@ package util;
 import static org.junit.Assert.assertEquals;
 
 import java.awt.Color;
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import commands.Command;
+import commands.CommandList;
 import commands.DriveDistance;
+import commands.DriveOpenLoopProfile;
 import commands.DriveToGoal;
 import commands.TimedVoltage;
+import commands.TurnAngle;
+import commands.Wait;
 import commands.routines.ConstantsTest;
+import graphics.Environment;
+import graphics.GraphicBezierPath;
+import graphics.TrajectoryPreviewer;
 import graphics.components.BoxButton.BUTTON_STATE;
+import graphics.widgets.BezierPathCreator;
 import graphics.widgets.Circle;
+import graphics.widgets.PathMouseController;
+import main.AutoSim;
 import model.DriveLoop;
 import model.FieldPositioning;
 import model.Gearbox;
 import model.Motor;
 import model.PIDController;
 import model.Point;
+import model.Pose;
 import model.Robot;
 import model.motion.BezierPath;
+import model.motion.BezierProfile;
+import model.motion.PursuitPath;
+import model.motion.SplinePath;
+import model.motion.TrajectoryPack;
 import model.motion.TrapezoidalProfile;
+import sim.BatchRunner;
+import sim.BranchRunner;
+import sim.Checkpoint;
+import sim.FidelityLadder;
+import sim.FieldSimulation;
+import sim.GainTuner;
+import sim.GainTuner.Gain;
+import sim.LivePublisher;
+import sim.MonteCarloRunner;
+import sim.PathOptimizer;
+import sim.RunArchive;
+import sim.SpatialHash;
+import sim.TelemetryColumns;
+import sim.UdpPublisher;
+import sim.WorkerPool;
+import util.Log.Level;
 import util.Util.ROBOT_KEY;
 
 public class ModelTest {
@@ -598,4 +656,1026 @@ public class ModelTest {
 	public void distsqTest() {
 		assertEquals(100.0, FieldPositioning.distsq(new Point(0,0), new Point(10,0)), 0.001);
 	} //end distsqTest
-} //end class
\ No newline at end of file
+	
+	@Test
+	/**
+	 * Test that the spatial hash only pairs objects in neighbouring cells
+	 */
+	public void spatialHashTest() {
+		SpatialHash hash = new SpatialHash(Util.FIELD_HEIGHT, Util.FIELD_WIDTH, 50);
+		double[] xs = {10, 40, 300}; //first two share a cell, last is far away
+		double[] ys = {10, 40, 600};
+		hash.build(xs, ys, 3);
+		
+		int[] found = new int[3];
+		assertEquals(1, hash.forEachCandidatePair((a, b) -> {}));
+		assertEquals(2, hash.query(20, 20, 50, found));
+	} //end spatialHashTest
+	
+	@Test
+	/**
+	 * Test that the field simulation finds overlapping robots and robots past the boundary
+	 */
+	public void fieldCollisionTest() {
+		FieldSimulation sim = new FieldSimulation();
+		Point[] starts = {new Point(100, 100), new Point(100, 125), new Point(200, 400), new Point(5, 600)};
+		
+		//four stationary robots, the first two overlap and the last is over the wall
+		for (Point p : starts) {
+			Robot rob = r.clone();
+			rob.setXY(p);
+			DriveLoop loop = new DriveLoop(rob, driveLoop.getDrivePID(), driveLoop.getTurnPID());
+			sim.addRobot(loop, new CommandList(new TimedVoltage(loop, 0, 0.01)));
+		} //loop
+		
+		sim.start();
+		sim.step();
+		
+		assertEquals(1, sim.getNumContacts());
+		assertEquals(0, sim.getContact(0)[0]);
+		assertEquals(1, sim.getContact(0)[1]);
+		assertEquals(false, sim.isTouchingWall(2));
+		assertEquals(true, sim.isTouchingWall(3));
+	} //end fieldCollisionTest
+	
+	@Test
+	/**
+	 * Test that a Monte Carlo trial re-run on its own matches the same trial in a parallel run
+	 */
+	public void monteCarloRepeatTest() {
+		MonteCarloRunner mc = new MonteCarloRunner(r, driveLoop.getDrivePID(), driveLoop.getTurnPID(),
+				loop -> new CommandList(new DriveDistance(loop, 20, 1, 12)), 25);
+		mc.setParameterNoise(0.05, 0.01, 0.05);
+		mc.setVoltageNoise(0.25);
+		mc.setSensorNoise(0.1, 0.01, 0.05);
+		
+		MonteCarloRunner.Result res = mc.run(8, 2);
+		assertEquals(res.getTrial(5).getEndError(), mc.runTrial(5).getEndError(), 0);
+	} //end monteCarloRepeatTest
+	
+	@Test
+	/**
+	 * Test that the streaming least squares fit recovers known coefficients
+	 */
+	public void leastSquaresTest() {
+		LeastSquares fit = new LeastSquares(3);
+		double[] x = new double[3];
+		
+		//V = 0.2sgn(v) + 0.9v + 0.1a
+		for (int i = -50; i <= 50; i++) {
+			x[0] = Math.signum(i);
+			x[1] = i * 0.25;
+			x[2] = (i % 7) * 1.5;
+			fit.add(x, 0.2 * x[0] + 0.9 * x[1] + 0.1 * x[2]);
+		} //loop
+		
+		double[] c = fit.solve();
+		assertEquals(0.2, c[0], 1E-9);
+		assertEquals(0.9, c[1], 1E-9);
+		assertEquals(0.1, c[2], 1E-9);
+		assertEquals(1.0, fit.getRSquared(), 1E-9);
+	} //end leastSquaresTest
+	
+	@Test
+	/**
+	 * Test that skipping over a wait gives the same playback as running every update
+	 */
+	public void waitSkipTest() {
+		Robot r2 = r.clone();
+		DriveLoop loop2 = new DriveLoop(r2, driveLoop.getDrivePID(), driveLoop.getTurnPID());
+		CommandList stepped = new CommandList(new TimedVoltage(driveLoop, 6, 1), new Wait(driveLoop, 5));
+		CommandList skipped = new CommandList(new TimedVoltage(loop2, 6, 1), new Wait(loop2, 5));
+		
+		stepped.start();
+		while (stepped.step());
+		skipped.run();
+		
+		assertEquals(stepped.getPoses().size(), skipped.getPoses().size());
+		for (int i = 0; i < stepped.getPoses().size(); i++) {
+			assertEquals(stepped.getPoses().get(i).getX(), skipped.getPoses().get(i).getX(), 0);
+			assertEquals(stepped.getPoses().get(i).getY(), skipped.getPoses().get(i).getY(), 0);
+		} //loop
+	} //end waitSkipTest
+	
+	@Test
+	/**
+	 * Test that skipping a steady arc lands where running every update does
+	 */
+	public void steadySkipTest() {
+		Robot r2 = r.clone();
+		DriveLoop loop2 = new DriveLoop(r2, driveLoop.getDrivePID(), driveLoop.getTurnPID());
+		TimedVoltage stepped = new TimedVoltage(driveLoop, 4, 5, 8);
+		TimedVoltage skipped = new TimedVoltage(loop2, 4, 5, 8);
+		stepped.setRecording(false);
+		skipped.setRecording(false);
+		
+		stepped.start();
+		while (stepped.step());
+		
+		//count the calls to make sure the steady part was skipped
+		int calls = 0;
+		skipped.start();
+		while (skipped.advance(Integer.MAX_VALUE) > 0) {
+			calls++;
+		} //loop
+		
+		assertEquals(stepped.getIterations(), skipped.getIterations());
+		assertEquals(true, calls < skipped.getIterations() / 2);
+		assertEquals(r.getX(), r2.getX(), 1E-4);
+		assertEquals(r.getY(), r2.getY(), 1E-4);
+		assertEquals(r.getHeading(), r2.getHeading(), 1E-9);
+	} //end steadySkipTest
+	
+	@Test
+	/**
+	 * Test that continuing from a checkpoint part way through a command matches running straight through
+	 */
+	public void checkpointTest() {
+		BranchRunner runner = new BranchRunner(r, driveLoop.getDrivePID(), driveLoop.getTurnPID());
+		MonteCarloRunner.RoutineFactory routine = loop -> new CommandList(new DriveDistance(loop, 60, 1, 12), 
+				new Wait(loop, 1), new TurnAngle(loop, 90, 1, 12, true));
+		
+		BranchRunner.Branch full = runner.runFull(routine, driveLoop.getDrivePID(), driveLoop.getTurnPID());
+		Checkpoint cp = runner.checkpointAtTick(routine, 100);
+		BranchRunner.Branch branch = runner.branch(cp, routine, driveLoop.getDrivePID(), driveLoop.getTurnPID());
+		
+		assertEquals(full.getTicks(), branch.getTicks());
+		assertEquals(full.getPoses().size(), branch.getPoses().size());
+		assertEquals(full.getEnd().getX(), branch.getEnd().getX(), 0);
+		assertEquals(full.getEnd().getY(), branch.getEnd().getY(), 0);
+		assertEquals(full.getHeading(), branch.getHeading(), 0);
+	} //end checkpointTest
+	
+	@Test
+	/**
+	 * Test that benchmark results flag slower or heavier operations against the baseline
+	 */
+	public void benchmarkRegressionTest() {
+		Benchmark.Result base = new Benchmark.Result("op", 1000, 10, 12, 15, 0);
+		
+		assertEquals(false, Benchmark.isRegression(new Benchmark.Result("op", 900, 11, 13, 16, 4), base, 0.15));
+		assertEquals(true, Benchmark.isRegression(new Benchmark.Result("op", 800, 12, 14, 18, 0), base, 0.15));
+		assertEquals(true, Benchmark.isRegression(new Benchmark.Result("op", 1000, 10, 12, 15, 32), base, 0.15));
+		
+		//a real measurement of an operation that does not allocate
+		Benchmark b = new Benchmark(0.01, 0.05);
+		double[] x = {0};
+		Benchmark.Result r = b.measure("add", () -> x[0] += 1);
+		assertEquals(true, r.getOpsPerSec() > 0);
+		assertEquals(true, r.getLatency(50) <= r.getLatency(99));
+		assertEquals(0, r.getBytesPerOp(), 1);
+	} //end benchmarkRegressionTest
+	
+	@Test
+	/**
+	 * Test that the latency histogram finds percentiles within its bucket precision
+	 */
+	public void latencyHistogramTest() {
+		LatencyHistogram h = new LatencyHistogram();
+		for (int i = 1; i <= 10000; i++) {
+			h.record(i);
+		} //loop
+		
+		assertEquals(10000, h.getCount());
+		assertEquals(10000, h.getMax());
+		assertEquals(5000.5, h.getMean(), 1E-9);
+		assertEquals(5000, h.getPercentile(50), 5000 * 0.04);
+		assertEquals(9900, h.getPercentile(99), 9900 * 0.04);
+		assertEquals(1, h.getPercentile(0), 0);
+		
+		h.reset();
+		assertEquals(0, h.getCount());
+		assertEquals(0, h.getPercentile(50), 0);
+	} //end latencyHistogramTest
+	
+	@Test
+	/**
+	 * Test that messages below the log level are never built and the rest are written without dropping
+	 */
+	public void logLevelTest() throws Exception {
+		Level before = Log.getLevel();
+		int[] built = new int[1];
+		
+		Log.setLevel(Level.WARN);
+		Log.info(() -> "info " + built[0]++);
+		Log.debug(() -> "debug " + built[0]++);
+		assertEquals(0, built[0]);
+		assertEquals(false, Log.isEnabled(Level.INFO));
+		
+		Log.warn(() -> "warn " + built[0]++);
+		Log.setLevel(Level.OFF);
+		Log.error(() -> "error " + built[0]++);
+		assertEquals(1, built[0]);
+		assertEquals(false, Log.isEnabled(Level.OFF));
+		
+		Log.setLevel(before);
+		Log.flush();
+		assertEquals(0, Log.getDropped());
+		
+		//a mistyped level falls back to INFO, checked on a fresh copy of the class so its setup runs again
+		String[] path = System.getProperty("java.class.path").split(File.pathSeparator);
+		URL[] urls = new URL[path.length];
+		for (int i = 0; i < path.length; i++) {
+			urls[i] = new File(path[i]).toURI().toURL();
+		} //loop
+		System.setProperty("autosim.log", "verbose");
+		try (URLClassLoader fresh = new URLClassLoader(urls, ClassLoader.getPlatformClassLoader())) {
+			Class<?> log = Class.forName("util.Log", true, fresh);
+			assertEquals("INFO", log.getMethod("getLevel").invoke(null).toString());
+		} finally {
+			System.clearProperty("autosim.log");
+		} //try
+	} //end logLevelTest
+	
+	@Test
+	/**
+	 * Test that running a command and building a pursuit path record flight recorder events with their details
+	 */
+	public void flightRecorderEventsTest() throws Exception {
+		Path dump = Files.createTempFile("autosim", ".jfr");
+		dump.toFile().deleteOnExit();
+		Wait wait = new Wait(driveLoop, 0.5);
+		PursuitPath path;
+		
+		try (Recording rec = new Recording()) {
+			rec.enable("autosim.Command");
+			rec.enable("autosim.TrajectoryGeneration");
+			rec.start();
+			wait.run();
+			path = new PursuitPath(FieldPositioning.pointsFromDoubles(FieldPoints.curve), 30, 12, 200, 200, 24);
+			rec.stop();
+			rec.dump(dump);
+		} //try
+		
+		//only events from this thread, other tests may have left paths building in the background
+		List<RecordedEvent> commands = new ArrayList<RecordedEvent>();
+		List<RecordedEvent> trajectories = new ArrayList<RecordedEvent>();
+		for (RecordedEvent e : RecordingFile.readAllEvents(dump)) {
+			if (e.getThread() == null || e.getThread().getJavaThreadId() != Thread.currentThread().getId())
+				continue;
+			if (e.getEventType().getName().equals("autosim.Command"))
+				commands.add(e);
+			else if (e.getEventType().getName().equals("autosim.TrajectoryGeneration"))
+				trajectories.add(e);
+		} //loop
+		Files.delete(dump);
+		
+		assertEquals(1, commands.size());
+		assertEquals("Wait", commands.get(0).getString("name"));
+		assertEquals(wait.getIterations(), commands.get(0).getInt("iterations"));
+		assertEquals(1, trajectories.size());
+		assertEquals("PursuitPath", trajectories.get(0).getString("type"));
+		assertEquals(path.getPoints().length, trajectories.get(0).getInt("points"));
+	} //end flightRecorderEventsTest
+	
+	@Test
+	/**
+	 * Test that each batch job ends with its own result, even when others fail or time out
+	 */
+	public void batchRunnerTest() {
+		String file = "job done\nstart 50 50 0\ndriveDistance 50 1 12\n"
+					+ "# comment\njob failed\nrobot 4 153 30 30 WARP 2 14\ndriveDistance 50 1 12\n"
+					+ "job timeout\ntimeout 0\ndriveDistance 50 1 12\n"
+					+ "job limit\nlimit 0.5\ndriveDistance 500 1 12\n";
+		List<BatchRunner.Job> jobs = BatchRunner.readJobs(new Scanner(file));
+		assertEquals(4, jobs.size());
+		assertEquals(5, jobs.get(1).getLine());
+		
+		int[] listened = new int[1];
+		Map<String, BatchRunner.Result> results = new HashMap<String, BatchRunner.Result>();
+		for (BatchRunner.Result r : new BatchRunner(2).run(jobs, r -> { synchronized (listened) { listened[0]++; } })) {
+			results.put(r.getName(), r);
+		} //loop
+		
+		assertEquals(4, listened[0]);
+		assertEquals(BatchRunner.Status.DONE, results.get("done").getStatus());
+		assertEquals(100, results.get("done").getEndPoint().getY(), 2);
+		assertEquals(BatchRunner.Status.FAILED, results.get("failed").getStatus());
+		assertEquals(true, results.get("failed").getMessage().contains("WARP"));
+		assertEquals(BatchRunner.Status.TIMEOUT, results.get("timeout").getStatus());
+		assertEquals(BatchRunner.Status.LIMIT, results.get("limit").getStatus());
+		assertEquals(100, results.get("limit").getTicks());
+		
+		//a path that takes seconds to build is given up on at the deadline, not once it is built
+		BatchRunner.Result slow = BatchRunner.runJob(BatchRunner.readJobs(new Scanner("job slow\ntimeout 0.2\n"
+				+ "path 5.4,3.7 97,6 136,73.2 99.7,60.2 146,51 149.4,150.4\nprofile 12 200 200 0.0001\npursuit\n")).get(0));
+		assertEquals(BatchRunner.Status.TIMEOUT, slow.getStatus());
+		assertEquals(0, slow.getTicks());
+		assertEquals(true, slow.getSeconds() < 1);
+	} //end batchRunnerTest
+	
+	@Test
+	/**
+	 * Test that worker processes run jobs and a job that crashes its worker fails alone after a restart
+	 */
+	public void workerPoolTest() {
+		String file = "job first\nstart 50 50 0\ndriveDistance 50 1 12\n"
+					+ "job crash\npath 5.4,3.7 97,6 136,73.2 99.7,60.2 146,51 149.4,150.4\nprofile 12 200 200 0.00001\npursuit\n"
+					+ "job second\nstart 50 50 0\nturnAngle 90 1 12 true\n";
+		WorkerPool pool = new WorkerPool(2);
+		pool.setJvmArgs("-Xmx32m"); //too little for the crashing job's path
+		
+		Map<String, BatchRunner.Result> results = new HashMap<String, BatchRunner.Result>();
+		for (BatchRunner.Result r : pool.run(BatchRunner.readJobs(new Scanner(file)), r -> {})) {
+			results.put(r.getName(), r);
+		} //loop
+		
+		assertEquals(3, results.size());
+		assertEquals(BatchRunner.Status.DONE, results.get("first").getStatus());
+		assertEquals(100, results.get("first").getEndPoint().getY(), 2);
+		assertEquals(BatchRunner.Status.DONE, results.get("second").getStatus());
+		assertEquals(BatchRunner.Status.FAILED, results.get("crash").getStatus());
+		assertEquals(2, pool.getRestarts()); //sent twice before failing
+	} //end workerPoolTest
+	
+	@Test
+	/**
+	 * Test that a worker the watchdog kills just after it answered keeps its answer and is replaced for the next job
+	 */
+	public void workerPoolDeadlineTest() {
+		String file = "job answered\nstart 50 50 0\ntimeout 2\ndriveDistance 50 1 12\n"
+					+ "job next\nstart 50 50 0\ndriveDistance 50 1 12\n";
+		WorkerPool pool = new WorkerPool(1) {
+			@Override
+			protected void replied(int job) {
+				//hold the answer until the deadline has passed and the watchdog has looked
+				if (job == 0)
+					Util.pause(2300);
+			}
+		};
+		pool.setGrace(0);
+		
+		List<BatchRunner.Result> results = pool.run(BatchRunner.readJobs(new Scanner(file)), r -> {});
+		assertEquals(2, results.size());
+		for (BatchRunner.Result r : results) {
+			assertEquals(r.getName() + " " + r.getMessage(), BatchRunner.Status.DONE, r.getStatus());
+		} //loop
+		assertEquals(1, pool.getRestarts());
+	} //end workerPoolDeadlineTest
+	
+	@Test
+	/**
+	 * Test that the gain tuner improves on the starting gains and finds the same gains on any number of threads
+	 */
+	public void gainTunerTest() {
+		Robot r = new Robot(4, 153, 30, 30, new Gearbox(8.5521, new Motor(Util.NEO), 2));
+		GainTuner tuner = new GainTuner(r, loop -> new CommandList(new DriveDistance(loop, 100, 1, 12)), 7);
+		tuner.setStart(new Point(50, 50), 0);
+		tuner.setGoal(new Point(50, 150), 0);
+		tuner.setHorizon(5);
+		tuner.setRange(Gain.DRIVE_P, 0, 3);
+		tuner.setRange(Gain.DRIVE_D, 0, 3);
+		tuner.setSearch(12, 4, 8);
+		
+		GainTuner.Result one = tuner.tune(1);
+		GainTuner.Result two = tuner.tune(2);
+		assertEquals(true, one.getCost() < tuner.evaluate(tuner.getInitialGains()));
+		assertEquals(one.getCost(), tuner.evaluate(one.getGains()), 1E-9);
+		assertEquals(one.getGain(Gain.DRIVE_P), two.getGain(Gain.DRIVE_P), 0);
+		assertEquals(one.getGain(Gain.DRIVE_D), two.getGain(Gain.DRIVE_D), 0);
+		assertEquals(Util.kP_TURN, one.getGain(Gain.TURN_P), 0); //not tuned
+		
+		//stopping hopeless candidates saves work without changing what the search finds
+		tuner.setEarlyStop(false);
+		GainTuner.Result uncut = tuner.tune(1);
+		assertEquals(true, one.getSkippedFraction() > 0);
+		assertEquals(0, uncut.getSkippedFraction(), 0);
+		assertEquals(uncut.getCost(), one.getCost(), 1E-9);
+		assertEquals(uncut.getCost(), two.getCost(), 1E-9);
+		assertEquals(uncut.getGain(Gain.DRIVE_P), one.getGain(Gain.DRIVE_P), 1E-9);
+		assertEquals(uncut.getGain(Gain.DRIVE_D), two.getGain(Gain.DRIVE_D), 1E-9);
+	} //end gainTunerTest
+	
+	@Test
+	/**
+	 * Test that a longer update period covers the same motion and the ladder confirms the candidate a full search picks
+	 */
+	public void fidelityLadderTest() {
+		//a second of full voltage in 50 long updates ends close to 200 normal ones
+		Robot fine = new Robot(4, 153, 30, 30, new Gearbox(8.5521, new Motor(Util.NEO), 2));
+		Robot coarse = fine.clone();
+		coarse.setPeriod(4 * Util.UPDATE_PERIOD);
+		for (int i = 0; i < 200; i++) {
+			fine.update(12, 12);
+			if (i % 4 == 0)
+				coarse.update(12, 12);
+		} //loop
+		assertEquals(fine.getY(), coarse.getY(), 0.05 * fine.getY());
+		
+		//controllers take the period of the robot, so closing a foot of error a second is the same rate at any period
+		PIDController pid = new PIDController(0, 0, 1, coarse.getMaxLinSpeed());
+		DriveLoop loop = new DriveLoop(coarse, pid, pid);
+		PIDController dv = loop.getDrivePID();
+		assertEquals(coarse.getPeriod(), dv.getPeriod(), 0);
+		dv.calcDVPID(10, 0, 0, 1);
+		assertEquals(-1, dv.calcDVPID(10, 12 * coarse.getPeriod(), 0, 1), 1E-9);
+		
+		//paths scored by the time to drive their profile, coarse profiles are a quarter of the size
+		Point[] base = FieldPositioning.pointsFromDoubles(FieldPoints.curve);
+		List<Point[]> paths = new ArrayList<Point[]>();
+		for (int c = 0; c < 30; c++) {
+			Point[] pts = base.clone();
+			pts[2] = new Point(pts[2].getX() + 3 * (c % 6) - 8, pts[2].getY() + 3 * (c / 6) - 6);
+			paths.add(pts);
+		} //loop
+		FidelityLadder<Point[]> ladder = new FidelityLadder<Point[]>((pts, f) ->
+				new BezierProfile(pts, 30, 12 * 12, 200, 200, f.getProfileSize()).getTotalTime());
+		ladder.setLevels(0.2, FidelityLadder.COARSE, FidelityLadder.FINE);
+		ladder.setAudit(5, 1);
+		FidelityLadder.Result<Point[]> res = ladder.run(paths, 2);
+		
+		Point[] best = paths.get(0);
+		for (Point[] pts : paths) {
+			if (new BezierProfile(pts, 30, 12 * 12, 200, 200).getTotalTime() < new BezierProfile(best, 30, 12 * 12, 200, 200).getTotalTime())
+				best = pts;
+		} //loop
+		assertEquals(true, best == res.getBest());
+		assertEquals(6 + 5, res.getRanking().size()); //promoted and audited
+		assertEquals(0, res.getAuditMisses());
+		assertEquals(true, res.getRankCorrelation(0) > 0.8);
+	} //end fidelityLadderTest
+	
+	@Test
+	/**
+	 * Test that waits, timed voltages, profiles and timeouts take the same simulated time on every rung of the ladder
+	 */
+	public void fidelityLadderCommandTest() {
+		Robot nominal = new Robot(4, 153, 30, 30, new Gearbox(8.5521, new Motor(Util.NEO), 2));
+		PIDController pid = new PIDController(Util.kP_DRIVE, Util.kI_DRIVE, Util.kD_DRIVE, nominal.getMaxLinSpeed());
+		TrapezoidalProfile trap = new TrapezoidalProfile(100, 24, 12);
+		
+		for (FidelityLadder.Fidelity f : new FidelityLadder.Fidelity[] {FidelityLadder.FINE, FidelityLadder.COARSE}) {
+			Robot r = nominal.clone();
+			f.apply(r);
+			DriveLoop loop = new DriveLoop(r, pid, pid);
+			
+			Wait timeout = new Wait(loop, 5);
+			timeout.setTimeout(0.5);
+			Command[] commands = {new Wait(loop, 1), new TimedVoltage(loop, 6, 1), new DriveOpenLoopProfile(loop, trap), timeout};
+			double[] seconds = {1, 1, trap.getTotalTime(), 0.5};
+			for (int i = 0; i < commands.length; i++) {
+				commands[i].setRecording(false);
+				commands[i].run();
+				assertEquals(f + " " + commands[i].getName(), seconds[i], commands[i].getIterations() * r.getPeriod(), 2 * r.getPeriod());
+			} //loop
+		} //loop
+	} //end fidelityLadderCommandTest
+	
+	@Test
+	/**
+	 * Test that the path optimizer makes a path faster without moving its ends, leaving the field or turning too tightly
+	 */
+	public void pathOptimizerTest() {
+		PathOptimizer opt = new PathOptimizer(30, 12 * 12, 200, 200);
+		opt.setMinRadius(24);
+		opt.setSteps(8, 1);
+		Point[] start = FieldPositioning.pointsFromDoubles(FieldPoints.curve);
+		PathOptimizer.Result one = opt.optimize(start, 1);
+		PathOptimizer.Result two = opt.optimize(start, 2);
+		
+		Point[] pts = one.getControlPoints();
+		assertEquals(true, one.getFinalTime() < one.getInitialTime());
+		assertEquals(one.getFinalTime(), new BezierProfile(pts, 30, 12 * 12, 200, 200).getTotalTime(), 1E-9);
+		assertEquals(one.getFinalTime(), one.getEstimatedTime(), 0.05 * one.getFinalTime()); //same timing as the profile
+		assertEquals(true, one.getMinRadius() >= 24);
+		assertEquals(start[0].getX(), pts[0].getX(), 0);
+		assertEquals(start[5].getY(), pts[5].getY(), 0);
+		for (Point p : pts) {
+			assertEquals(true, p.getX() >= 0 && p.getX() <= Util.FIELD_HEIGHT && p.getY() >= 0 && p.getY() <= Util.FIELD_WIDTH);
+		} //loop
+		assertEquals(one.getFinalTime(), two.getFinalTime(), 0); //same search on any number of threads
+		assertEquals(true, one.isFeasible());
+		
+		//a limit no path in bounds can keep to is reported rather than returned as if it were met
+		opt.setMinRadius(1E5);
+		PathOptimizer.Result tight = opt.optimize(start, 1);
+		assertEquals(false, tight.isFeasible());
+		assertEquals(true, tight.getMinRadius() < 1E5);
+	} //end pathOptimizerTest
+	
+	@Test
+	/**
+	 * Test that the previewer shows the latest of many quick edits and skips ones that went out of date
+	 */
+	public void trajectoryPreviewerTest() throws Exception {
+		AtomicReference<TrajectoryPreviewer.Preview> shown = new AtomicReference<TrajectoryPreviewer.Preview>();
+		TrajectoryPreviewer previewer = new TrajectoryPreviewer(shown::set);
+		
+		//drag the middle control point across the field faster than paths can be built
+		Point[] pts = FieldPositioning.pointsFromDoubles(FieldPoints.curve);
+		for (int i = 0; i < 50; i++) {
+			pts[2] = new Point(100 + i, 100 + i);
+			previewer.request(pts);
+		} //loop
+		
+		//wait for the last edit to be shown
+		long deadline = System.nanoTime() + 5_000_000_000L;
+		while ((shown.get() == null || shown.get().getControlPoints()[2].getX() != 149) && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		} //loop
+		SwingUtilities.invokeAndWait(() -> {}); //let any late previews reach the event thread
+		
+		assertEquals(149, shown.get().getControlPoints()[2].getX(), 0);
+		assertEquals(new BezierProfile(pts, 30, 12 * 12, 200, 200).getTotalTime(), shown.get().getTotalTime(), 1E-9);
+		assertEquals(50, previewer.getBuilt() + previewer.getDropped());
+		assertEquals(true, previewer.getDropped() > 0); //edits were coalesced
+	} //end trajectoryPreviewerTest
+	
+	@Test
+	/**
+	 * Test that chained segments join smoothly and are built into one path with no stops at the joins
+	 */
+	public void splinePathTest() {
+		SplinePath spline = SplinePath.chain(FieldPoints.curve,
+				new double[][] {{150, 420}, {180, 460}, {200, 500}},
+				new double[][] {{240, 600}, {260, 620}, {280, 640}});
+		assertEquals(3, spline.getNumSegments());
+		assertEquals(16, spline.getControlPoints().length);
+		
+		//first and second derivatives match at every join
+		for (int s = 0; s < 2; s++) {
+			Point[] a = spline.getSegment(s).getControlPoints();
+			Point[] b = spline.getSegment(s + 1).getControlPoints();
+			assertEquals(true, a[5] == b[0]);
+			assertEquals(a[5].getX() - a[4].getX(), b[1].getX() - b[0].getX(), 1E-9);
+			assertEquals(a[5].getY() - a[4].getY(), b[1].getY() - b[0].getY(), 1E-9);
+			assertEquals(a[5].getX() - 2 * a[4].getX() + a[3].getX(), b[2].getX() - 2 * b[1].getX() + b[0].getX(), 1E-9);
+			assertEquals(a[5].getY() - 2 * a[4].getY() + a[3].getY(), b[2].getY() - 2 * b[1].getY() + b[0].getY(), 1E-9);
+		} //loop
+		
+		//even spacing across the joins, only stopping at the ends
+		PursuitPath path = new PursuitPath(spline, 30, 12, 200, 200, 2);
+		Point[] pts = path.getPoints();
+		double[] vel = path.getVelocities();
+		for (int i = 1; i < pts.length; i++) {
+			assertEquals(2, FieldPositioning.dist(pts[i-1], pts[i]), 0.1);
+		} //loop
+		for (int i = 1; i < vel.length - 1; i++) {
+			assertEquals(true, vel[i] > 0);
+		} //loop
+		
+		//same path no matter how many threads build it
+		spline.setThreads(1);
+		Point[] serial = new PursuitPath(spline, 30, 12, 200, 200, 2).getPoints();
+		spline.setThreads(3);
+		Point[] parallel = new PursuitPath(spline, 30, 12, 200, 200, 2).getPoints();
+		assertEquals(serial.length, parallel.length);
+		for (int i = 0; i < serial.length; i++) {
+			assertEquals(serial[i].getX(), parallel[i].getX(), 0);
+			assertEquals(serial[i].getY(), parallel[i].getY(), 0);
+		} //loop
+		
+		//every build with the same number of threads shares one pool, which is not shut down after each
+		assertEquals(true, Parallel.getPool(3) == Parallel.getPool(3));
+		assertEquals(false, Parallel.getPool(3).isShutdown());
+		
+		//one profile is faster than stopping between separate ones
+		double separate = 0;
+		for (int s = 0; s < 3; s++) {
+			separate += new BezierProfile(spline.getSegment(s).getControlPoints(), 30, 12 * 12, 200, 200).getTotalTime();
+		} //loop
+		BezierProfile chained = new BezierProfile(spline, 30, 12 * 12, 200, 200, BezierProfile.SIZE);
+		assertEquals(3 * BezierProfile.SIZE, chained.getSize());
+		assertEquals(true, chained.getTotalTime() < separate);
+		
+		//control points have to make whole segments
+		try {
+			new SplinePath(new Point[7]);
+			assertEquals(true, false);
+		} catch (IllegalArgumentException e) {
+			assertEquals(true, e.getMessage().contains("7"));
+		} //try-catch
+	} //end splinePathTest
+	
+	@Test
+	/**
+	 * Test that packed paths match freshly built ones, are only read when used and are not rebuilt on a warm run
+	 */
+	public void trajectoryPackTest() throws Exception {
+		File file = File.createTempFile("trajectories", ".pack");
+		file.deleteOnExit();
+		file.delete();
+		Map<String, Point[]> curves = TrajectoryPack.fieldCurves();
+		assertEquals(true, curves.containsKey("niceLongCurve") && curves.containsKey("pretzel"));
+		
+		//cold run builds the pack, nothing is read until it is asked for
+		TrajectoryPack pack = TrajectoryPack.openOrBuild(file, curves, 30, 12, 200, 200, 24);
+		assertEquals(curves.keySet(), pack.getNames());
+		assertEquals(0, pack.getLoaded());
+		
+		PursuitPath built = new PursuitPath(curves.get("niceLongCurve"), 30, 12, 200, 200, 24);
+		PursuitPath packed = pack.get("niceLongCurve");
+		assertEquals(built.getPoints().length, packed.getPoints().length);
+		for (int i = 0; i < built.getPoints().length; i++) {
+			assertEquals(built.getPoints()[i].getX(), packed.getPoints()[i].getX(), 0);
+			assertEquals(built.getPoints()[i].getY(), packed.getPoints()[i].getY(), 0);
+			assertEquals(built.getVelocities()[i], packed.getVelocities()[i], 0);
+		} //loop
+		assertEquals(true, packed == pack.get("niceLongCurve")); //read once
+		assertEquals(1, pack.getLoaded());
+		assertEquals(false, curves.containsKey("empty")); //has no length so it is not packed
+		assertEquals(null, pack.get("empty"));
+		
+		//warm run leaves the file alone
+		file.setLastModified(1000);
+		pack = TrajectoryPack.openOrBuild(file, curves, 30, 12, 200, 200, 24);
+		assertEquals(1000, file.lastModified());
+		
+		//a pack of every curve serves a single one, as on a cold start of the simulator
+		assertEquals(true, pack.matches(Collections.singletonMap("pretzel", curves.get("pretzel")), 30, 12, 200, 200, 24));
+		
+		//paths built by another version of PursuitPath are rebuilt
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		ByteBuffer.wrap(bytes).putInt(8, PursuitPath.GENERATOR + 1);
+		Files.write(file.toPath(), bytes);
+		assertEquals(false, TrajectoryPack.open(file).matches(curves, 30, 12, 200, 200, 24));
+		file.setLastModified(1000);
+		pack = TrajectoryPack.openOrBuild(file, curves, 30, 12, 200, 200, 24);
+		assertEquals(true, file.lastModified() != 1000);
+		assertEquals(true, pack.matches(curves, 30, 12, 200, 200, 24));
+		
+		//other settings or a corrupt file are rebuilt
+		pack = TrajectoryPack.openOrBuild(file, curves, 30, 10, 200, 200, 24);
+		assertEquals(true, file.lastModified() != 1000);
+		assertEquals(true, pack.matches(curves, 30, 10, 200, 200, 24));
+		
+		Files.write(file.toPath(), new byte[] {1, 2, 3});
+		try {
+			TrajectoryPack.open(file);
+			assertEquals(true, false);
+		} catch (IOException e) {
+			assertEquals(true, e.getMessage().contains("trajectory pack"));
+		} //try-catch
+		assertEquals(true, TrajectoryPack.openOrBuild(file, curves, 30, 10, 200, 200, 24).get("pretzel") != null);
+		file.delete();
+	} //end trajectoryPackTest
+
+	@Test
+	/**
+	 * Test that an archived run reads back exactly, smaller than the raw values, decoding only the chunks asked for
+	 */
+	public void runArchiveTest() throws Exception {
+		CommandList cl = new CommandList(new DriveDistance(driveLoop, 60, 1, 12), new Wait(driveLoop, 3),
+				new TurnAngle(driveLoop, 90, 1, 12, true));
+		cl.run();
+		List<Pose> poses = cl.getPoses();
+		List<HashMap<ROBOT_KEY, Object>> data = cl.getData();
+		Point[] path = FieldPositioning.pointsFromDoubles(FieldPoints.curve);
+
+		File file = File.createTempFile("run", ".asra");
+		file.deleteOnExit();
+		RunArchive.write(file, driveLoop, path, cl);
+		RunArchive archive = RunArchive.open(file);
+		assertEquals(poses.size(), archive.size());
+		assertEquals(true, archive.getNumChunks() > 1);
+		assertEquals(Double.toString(driveLoop.getDrivePID().getP()), archive.getConfig().get("drivePID").split(" ")[0]);
+		assertEquals(path[5].getY(), archive.getPath()[5].getY(), 0);
+
+		//jumping to a tick only decodes its chunk
+		int last = poses.size() - 1;
+		assertEquals(poses.get(last).getHeading(), archive.getPose(last).getHeading(), 0);
+		assertEquals(1, archive.getDecoded());
+
+		//every value is bit for bit the same
+		for (int i = 0; i < poses.size(); i++) {
+			Pose p = archive.getPose(i);
+			assertEquals(poses.get(i).getX(), p.getX(), 0);
+			assertEquals(poses.get(i).getY(), p.getY(), 0);
+			assertEquals(poses.get(i).getHeading(), p.getHeading(), 0);
+			assertEquals(poses.get(i).getColor(), p.getColor());
+
+			HashMap<ROBOT_KEY, Object> d = archive.getDataPoint(i);
+			for (ROBOT_KEY k : data.get(i).keySet()) {
+				Object v = data.get(i).get(k);
+				assertEquals(k.toString(), v, d.get(k));
+			} //loop
+		} //loop
+		assertEquals(archive.getNumChunks(), archive.getDecoded()); //each chunk decoded once, reading on through it
+
+		//compressed well below 8 bytes a value
+		long raw = 8L * poses.size() * (3 + data.get(0).size());
+		assertEquals(true, file.length() < raw / 2);
+		archive.close();
+
+		Files.write(file.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+		try {
+			RunArchive.open(file);
+			assertEquals(true, false);
+		} catch (IOException e) {
+			assertEquals(true, e.getMessage().contains("run archive"));
+		} //try-catch
+		file.delete();
+	} //end runArchiveTest
+
+	/**
+	 * Create a routine a minute long, driving and turning between long waits
+	 * @param loop Drive loop to run the routine on
+	 * @return Routine of more than ten archive chunks
+	 */
+	private static CommandList enduranceRoutine(DriveLoop loop) {
+		CommandList cl = new CommandList(new DriveDistance(loop, 60, 1, 12));
+		for (int i = 0; i < 6; i++) {
+			cl.add(new Wait(loop, 9)); //commands time out after ten seconds
+		} //loop
+		cl.add(new TurnAngle(loop, 90, 1, 12, true));
+		
+		return cl;
+	} //end enduranceRoutine
+	
+	@Test
+	/**
+	 * Test that a routine streamed to disk keeps nothing in memory and reads back the same as one kept in memory
+	 */
+	public void telemetrySpillTest() throws Exception {
+		Robot r2 = r.clone();
+		DriveLoop loop2 = new DriveLoop(r2, driveLoop.getDrivePID(), driveLoop.getTurnPID());
+		CommandList kept = enduranceRoutine(loop2);
+		kept.run();
+
+		File file = File.createTempFile("spill", ".asra");
+		file.deleteOnExit();
+		CommandList spilled = enduranceRoutine(driveLoop);
+		RunArchive.Writer writer = new RunArchive.Writer(file, driveLoop, null);
+		spilled.setSink(writer);
+		spilled.run();
+		writer.close();
+
+		//only a few chunks were ever held, however many were written
+		assertEquals(0, spilled.getPoses().size());
+		assertEquals(kept.getPoses().size(), writer.size());
+		assertEquals(true, writer.size() > 10 * RunArchive.CHUNK_TICKS);
+		assertEquals(true, writer.getBlocks() <= RunArchive.Writer.QUEUE_CHUNKS + 1);
+
+		RunArchive archive = RunArchive.open(file);
+		assertEquals(kept.getPoses().size(), archive.size());
+		for (int i = 0; i < archive.size(); i += 7) {
+			assertEquals(kept.getPoses().get(i).getX(), archive.getPose(i).getX(), 0);
+			assertEquals(kept.getPoses().get(i).getHeading(), archive.getPose(i).getHeading(), 0);
+			assertEquals(kept.getData().get(i).get(ROBOT_KEY.CURRENT_COMMAND), archive.getDataPoint(i).get(ROBOT_KEY.CURRENT_COMMAND));
+			assertEquals(kept.getData().get(i).get(ROBOT_KEY.LIN_VEL), archive.getDataPoint(i).get(ROBOT_KEY.LIN_VEL));
+		} //loop
+		archive.close();
+		file.delete();
+	} //end telemetrySpillTest
+	
+	@Test
+	/**
+	 * Test that off-heap columns hold every update across blocks, copy out in bulk and respect their lifetime and thread
+	 */
+	public void telemetryColumnsTest() throws Exception {
+		int n = 2 * TelemetryColumns.BLOCK_TICKS + 100;
+		HashMap<ROBOT_KEY, Object> data = new HashMap<ROBOT_KEY, Object>();
+		data.put(ROBOT_KEY.CURRENT_COMMAND, "Wait"); //not a number, so not a column
+		data.put(ROBOT_KEY.GOAL_POINT, null);
+		
+		TelemetryColumns cols = new TelemetryColumns(false);
+		for (int i = 0; i < n; i++) {
+			data.put(ROBOT_KEY.LIN_VEL, 0.5 * i);
+			cols.record(new Pose(i, -i, 0.1), data, 1);
+		} //loop
+		cols.record(new Pose(1, 2, 3), data, 50); //skipped updates
+		
+		assertEquals(n + 50, cols.size());
+		assertEquals(3, cols.getBlocks());
+		assertEquals(true, TelemetryColumns.NATIVE_BLOCKS < 3 && cols.getFile().exists()); //the last block went to disk
+		File spill = cols.getFile();
+		assertEquals("[x, y, heading, LIN_VEL, GOAL_POINT.x, GOAL_POINT.y]", cols.getNames().toString());
+		assertEquals(0.5 * (n - 1), cols.get(cols.getColumn(ROBOT_KEY.LIN_VEL), n - 1), 0);
+		assertEquals(true, Double.isNaN(cols.get(cols.getColumn(ROBOT_KEY.GOAL_POINT), 5)));
+		assertEquals(2, cols.get(cols.getColumn("y"), n + 49), 0);
+		
+		//bulk copy across a block boundary
+		long from = TelemetryColumns.BLOCK_TICKS - 10;
+		double[][] xy = PlotGenerator.getXYFromColumns(cols, ROBOT_KEY.LIN_VEL, from, 20);
+		for (int i = 0; i < 20; i++) {
+			assertEquals(0.5 * (from + i), xy[1][i], 0);
+			assertEquals((from + i) * Util.UPDATE_PERIOD, xy[0][i], 1e-9);
+		} //loop
+		
+		//confined columns refuse other threads, shared ones do not
+		AtomicReference<Exception> other = new AtomicReference<Exception>();
+		Thread t = new Thread(() -> {
+			try {
+				cols.get(0, 0);
+			} catch (Exception e) {
+				other.set(e);
+			} //try-catch
+		});
+		t.start();
+		t.join();
+		assertEquals(true, other.get() instanceof IllegalStateException);
+		
+		cols.close();
+		try {
+			cols.get(0, 0);
+			assertEquals(true, false);
+		} catch (IllegalStateException e) {
+			assertEquals(true, cols.isClosed());
+		} //try-catch
+		assertEquals(false, spill.exists());
+		
+		//mapped from a file, which grows a block at a time and is gone once closed
+		File file = File.createTempFile("telemetry", ".cols");
+		file.deleteOnExit();
+		TelemetryColumns mapped = new TelemetryColumns(file, true);
+		for (int i = 0; i < 1000; i++) {
+			data.put(ROBOT_KEY.LIN_VEL, 0.5 * i);
+			mapped.record(new Pose(i, -i, 0.1), data, 1);
+		} //loop
+		assertEquals(6L * TelemetryColumns.BLOCK_TICKS * Double.BYTES, file.length());
+		
+		//a reader tailing shared columns sees every update whole while they grow past a block on another thread
+		int lin = mapped.getColumn(ROBOT_KEY.LIN_VEL);
+		other.set(null);
+		Thread reader = new Thread(() -> {
+			try {
+				while (mapped.size() < TelemetryColumns.BLOCK_TICKS + 1000) {
+					long last = mapped.size() - 1;
+					if (mapped.get(lin, last) != 0.5 * last)
+						throw new Exception("update " + last + " was " + mapped.get(lin, last));
+				} //loop
+			} catch (Exception e) {
+				other.set(e);
+			} //try-catch
+		});
+		reader.start();
+		for (int i = 1000; i < TelemetryColumns.BLOCK_TICKS + 1000; i++) {
+			data.put(ROBOT_KEY.LIN_VEL, 0.5 * i);
+			mapped.record(new Pose(i, -i, 0.1), data, 1);
+		} //loop
+		reader.join();
+		assertEquals(null, other.get());
+		assertEquals(2, mapped.getBlocks());
+		
+		mapped.close();
+		assertEquals(false, file.exists());
+	} //end telemetryColumnsTest
+	
+	@Test
+	/**
+	 * Test that a reader tailing the live ring only ever sees whole updates while the publisher runs ahead of it
+	 */
+	public void livePublisherTest() throws Exception {
+		File file = File.createTempFile("live", ".ring");
+		file.deleteOnExit();
+		LivePublisher pub = new LivePublisher(file, 64, Util.UPDATE_PERIOD);
+		LivePublisher.Reader reader = new LivePublisher.Reader(file);
+		assertEquals(pub.getNames(), reader.getNames());
+		assertEquals(-1, reader.latest());
+		int vel = reader.getNames().indexOf("LIN_VEL");
+		int goalX = reader.getNames().indexOf("GOAL_POINT.x");
+		
+		//tail as fast as possible while updates are published
+		int n = 200_000;
+		AtomicReference<String> torn = new AtomicReference<String>();
+		int[] reads = new int[1];
+		Thread tail = new Thread(() -> {
+			double[] values = new double[reader.getNames().size()];
+			for (long last = -1; last < n - 1; ) {
+				long latest = reader.latest();
+				if (latest < 0 || !reader.read(latest, values))
+					continue;
+				
+				if (values[0] != latest || values[1] != 2 * latest || values[vel] != 3 * latest)
+					torn.set("update " + latest + " read as " + Arrays.toString(values));
+				last = latest;
+				reads[0]++;
+			} //loop
+		});
+		tail.start();
+		
+		HashMap<ROBOT_KEY, Object> data = new HashMap<ROBOT_KEY, Object>();
+		for (int i = 0; i < n; i++) {
+			data.put(ROBOT_KEY.LIN_VEL, 3.0 * i);
+			pub.record(new Pose(i, 2 * i, 0), data, 1);
+		} //loop
+		tail.join(10_000);
+		
+		assertEquals(null, torn.get());
+		assertEquals(true, reads[0] > 0);
+		assertEquals(n - 1, reader.latest());
+		
+		//old updates are overwritten, recent ones are whole
+		double[] values = new double[reader.getNames().size()];
+		assertEquals(false, reader.read(0, values));
+		assertEquals(true, reader.read(n - 64, values));
+		assertEquals(n - 64, values[0], 0);
+		assertEquals(true, Double.isNaN(values[goalX]));
+		pub.close();
+		reader.close();
+		
+		Files.write(file.toPath(), new byte[128]);
+		try {
+			new LivePublisher.Reader(file);
+			assertEquals(true, false);
+		} catch (IOException e) {
+			assertEquals(true, e.getMessage().contains("live telemetry"));
+		} //try-catch
+		file.delete();
+	} //end livePublisherTest
+	
+	@Test
+	/**
+	 * Test that UDP telemetry arrives in batches with its key table, and every update is either received or counted as dropped
+	 */
+	public void udpPublisherTest() throws Exception {
+		UdpPublisher.Receiver receiver = new UdpPublisher.Receiver(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		InetSocketAddress target = new InetSocketAddress(InetAddress.getLoopbackAddress(), receiver.getPort());
+		HashMap<ROBOT_KEY, Object> data = new HashMap<ROBOT_KEY, Object>();
+		int n = 50_000;
+		
+		//a small ring that the routine outruns, the newest values still get out
+		UdpPublisher pub = new UdpPublisher(target, 64, UdpPublisher.DEFAULT_DATAGRAM, UdpPublisher.OVERFLOW.DROP_OLDEST);
+		for (int i = 0; i < n; i++) {
+			data.put(ROBOT_KEY.LIN_VEL, 3.0 * i);
+			pub.record(new Pose(i, 2 * i, 0), data, 1);
+		} //loop
+		pub.close();
+		assertEquals(n, pub.getSent() + pub.getDropped());
+		
+		//wait for the last datagram to be read
+		for (int wait = 0; wait < 200 && receiver.getLastUpdate() < n - 1; wait++) {
+			Thread.sleep(10);
+		} //loop
+		assertEquals(n - 1, receiver.getLastUpdate());
+		assertEquals(true, receiver.getNames().contains("LIN_VEL"));
+		double[] latest = receiver.getLatest();
+		assertEquals(n - 1, latest[0], 0);
+		assertEquals(3.0 * (n - 1), latest[receiver.getNames().indexOf("LIN_VEL")], 0);
+		
+		//batched, with every update accounted for
+		assertEquals(true, pub.getDatagrams() < pub.getSent());
+		assertEquals(pub.getSent(), receiver.getRows()); //nothing lost on loopback
+		assertEquals(true, receiver.getMissing() <= pub.getDropped()); //drops before the first update received are not seen
+		assertEquals((double) receiver.getMissing() / (receiver.getRows() + receiver.getMissing()), receiver.getDropRate(), 0);
+		assertEquals(true, receiver.getMessagesPerSecond() > 0);
+		receiver.close();
+	} //end udpPublisherTest
+
+	@Test
+	/**
+	 * Test that the mouse controller finds the same circle as checking every one, and only changes hover when it moves on or off
+	 */
+	public void pathMouseControllerTest() {
+		int ppi = AutoSim.PPI;
+		AutoSim.PPI = 2;
+		try {
+			BezierPathCreator bpc = new BezierPathCreator(300, 600);
+			bpc.setCircles(GraphicBezierPath.circlesFromCoordinates(FieldPoints.curve));
+			PathMouseController controller = new PathMouseController(bpc);
+			Circle[] circles = bpc.getCurve().getCircles();
+			double range = 8 / 2.0; //circle radius over pixels per inch
+			
+			//grid lookup against every circle, lowest index first
+			Random rand = new Random(43);
+			for (int n = 0; n < 2000; n++) {
+				double x = rand.nextDouble() * Util.FIELD_HEIGHT;
+				double y = rand.nextDouble() * Util.FIELD_WIDTH;
+				if (n % 2 == 0) { //half of the points near a circle
+					x = circles[n % 6].getX() + rand.nextGaussian() * range;
+					y = circles[n % 6].getY() + rand.nextGaussian() * range;
+				} //if
+				
+				int expected = -1;
+				for (int i = 0; i < circles.length && expected == -1; i++) {
+					if (FieldPositioning.isWithinBounds(circles[i], new Point(x, y), range))
+						expected = i;
+				} //loop
+				assertEquals(expected, controller.circleAt(x, y));
+			} //loop
+			
+			//move onto circle 3, around inside it, then off of it
+			Circle c = circles[3];
+			controller.mouseMoved(move(bpc, c.getY() * 2, c.getX() * 2));
+			assertEquals(BUTTON_STATE.HOVER, c.getState());
+			assertEquals(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR), Environment.getInstance().getCursor());
+			
+			controller.mouseMoved(move(bpc, c.getY() * 2 + 3, c.getX() * 2 - 3));
+			assertEquals(BUTTON_STATE.HOVER, c.getState());
+			
+			controller.mouseMoved(move(bpc, c.getY() * 2 + 40, c.getX() * 2));
+			for (int i = 0; i < circles.length; i++) {
+				assertEquals(BUTTON_STATE.DEFAULT, circles[i].getState());
+			} //loop
+			assertEquals(Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR), Environment.getInstance().getCursor());
+			
+			//moving a circle moves where it is found
+			bpc.getCurve().moveCircle(0, 50, 50);
+			assertEquals(0, controller.circleAt(circles[0].getX(), circles[0].getY()));
+			
+		} finally {
+			AutoSim.PPI = ppi;
+		} //try
+	} //end pathMouseControllerTest
+	
+	/**
+	 * Create a mouse move event
+	 * @param source Component the mouse is over
+	 * @param px Screen x in pixels
+	 * @param py Screen y in pixels
+	 * @return Event for the mouse controller
+	 */
+	private MouseEvent move(Component source, double px, double py) {
+		return new MouseEvent(source, MouseEvent.MOUSE_MOVED, 0, 0, (int) px, (int) py, 0, false);
+	} //end move
+} //end class
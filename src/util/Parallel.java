@@ -0,0 +1,86 @@
+/**
+ * Parallel
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Run independent tasks on shared pools of worker threads, one pool for each number of threads asked for
+ */
+
+package util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+public class Parallel {
+	//Attributes
+	private static ConcurrentHashMap<Integer, ForkJoinPool> pools = new ConcurrentHashMap<Integer, ForkJoinPool>(); //pool for each number of threads
+
+	/**
+	 * Get the shared pool with a number of threads, creating it the first time
+	 * Pools are never shut down, their threads are daemons that end after a minute without work
+	 * @param threads Number of threads in the pool
+	 * @return Pool with that many threads
+	 */
+	public static ForkJoinPool getPool(int threads) {
+		return pools.computeIfAbsent(Math.max(1, threads), ForkJoinPool::new);
+	} //end getPool
+
+	/**
+	 * Run a task for every index from 0 up to a count, in parallel when there is more than one thread
+	 * @param count Number of indices
+	 * @param threads Number of threads to run on, 1 runs every index in order on the calling thread
+	 * @param task Work for an index, only writing to the parts of shared arrays that belong to that index
+	 */
+	public static void forEach(int count, int threads, IntConsumer task) {
+		run(IntStream.range(0, count), threads, task);
+	} //end forEach
+
+	/**
+	 * Run a task for each of a set of indices, in parallel when there is more than one thread
+	 * @param indices Indices to run the task for
+	 * @param threads Number of threads to run on, 1 runs every index in order on the calling thread
+	 * @param task Work for an index, only writing to the parts of shared arrays that belong to that index
+	 */
+	public static void forEach(int[] indices, int threads, IntConsumer task) {
+		run(IntStream.of(indices), threads, task);
+	} //end forEach
+
+	/**
+	 * Run a task for each index of a stream and wait for them all
+	 * @param indices Indices to run the task for
+	 * @param threads Number of threads to run on
+	 * @param task Work for an index
+	 */
+	private static void run(IntStream indices, int threads, IntConsumer task) {
+		if (threads <= 1) {
+			indices.forEach(task);
+			return;
+		} //if
+
+		//a task already on the pool's threads splits its work among them without waiting on itself
+		ForkJoinPool pool = getPool(threads);
+		if (ForkJoinTask.getPool() == pool) {
+			indices.parallel().forEach(task);
+			return;
+		} //if
+
+		try {
+			pool.submit(() -> indices.parallel().forEach(task)).get();
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for parallel tasks", e);
+
+		} catch (ExecutionException e) {
+			//throw what the task threw, the same as running it on the calling thread
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new RuntimeException(e.getCause());
+		} //try-catch
+	} //end run
+} //end class
@@ -0,0 +1,211 @@
+/**
+ * PerformanceTest
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * Test cases to make sure the update path stays free of allocation and within its time budget
+ */
+
+package util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import graphics.PolylineBuilder;
+import model.DriveLoop;
+import model.DriveLoop.STATE;
+import model.FieldPositioning;
+import model.Point;
+import model.Pose;
+import sim.LivePublisher;
+import sim.TelemetryColumns;
+import util.Util.ROBOT_KEY;
+
+public class PerformanceTest {
+	//Constants
+	private static final int TICKS = 100_000; //updates run in each state, after as many to warm up
+	private static final double BYTES_PER_TICK = 0; //allocation allowed per update
+	private static final double MAX_RATIO = 8; //most an update may take as a multiple of the calibration loop
+
+	/**
+	 * Run the loop that every update is timed against
+	 * Its cost tracks the speed of the machine, so the ceiling holds on slow and fast machines alike
+	 * @param n Number of iterations
+	 * @return Value depending on every iteration
+	 */
+	private static double calibrate(int n) {
+		double x = 0.5;
+		for (int i = 0; i < n; i++) {
+			x = Math.sin(x) * 0.999 + Math.sqrt(x + i);
+			x -= (long) x;
+		} //loop
+
+		return x;
+	} //end calibrate
+
+	/**
+	 * Run a loop in its current state
+	 * @param loop Loop to update
+	 * @param n Number of updates
+	 * @return Average position of the robot afterwards
+	 */
+	private static double tick(DriveLoop loop, int n) {
+		for (int i = 0; i < n; i++) {
+			loop.onLoop();
+		} //loop
+
+		return loop.getRobot().getAveragePos();
+	} //end tick
+
+	@Test
+	/**
+	 * Test that every drive loop state updates without allocating and within its time ceiling
+	 */
+	public void driveLoopStateTest() {
+		Point[] curve = FieldPositioning.pointsFromDoubles(FieldPoints.curve);
+		double sink = 0;
+
+		//nanoseconds per calibration iteration, warmed up like the states
+		sink += calibrate(TICKS);
+		long t0 = System.nanoTime();
+		sink += calibrate(TICKS);
+		double calNanos = (double) (System.nanoTime() - t0) / TICKS;
+
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("%-28s %10s %10s %8s  (calibration %.1f ns)%n", "State", "B/tick", "ns/tick",
+				"x cal", calNanos));
+		boolean passed = true;
+
+		for (STATE state : STATE.values()) {
+			DriveLoop loop = BenchmarkSuite.createLoop(BenchmarkSuite.createRobot());
+			BenchmarkSuite.setState(loop, state, curve);
+			sink += tick(loop, TICKS);
+
+			//measure a second run once the update path is compiled
+			long bytes = Benchmark.allocatedBytes();
+			long start = System.nanoTime();
+			sink += tick(loop, TICKS);
+			double nanos = (double) (System.nanoTime() - start) / TICKS;
+			double bytesPerTick = bytes < 0 ? 0 : (double) (Benchmark.allocatedBytes() - bytes) / TICKS;
+
+			boolean ok = bytesPerTick <= BYTES_PER_TICK && nanos <= MAX_RATIO * calNanos;
+			passed &= ok;
+			report.append(String.format("%-28s %10.2f %10.1f %8.1f  %s%n", state, bytesPerTick, nanos,
+					nanos / calNanos, ok ? "ok" : "FAILED"));
+		} //loop
+
+		assertTrue("Update path regressed (budget " + BYTES_PER_TICK + " B/tick, " + MAX_RATIO + "x calibration)\n"
+				+ report, passed);
+		assertEquals(false, Double.isNaN(sink));
+	} //end driveLoopStateTest
+
+	/**
+	 * Drag a control point back and forth, rebuilding the polylines each time
+	 * @param builder Builder of the polylines
+	 * @param curve Control points, the middle one is moved
+	 * @param n Number of moves
+	 * @return Sum of a point on the center polyline
+	 */
+	private static double drag(PolylineBuilder builder, Point[] curve, int n) {
+		double sum = 0;
+		for (int i = 0; i < n; i++) {
+			curve[2].setX(100 + i % 50);
+			builder.update(curve);
+			sum += builder.getCenter()[0][50];
+		} //loop
+
+		return sum;
+	} //end drag
+
+	@Test
+	/**
+	 * Test that dragging a control point rebuilds the path polylines in place without allocating
+	 */
+	public void polylineBuilderTest() {
+		PolylineBuilder builder = new PolylineBuilder(100, 15, 2);
+		Point[] curve = FieldPositioning.pointsFromDoubles(FieldPoints.curve);
+		int[][] center = builder.getCenter();
+
+		//warm up, then drag the middle point like the mouse would
+		//twice so one-time costs of compiling the drag are not measured
+		double sink = drag(builder, curve, TICKS);
+		sink += drag(builder, curve, TICKS);
+		Benchmark.allocatedBytes(); //the first reading allocates
+		long bytes = Benchmark.allocatedBytes();
+		sink += drag(builder, curve, TICKS);
+		double bytesPerDrag = bytes < 0 ? 0 : (double) (Benchmark.allocatedBytes() - bytes) / TICKS;
+
+		assertTrue("Polyline rebuild allocated " + bytesPerDrag + " B per drag", bytesPerDrag <= BYTES_PER_TICK);
+		assertTrue(center == builder.getCenter()); //same buffers every build
+
+		//nothing moved, nothing rebuilt
+		int builds = builder.getBuilds();
+		assertEquals(false, builder.update(curve));
+		assertEquals(builds, builder.getBuilds());
+
+		//sides sit half the width from the center, to the pixel
+		int[][] left = builder.getLeft();
+		int[][] right = builder.getRight();
+		for (int k = 0; k < center[0].length; k++) {
+			assertEquals(15, Math.hypot(left[0][k] - center[0][k], left[1][k] - center[1][k]), 1.5);
+			assertEquals(15, Math.hypot(right[0][k] - center[0][k], right[1][k] - center[1][k]), 1.5);
+		} //loop
+		assertEquals(false, Double.isNaN(sink));
+	} //end polylineBuilderTest
+
+	@Test
+	/**
+	 * Test that recording into off-heap columns leaves nothing on the heap but a handful of objects per block
+	 */
+	public void telemetryColumnsTest() throws Exception {
+		HashMap<ROBOT_KEY, Object> data = BenchmarkSuite.createRobot().getData();
+		Pose pose = new Pose(1, 2, 3);
+		
+		try (TelemetryColumns cols = new TelemetryColumns(false)) {
+			//warm up over a whole block, then measure over the next one
+			cols.record(pose, data, 1);
+			for (int i = 1; i < TelemetryColumns.BLOCK_TICKS; i++) {
+				cols.record(pose, data, 1);
+			} //loop
+			Benchmark.allocatedBytes(); //the first reading allocates
+			long bytes = Benchmark.allocatedBytes();
+			for (int i = 0; i < TelemetryColumns.BLOCK_TICKS; i++) {
+				cols.record(pose, data, 1);
+			} //loop
+			double bytesPerTick = bytes < 0 ? 0 : (double) (Benchmark.allocatedBytes() - bytes) / TelemetryColumns.BLOCK_TICKS;
+			
+			//the new block's buffer objects, spread over every update in it
+			assertTrue("Recording allocated " + bytesPerTick + " B per update on the heap", bytesPerTick < 0.1);
+			assertEquals(2, cols.getBlocks());
+		} //try
+	} //end telemetryColumnsTest
+	
+	@Test
+	/**
+	 * Test that publishing live telemetry writes in place without allocating
+	 */
+	public void livePublisherTest() throws Exception {
+		HashMap<ROBOT_KEY, Object> data = BenchmarkSuite.createRobot().getData();
+		Pose pose = new Pose(1, 2, 3);
+		File file = File.createTempFile("live", ".ring");
+		file.deleteOnExit();
+		
+		try (LivePublisher pub = new LivePublisher(file, 1024, Util.UPDATE_PERIOD)) {
+			//twice so one-time costs of compiling the publish are not measured
+			pub.record(pose, data, TICKS);
+			pub.record(pose, data, TICKS);
+			Benchmark.allocatedBytes(); //the first reading allocates
+			long bytes = Benchmark.allocatedBytes();
+			pub.record(pose, data, TICKS);
+			double bytesPerTick = bytes < 0 ? 0 : (double) (Benchmark.allocatedBytes() - bytes) / TICKS;
+			
+			assertTrue("Publishing allocated " + bytesPerTick + " B per update", bytesPerTick <= BYTES_PER_TICK);
+			assertEquals(3L * TICKS, pub.size());
+		} //try
+		file.delete();
+	} //end livePublisherTest
+} //end class
@@ -12,6 +12,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Scanner;
 
 import org.knowm.xchart.BitmapEncoder;
@@ -22,6 +23,7 @@ import org.knowm.xchart.XYChartBuilder;
 
 import model.motion.DriveProfile;
 import model.motion.JerkProfile;
+import sim.TelemetryColumns;
 import util.Util.ROBOT_KEY;
 
 public class PlotGenerator {
@@ -154,7 +156,7 @@ public class PlotGenerator {
 	 * @param key Key indicating what data point to get
 	 * @return Array containing the x and y arrays
 	 */
-	public static double[][] getXYFromRobotData(ArrayList<HashMap<Util.ROBOT_KEY, Object>> data, ROBOT_KEY key) {
+	public static double[][] getXYFromRobotData(List<HashMap<Util.ROBOT_KEY, Object>> data, ROBOT_KEY key) {
 		double[] x = new double[data.size()];
 		double[] y = new double[data.size()];
 		
@@ -166,6 +168,23 @@ public class PlotGenerator {
 		return new double[][] {x, y};
 	} //end getXYFromRobotData
 	
+	/**
+	 * Get the (x,y) points for a chart from telemetry columns, copied out in bulk
+	 * @param columns Telemetry of the robot
+	 * @param key Key indicating what data point to get
+	 * @param from First update to chart
+	 * @param length Number of updates to chart
+	 * @return Array containing the x and y arrays
+	 */
+	public static double[][] getXYFromColumns(TelemetryColumns columns, ROBOT_KEY key, long from, int length) {
+		double[] x = new double[length];
+		for (int i = 0; i < length; i++) {
+			x[i] = (from + i) * Util.UPDATE_PERIOD;
+		} //loop
+		
+		return new double[][] {x, columns.copy(columns.getColumn(key), from, length)};
+	} //end getXYFromColumns
+	
 	/**
 	 * Create a chart from data points in a list
 	 * @param w Width in pixels
@@ -0,0 +1,200 @@
+/**
+ * RunLengthList
+ * Author: Neil Balaskandarajah
+ * Created on: 18/10/2026
+ * List that stores repeated elements once with the number of times they repeat
+ */
+
+package util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+
+public class RunLengthList<E> extends AbstractList<E> {
+	//Attributes
+	private RunLengthList<E> prefix; //list shared as the start of this one, null if there is none
+	private int prefixSize; //number of elements used from the prefix
+	private Object[] values; //element of each run
+	private int[] ends; //index one past the last element of each run
+	private int runs; //number of runs
+	private int lastRun; //run of the last element looked up (playback reads in order)
+
+	/**
+	 * Create an empty list
+	 */
+	public RunLengthList() {
+		this(null, 0);
+	} //end constructor
+
+	/**
+	 * Create a list that starts with the first elements of another list without copying them
+	 * The other list must only be added to afterwards, as this list reads through to it
+	 * @param prefix - list to start with
+	 * @param prefixSize - number of elements of the prefix to use
+	 */
+	public RunLengthList(RunLengthList<E> prefix, int prefixSize) {
+		this.prefix = prefixSize > 0 ? prefix : null;
+		this.prefixSize = this.prefix != null ? prefixSize : 0;
+		values = new Object[16];
+		ends = new int[16];
+		runs = 0;
+		lastRun = 0;
+	} //end constructor
+
+	/**
+	 * Add an element to the end of the list
+	 * @param e - element to add
+	 * @return - true as the list always changes
+	 */
+	@Override
+	public boolean add(E e) {
+		addRun(e, 1);
+		return true;
+	} //end add
+
+	/**
+	 * Add an element repeated a number of times, joining it to the last run if it is the same object
+	 * @param e - element to add
+	 * @param count - number of times the element repeats
+	 */
+	public void addRun(E e, int count) {
+		if (count <= 0)
+			return;
+
+		//extend the last run if the element has not changed (the prefix's runs are never changed)
+		if (runs > 0 && values[runs - 1] == e) {
+			ends[runs - 1] += count;
+			modCount++;
+			return;
+		} //if
+
+		//grow the arrays if needed
+		if (runs == values.length) {
+			values = Arrays.copyOf(values, runs * 2);
+			ends = Arrays.copyOf(ends, runs * 2);
+		} //if
+
+		values[runs] = e;
+		ends[runs] = size() + count;
+		runs++;
+		modCount++;
+	} //end addRun
+
+	/**
+	 * Add all the elements of a collection, copying the runs directly if it is a run-length list
+	 * @param c - elements to add
+	 * @return - true if the list changed
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean addAll(Collection<? extends E> c) {
+		if (!(c instanceof RunLengthList))
+			return super.addAll(c);
+
+		RunLengthList<E> other = (RunLengthList<E>) c;
+		appendRuns(other, other.size());
+		return other.size() > 0;
+	} //end addAll
+
+	/**
+	 * Add the runs of the first elements of another list
+	 * @param other - list to copy the runs of
+	 * @param length - number of elements to copy
+	 */
+	private void appendRuns(RunLengthList<E> other, int length) {
+		//copy the other list's prefix first
+		if (other.prefix != null) {
+			appendRuns(other.prefix, Math.min(length, other.prefixSize));
+		} //if
+
+		for (int r = 0, start = other.prefixSize; r < other.runs && start < length; r++) {
+			int end = Math.min(length, other.ends[r]);
+			addRun(other.value(r), end - start);
+			start = other.ends[r];
+		} //loop
+	} //end appendRuns
+
+	/**
+	 * Get the element of a run
+	 * @param r - index of the run
+	 * @return - element repeated in the run
+	 */
+	@SuppressWarnings("unchecked")
+	private E value(int r) {
+		return (E) values[r];
+	} //end value
+
+	/**
+	 * Get the element at an index
+	 * @param index - index of the element
+	 * @return - element at that index
+	 */
+	@Override
+	public E get(int index) {
+		if (index < 0 || index >= size())
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+
+		//elements before the prefix size are read from the shared list
+		if (index < prefixSize)
+			return prefix.get(index);
+
+		return value(findRun(index));
+	} //end get
+
+	/**
+	 * Find the run an index is in
+	 * @param index - index of an element after the prefix
+	 * @return - index of the run
+	 */
+	private int findRun(int index) {
+		//check the last run used and the one after it first
+		int r = lastRun;
+		if (r < runs && index < ends[r] && (r == 0 || index >= ends[r - 1]))
+			return r;
+		if (r + 1 < runs && index < ends[r + 1] && index >= ends[r])
+			return lastRun = r + 1;
+
+		//binary search for the first run that ends after the index
+		int low = 0, high = runs - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (ends[mid] > index)
+				high = mid;
+			else
+				low = mid + 1;
+		} //loop
+
+		return lastRun = low;
+	} //end findRun
+
+	/**
+	 * Get the number of elements in the list
+	 * @return - number of elements, counting every repeat
+	 */
+	@Override
+	public int size() {
+		return runs == 0 ? prefixSize : ends[runs - 1];
+	} //end size
+
+	/**
+	 * Get the number of runs stored in this list, not counting the prefix
+	 * @return - number of distinct runs
+	 */
+	public int getRuns() {
+		return runs;
+	} //end getRuns
+
+	/**
+	 * Remove all elements from the list, letting go of the prefix
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(values, 0, runs, null);
+		prefix = null;
+		prefixSize = 0;
+		runs = 0;
+		lastRun = 0;
+		modCount++;
+	} //end clear
+} //end class
@@ -15,6 +15,7 @@ import java.util.Arrays;
 import java.util.TimerTask;
 
 import main.AutoSim;
+import util.Log.Level;
 
 public class Util {
 	//Robot Constants
@@ -101,9 +102,6 @@ public class Util {
 	public static final int FAILED = 0;
 	public static final int INITIALIZED = -1;
 	
-	//Output Constants
-	private static final int DEFAULT_STACK_INDEX = 3;
-	
 	//Animation Constants
 	public static final int ANIMATION_PERIOD = (int) (1000 * UPDATE_PERIOD);
 	
@@ -257,28 +255,32 @@ public class Util {
 	public static double interpolate(double y, double x1, double y1, double x2, double y2) {
 		return (y2 - y1) == 0 ? x1 : ((y - y1) * (x2 - x1)) / (y2 - y1) + x1;
 	} //end interpolate
-	
-	//Output
-	
+
 	/**
-	 * Get the information of the caller method
-	 * @param stackIndex index of element in stack
+	 * Get a percentile of a sorted array, interpolating between neighbouring values
+	 * @param sorted - values sorted from smallest to largest
+	 * @param p - percentile from 0 to 100
+	 * @return - value below which p percent of the values fall
 	 */
-	private static void printCallerInfo(int stackIndex) {
-		StackTraceElement stack = Thread.currentThread().getStackTrace()[stackIndex];
-		String methodName = stack.getMethodName();
-		String className = stack.getClassName();
-		
-		System.out.print("[" + className + "." + methodName + "()] ");
-	} //end println
+	public static double percentile(double[] sorted, double p) {
+		if (sorted.length == 0)
+			return Double.NaN;
+
+		double rank = clampNum(p / 100, 0, 1) * (sorted.length - 1);
+		int low = (int) rank;
+		int high = Math.min(low + 1, sorted.length - 1);
+
+		return sorted[low] + (rank - low) * (sorted[high] - sorted[low]);
+	} //end percentile
+
+	//Output
 	
 	/**
 	 * Print a single string to the console 
 	 * @param s Message to be printed
 	 */
 	public static void println(String s) {
-		printCallerInfo(DEFAULT_STACK_INDEX);
-		System.out.println(s);
+		Log.info(s);
 	} //end println
 	
 	/**
@@ -286,8 +288,7 @@ public class Util {
 	 * @param b Boolean to be printed
 	 */
 	public static void println(boolean b) {
-		printCallerInfo(DEFAULT_STACK_INDEX);
-		System.out.println(b);
+		Log.info(String.valueOf(b));
 	} //end println
 	
 	/**
@@ -295,12 +296,14 @@ public class Util {
 	 * @param ... s - variable number of strings to print
 	 */
 	public static void println(String ... s) {
-		printCallerInfo(DEFAULT_STACK_INDEX);
+		if (!Log.isEnabled(Level.INFO))
+			return;
 		
+		StringBuilder sb = new StringBuilder();
 		for(String str : s) {
-			System.out.print(str + " "); //print each with a space in between
+			sb.append(str).append(" "); //print each with a space in between
 		} //loop
-		System.out.println();
+		Log.info(sb.toString());
 	} //end println
 	
 	/**
@@ -308,12 +311,14 @@ public class Util {
 	 * @param ... d - variable number of doubles to print
 	 */
 	public static void println(double ... d) {
-		printCallerInfo(DEFAULT_STACK_INDEX);
+		if (!Log.isEnabled(Level.INFO))
+			return;
 		
+		StringBuilder sb = new StringBuilder();
 		for (double dbl : d) {
-			System.out.printf("%.4f ", dbl); //four decimal places
+			sb.append(String.format("%.4f ", dbl)); //four decimal places
 		} //loop
-		System.out.println();
+		Log.info(sb.toString());
 	} //end println
 	
 	/**
@@ -322,13 +327,14 @@ public class Util {
 	 * @param ... d - variable number of doubles to print
 	 */
 	public static void println(String msg, double ... d) {
-		printCallerInfo(DEFAULT_STACK_INDEX);
-		System.out.print(msg + " ");
+		if (!Log.isEnabled(Level.INFO))
+			return;
 		
+		StringBuilder sb = new StringBuilder(msg).append(" ");
 		for (double dbl : d) {
-			System.out.printf("%.4f ", dbl); //four decimal places
+			sb.append(String.format("%.4f ", dbl)); //four decimal places
 		} //loop
-		System.out.println();
+		Log.info(sb.toString());
 	} //end println
 	
 	/**
@@ -336,12 +342,14 @@ public class Util {
 	 * @param ... ints - variable number of ints to print
 	 */
 	public static void println(int ... ints) {
-		printCallerInfo(DEFAULT_STACK_INDEX);
+		if (!Log.isEnabled(Level.INFO))
+			return;
 		
+		StringBuilder sb = new StringBuilder();
 		for (int i: ints) {
-			System.out.print(i + " "); //four decimal places
+			sb.append(i).append(" ");
 		} //loop
-		System.out.println();
+		Log.info(sb.toString());
 	} //end println
 	
 	/**
@@ -350,13 +358,14 @@ public class Util {
 	 * @param ... ints variable number of doubles to print
 	 */
 	public static void println(String msg, int ... ints) {
-		printCallerInfo(DEFAULT_STACK_INDEX);
-		System.out.print(msg + " ");
-
+		if (!Log.isEnabled(Level.INFO))
+			return;
+		
+		StringBuilder sb = new StringBuilder(msg).append(" ");
 		for (int i: ints) {
-			System.out.print(i + " "); //four decimal places
+			sb.append(i).append(" ");
 		} //loop
-		System.out.println();
+		Log.info(sb.toString());
 	} //end println
 	
 	/**